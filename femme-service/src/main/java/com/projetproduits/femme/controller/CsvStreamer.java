@@ -0,0 +1,88 @@
+package com.projetproduits.femme.controller;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Writes text/csv responses (RFC 4180, header line first) row by row as the source produces them,
+ * the CSV counterpart of NdjsonStreamer.
+ */
+@Component
+public class CsvStreamer {
+
+    public static final String TEXT_CSV_VALUE = "text/csv";
+
+    private static final int FLUSH_EVERY = 500;
+
+    /**
+     * The source is called on the async request thread and must push every row to the given sink;
+     * columns maps a row to its values, in header order. Null values are written as empty fields.
+     */
+    public <T> ResponseEntity<StreamingResponseBody> stream(List<String> header, Function<T, List<?>> columns,
+                                                            Consumer<Consumer<T>> source) {
+        StreamingResponseBody body = out -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 16 * 1024);
+            writeLine(writer, header);
+            long[] rows = {0};
+            try {
+                source.accept(row -> {
+                    try {
+                        writeLine(writer, columns.apply(row));
+                        if (++rows[0] % FLUSH_EVERY == 0) {
+                            writer.flush();
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            writer.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                .body(body);
+    }
+
+    private static void writeLine(Writer writer, List<?> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            Object value = values.get(i);
+            if (value != null) {
+                writeField(writer, value.toString());
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    // Quotes a field only when it contains a separator, a quote or a line break
+    private static void writeField(Writer writer, String value) throws IOException {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
@@ -1,19 +1,26 @@
 package com.projetproduits.femme.controller;
 
 import com.projetproduits.femme.dto.ApiResponse;
+import com.projetproduits.femme.dto.BatchResult;
+import com.projetproduits.femme.dto.IngestStatsDto;
 import com.projetproduits.femme.dto.InteractionFemmeDto;
 import com.projetproduits.femme.entity.TypeInteraction;
+import com.projetproduits.femme.exception.BadRequestException;
 import com.projetproduits.femme.service.InteractionFemmeService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 @Slf4j
 @RestController
@@ -23,7 +30,17 @@ import java.util.List;
 @RequiredArgsConstructor
 public class InteractionFemmeController {
 
+    public static final String INTERACTION_COLUMNS_VALUE = "application/vnd.projetproduits.interactions+columns";
+
+    private static final String PREFER_HEADER = "Prefer";
+    private static final String RESPOND_ASYNC = "respond-async";
+
+    private static final List<String> TRAINING_CSV_HEADER =
+            List.of("id", "userId", "produitId", "typeInteraction", "timestamp");
+
     private final InteractionFemmeService interactionService;
+    private final NdjsonStreamer ndjsonStreamer;
+    private final CsvStreamer csvStreamer;
 
     @GetMapping
     public ResponseEntity<ApiResponse<List<InteractionFemmeDto>>> getAllInteractions() {
@@ -32,6 +49,13 @@ public class InteractionFemmeController {
         return ResponseEntity.ok(ApiResponse.success(interactions));
     }
 
+    // Streaming mode, selected with Accept: application/x-ndjson
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllInteractions() {
+        log.info("GET /interactions - Streaming all interactions as NDJSON");
+        return ndjsonStreamer.stream(interactionService::streamAll);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<ApiResponse<InteractionFemmeDto>> getInteractionById(@PathVariable Long id) {
         log.info("GET /interactions/{} - Fetching interaction by id", id);
@@ -46,6 +70,16 @@ public class InteractionFemmeController {
         return ResponseEntity.ok(ApiResponse.success(interactions));
     }
 
+    // Recently viewed and other activity lists: served from memory for active users
+    @GetMapping("/user/{userId}/recent")
+    public ResponseEntity<ApiResponse<List<InteractionFemmeDto>>> getRecentInteractionsByUser(
+            @PathVariable Long userId,
+            @RequestParam(required = false) Integer limit) {
+        log.info("GET /interactions/user/{}/recent?limit={} - Fetching recent interactions of user", userId, limit);
+        List<InteractionFemmeDto> interactions = interactionService.findRecentByUserId(userId, limit);
+        return ResponseEntity.ok(ApiResponse.success(interactions));
+    }
+
     @GetMapping("/produit/{produitId}")
     public ResponseEntity<ApiResponse<List<InteractionFemmeDto>>> getInteractionsByProduit(@PathVariable Long produitId) {
         log.info("GET /interactions/produit/{} - Fetching interactions by product", produitId);
@@ -87,6 +121,15 @@ public class InteractionFemmeController {
         return ResponseEntity.ok(ApiResponse.success(count));
     }
 
+    // Counts of every type for many products at once, e.g. ?produitIds=1,2,3
+    @GetMapping("/counts")
+    public ResponseEntity<ApiResponse<Map<Long, Map<TypeInteraction, Long>>>> countInteractionsByProduits(
+            @RequestParam List<Long> produitIds) {
+        log.info("GET /interactions/counts - Counting interactions of {} products", produitIds.size());
+        Map<Long, Map<TypeInteraction, Long>> counts = interactionService.countsByProduit(produitIds);
+        return ResponseEntity.ok(ApiResponse.success(counts));
+    }
+
     // Endpoint for AI/ML training data export
     @GetMapping("/training-data")
     public ResponseEntity<ApiResponse<List<InteractionFemmeDto>>> getTrainingData() {
@@ -95,8 +138,74 @@ public class InteractionFemmeController {
         return ResponseEntity.ok(ApiResponse.success("Training data retrieved successfully", data));
     }
 
+    // Incremental streaming export: only rows after the sinceId or since watermark when one is given
+    @GetMapping(value = "/training-data", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamTrainingData(
+            @RequestParam(required = false) Long sinceId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since) {
+        log.info("GET /interactions/training-data?sinceId={}&since={} - Streaming training data as NDJSON", sinceId, since);
+        checkWatermark(sinceId, since);
+        return ndjsonStreamer.<InteractionFemmeDto>stream(sink -> interactionService.streamTrainingData(sinceId, since, sink));
+    }
+
+    @GetMapping(value = "/training-data", produces = CsvStreamer.TEXT_CSV_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamTrainingDataCsv(
+            @RequestParam(required = false) Long sinceId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since) {
+        log.info("GET /interactions/training-data?sinceId={}&since={} - Streaming training data as CSV", sinceId, since);
+        checkWatermark(sinceId, since);
+        return csvStreamer.stream(TRAINING_CSV_HEADER,
+                (InteractionFemmeDto i) -> Arrays.asList(i.getId(), i.getUserId(), i.getProduitId(),
+                        i.getTypeInteraction(), i.getTimestamp()),
+                sink -> interactionService.streamTrainingData(sinceId, since, sink));
+    }
+
+    // Columnar binary export for the ML trainer, row groups optionally deflated
+    @GetMapping(value = "/training-data", produces = INTERACTION_COLUMNS_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportTrainingColumns(
+            @RequestParam(required = false) Long sinceId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since,
+            @RequestParam(defaultValue = "false") boolean deflate) {
+        log.info("GET /interactions/training-data?sinceId={}&since={}&deflate={} - Exporting training data as columns",
+                sinceId, since, deflate);
+        checkWatermark(sinceId, since);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(INTERACTION_COLUMNS_VALUE))
+                .body(out -> interactionService.exportTrainingColumns(sinceId, since, deflate, out));
+    }
+
+    // Prefer (RFC 7240) lists preferences separated by commas, each possibly with a value and parameters,
+    // e.g. "respond-async, wait=5", and may be sent several times
+    private static boolean prefersAsync(List<String> prefer) {
+        if (prefer == null) {
+            return false;
+        }
+        return prefer.stream()
+                .flatMap(header -> Arrays.stream(header.split(",")))
+                .map(preference -> preference.split("[;=]", 2)[0].trim())
+                .anyMatch(RESPOND_ASYNC::equalsIgnoreCase);
+    }
+
+    // Checked before the body starts streaming, after which the status can no longer change
+    private static void checkWatermark(Long sinceId, LocalDateTime since) {
+        if (sinceId != null && since != null) {
+            throw new BadRequestException("Use either sinceId or since, not both");
+        }
+    }
+
+    // Asynchronous mode, selected with Prefer: respond-async: 202 once queued, 503 when the ingestion buffer is full
     @PostMapping
-    public ResponseEntity<ApiResponse<InteractionFemmeDto>> createInteraction(@Valid @RequestBody InteractionFemmeDto dto) {
+    public ResponseEntity<ApiResponse<InteractionFemmeDto>> createInteraction(
+            @Valid @RequestBody InteractionFemmeDto dto,
+            @RequestHeader(value = PREFER_HEADER, required = false) List<String> prefer) {
+        if (prefersAsync(prefer)) {
+            log.debug("POST /interactions - Queueing interaction: User={}, Product={}, Type={}",
+                    dto.getUserId(), dto.getProduitId(), dto.getTypeInteraction());
+            InteractionFemmeDto accepted = interactionService.accept(dto);
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .header("Preference-Applied", RESPOND_ASYNC)
+                    .body(ApiResponse.success("Interaction accepted", accepted));
+        }
         log.info("POST /interactions - Creating new interaction: User={}, Product={}, Type={}", 
                 dto.getUserId(), dto.getProduitId(), dto.getTypeInteraction());
         InteractionFemmeDto created = interactionService.create(dto);
@@ -104,6 +213,21 @@ public class InteractionFemmeController {
                 .body(ApiResponse.success("Interaction recorded successfully", created));
     }
 
+    @GetMapping("/ingest/stats")
+    public ResponseEntity<ApiResponse<IngestStatsDto>> getIngestStats() {
+        log.info("GET /interactions/ingest/stats - Fetching asynchronous ingestion statistics");
+        return ResponseEntity.ok(ApiResponse.success(interactionService.getIngestStats()));
+    }
+
+    // Client-side batching: items are validated one by one and reported individually
+    @PostMapping("/batch")
+    public ResponseEntity<ApiResponse<BatchResult<InteractionFemmeDto>>> createInteractions(@RequestBody List<InteractionFemmeDto> dtos) {
+        log.info("POST /interactions/batch - Recording {} interactions", dtos.size());
+        BatchResult<InteractionFemmeDto> result = interactionService.createAll(dtos);
+        return ResponseEntity.ok(ApiResponse.success(
+                result.getSucceeded() + " interaction(s) recorded, " + result.getFailed() + " rejected", result));
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<ApiResponse<Void>> deleteInteraction(@PathVariable Long id) {
         log.info("DELETE /interactions/{} - Deleting interaction", id);
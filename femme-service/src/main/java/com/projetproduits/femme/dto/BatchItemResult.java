@@ -0,0 +1,28 @@
+package com.projetproduits.femme.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchItemResult<T> {
+
+    // FAILED: valid, but rejected by the database when written
+    public enum Status {
+        CREATED, UPDATED, INVALID, NOT_FOUND, FAILED
+    }
+
+    // Position of the item in the request body
+    private int index;
+    private Status status;
+    private T data;
+    private String error;
+
+    public boolean isSuccess() {
+        return status == Status.CREATED || status == Status.UPDATED;
+    }
+}
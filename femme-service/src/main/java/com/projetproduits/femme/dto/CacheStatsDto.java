@@ -0,0 +1,19 @@
+package com.projetproduits.femme.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheStatsDto {
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private double hitRate;
+    private long entries;
+}
@@ -0,0 +1,21 @@
+package com.projetproduits.femme.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OffsetPage<T> {
+
+    private List<T> items;
+    private int offset;
+    private int limit;
+    // Number of rows matching the filter, regardless of offset and limit
+    private int total;
+}
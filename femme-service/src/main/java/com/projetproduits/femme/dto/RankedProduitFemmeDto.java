@@ -0,0 +1,16 @@
+package com.projetproduits.femme.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RankedProduitFemmeDto {
+
+    private ProduitFemmeDto produit;
+    private double score;
+}
@@ -13,6 +13,7 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+// Range-partitioned on timestamp by InteractionFemmePartitionManager, whose primary key is (id, timestamp)
 @Table(name = "interactions_femme")
 public class InteractionFemme {
 
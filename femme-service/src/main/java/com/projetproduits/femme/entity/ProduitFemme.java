@@ -17,8 +17,10 @@ import java.time.LocalDateTime;
 @Table(name = "produits_femme")
 public class ProduitFemme {
 
+    // Pooled sequence rather than IDENTITY so Hibernate can batch inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "produits_femme_seq")
+    @SequenceGenerator(name = "produits_femme_seq", sequenceName = "produits_femme_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
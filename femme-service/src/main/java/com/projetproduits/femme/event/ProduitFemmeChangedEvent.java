@@ -0,0 +1,46 @@
+package com.projetproduits.femme.event;
+
+import com.projetproduits.femme.dto.ProduitFemmeDto;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Published by ProduitFemmeService after products are created, updated or deleted.
+ * In-memory views of the catalog listen to it (after commit) to stay coherent with the database.
+ */
+@Getter
+@RequiredArgsConstructor
+public class ProduitFemmeChangedEvent {
+
+    private final List<Change> changes;
+
+    public static ProduitFemmeChangedEvent created(ProduitFemmeDto produit) {
+        return new ProduitFemmeChangedEvent(List.of(new Change(null, produit)));
+    }
+
+    public static ProduitFemmeChangedEvent updated(ProduitFemmeDto before, ProduitFemmeDto after) {
+        return new ProduitFemmeChangedEvent(List.of(new Change(before, after)));
+    }
+
+    public static ProduitFemmeChangedEvent deleted(ProduitFemmeDto before) {
+        return new ProduitFemmeChangedEvent(List.of(new Change(before, null)));
+    }
+
+    /**
+     * State of one product before and after the write: before is null for a creation,
+     * after is null for a deletion.
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static class Change {
+
+        private final ProduitFemmeDto before;
+        private final ProduitFemmeDto after;
+
+        public Long getId() {
+            return after != null ? after.getId() : before.getId();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.projetproduits.femme.repository;
+
+import com.projetproduits.femme.entity.TypeInteraction;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+@RequiredArgsConstructor
+public class InteractionFemmeColumnsRepositoryImpl implements InteractionFemmeColumnsRepository {
+
+    private static final int FETCH_SIZE = 10_000;
+
+    // Type codes and epoch milliseconds are computed by the database, so every column is read as a primitive.
+    // The milliseconds are truncated, as Instant#toEpochMilli does, rather than rounded to the nearest
+    private static final String SELECT_COLUMNS = "SELECT i.id, i.user_id, i.produit_id, " + typeCodes()
+            + ", floor(EXTRACT(EPOCH FROM i.\"timestamp\") * 1000)::bigint FROM interactions_femme i ";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void forEachColumns(Long sinceId, LocalDateTime since, RowHandler handler) {
+        String sql;
+        Object watermark;
+        if (sinceId != null) {
+            sql = SELECT_COLUMNS + "WHERE i.id > ? ORDER BY i.id";
+            watermark = sinceId;
+        } else if (since != null) {
+            sql = SELECT_COLUMNS + "WHERE i.\"timestamp\" > ? ORDER BY i.\"timestamp\", i.id";
+            watermark = Timestamp.valueOf(since);
+        } else {
+            sql = SELECT_COLUMNS + "ORDER BY i.id";
+            watermark = null;
+        }
+        RowCallbackHandler rows = rs -> handler.row(rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getInt(4), rs.getLong(5));
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql);
+            statement.setFetchSize(FETCH_SIZE);
+            if (watermark != null) {
+                statement.setObject(1, watermark);
+            }
+            return statement;
+        }, rows);
+    }
+
+    private static String typeCodes() {
+        StringBuilder sql = new StringBuilder("CASE i.type_interaction");
+        for (TypeInteraction type : TypeInteraction.values()) {
+            sql.append(" WHEN '").append(type.name()).append("' THEN ").append(type.ordinal());
+        }
+        return sql.append(" END").toString();
+    }
+}
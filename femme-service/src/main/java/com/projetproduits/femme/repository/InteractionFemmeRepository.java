@@ -1,35 +1,83 @@
 package com.projetproduits.femme.repository;
 
+import com.projetproduits.femme.dto.InteractionFemmeDto;
 import com.projetproduits.femme.entity.InteractionFemme;
 import com.projetproduits.femme.entity.TypeInteraction;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface InteractionFemmeRepository extends JpaRepository<InteractionFemme, Long> {
+@Transactional(readOnly = true)
+public interface InteractionFemmeRepository extends JpaRepository<InteractionFemme, Long>,
+        InteractionFemmeColumnsRepository {
 
-    List<InteractionFemme> findByUserId(Long userId);
+    // Read paths select straight into DTOs from the foreign key columns: the lazy user/produit
+    // associations are never touched and no entity is managed
+    String SELECT_DTO = "SELECT new com.projetproduits.femme.dto.InteractionFemmeDto(" +
+            "i.id, i.userId, i.produitId, i.typeInteraction, i.timestamp) FROM InteractionFemme i ";
 
-    List<InteractionFemme> findByProduitId(Long produitId);
+    @Query(SELECT_DTO)
+    List<InteractionFemmeDto> findAllDtos();
 
-    List<InteractionFemme> findByTypeInteraction(TypeInteraction typeInteraction);
+    @Query(SELECT_DTO + "WHERE i.id = :id")
+    Optional<InteractionFemmeDto> findDtoById(@Param("id") Long id);
 
-    List<InteractionFemme> findByUserIdAndTypeInteraction(Long userId, TypeInteraction typeInteraction);
+    @Query(SELECT_DTO + "WHERE i.userId = :userId")
+    List<InteractionFemmeDto> findByUserId(@Param("userId") Long userId);
 
-    List<InteractionFemme> findByTimestampBetween(LocalDateTime start, LocalDateTime end);
+    @Query(SELECT_DTO + "WHERE i.produitId = :produitId")
+    List<InteractionFemmeDto> findByProduitId(@Param("produitId") Long produitId);
 
-    @Query("SELECT i FROM InteractionFemme i WHERE i.userId = :userId ORDER BY i.timestamp DESC")
-    List<InteractionFemme> findRecentInteractionsByUser(@Param("userId") Long userId);
+    @Query(SELECT_DTO + "WHERE i.typeInteraction = :type")
+    List<InteractionFemmeDto> findByTypeInteraction(@Param("type") TypeInteraction typeInteraction);
 
-    @Query("SELECT COUNT(i) FROM InteractionFemme i WHERE i.produitId = :produitId AND i.typeInteraction = :type")
-    Long countInteractionsByProduitAndType(@Param("produitId") Long produitId, @Param("type") TypeInteraction type);
+    @Query(SELECT_DTO + "WHERE i.userId = :userId AND i.typeInteraction = :type")
+    List<InteractionFemmeDto> findByUserIdAndTypeInteraction(@Param("userId") Long userId,
+                                                             @Param("type") TypeInteraction typeInteraction);
+
+    @Query(SELECT_DTO + "WHERE i.timestamp BETWEEN :start AND :end")
+    List<InteractionFemmeDto> findByTimestampBetween(@Param("start") LocalDateTime start,
+                                                     @Param("end") LocalDateTime end);
+
+    // Newest first; the pageable's size bounds the rows read
+    @Query(SELECT_DTO + "WHERE i.userId = :userId ORDER BY i.timestamp DESC, i.id DESC")
+    List<InteractionFemmeDto> findRecentInteractionsByUser(@Param("userId") Long userId, Pageable pageable);
+
+    // Rows of (produitId, typeInteraction, count), read once at startup by InteractionFemmeCounters
+    @Query("SELECT i.produitId, i.typeInteraction, COUNT(i) FROM InteractionFemme i GROUP BY i.produitId, i.typeInteraction")
+    List<Object[]> countAllByProduitAndType();
 
     // For AI/ML - Get all interactions for training data
-    @Query("SELECT i FROM InteractionFemme i ORDER BY i.timestamp")
-    List<InteractionFemme> findAllForTraining();
+    @Query(SELECT_DTO + "ORDER BY i.timestamp")
+    List<InteractionFemmeDto> findAllForTraining();
+
+    // Streaming variants, read through a server-side cursor: must be consumed inside a transaction
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(SELECT_DTO)
+    Stream<InteractionFemmeDto> streamAll();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(SELECT_DTO + "ORDER BY i.timestamp")
+    Stream<InteractionFemmeDto> streamAllForTraining();
+
+    // Incremental exports: rows after an id or a timestamp watermark, in watermark order
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(SELECT_DTO + "WHERE i.id > :sinceId ORDER BY i.id")
+    Stream<InteractionFemmeDto> streamForTrainingAfterId(@Param("sinceId") Long sinceId);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(SELECT_DTO + "WHERE i.timestamp > :since ORDER BY i.timestamp, i.id")
+    Stream<InteractionFemmeDto> streamForTrainingAfter(@Param("since") LocalDateTime since);
 }
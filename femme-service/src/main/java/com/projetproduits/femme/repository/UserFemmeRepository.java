@@ -1,20 +1,55 @@
 package com.projetproduits.femme.repository;
 
+import com.projetproduits.femme.dto.UserFemmeDto;
 import com.projetproduits.femme.entity.UserFemme;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
+@Transactional(readOnly = true)
 public interface UserFemmeRepository extends JpaRepository<UserFemme, Long> {
 
-    Optional<UserFemme> findByEmail(String email);
+    // Read paths select straight into DTOs: no managed entities, no dirty-checking snapshots
+    String SELECT_DTO = "SELECT new com.projetproduits.femme.dto.UserFemmeDto(u.id, u.nom, u.email, u.age) " +
+            "FROM UserFemme u ";
+
+    @Query(SELECT_DTO)
+    List<UserFemmeDto> findAllDtos();
+
+    @Query(SELECT_DTO + "WHERE u.id = :id")
+    Optional<UserFemmeDto> findDtoById(@Param("id") Long id);
+
+    @Query(SELECT_DTO + "WHERE u.email = :email")
+    Optional<UserFemmeDto> findByEmail(@Param("email") String email);
 
     boolean existsByEmail(String email);
 
-    List<UserFemme> findByNomContainingIgnoreCase(String nom);
+    @Query("SELECT u.id FROM UserFemme u WHERE u.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "10000"))
+    @Query("SELECT u.id FROM UserFemme u")
+    Stream<Long> streamAllIds();
+
+    @Query(SELECT_DTO + "WHERE LOWER(u.nom) LIKE LOWER(CONCAT('%', :#{escape(#nom)}, '%')) ESCAPE :#{escapeCharacter()}")
+    List<UserFemmeDto> findByNomContainingIgnoreCase(@Param("nom") String nom);
+
+    @Query(SELECT_DTO + "WHERE u.age BETWEEN :minAge AND :maxAge")
+    List<UserFemmeDto> findByAgeBetween(@Param("minAge") Integer minAge, @Param("maxAge") Integer maxAge);
 
-    List<UserFemme> findByAgeBetween(Integer minAge, Integer maxAge);
+    // Read through a server-side cursor: must be consumed inside a transaction
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(SELECT_DTO)
+    Stream<UserFemmeDto> streamAll();
 }
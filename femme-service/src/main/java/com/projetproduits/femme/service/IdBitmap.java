@@ -0,0 +1,101 @@
+package com.projetproduits.femme.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Stream;
+
+/**
+ * Set of database ids stored as one bit per id, which suits dense sequence-generated keys:
+ * a million ids take 128 KB. Lookups are lock-free, writers synchronize on the bitmap.
+ * Ids outside [0, MAX_ID) are never stored and always reported absent.
+ */
+final class IdBitmap {
+
+    // 8 MB of bits at most; larger ids fall back to the caller's slow path
+    static final long MAX_ID = 1L << 26;
+
+    private volatile AtomicLongArray words = new AtomicLongArray(1024);
+    // Guarded by this
+    private long removals;
+    private List<Long> removedDuringLoad;
+
+    boolean contains(long id) {
+        if (id < 0 || id >= MAX_ID) {
+            return false;
+        }
+        AtomicLongArray current = words;
+        int word = (int) (id >>> 6);
+        return word < current.length() && (current.get(word) & (1L << id)) != 0;
+    }
+
+    synchronized void add(long id) {
+        if (id < 0 || id >= MAX_ID) {
+            return;
+        }
+        int word = (int) (id >>> 6);
+        AtomicLongArray current = words;
+        if (word >= current.length()) {
+            int length = Math.max(word + 1, current.length() * 2);
+            AtomicLongArray grown = new AtomicLongArray(length);
+            for (int i = 0; i < current.length(); i++) {
+                grown.set(i, current.get(i));
+            }
+            words = grown;
+            current = grown;
+        }
+        current.set(word, current.get(word) | (1L << id));
+    }
+
+    synchronized void remove(long id) {
+        removals++;
+        if (removedDuringLoad != null) {
+            removedDuringLoad.add(id);
+        }
+        clear(id);
+    }
+
+    /**
+     * Number of removals so far; a caller that checked an id in the database only adds it
+     * if no removal happened since, so a concurrent delete cannot be undone.
+     */
+    synchronized long removals() {
+        return removals;
+    }
+
+    synchronized void addIfNoRemovalSince(long id, long removalsSeen) {
+        if (removals == removalsSeen) {
+            add(id);
+        }
+    }
+
+    /**
+     * Adds every id of the stream. Removals that happen while it runs are applied again at the end,
+     * since the stream may still return rows deleted after it was opened.
+     */
+    void load(Stream<Long> ids) {
+        synchronized (this) {
+            removedDuringLoad = new ArrayList<>();
+        }
+        try {
+            ids.forEach(this::add);
+        } finally {
+            synchronized (this) {
+                removedDuringLoad.forEach(this::clear);
+                removedDuringLoad = null;
+            }
+        }
+    }
+
+    // Caller holds the monitor
+    private void clear(long id) {
+        if (id < 0 || id >= MAX_ID) {
+            return;
+        }
+        int word = (int) (id >>> 6);
+        AtomicLongArray current = words;
+        if (word < current.length()) {
+            current.set(word, current.get(word) & ~(1L << id));
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.projetproduits.femme.service;
+
+import com.projetproduits.femme.entity.TypeInteraction;
+import com.projetproduits.femme.repository.InteractionFemmeRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Interaction counts per product and type, held in memory so reads never query interactions_femme.
+ * Each count is a LongAdder, striped across cells so concurrent ingest threads don't contend on one value.
+ * Counts are computed once at startup, before the application takes traffic, then maintained by every
+ * write path once its rows are committed. They are checkpointed to interaction_counts_femme, only for the
+ * products that changed since the last checkpoint, so other consumers can read them with plain SQL.
+ * Writes made by another instance or directly in the database are only picked up at the next startup.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class InteractionFemmeCounters {
+
+    private static final TypeInteraction[] TYPES = TypeInteraction.values();
+    private static final int CHECKPOINT_BATCH_SIZE = 1000;
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO interaction_counts_femme (produit_id, type_interaction, count, updated_at)
+            VALUES (?, ?, ?, now())
+            ON CONFLICT (produit_id, type_interaction)
+            DO UPDATE SET count = EXCLUDED.count, updated_at = EXCLUDED.updated_at
+            """;
+
+    private final InteractionFemmeRepository interactionRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Map<Long, LongAdder[]> counters = new ConcurrentHashMap<>();
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+
+    // Runs before the web server starts, so no interaction can be recorded while the counts are read
+    @PostConstruct
+    void load() {
+        long total = 0;
+        for (Object[] row : interactionRepository.countAllByProduitAndType()) {
+            long count = (Long) row[2];
+            adders((Long) row[0])[((TypeInteraction) row[1]).ordinal()].add(count);
+            total += count;
+        }
+        dirty.addAll(counters.keySet());
+        log.info("Interaction counters loaded: {} interaction(s) over {} product(s)", total, counters.size());
+    }
+
+    public long get(Long produitId, TypeInteraction type) {
+        LongAdder[] adders = counters.get(produitId);
+        return adders != null ? adders[type.ordinal()].sum() : 0;
+    }
+
+    /**
+     * Returns the count of every type for the product, zero for the types it never had.
+     */
+    public Map<TypeInteraction, Long> get(Long produitId) {
+        LongAdder[] adders = counters.get(produitId);
+        Map<TypeInteraction, Long> counts = new EnumMap<>(TypeInteraction.class);
+        for (TypeInteraction type : TYPES) {
+            counts.put(type, adders != null ? adders[type.ordinal()].sum() : 0L);
+        }
+        return counts;
+    }
+
+    public void add(Long produitId, TypeInteraction type, long delta) {
+        adders(produitId)[type.ordinal()].add(delta);
+        // Marked after the add: a checkpoint that clears the mark before reading the sum sees this delta,
+        // otherwise the product is marked again
+        dirty.add(produitId);
+    }
+
+    /**
+     * Counts one interaction once the current transaction commits.
+     */
+    public void recorded(Long produitId, TypeInteraction type) {
+        AfterCommit.run(() -> add(produitId, type, 1));
+    }
+
+    public void removed(Long produitId, TypeInteraction type) {
+        AfterCommit.run(() -> add(produitId, type, -1));
+    }
+
+    @Scheduled(fixedDelayString = "${interaction-counters.checkpoint-interval:PT1M}")
+    public synchronized void checkpoint() {
+        List<Object[]> rows = new ArrayList<>();
+        List<Long> produitIds = new ArrayList<>();
+        for (Long produitId : dirty) {
+            if (dirty.remove(produitId)) {
+                produitIds.add(produitId);
+                LongAdder[] adders = counters.get(produitId);
+                for (TypeInteraction type : TYPES) {
+                    rows.add(new Object[] {produitId, type.name(), adders[type.ordinal()].sum()});
+                }
+            }
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+        try {
+            for (int from = 0; from < rows.size(); from += CHECKPOINT_BATCH_SIZE) {
+                jdbcTemplate.batchUpdate(UPSERT_SQL, rows.subList(from, Math.min(from + CHECKPOINT_BATCH_SIZE, rows.size())));
+            }
+            log.debug("Checkpointed interaction counts of {} product(s)", produitIds.size());
+        } catch (RuntimeException e) {
+            // Retried at the next checkpoint
+            dirty.addAll(produitIds);
+            log.error("Failed to checkpoint interaction counts of {} product(s)", produitIds.size(), e);
+        }
+    }
+
+    @PreDestroy
+    void flush() {
+        checkpoint();
+    }
+
+    private LongAdder[] adders(Long produitId) {
+        return counters.computeIfAbsent(produitId, id -> {
+            LongAdder[] adders = new LongAdder[TYPES.length];
+            for (int i = 0; i < adders.length; i++) {
+                adders[i] = new LongAdder();
+            }
+            return adders;
+        });
+    }
+}
@@ -1,51 +1,89 @@
 package com.projetproduits.femme.service;
 
+import com.projetproduits.femme.dto.BatchItemResult;
+import com.projetproduits.femme.dto.BatchResult;
+import com.projetproduits.femme.dto.IngestStatsDto;
 import com.projetproduits.femme.dto.InteractionFemmeDto;
 import com.projetproduits.femme.entity.InteractionFemme;
 import com.projetproduits.femme.entity.TypeInteraction;
+import com.projetproduits.femme.exception.BadRequestException;
 import com.projetproduits.femme.exception.ResourceNotFoundException;
+import com.projetproduits.femme.exception.ServiceUnavailableException;
 import com.projetproduits.femme.repository.InteractionFemmeRepository;
-import com.projetproduits.femme.repository.ProduitFemmeRepository;
-import com.projetproduits.femme.repository.UserFemmeRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class InteractionFemmeService {
 
+    private static final int MAX_BATCH_SIZE = 10_000;
+    private static final int MAX_COUNTS_PRODUITS = 1000;
+    private static final int DEFAULT_RECENT_LIMIT = 20;
+    private static final String INSERT_SQL =
+            "INSERT INTO interactions_femme (user_id, produit_id, type_interaction, timestamp) VALUES (?, ?, ?, ?)";
+
     private final InteractionFemmeRepository interactionRepository;
-    private final UserFemmeRepository userRepository;
-    private final ProduitFemmeRepository produitRepository;
+    private final ReferenceIdFilter referenceIdFilter;
+    private final InteractionFemmeBulkWriter bulkWriter;
+    private final InteractionFemmeCounters counters;
+    private final ProduitFemmeTrendingIndex trendingIndex;
+    private final InteractionFemmeRecentCache recentCache;
+    private final JdbcTemplate jdbcTemplate;
+    private final Validator validator;
 
     public List<InteractionFemmeDto> findAll() {
-        return interactionRepository.findAll().stream()
-                .map(this::toDto)
-                .collect(Collectors.toList());
+        return interactionRepository.findAllDtos();
+    }
+
+    // Streams straight from a database cursor
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<InteractionFemmeDto> sink) {
+        try (Stream<InteractionFemmeDto> interactions = interactionRepository.streamAll()) {
+            interactions.forEach(sink);
+        }
     }
 
     public InteractionFemmeDto findById(Long id) {
-        return interactionRepository.findById(id)
-                .map(this::toDto)
+        return interactionRepository.findDtoById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("InteractionFemme", id));
     }
 
     @Transactional
     public InteractionFemmeDto create(InteractionFemmeDto dto) {
         // Validate user exists
-        if (!userRepository.existsById(dto.getUserId())) {
+        if (!referenceIdFilter.userExists(dto.getUserId())) {
             throw new ResourceNotFoundException("UserFemme", dto.getUserId());
         }
 
         // Validate product exists
-        if (!produitRepository.existsById(dto.getProduitId())) {
+        if (!referenceIdFilter.produitExists(dto.getProduitId())) {
             throw new ResourceNotFoundException("ProduitFemme", dto.getProduitId());
         }
 
@@ -57,59 +95,258 @@ public class InteractionFemmeService {
                 .build();
 
         InteractionFemme saved = interactionRepository.save(interaction);
+        InteractionFemmeDto created = toDto(saved);
+        recorded(created);
         log.info("Created InteractionFemme with id: {} - User: {}, Product: {}, Type: {}", 
                 saved.getId(), saved.getUserId(), saved.getProduitId(), saved.getTypeInteraction());
-        return toDto(saved);
+        return created;
     }
 
+    /**
+     * Records every valid interaction of the list in one transaction, inserted as a single JDBC batch.
+     * Referenced users and products are checked in ReferenceIdFilter, with one IN query each for the misses.
+     */
     @Transactional
-    public void delete(Long id) {
-        if (!interactionRepository.existsById(id)) {
-            throw new ResourceNotFoundException("InteractionFemme", id);
+    public BatchResult<InteractionFemmeDto> createAll(List<InteractionFemmeDto> dtos) {
+        if (dtos.size() > MAX_BATCH_SIZE) {
+            throw new BadRequestException("A batch accepts at most " + MAX_BATCH_SIZE + " interactions");
+        }
+        String[] errors = new String[dtos.size()];
+        Set<Long> userIds = new HashSet<>();
+        Set<Long> produitIds = new HashSet<>();
+        for (int i = 0; i < dtos.size(); i++) {
+            errors[i] = validate(dtos.get(i));
+            if (errors[i] == null) {
+                userIds.add(dtos.get(i).getUserId());
+                produitIds.add(dtos.get(i).getProduitId());
+            }
+        }
+        Set<Long> users = referenceIdFilter.existingUserIds(userIds);
+        Set<Long> produits = referenceIdFilter.existingProduitIds(produitIds);
+
+        List<BatchItemResult<InteractionFemmeDto>> results = new ArrayList<>(dtos.size());
+        List<BatchItemResult<InteractionFemmeDto>> created = new ArrayList<>();
+        for (int i = 0; i < dtos.size(); i++) {
+            InteractionFemmeDto dto = dtos.get(i);
+            if (errors[i] != null) {
+                results.add(rejected(i, BatchItemResult.Status.INVALID, errors[i]));
+            } else if (!users.contains(dto.getUserId())) {
+                results.add(rejected(i, BatchItemResult.Status.NOT_FOUND, "UserFemme not found with id: " + dto.getUserId()));
+            } else if (!produits.contains(dto.getProduitId())) {
+                results.add(rejected(i, BatchItemResult.Status.NOT_FOUND, "ProduitFemme not found with id: " + dto.getProduitId()));
+            } else {
+                BatchItemResult<InteractionFemmeDto> item = BatchItemResult.<InteractionFemmeDto>builder()
+                        .index(i)
+                        .status(BatchItemResult.Status.CREATED)
+                        .data(InteractionFemmeDto.builder()
+                                .userId(dto.getUserId())
+                                .produitId(dto.getProduitId())
+                                .typeInteraction(dto.getTypeInteraction())
+                                .timestamp(dto.getTimestamp() != null ? dto.getTimestamp() : LocalDateTime.now())
+                                .build())
+                        .build();
+                created.add(item);
+                results.add(item);
+            }
+        }
+        insertAll(created);
+        for (BatchItemResult<InteractionFemmeDto> item : created) {
+            recorded(item.getData());
+        }
+        log.info("Created {} InteractionFemme in batch, {} rejected", created.size(), dtos.size() - created.size());
+        return BatchResult.<InteractionFemmeDto>builder()
+                .succeeded(created.size())
+                .failed(dtos.size() - created.size())
+                .items(results)
+                .build();
+    }
+
+    // One executeBatch for all rows; the generated ids are read back into the items
+    private void insertAll(List<BatchItemResult<InteractionFemmeDto>> items) {
+        if (items.isEmpty()) {
+            return;
+        }
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(INSERT_SQL, new String[] {"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement statement, int i) throws SQLException {
+                        InteractionFemmeDto interaction = items.get(i).getData();
+                        statement.setLong(1, interaction.getUserId());
+                        statement.setLong(2, interaction.getProduitId());
+                        statement.setString(3, interaction.getTypeInteraction().name());
+                        statement.setTimestamp(4, Timestamp.valueOf(interaction.getTimestamp()));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return items.size();
+                    }
+                },
+                keys);
+        List<Map<String, Object>> generated = keys.getKeyList();
+        for (int i = 0; i < items.size() && i < generated.size(); i++) {
+            Object id = generated.get(i).get("id");
+            items.get(i).getData().setId(id != null ? ((Number) id).longValue() : null);
+        }
+    }
+
+    // In-memory views fed by the synchronous write paths, updated once the transaction commits
+    private void recorded(InteractionFemmeDto interaction) {
+        counters.recorded(interaction.getProduitId(), interaction.getTypeInteraction());
+        trendingIndex.recorded(interaction.getProduitId(), interaction.getTypeInteraction(), interaction.getTimestamp());
+        recentCache.recorded(interaction);
+    }
+
+    private String validate(InteractionFemmeDto dto) {
+        if (dto == null) {
+            return "Interaction is required";
+        }
+        Set<ConstraintViolation<InteractionFemmeDto>> violations = validator.validate(dto);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    private static BatchItemResult<InteractionFemmeDto> rejected(int index, BatchItemResult.Status status, String error) {
+        return BatchItemResult.<InteractionFemmeDto>builder()
+                .index(index)
+                .status(status)
+                .error(error)
+                .build();
+    }
+
+    // Asynchronous ingestion: references are checked in memory, then the event is queued and written
+    // later by InteractionFemmeBulkWriter
+    public InteractionFemmeDto accept(InteractionFemmeDto dto) {
+        if (!referenceIdFilter.userExists(dto.getUserId())) {
+            throw new ResourceNotFoundException("UserFemme", dto.getUserId());
         }
+        if (!referenceIdFilter.produitExists(dto.getProduitId())) {
+            throw new ResourceNotFoundException("ProduitFemme", dto.getProduitId());
+        }
+        InteractionFemmeDto event = InteractionFemmeDto.builder()
+                .userId(dto.getUserId())
+                .produitId(dto.getProduitId())
+                .typeInteraction(dto.getTypeInteraction())
+                .timestamp(dto.getTimestamp() != null ? dto.getTimestamp() : LocalDateTime.now())
+                .build();
+        if (!bulkWriter.offer(event)) {
+            throw new ServiceUnavailableException("Interaction buffer is full, retry later");
+        }
+        return event;
+    }
+
+    public IngestStatsDto getIngestStats() {
+        return bulkWriter.getStats();
+    }
+
+    @Transactional
+    public void delete(Long id) {
+        InteractionFemmeDto interaction = findById(id);
         interactionRepository.deleteById(id);
+        counters.removed(interaction.getProduitId(), interaction.getTypeInteraction());
+        recentCache.removed(interaction.getUserId());
         log.info("Deleted InteractionFemme with id: {}", id);
     }
 
     public List<InteractionFemmeDto> findByUserId(Long userId) {
-        return interactionRepository.findByUserId(userId).stream()
-                .map(this::toDto)
-                .collect(Collectors.toList());
+        return interactionRepository.findByUserId(userId);
+    }
+
+    /**
+     * The user's latest interactions, newest first, served from InteractionFemmeRecentCache.
+     */
+    public List<InteractionFemmeDto> findRecentByUserId(Long userId, Integer limit) {
+        int max = recentCache.getSize();
+        return recentCache.get(userId, limit != null ? Math.min(Math.max(limit, 1), max) : Math.min(DEFAULT_RECENT_LIMIT, max));
     }
 
     public List<InteractionFemmeDto> findByProduitId(Long produitId) {
-        return interactionRepository.findByProduitId(produitId).stream()
-                .map(this::toDto)
-                .collect(Collectors.toList());
+        return interactionRepository.findByProduitId(produitId);
     }
 
     public List<InteractionFemmeDto> findByType(TypeInteraction type) {
-        return interactionRepository.findByTypeInteraction(type).stream()
-                .map(this::toDto)
-                .collect(Collectors.toList());
+        return interactionRepository.findByTypeInteraction(type);
     }
 
     public List<InteractionFemmeDto> findByUserIdAndType(Long userId, TypeInteraction type) {
-        return interactionRepository.findByUserIdAndTypeInteraction(userId, type).stream()
-                .map(this::toDto)
-                .collect(Collectors.toList());
+        return interactionRepository.findByUserIdAndTypeInteraction(userId, type);
     }
 
     public List<InteractionFemmeDto> findByDateRange(LocalDateTime start, LocalDateTime end) {
-        return interactionRepository.findByTimestampBetween(start, end).stream()
-                .map(this::toDto)
-                .collect(Collectors.toList());
+        return interactionRepository.findByTimestampBetween(start, end);
     }
 
     // For AI/ML training data export
     public List<InteractionFemmeDto> getTrainingData() {
-        return interactionRepository.findAllForTraining().stream()
-                .map(this::toDto)
-                .collect(Collectors.toList());
+        return interactionRepository.findAllForTraining();
+    }
+
+    @Transactional(readOnly = true)
+    public void streamTrainingData(Consumer<InteractionFemmeDto> sink) {
+        streamTrainingData(null, null, sink);
+    }
+
+    /**
+     * Streams the interactions recorded after a watermark: after sinceId in id order, else after since in
+     * timestamp order, else all of them. A job resumes from the last id or timestamp it read;
+     * rows committed late by a concurrent writer can land behind the watermark, so jobs needing every row
+     * should restart slightly before it and de-duplicate on id.
+     */
+    @Transactional(readOnly = true)
+    public void streamTrainingData(Long sinceId, LocalDateTime since, Consumer<InteractionFemmeDto> sink) {
+        Stream<InteractionFemmeDto> source = sinceId != null ? interactionRepository.streamForTrainingAfterId(sinceId)
+                : since != null ? interactionRepository.streamForTrainingAfter(since)
+                : interactionRepository.streamAllForTraining();
+        try (Stream<InteractionFemmeDto> interactions = source) {
+            interactions.forEach(sink);
+        }
     }
 
+    /**
+     * Writes the training data in the columnar binary format of InteractionColumnarEncoder,
+     * reading primitive columns straight from the JDBC cursor. Same watermarks as streamTrainingData.
+     */
+    @Transactional(readOnly = true)
+    public void exportTrainingColumns(Long sinceId, LocalDateTime since, boolean deflate, OutputStream out) throws IOException {
+        InteractionColumnarEncoder encoder = new InteractionColumnarEncoder(out, deflate);
+        try {
+            interactionRepository.forEachColumns(sinceId, since, (id, userId, produitId, typeCode, epochMillis) -> {
+                try {
+                    encoder.add(id, userId, produitId, typeCode, epochMillis);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        encoder.finish();
+    }
+
+    // Served from the in-memory counters, without a query
     public Long countByProduitAndType(Long produitId, TypeInteraction type) {
-        return interactionRepository.countInteractionsByProduitAndType(produitId, type);
+        return counters.get(produitId, type);
+    }
+
+    /**
+     * Counts of every interaction type for each product, in the order of the ids; unknown products count zero.
+     */
+    public Map<Long, Map<TypeInteraction, Long>> countsByProduit(List<Long> produitIds) {
+        if (produitIds.size() > MAX_COUNTS_PRODUITS) {
+            throw new BadRequestException("At most " + MAX_COUNTS_PRODUITS + " products can be counted at once");
+        }
+        Map<Long, Map<TypeInteraction, Long>> counts = new LinkedHashMap<>();
+        for (Long produitId : produitIds) {
+            counts.computeIfAbsent(produitId, counters::get);
+        }
+        return counts;
     }
 
     private InteractionFemmeDto toDto(InteractionFemme interaction) {
@@ -0,0 +1,137 @@
+package com.projetproduits.femme.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.projetproduits.femme.dto.CacheStatsDto;
+import com.projetproduits.femme.dto.CatalogVersion;
+import com.projetproduits.femme.dto.ProduitFemmeDto;
+import com.projetproduits.femme.event.ProduitFemmeChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Bounded in-memory copy of the product catalog read paths.
+ * Single products are cached per id, lists per category plus one entry for the full catalog.
+ * Entries expire after the configured TTL and are kept coherent on writes through ProduitFemmeChangedEvent.
+ * Each entry can also carry a CatalogVersion used for conditional GETs: loading a version drops the data
+ * it describes, so a body served after a version is never older than that version.
+ */
+@Slf4j
+@Component
+public class ProduitFemmeCache {
+
+    private static final String ALL_KEY = "*";
+    private static final String CATEGORIE_PREFIX = "categorie:";
+    private static final String ID_PREFIX = "id:";
+
+    private final Cache<Long, ProduitFemmeDto> byId;
+    private final Cache<String, List<ProduitFemmeDto>> lists;
+    private final Cache<String, CatalogVersion> versions;
+
+    public ProduitFemmeCache(
+            @Value("${produit-cache.maximum-size:10000}") long maximumSize,
+            @Value("${produit-cache.ttl:10m}") Duration ttl) {
+        this.byId = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        // Lists are weighed by their length so the full catalog cannot blow past the bound
+        this.lists = Caffeine.newBuilder()
+                .maximumWeight(maximumSize)
+                .<String, List<ProduitFemmeDto>>weigher((key, value) -> value.size() + 1)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.versions = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    /**
+     * Returns the cached product or loads it; a loader returning null is not cached.
+     */
+    public ProduitFemmeDto get(Long id, Function<Long, ProduitFemmeDto> loader) {
+        return byId.get(id, loader);
+    }
+
+    public Map<Long, ProduitFemmeDto> getAll(Collection<Long> ids,
+                                             Function<Set<Long>, Map<Long, ProduitFemmeDto>> loader) {
+        return byId.getAll(ids, missing -> loader.apply(Set.copyOf(missing)));
+    }
+
+    public List<ProduitFemmeDto> getAll(Supplier<List<ProduitFemmeDto>> loader) {
+        return lists.get(ALL_KEY, key -> List.copyOf(loader.get()));
+    }
+
+    public List<ProduitFemmeDto> getByCategorie(String categorie, Function<String, List<ProduitFemmeDto>> loader) {
+        return lists.get(CATEGORIE_PREFIX + categorie, key -> List.copyOf(loader.apply(categorie)));
+    }
+
+    public CatalogVersion getVersion(Supplier<CatalogVersion> loader) {
+        return versions.get(ALL_KEY, key -> {
+            lists.invalidate(key);
+            return loader.get();
+        });
+    }
+
+    public CatalogVersion getVersionByCategorie(String categorie, Function<String, CatalogVersion> loader) {
+        return versions.get(CATEGORIE_PREFIX + categorie, key -> {
+            lists.invalidate(key);
+            return loader.apply(categorie);
+        });
+    }
+
+    public CatalogVersion getVersion(Long id, Function<Long, CatalogVersion> loader) {
+        return versions.get(ID_PREFIX + id, key -> {
+            byId.invalidate(id);
+            return loader.apply(id);
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProduitChanged(ProduitFemmeChangedEvent event) {
+        invalidate(ALL_KEY);
+        for (ProduitFemmeChangedEvent.Change change : event.getChanges()) {
+            if (change.getBefore() != null) {
+                invalidate(CATEGORIE_PREFIX + change.getBefore().getCategorie());
+            }
+            if (change.getAfter() != null) {
+                invalidate(CATEGORIE_PREFIX + change.getAfter().getCategorie());
+                byId.put(change.getId(), change.getAfter());
+            } else {
+                byId.invalidate(change.getId());
+            }
+            versions.invalidate(ID_PREFIX + change.getId());
+        }
+        log.debug("Product cache updated for {} change(s)", event.getChanges().size());
+    }
+
+    private void invalidate(String key) {
+        lists.invalidate(key);
+        versions.invalidate(key);
+    }
+
+    public CacheStatsDto stats() {
+        CacheStats stats = byId.stats().plus(lists.stats());
+        return CacheStatsDto.builder()
+                .hits(stats.hitCount())
+                .misses(stats.missCount())
+                .evictions(stats.evictionCount())
+                .hitRate(stats.hitRate())
+                .entries(byId.estimatedSize() + lists.estimatedSize())
+                .build();
+    }
+}
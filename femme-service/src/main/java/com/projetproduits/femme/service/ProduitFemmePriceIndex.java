@@ -0,0 +1,383 @@
+package com.projetproduits.femme.service;
+
+import com.projetproduits.femme.dto.CategorieFacetDto;
+import com.projetproduits.femme.dto.ProduitFemmeDto;
+import com.projetproduits.femme.event.ProduitFemmeChangedEvent;
+import com.projetproduits.femme.repository.ProduitFemmeRepository;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Products sorted by price, kept as primitive arrays of cents and ids, one partition per category
+ * plus one for the whole catalog. A filter is two binary searches and an array slice, without
+ * touching the database or boxing a single price.
+ * Partitions are immutable snapshots: a write merges its changes into copies of the touched ones, in linear
+ * time without sorting the catalog again, and publishes them atomically, together with the per-category
+ * facets (count, min and max price) read from their bounds, as one snapshot behind a single volatile reference.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProduitFemmePriceIndex {
+
+    private final ProduitFemmeRepository produitRepository;
+
+    // Where each product currently sits in the partitions, only touched under the monitor
+    private final Map<Long, String> categorieById = new HashMap<>();
+    private final Map<Long, Long> centsById = new HashMap<>();
+    // Changes received while a rebuild reads the table, replayed on what it read; guarded by this
+    private List<ProduitFemmeChangedEvent> pending;
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class Slice {
+        private final long[] ids;
+        private final int total;
+    }
+
+    // What a reader sees of one write: the partitions and facets are never mixed with those of another
+    private record Snapshot(Partition all, Map<String, Partition> partitions, List<CategorieFacetDto> facets) {
+
+        static final Snapshot EMPTY = new Snapshot(Partition.EMPTY, Map.of(), List.of());
+    }
+
+    static final class Partition {
+
+        static final Partition EMPTY = new Partition(new long[0], new long[0]);
+
+        final long[] cents;
+        final long[] ids;
+
+        Partition(long[] cents, long[] ids) {
+            this.cents = cents;
+            this.ids = ids;
+        }
+
+        int size() {
+            return ids.length;
+        }
+
+        // First index whose price is >= value
+        int lowerBound(long value) {
+            int lo = 0;
+            int hi = cents.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (cents[mid] < value) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+
+        // First index whose price is > value
+        int upperBound(long value) {
+            int lo = 0;
+            int hi = cents.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (cents[mid] <= value) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+
+        // Index of the (cents, id) entry, which must be present
+        int indexOf(long cent, long id) {
+            int lo = 0;
+            int hi = cents.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (compare(cents[mid], ids[mid], cent, id) < 0) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+
+        /**
+         * Copy without the entries at the removed indexes (sorted) and with the inserted ones merged in,
+         * in one pass over both sorted arrays.
+         */
+        Partition with(int[] removed, Partition inserted) {
+            int size = ids.length - removed.length + inserted.size();
+            long[] nextCents = new long[size];
+            long[] nextIds = new long[size];
+            int i = 0;
+            int j = 0;
+            int r = 0;
+            for (int n = 0; n < size; n++) {
+                while (r < removed.length && removed[r] == i) {
+                    r++;
+                    i++;
+                }
+                boolean existing = j == inserted.size()
+                        || (i < ids.length && compare(cents[i], ids[i], inserted.cents[j], inserted.ids[j]) < 0);
+                if (existing) {
+                    nextCents[n] = cents[i];
+                    nextIds[n] = ids[i++];
+                } else {
+                    nextCents[n] = inserted.cents[j];
+                    nextIds[n] = inserted.ids[j++];
+                }
+            }
+            return new Partition(nextCents, nextIds);
+        }
+
+        static int compare(long centsA, long idA, long centsB, long idB) {
+            return centsA != centsB ? Long.compare(centsA, centsB) : Long.compare(idA, idB);
+        }
+
+        static Partition of(Map<Long, Long> prices) {
+            List<Map.Entry<Long, Long>> entries = new ArrayList<>(prices.entrySet());
+            entries.sort(Map.Entry.<Long, Long>comparingByValue().thenComparing(Map.Entry.comparingByKey()));
+            long[] cents = new long[entries.size()];
+            long[] ids = new long[entries.size()];
+            for (int i = 0; i < entries.size(); i++) {
+                cents[i] = entries.get(i).getValue();
+                ids[i] = entries.get(i).getKey();
+            }
+            return new Partition(cents, ids);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        synchronized (this) {
+            pending = new ArrayList<>();
+        }
+        List<ProduitFemmeDto> produits;
+        try {
+            produits = produitRepository.findAllDtos();
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                pending = null;
+            }
+            throw e;
+        }
+        synchronized (this) {
+            categorieById.clear();
+            centsById.clear();
+            Map<String, Map<Long, Long>> pricesByCategorie = new HashMap<>();
+            for (ProduitFemmeDto produit : produits) {
+                long cents = toCents(produit.getPrix(), RoundingMode.HALF_UP);
+                categorieById.put(produit.getId(), produit.getCategorie());
+                centsById.put(produit.getId(), cents);
+                pricesByCategorie.computeIfAbsent(produit.getCategorie(), key -> new HashMap<>()).put(produit.getId(), cents);
+            }
+            Map<String, Partition> next = new HashMap<>();
+            pricesByCategorie.forEach((categorie, prices) -> next.put(categorie, Partition.of(prices)));
+            publish(Partition.of(centsById), next);
+            // A write committed after the read started may be missing from it
+            pending.forEach(this::apply);
+            pending = null;
+        }
+        Snapshot built = snapshot;
+        log.info("Price index built with {} products in {} categories", built.all().size(), built.partitions().size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onProduitChanged(ProduitFemmeChangedEvent event) {
+        if (pending != null) {
+            pending.add(event);
+        }
+        apply(event);
+    }
+
+    /**
+     * Categories sorted by name with their product count and price bounds, precomputed on every write.
+     */
+    public List<CategorieFacetDto> facets() {
+        return snapshot.facets();
+    }
+
+    /**
+     * Ids of the products in the given categories (all when empty) priced within [minPrix, maxPrix],
+     * sorted by price then id, skipping offset rows and returning at most limit.
+     */
+    public Slice filter(Collection<String> categories, BigDecimal minPrix, BigDecimal maxPrix,
+                        boolean descending, int offset, int limit) {
+        long min = minPrix != null ? toCents(minPrix, RoundingMode.CEILING) : Long.MIN_VALUE;
+        long max = maxPrix != null ? toCents(maxPrix, RoundingMode.FLOOR) : Long.MAX_VALUE;
+
+        Snapshot current = snapshot;
+        List<Partition> selected = new ArrayList<>();
+        if (categories == null || categories.isEmpty()) {
+            selected.add(current.all());
+        } else {
+            new HashSet<>(categories).forEach(categorie -> {
+                Partition partition = current.partitions().get(categorie);
+                if (partition != null) {
+                    selected.add(partition);
+                }
+            });
+        }
+        return selected.size() == 1
+                ? slice(selected.get(0), min, max, descending, offset, limit)
+                : merge(selected, min, max, descending, offset, limit);
+    }
+
+    private static Slice slice(Partition partition, long min, long max, boolean descending, int offset, int limit) {
+        int from = partition.lowerBound(min);
+        int to = partition.upperBound(max);
+        int total = Math.max(to - from, 0);
+        int count = Math.max(Math.min(limit, total - offset), 0);
+
+        long[] ids = new long[count];
+        if (count > 0) {
+            if (descending) {
+                for (int i = 0; i < count; i++) {
+                    ids[i] = partition.ids[to - 1 - offset - i];
+                }
+            } else {
+                System.arraycopy(partition.ids, from + offset, ids, 0, count);
+            }
+        }
+        return new Slice(ids, total);
+    }
+
+    // k-way merge of the matching ranges of several category partitions (k is the number of selected categories)
+    private static Slice merge(List<Partition> selected, long min, long max, boolean descending, int offset, int limit) {
+        int k = selected.size();
+        int[] cursor = new int[k];
+        int[] end = new int[k];
+        int total = 0;
+        for (int p = 0; p < k; p++) {
+            Partition partition = selected.get(p);
+            int from = partition.lowerBound(min);
+            int to = Math.max(partition.upperBound(max), from);
+            cursor[p] = descending ? to - 1 : from;
+            end[p] = descending ? from - 1 : to;
+            total += Math.max(to - from, 0);
+        }
+
+        int count = Math.max(Math.min(limit, total - offset), 0);
+        long[] ids = new long[count];
+        for (int emitted = 0, skipped = 0; emitted < count; ) {
+            int best = -1;
+            for (int p = 0; p < k; p++) {
+                if (cursor[p] == end[p]) {
+                    continue;
+                }
+                if (best < 0 || before(selected.get(p), cursor[p], selected.get(best), cursor[best], descending)) {
+                    best = p;
+                }
+            }
+            long id = selected.get(best).ids[cursor[best]];
+            cursor[best] += descending ? -1 : 1;
+            if (skipped < offset) {
+                skipped++;
+            } else {
+                ids[emitted++] = id;
+            }
+        }
+        return new Slice(ids, total);
+    }
+
+    private static boolean before(Partition a, int i, Partition b, int j, boolean descending) {
+        int cmp = a.cents[i] != b.cents[j]
+                ? Long.compare(a.cents[i], b.cents[j])
+                : Long.compare(a.ids[i], b.ids[j]);
+        return descending ? cmp > 0 : cmp < 0;
+    }
+
+    private void apply(ProduitFemmeChangedEvent event) {
+        // Last state of each product of the event
+        Map<Long, ProduitFemmeDto> latest = new LinkedHashMap<>();
+        for (ProduitFemmeChangedEvent.Change change : event.getChanges()) {
+            latest.put(change.getId(), change.getAfter());
+        }
+
+        Snapshot current = snapshot;
+        Changes global = new Changes();
+        Map<String, Changes> byCategorie = new HashMap<>();
+        latest.forEach((id, after) -> {
+            String previous = categorieById.remove(id);
+            Long previousCents = centsById.remove(id);
+            if (previous != null) {
+                global.remove(current.all(), previousCents, id);
+                byCategorie.computeIfAbsent(previous, key -> new Changes())
+                        .remove(current.partitions().get(previous), previousCents, id);
+            }
+            if (after != null) {
+                long cents = toCents(after.getPrix(), RoundingMode.HALF_UP);
+                categorieById.put(id, after.getCategorie());
+                centsById.put(id, cents);
+                global.added.put(id, cents);
+                byCategorie.computeIfAbsent(after.getCategorie(), key -> new Changes()).added.put(id, cents);
+            }
+        });
+        if (byCategorie.isEmpty()) {
+            return;
+        }
+
+        Map<String, Partition> next = new HashMap<>(current.partitions());
+        byCategorie.forEach((categorie, changes) -> {
+            Partition partition = changes.applyTo(next.getOrDefault(categorie, Partition.EMPTY));
+            if (partition.size() == 0) {
+                next.remove(categorie);
+            } else {
+                next.put(categorie, partition);
+            }
+        });
+        publish(global.applyTo(current.all()), next);
+    }
+
+    // Removals (as indexes into one partition) and additions to apply to it
+    private static final class Changes {
+
+        private final List<Integer> removed = new ArrayList<>();
+        private final Map<Long, Long> added = new HashMap<>();
+
+        void remove(Partition partition, long cents, long id) {
+            removed.add(partition.indexOf(cents, id));
+        }
+
+        Partition applyTo(Partition partition) {
+            int[] indexes = removed.stream().mapToInt(Integer::intValue).sorted().toArray();
+            return partition.with(indexes, Partition.of(added));
+        }
+    }
+
+    private void publish(Partition nextAll, Map<String, Partition> next) {
+        List<CategorieFacetDto> facets = next.entrySet().stream()
+                .map(entry -> CategorieFacetDto.builder()
+                        .categorie(entry.getKey())
+                        .count(entry.getValue().size())
+                        .minPrix(BigDecimal.valueOf(entry.getValue().cents[0], 2))
+                        .maxPrix(BigDecimal.valueOf(entry.getValue().cents[entry.getValue().size() - 1], 2))
+                        .build())
+                .sorted(Comparator.comparing(CategorieFacetDto::getCategorie))
+                .toList();
+        snapshot = new Snapshot(nextAll, Map.copyOf(next), facets);
+    }
+
+    static long toCents(BigDecimal prix, RoundingMode rounding) {
+        return prix.movePointRight(2).setScale(0, rounding).longValueExact();
+    }
+}
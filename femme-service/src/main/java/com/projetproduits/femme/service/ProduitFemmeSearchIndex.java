@@ -0,0 +1,210 @@
+package com.projetproduits.femme.service;
+
+import com.projetproduits.femme.dto.ProduitFemmeDto;
+import com.projetproduits.femme.event.ProduitFemmeChangedEvent;
+import com.projetproduits.femme.repository.ProduitFemmeRepository;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over nom, categorie and description.
+ * Text is accent-folded, lower-cased and lightly stemmed; the last query term is matched as a prefix
+ * so results can be refreshed on every keystroke. Scoring is field-weighted term frequency times IDF.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProduitFemmeSearchIndex {
+
+    private static final float NOM_WEIGHT = 3.0f;
+    private static final float CATEGORIE_WEIGHT = 2.0f;
+    private static final float DESCRIPTION_WEIGHT = 1.0f;
+    private static final float PREFIX_MATCH_FACTOR = 0.5f;
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    // Letters and digits of every script are kept, not only ASCII ones
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{Alnum}]+", Pattern.UNICODE_CHARACTER_CLASS);
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "au", "aux", "de", "des", "du", "en", "et", "la", "le", "les", "un", "une", "pour", "avec",
+            "the", "and", "for", "with", "of", "in");
+
+    private final ProduitFemmeRepository produitRepository;
+
+    // term -> (product id -> weight of the term in that product)
+    private final NavigableMap<String, Map<Long, Float>> postings = new ConcurrentSkipListMap<>();
+    // product id -> its indexed terms, so an update or delete can retract them
+    private final Map<Long, Map<String, Float>> documents = new ConcurrentHashMap<>();
+    // Changes received while a rebuild reads the table, replayed on what it read; guarded by this
+    private List<ProduitFemmeChangedEvent> pending;
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class Hit {
+        private final Long id;
+        private final double score;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        synchronized (this) {
+            pending = new ArrayList<>();
+        }
+        List<ProduitFemmeDto> produits;
+        try {
+            produits = produitRepository.findAllDtos();
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                pending = null;
+            }
+            throw e;
+        }
+        synchronized (this) {
+            postings.clear();
+            documents.clear();
+            produits.forEach(p -> add(p.getId(), p.getNom(), p.getCategorie(), p.getDescription()));
+            // A write committed after the read started may be missing from it
+            pending.forEach(this::apply);
+            pending = null;
+        }
+        log.info("Search index built with {} products and {} terms", documents.size(), postings.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onProduitChanged(ProduitFemmeChangedEvent event) {
+        if (pending != null) {
+            pending.add(event);
+        }
+        apply(event);
+    }
+
+    private void apply(ProduitFemmeChangedEvent event) {
+        for (ProduitFemmeChangedEvent.Change change : event.getChanges()) {
+            remove(change.getId());
+            ProduitFemmeDto after = change.getAfter();
+            if (after != null) {
+                add(after.getId(), after.getNom(), after.getCategorie(), after.getDescription());
+            }
+        }
+    }
+
+    /**
+     * Returns up to limit product ids matching every query term, best score first.
+     */
+    public List<Hit> search(String query, int limit) {
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+
+        double documentCount = Math.max(documents.size(), 1);
+        Map<Long, Double> scores = null;
+        for (int i = 0; i < terms.size(); i++) {
+            boolean last = i == terms.size() - 1;
+            Map<Long, Double> termScores = scoreTerm(terms.get(i), last, documentCount);
+            if (scores == null) {
+                scores = termScores;
+            } else {
+                scores.keySet().retainAll(termScores.keySet());
+                for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+                    entry.setValue(entry.getValue() + termScores.get(entry.getKey()));
+                }
+            }
+            if (scores.isEmpty()) {
+                return List.of();
+            }
+        }
+
+        List<Hit> hits = new ArrayList<>(scores.size());
+        scores.forEach((id, score) -> hits.add(new Hit(id, score)));
+        hits.sort(Comparator.comparingDouble(Hit::getScore).reversed().thenComparing(Hit::getId));
+        return hits.size() > limit ? hits.subList(0, limit) : hits;
+    }
+
+    private Map<Long, Double> scoreTerm(String term, boolean prefix, double documentCount) {
+        Map<Long, Double> scores = new HashMap<>();
+        Map<String, Map<Long, Float>> matches = prefix
+                ? postings.subMap(term, true, term + Character.MAX_VALUE, false)
+                : postings.containsKey(term) ? Map.of(term, postings.get(term)) : Map.of();
+
+        for (Map.Entry<String, Map<Long, Float>> match : matches.entrySet()) {
+            Map<Long, Float> docs = match.getValue();
+            double idf = Math.log(1.0 + documentCount / Math.max(docs.size(), 1));
+            double factor = match.getKey().equals(term) ? 1.0 : PREFIX_MATCH_FACTOR;
+            // A prefix can expand to several terms of one product: keep the best one
+            docs.forEach((id, weight) -> scores.merge(id, weight * idf * factor, Math::max));
+        }
+        return scores;
+    }
+
+    private void add(Long id, String nom, String categorie, String description) {
+        Map<String, Float> terms = new HashMap<>();
+        addField(terms, nom, NOM_WEIGHT);
+        addField(terms, categorie, CATEGORIE_WEIGHT);
+        addField(terms, description, DESCRIPTION_WEIGHT);
+
+        documents.put(id, terms);
+        terms.forEach((term, weight) ->
+                postings.computeIfAbsent(term, key -> new ConcurrentHashMap<>()).put(id, weight));
+    }
+
+    private void remove(Long id) {
+        Map<String, Float> terms = documents.remove(id);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms.keySet()) {
+            postings.computeIfPresent(term, (key, docs) -> {
+                docs.remove(id);
+                return docs.isEmpty() ? null : docs;
+            });
+        }
+    }
+
+    private static void addField(Map<String, Float> terms, String text, float weight) {
+        for (String term : tokenize(text)) {
+            terms.merge(term, weight, Float::sum);
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String folded = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        List<String> terms = new ArrayList<>();
+        for (String token : SEPARATORS.split(folded)) {
+            if (token.isEmpty() || STOP_WORDS.contains(token)) {
+                continue;
+            }
+            terms.add(stem(token));
+        }
+        return terms;
+    }
+
+    // Plural folding only ("vestes" -> "veste", "chaussures" -> "chaussure"), enough for catalog labels
+    private static String stem(String token) {
+        if (token.length() > 3 && (token.endsWith("s") || token.endsWith("x")) && !token.endsWith("ss")) {
+            return token.substring(0, token.length() - 1);
+        }
+        return token;
+    }
+}
@@ -1,35 +1,94 @@
 package com.projetproduits.femme.service;
 
+import com.projetproduits.femme.dto.BatchItemResult;
+import com.projetproduits.femme.dto.BatchResult;
+import com.projetproduits.femme.dto.CacheStatsDto;
+import com.projetproduits.femme.dto.CatalogVersion;
+import com.projetproduits.femme.dto.CategorieFacetDto;
+import com.projetproduits.femme.dto.CursorPage;
+import com.projetproduits.femme.dto.OffsetPage;
 import com.projetproduits.femme.dto.ProduitFemmeDto;
+import com.projetproduits.femme.dto.RankedProduitFemmeDto;
 import com.projetproduits.femme.entity.ProduitFemme;
+import com.projetproduits.femme.event.ProduitFemmeChangedEvent;
+import com.projetproduits.femme.exception.BadRequestException;
 import com.projetproduits.femme.exception.ResourceNotFoundException;
 import com.projetproduits.femme.repository.ProduitFemmeRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Objects;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class ProduitFemmeService {
 
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int DEFAULT_SEARCH_LIMIT = 20;
+    private static final int MAX_BATCH_SIZE = 10_000;
+
     private final ProduitFemmeRepository produitRepository;
+    private final ProduitFemmeCache produitCache;
+    private final ProduitFemmeSearchIndex searchIndex;
+    private final ProduitFemmePriceIndex priceIndex;
+    private final ProduitFemmeTrendingIndex trendingIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityManager entityManager;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+
+    // Batch endpoints flush and clear the persistence context every JDBC batch
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int jdbcBatchSize;
 
     public List<ProduitFemmeDto> findAll() {
-        return produitRepository.findAll().stream()
-                .map(this::toDto)
-                .collect(Collectors.toList());
+        return produitCache.getAll(produitRepository::findAllDtos);
+    }
+
+    /**
+     * Pushes every product to the sink straight from a database cursor, bypassing the cache.
+     */
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<ProduitFemmeDto> sink) {
+        try (Stream<ProduitFemmeDto> produits = produitRepository.streamAll()) {
+            produits.forEach(sink);
+        }
     }
 
     public ProduitFemmeDto findById(Long id) {
-        return produitRepository.findById(id)
-                .map(this::toDto)
-                .orElseThrow(() -> new ResourceNotFoundException("ProduitFemme", id));
+        ProduitFemmeDto produit = produitCache.get(id, key -> produitRepository.findDtoById(key).orElse(null));
+        if (produit == null) {
+            throw new ResourceNotFoundException("ProduitFemme", id);
+        }
+        return produit;
     }
 
     @Transactional
@@ -44,13 +103,16 @@ public class ProduitFemmeService {
 
         ProduitFemme saved = produitRepository.save(produit);
         log.info("Created ProduitFemme with id: {}", saved.getId());
-        return toDto(saved);
+        ProduitFemmeDto created = toDto(saved);
+        eventPublisher.publishEvent(ProduitFemmeChangedEvent.created(created));
+        return created;
     }
 
     @Transactional
     public ProduitFemmeDto update(Long id, ProduitFemmeDto dto) {
         ProduitFemme produit = produitRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("ProduitFemme", id));
+        ProduitFemmeDto before = toDto(produit);
 
         produit.setNom(dto.getNom());
         produit.setCategorie(dto.getCategorie());
@@ -60,22 +122,238 @@ public class ProduitFemmeService {
 
         ProduitFemme updated = produitRepository.save(produit);
         log.info("Updated ProduitFemme with id: {}", updated.getId());
-        return toDto(updated);
+        ProduitFemmeDto after = toDto(updated);
+        eventPublisher.publishEvent(ProduitFemmeChangedEvent.updated(before, after));
+        return after;
     }
 
     @Transactional
     public void delete(Long id) {
-        if (!produitRepository.existsById(id)) {
-            throw new ResourceNotFoundException("ProduitFemme", id);
-        }
-        produitRepository.deleteById(id);
+        ProduitFemme produit = produitRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("ProduitFemme", id));
+        produitRepository.delete(produit);
         log.info("Deleted ProduitFemme with id: {}", id);
+        eventPublisher.publishEvent(ProduitFemmeChangedEvent.deleted(toDto(produit)));
+    }
+
+    /**
+     * Creates every valid product of the list, inserted in JDBC batches, one transaction per batch.
+     * Invalid items are reported in the result and do not stop the others. A batch the database rejects
+     * is written again one product at a time, so only the products at fault are reported as FAILED.
+     */
+    public BatchResult<ProduitFemmeDto> createAll(List<ProduitFemmeDto> dtos) {
+        checkBatchSize(dtos);
+        BatchWriter writer = new BatchWriter(dtos, this::insertChunk);
+
+        for (int i = 0; i < dtos.size(); i++) {
+            String error = validate(dtos.get(i));
+            if (error != null) {
+                writer.reject(i, BatchItemResult.Status.INVALID, error);
+            } else {
+                writer.add(i);
+            }
+        }
+        writer.flush();
+
+        log.info("Created {} ProduitFemme in batch, {} rejected", writer.succeeded(), dtos.size() - writer.succeeded());
+        return writer.result();
+    }
+
+    /**
+     * Updates every valid product of the list (each item carries its id), one transaction per JDBC batch.
+     * Products are loaded one JDBC batch at a time and their updates flushed together; a batch the database
+     * rejects is written again one product at a time, as in createAll.
+     */
+    public BatchResult<ProduitFemmeDto> updateAll(List<ProduitFemmeDto> dtos) {
+        checkBatchSize(dtos);
+        BatchWriter writer = new BatchWriter(dtos, this::updateChunk);
+
+        for (int i = 0; i < dtos.size(); i++) {
+            ProduitFemmeDto dto = dtos.get(i);
+            String error = dto != null && dto.getId() == null ? "id: Id is required" : validate(dto);
+            if (error != null) {
+                writer.reject(i, BatchItemResult.Status.INVALID, error);
+            } else {
+                writer.add(i);
+            }
+        }
+        writer.flush();
+
+        log.info("Updated {} ProduitFemme in batch, {} rejected", writer.succeeded(), dtos.size() - writer.succeeded());
+        return writer.result();
+    }
+
+    private void insertChunk(List<ProduitFemmeDto> dtos, List<Integer> chunk,
+                             List<BatchItemResult<ProduitFemmeDto>> results,
+                             List<ProduitFemmeChangedEvent.Change> changes) {
+        for (int i : chunk) {
+            ProduitFemmeDto dto = dtos.get(i);
+            ProduitFemme produit = ProduitFemme.builder()
+                    .nom(dto.getNom())
+                    .categorie(dto.getCategorie())
+                    .prix(dto.getPrix())
+                    .description(dto.getDescription())
+                    .imageUrl(dto.getImageUrl())
+                    .build();
+            entityManager.persist(produit);
+            ProduitFemmeDto created = toDto(produit);
+            results.add(BatchItemResult.<ProduitFemmeDto>builder()
+                    .index(i)
+                    .status(BatchItemResult.Status.CREATED)
+                    .data(created)
+                    .build());
+            changes.add(new ProduitFemmeChangedEvent.Change(null, created));
+        }
+        flushAndClear();
+    }
+
+    private void updateChunk(List<ProduitFemmeDto> dtos, List<Integer> chunk,
+                             List<BatchItemResult<ProduitFemmeDto>> results,
+                             List<ProduitFemmeChangedEvent.Change> changes) {
+        Map<Long, ProduitFemme> produits = produitRepository.findAllById(
+                        chunk.stream().map(i -> dtos.get(i).getId()).collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(ProduitFemme::getId, produit -> produit));
+
+        for (int i : chunk) {
+            ProduitFemmeDto dto = dtos.get(i);
+            ProduitFemme produit = produits.get(dto.getId());
+            if (produit == null) {
+                results.add(rejected(i, BatchItemResult.Status.NOT_FOUND, "ProduitFemme not found with id: " + dto.getId()));
+                continue;
+            }
+            ProduitFemmeDto before = toDto(produit);
+            produit.setNom(dto.getNom());
+            produit.setCategorie(dto.getCategorie());
+            produit.setPrix(dto.getPrix());
+            produit.setDescription(dto.getDescription());
+            produit.setImageUrl(dto.getImageUrl());
+            ProduitFemmeDto after = toDto(produit);
+            results.add(BatchItemResult.<ProduitFemmeDto>builder()
+                    .index(i)
+                    .status(BatchItemResult.Status.UPDATED)
+                    .data(after)
+                    .build());
+            changes.add(new ProduitFemmeChangedEvent.Change(before, after));
+        }
+        flushAndClear();
+    }
+
+    /**
+     * Writes the items of a list of products one JDBC batch at a time.
+     */
+    @FunctionalInterface
+    private interface ChunkWriter {
+
+        // Runs in the transaction of the chunk, adding the result of every item and the change of the written ones
+        void write(List<ProduitFemmeDto> dtos, List<Integer> chunk,
+                   List<BatchItemResult<ProduitFemmeDto>> results,
+                   List<ProduitFemmeChangedEvent.Change> changes);
+    }
+
+    /**
+     * Collects the valid items of a batch request into chunks of hibernate.jdbc.batch_size, writes each chunk in
+     * its own transaction and gathers the results. The results and changes of a chunk are kept only once it commits;
+     * a chunk that fails is split into single items, and an item that fails alone is reported as FAILED.
+     */
+    private class BatchWriter {
+
+        private final List<ProduitFemmeDto> dtos;
+        private final ChunkWriter chunkWriter;
+        private final List<BatchItemResult<ProduitFemmeDto>> results;
+        private final List<Integer> chunk = new ArrayList<>(jdbcBatchSize);
+        private int succeeded;
+
+        BatchWriter(List<ProduitFemmeDto> dtos, ChunkWriter chunkWriter) {
+            this.dtos = dtos;
+            this.chunkWriter = chunkWriter;
+            this.results = new ArrayList<>(dtos.size());
+        }
+
+        void reject(int index, BatchItemResult.Status status, String error) {
+            results.add(rejected(index, status, error));
+        }
+
+        void add(int index) {
+            chunk.add(index);
+            if (chunk.size() == jdbcBatchSize) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (!chunk.isEmpty()) {
+                write(List.copyOf(chunk));
+                chunk.clear();
+            }
+        }
+
+        int succeeded() {
+            return succeeded;
+        }
+
+        BatchResult<ProduitFemmeDto> result() {
+            results.sort(Comparator.comparingInt(BatchItemResult::getIndex));
+            return BatchResult.<ProduitFemmeDto>builder()
+                    .succeeded(succeeded)
+                    .failed(results.size() - succeeded)
+                    .items(results)
+                    .build();
+        }
+
+        private void write(List<Integer> items) {
+            List<BatchItemResult<ProduitFemmeDto>> written = new ArrayList<>(items.size());
+            List<ProduitFemmeChangedEvent.Change> changes = new ArrayList<>(items.size());
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    chunkWriter.write(dtos, items, written, changes);
+                    // Delivered to the listeners once the chunk commits
+                    if (!changes.isEmpty()) {
+                        eventPublisher.publishEvent(new ProduitFemmeChangedEvent(changes));
+                    }
+                });
+            } catch (PersistenceException | DataAccessException | TransactionException e) {
+                if (items.size() == 1) {
+                    String error = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+                    log.warn("ProduitFemme at index {} of the batch was rejected by the database: {}", items.get(0), error);
+                    reject(items.get(0), BatchItemResult.Status.FAILED, "Rejected by the database: " + error);
+                } else {
+                    log.warn("Batch of {} ProduitFemme failed, writing them one by one: {}", items.size(), e.getMessage());
+                    items.forEach(item -> write(List.of(item)));
+                }
+                return;
+            }
+            results.addAll(written);
+            succeeded += changes.size();
+        }
     }
 
     public List<ProduitFemmeDto> findByCategorie(String categorie) {
-        return produitRepository.findByCategorie(categorie).stream()
-                .map(this::toDto)
-                .collect(Collectors.toList());
+        return produitCache.getByCategorie(categorie, produitRepository::findByCategorie);
+    }
+
+    // Fingerprints backing ETag / Last-Modified, answered from the cache or by an aggregate query
+    public CatalogVersion getCatalogVersion() {
+        return produitCache.getVersion(produitRepository::findCatalogVersion);
+    }
+
+    public CatalogVersion getCatalogVersionByCategorie(String categorie) {
+        return produitCache.getVersionByCategorie(categorie, produitRepository::findCatalogVersionByCategorie);
+    }
+
+    public CatalogVersion getVersion(Long id) {
+        CatalogVersion version = produitCache.getVersion(id, produitRepository::findVersionById);
+        if (version.isEmpty()) {
+            throw new ResourceNotFoundException("ProduitFemme", id);
+        }
+        return version;
+    }
+
+    public List<CategorieFacetDto> getFacets() {
+        return priceIndex.facets();
+    }
+
+    public CacheStatsDto getCacheStats() {
+        return produitCache.stats();
     }
 
     public List<ProduitFemmeDto> searchByNom(String nom) {
@@ -84,12 +362,212 @@ public class ProduitFemmeService {
                 .collect(Collectors.toList());
     }
 
+    public List<RankedProduitFemmeDto> search(String query, Integer limit) {
+        return rank(query, limit != null ? Math.min(Math.max(limit, 1), MAX_PAGE_SIZE) : DEFAULT_SEARCH_LIMIT);
+    }
+
+    /**
+     * Products with the most weighted interactions over the window (e.g. "1h", "30m"), best first.
+     */
+    public List<RankedProduitFemmeDto> trending(String window, Integer k) {
+        Duration duration;
+        try {
+            duration = DurationStyle.detectAndParse(window);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid window: " + window + " (expected e.g. 1h or 30m)");
+        }
+        if (duration.isNegative() || duration.isZero() || duration.compareTo(trendingIndex.getMaxWindow()) > 0) {
+            throw new BadRequestException("Window must be positive and at most " + trendingIndex.getMaxWindow());
+        }
+        List<ProduitFemmeTrendingIndex.Hit> hits =
+                trendingIndex.top(duration, k != null ? Math.min(Math.max(k, 1), MAX_PAGE_SIZE) : DEFAULT_SEARCH_LIMIT);
+        Map<Long, ProduitFemmeDto> produits = findAllByIds(hits.stream().map(ProduitFemmeTrendingIndex.Hit::getId).toList());
+        return hits.stream()
+                .filter(hit -> produits.containsKey(hit.getId()))
+                .map(hit -> RankedProduitFemmeDto.builder()
+                        .produit(produits.get(hit.getId()))
+                        .score(hit.getScore())
+                        .build())
+                .collect(Collectors.toList());
+    }
+
     public List<ProduitFemmeDto> findByPriceRange(BigDecimal minPrix, BigDecimal maxPrix) {
-        return produitRepository.findByPrixBetween(minPrix, maxPrix).stream()
-                .map(this::toDto)
+        ProduitFemmePriceIndex.Slice slice = priceIndex.filter(List.of(), minPrix, maxPrix, false, 0, Integer.MAX_VALUE);
+        return resolveInOrder(slice.getIds());
+    }
+
+    public OffsetPage<ProduitFemmeDto> filter(List<String> categories, BigDecimal minPrix, BigDecimal maxPrix,
+                                              String sort, Integer offset, Integer limit) {
+        if (minPrix != null && maxPrix != null && minPrix.compareTo(maxPrix) > 0) {
+            throw new BadRequestException("minPrix must not be greater than maxPrix");
+        }
+        boolean descending;
+        if (sort == null || sort.isBlank() || "prix_asc".equalsIgnoreCase(sort)) {
+            descending = false;
+        } else if ("prix_desc".equalsIgnoreCase(sort)) {
+            descending = true;
+        } else {
+            throw new BadRequestException("Unsupported sort: " + sort + " (expected prix_asc or prix_desc)");
+        }
+        int start = offset != null ? offset : 0;
+        if (start < 0) {
+            throw new BadRequestException("Offset must not be negative");
+        }
+        int max = pageSize(limit);
+
+        ProduitFemmePriceIndex.Slice slice = priceIndex.filter(categories, minPrix, maxPrix, descending, start, max);
+        return OffsetPage.<ProduitFemmeDto>builder()
+                .items(resolveInOrder(slice.getIds()))
+                .offset(start)
+                .limit(max)
+                .total(slice.getTotal())
+                .build();
+    }
+
+    public CursorPage<ProduitFemmeDto> findPage(String cursor, Integer size, String sort) {
+        ProduitCursor.Sort order = ProduitCursor.Sort.from(sort);
+        ProduitCursor position = ProduitCursor.decode(cursor, order);
+        int limit = pageSize(size);
+        Pageable pageable = PageRequest.of(0, limit + 1);
+
+        List<ProduitFemmeDto> rows;
+        if (order == ProduitCursor.Sort.PRIX) {
+            rows = position.isStart()
+                    ? produitRepository.findFirstPageOrderByCategorieAndPrix(pageable)
+                    : produitRepository.findPageOrderByCategorieAndPrixAfter(
+                            position.getCategorie(), position.getPrix(), position.getId(), pageable);
+        } else {
+            rows = produitRepository.findPageAfterId(position.getId(), pageable);
+        }
+        return toPage(rows, limit, order);
+    }
+
+    public CursorPage<ProduitFemmeDto> findPageByCategorie(String categorie, String cursor, Integer size, String sort) {
+        ProduitCursor.Sort order = ProduitCursor.Sort.from(sort);
+        ProduitCursor position = ProduitCursor.decode(cursor, order);
+        int limit = pageSize(size);
+        Pageable pageable = PageRequest.of(0, limit + 1);
+
+        List<ProduitFemmeDto> rows;
+        if (order == ProduitCursor.Sort.PRIX) {
+            rows = position.isStart()
+                    ? produitRepository.findFirstPageByCategorieOrderByPrix(categorie, pageable)
+                    : produitRepository.findPageByCategorieOrderByPrixAfter(
+                            categorie, position.getPrix(), position.getId(), pageable);
+        } else {
+            rows = produitRepository.findPageByCategorieAfterId(categorie, position.getId(), pageable);
+        }
+        return toPage(rows, limit, order);
+    }
+
+    public CursorPage<ProduitFemmeDto> searchPageByNom(String nom, String cursor, Integer size) {
+        ProduitCursor position = ProduitCursor.decode(cursor, ProduitCursor.Sort.ID);
+        int limit = pageSize(size);
+        List<ProduitFemmeDto> rows = produitRepository.findPageByNomAfterId(
+                nom, position.getId(), PageRequest.of(0, limit + 1));
+        return toPage(rows, limit, ProduitCursor.Sort.ID);
+    }
+
+    public CursorPage<ProduitFemmeDto> findPageByPriceRange(BigDecimal minPrix, BigDecimal maxPrix, String cursor, Integer size) {
+        ProduitCursor position = ProduitCursor.decode(cursor, ProduitCursor.Sort.ID);
+        int limit = pageSize(size);
+        List<ProduitFemmeDto> rows = produitRepository.findPageByPrixBetweenAfterId(
+                minPrix, maxPrix, position.getId(), PageRequest.of(0, limit + 1));
+        return toPage(rows, limit, ProduitCursor.Sort.ID);
+    }
+
+    private List<RankedProduitFemmeDto> rank(String query, int limit) {
+        List<ProduitFemmeSearchIndex.Hit> hits = searchIndex.search(query, limit);
+        Map<Long, ProduitFemmeDto> produits = findAllByIds(hits.stream().map(ProduitFemmeSearchIndex.Hit::getId).toList());
+        return hits.stream()
+                .filter(hit -> produits.containsKey(hit.getId()))
+                .map(hit -> RankedProduitFemmeDto.builder()
+                        .produit(produits.get(hit.getId()))
+                        .score(hit.getScore())
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    private List<ProduitFemmeDto> resolveInOrder(long[] ids) {
+        List<Long> keys = Arrays.stream(ids).boxed().toList();
+        Map<Long, ProduitFemmeDto> produits = findAllByIds(keys);
+        return keys.stream()
+                .map(produits::get)
+                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
     }
 
+    // Resolves ids through the product cache, loading the misses with a single IN query
+    private Map<Long, ProduitFemmeDto> findAllByIds(List<Long> ids) {
+        return produitCache.getAll(ids, missing -> produitRepository.findDtosByIdIn(missing).stream()
+                .collect(Collectors.toMap(ProduitFemmeDto::getId, produit -> produit)));
+    }
+
+    private void checkBatchSize(List<ProduitFemmeDto> dtos) {
+        if (dtos.size() > MAX_BATCH_SIZE) {
+            throw new BadRequestException("A batch accepts at most " + MAX_BATCH_SIZE + " products");
+        }
+    }
+
+    private String validate(ProduitFemmeDto dto) {
+        if (dto == null) {
+            return "Product is required";
+        }
+        Set<ConstraintViolation<ProduitFemmeDto>> violations = validator.validate(dto);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    private static BatchItemResult<ProduitFemmeDto> rejected(int index, BatchItemResult.Status status, String error) {
+        return BatchItemResult.<ProduitFemmeDto>builder()
+                .index(index)
+                .status(status)
+                .error(error)
+                .build();
+    }
+
+    // Sends the pending JDBC batch and detaches the written entities so the persistence context stays small
+    private void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private int pageSize(Integer size) {
+        if (size == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        if (size < 1) {
+            throw new BadRequestException("Page size must be at least 1");
+        }
+        return Math.min(size, MAX_PAGE_SIZE);
+    }
+
+    // Rows are fetched with one extra element so we know whether another page exists
+    private CursorPage<ProduitFemmeDto> toPage(List<ProduitFemmeDto> rows, int limit, ProduitCursor.Sort sort) {
+        boolean hasMore = rows.size() > limit;
+        List<ProduitFemmeDto> page = hasMore ? rows.subList(0, limit) : rows;
+
+        String nextCursor = null;
+        if (hasMore) {
+            ProduitFemmeDto last = page.get(page.size() - 1);
+            nextCursor = sort == ProduitCursor.Sort.PRIX
+                    ? new ProduitCursor(sort, last.getCategorie(), last.getPrix(), last.getId()).encode()
+                    : new ProduitCursor(sort, null, null, last.getId()).encode();
+        }
+
+        return CursorPage.<ProduitFemmeDto>builder()
+                .items(List.copyOf(page))
+                .size(page.size())
+                .hasMore(hasMore)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
     private ProduitFemmeDto toDto(ProduitFemme produit) {
         return ProduitFemmeDto.builder()
                 .id(produit.getId())
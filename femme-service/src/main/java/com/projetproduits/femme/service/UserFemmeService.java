@@ -1,40 +1,78 @@
 package com.projetproduits.femme.service;
 
+import com.projetproduits.femme.dto.BatchItemResult;
+import com.projetproduits.femme.dto.BatchResult;
 import com.projetproduits.femme.dto.UserFemmeDto;
 import com.projetproduits.femme.entity.UserFemme;
+import com.projetproduits.femme.exception.BadRequestException;
 import com.projetproduits.femme.exception.DuplicateResourceException;
 import com.projetproduits.femme.exception.ResourceNotFoundException;
 import com.projetproduits.femme.repository.UserFemmeRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class UserFemmeService {
 
+    private static final int MAX_BATCH_SIZE = 10_000;
+    private static final int UPSERT_CHUNK_SIZE = 1000;
+
+    // One round trip per chunk: rows are passed as arrays and unnested server side. Existing users, matched
+    // by email, get the new nom; they keep their age, which only the user changes through PUT /users/{id}.
+    // xmax is 0 only for the rows this statement inserted.
+    private static final String UPSERT_SQL = """
+            INSERT INTO users_femme (nom, email, age, created_at, updated_at)
+            SELECT v.nom, v.email, v.age, ?, ?
+            FROM unnest(?::varchar[], ?::varchar[], ?::integer[]) AS v(nom, email, age)
+            ON CONFLICT (email) DO UPDATE SET nom = EXCLUDED.nom, updated_at = EXCLUDED.updated_at
+            RETURNING id, email, age, xmax = 0
+            """;
+
     private final UserFemmeRepository userRepository;
+    private final ReferenceIdFilter referenceIdFilter;
+    private final JdbcTemplate jdbcTemplate;
+    private final Validator validator;
 
     public List<UserFemmeDto> findAll() {
-        return userRepository.findAll().stream()
-                .map(this::toDto)
-                .collect(Collectors.toList());
+        return userRepository.findAllDtos();
+    }
+
+    // Streams straight from a database cursor
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<UserFemmeDto> sink) {
+        try (Stream<UserFemmeDto> users = userRepository.streamAll()) {
+            users.forEach(sink);
+        }
     }
 
     public UserFemmeDto findById(Long id) {
-        return userRepository.findById(id)
-                .map(this::toDto)
+        return userRepository.findDtoById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("UserFemme", id));
     }
 
     public UserFemmeDto findByEmail(String email) {
         return userRepository.findByEmail(email)
-                .map(this::toDto)
                 .orElseThrow(() -> new ResourceNotFoundException("UserFemme not found with email: " + email));
     }
 
@@ -55,6 +93,99 @@ public class UserFemmeService {
         return toDto(saved);
     }
 
+    /**
+     * Creates or updates users by email, atomically per user, so a batch can be sent again safely.
+     * Invalid items are reported and skipped; an email given twice is written once, with its last occurrence.
+     */
+    @Transactional
+    public BatchResult<UserFemmeDto> upsertAll(List<UserFemmeDto> dtos) {
+        if (dtos.size() > MAX_BATCH_SIZE) {
+            throw new BadRequestException("A batch accepts at most " + MAX_BATCH_SIZE + " users");
+        }
+        String[] errors = new String[dtos.size()];
+        // Latest item of each email, in request order: one statement cannot update the same row twice
+        Map<String, UserFemmeDto> latest = new LinkedHashMap<>();
+        for (int i = 0; i < dtos.size(); i++) {
+            UserFemmeDto dto = dtos.get(i);
+            errors[i] = validate(dto);
+            if (errors[i] == null) {
+                latest.put(dto.getEmail(), dto);
+            }
+        }
+
+        Map<String, BatchItemResult<UserFemmeDto>> written = new HashMap<>();
+        List<UserFemmeDto> chunk = new ArrayList<>(UPSERT_CHUNK_SIZE);
+        for (UserFemmeDto dto : latest.values()) {
+            chunk.add(dto);
+            if (chunk.size() == UPSERT_CHUNK_SIZE) {
+                upsertChunk(chunk, written);
+                chunk.clear();
+            }
+        }
+        upsertChunk(chunk, written);
+
+        // Every occurrence of an email reports the row written for it
+        List<BatchItemResult<UserFemmeDto>> results = new ArrayList<>(dtos.size());
+        int succeeded = 0;
+        for (int i = 0; i < dtos.size(); i++) {
+            if (errors[i] != null) {
+                results.add(BatchItemResult.<UserFemmeDto>builder()
+                        .index(i)
+                        .status(BatchItemResult.Status.INVALID)
+                        .error(errors[i])
+                        .build());
+                continue;
+            }
+            BatchItemResult<UserFemmeDto> result = written.get(dtos.get(i).getEmail());
+            results.add(BatchItemResult.<UserFemmeDto>builder()
+                    .index(i)
+                    .status(result.getStatus())
+                    .data(result.getData())
+                    .build());
+            succeeded++;
+        }
+        log.info("Upserted {} UserFemme in batch, {} rejected", succeeded, dtos.size() - succeeded);
+        return BatchResult.<UserFemmeDto>builder()
+                .succeeded(succeeded)
+                .failed(dtos.size() - succeeded)
+                .items(results)
+                .build();
+    }
+
+    private void upsertChunk(List<UserFemmeDto> chunk, Map<String, BatchItemResult<UserFemmeDto>> written) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        String[] noms = chunk.stream().map(UserFemmeDto::getNom).toArray(String[]::new);
+        String[] emails = chunk.stream().map(UserFemmeDto::getEmail).toArray(String[]::new);
+        Integer[] ages = chunk.stream().map(UserFemmeDto::getAge).toArray(Integer[]::new);
+        Map<String, String> nomsByEmail = chunk.stream()
+                .collect(Collectors.toMap(UserFemmeDto::getEmail, UserFemmeDto::getNom));
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(UPSERT_SQL);
+            statement.setTimestamp(1, now);
+            statement.setTimestamp(2, now);
+            statement.setArray(3, connection.createArrayOf("varchar", noms));
+            statement.setArray(4, connection.createArrayOf("varchar", emails));
+            statement.setArray(5, connection.createArrayOf("integer", ages));
+            return statement;
+        }, (RowCallbackHandler) rs -> {
+            long id = rs.getLong(1);
+            String email = rs.getString(2);
+            boolean inserted = rs.getBoolean(4);
+            written.put(email, BatchItemResult.<UserFemmeDto>builder()
+                    .status(inserted ? BatchItemResult.Status.CREATED : BatchItemResult.Status.UPDATED)
+                    .data(UserFemmeDto.builder()
+                            .id(id)
+                            .nom(nomsByEmail.get(email))
+                            .email(email)
+                            .age(rs.getInt(3))
+                            .build())
+                    .build());
+        });
+    }
+
     @Transactional
     public UserFemmeDto update(Long id, UserFemmeDto dto) {
         UserFemme user = userRepository.findById(id)
@@ -80,19 +211,30 @@ public class UserFemmeService {
             throw new ResourceNotFoundException("UserFemme", id);
         }
         userRepository.deleteById(id);
+        referenceIdFilter.userDeleted(id);
         log.info("Deleted UserFemme with id: {}", id);
     }
 
     public List<UserFemmeDto> searchByNom(String nom) {
-        return userRepository.findByNomContainingIgnoreCase(nom).stream()
-                .map(this::toDto)
-                .collect(Collectors.toList());
+        return userRepository.findByNomContainingIgnoreCase(nom);
     }
 
     public List<UserFemmeDto> findByAgeRange(Integer minAge, Integer maxAge) {
-        return userRepository.findByAgeBetween(minAge, maxAge).stream()
-                .map(this::toDto)
-                .collect(Collectors.toList());
+        return userRepository.findByAgeBetween(minAge, maxAge);
+    }
+
+    private String validate(UserFemmeDto dto) {
+        if (dto == null) {
+            return "User is required";
+        }
+        Set<ConstraintViolation<UserFemmeDto>> violations = validator.validate(dto);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
     }
 
     private UserFemmeDto toDto(UserFemme user) {
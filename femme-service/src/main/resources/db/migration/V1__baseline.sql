@@ -0,0 +1,47 @@
+-- Baseline: the schema Hibernate used to create with ddl-auto, plus the interaction counts checkpoint.
+-- Every statement is conditional, so databases created before migrations existed are left as they are.
+
+CREATE SEQUENCE IF NOT EXISTS produits_femme_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS users_femme (
+    id bigserial NOT NULL,
+    nom varchar(255) NOT NULL,
+    email varchar(255) NOT NULL UNIQUE,
+    age integer NOT NULL,
+    created_at timestamp(6),
+    updated_at timestamp(6),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS produits_femme (
+    id bigint NOT NULL,
+    nom varchar(255) NOT NULL,
+    categorie varchar(255) NOT NULL,
+    prix numeric(10,2) NOT NULL,
+    description text,
+    image_url varchar(255),
+    created_at timestamp(6),
+    updated_at timestamp(6),
+    PRIMARY KEY (id)
+);
+
+-- Converted to a table partitioned by timestamp by V3__partition_interactions.sql
+CREATE TABLE IF NOT EXISTS interactions_femme (
+    id bigint GENERATED BY DEFAULT AS IDENTITY,
+    user_id bigint NOT NULL,
+    produit_id bigint NOT NULL,
+    type_interaction varchar(255) NOT NULL CHECK (type_interaction IN ('VIEW','ADD_TO_CART','PURCHASE')),
+    timestamp timestamp(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_interactions_femme_user FOREIGN KEY (user_id) REFERENCES users_femme (id),
+    CONSTRAINT fk_interactions_femme_produit FOREIGN KEY (produit_id) REFERENCES produits_femme (id)
+);
+
+-- Written by InteractionFemmeCounters
+CREATE TABLE IF NOT EXISTS interaction_counts_femme (
+    produit_id bigint NOT NULL,
+    type_interaction varchar(255) NOT NULL,
+    count bigint NOT NULL,
+    updated_at timestamp NOT NULL,
+    PRIMARY KEY (produit_id, type_interaction)
+);
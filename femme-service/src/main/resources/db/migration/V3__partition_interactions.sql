@@ -0,0 +1,58 @@
+-- Range-partitions interactions_femme on its timestamp, one partition per month of existing data up to the current one,
+-- plus a default partition for rows outside every partition. The partition key has to be part of the primary key.
+-- Upcoming partitions are created, and old ones expired, by InteractionFemmePartitionManager.
+-- A table that is already partitioned (converted at startup by earlier versions) is left as it is.
+
+DO $$
+DECLARE
+    current_month timestamp := date_trunc('month', localtimestamp);
+    partition_start timestamp;
+BEGIN
+    IF (SELECT relkind FROM pg_class WHERE oid = to_regclass('interactions_femme')) IS DISTINCT FROM 'r' THEN
+        RETURN;
+    END IF;
+
+    ALTER TABLE interactions_femme RENAME TO interactions_femme_legacy;
+    -- Recreated on the partitioned table below under the same names
+    DROP INDEX IF EXISTS interactions_femme_user_idx, interactions_femme_user_type_idx, interactions_femme_produit_type_idx,
+        interactions_femme_timestamp_brin, interactions_femme_timestamp_id_idx;
+    ALTER TABLE interactions_femme_legacy DROP CONSTRAINT IF EXISTS interactions_femme_pkey;
+
+    CREATE TABLE interactions_femme (LIKE interactions_femme_legacy INCLUDING DEFAULTS INCLUDING CONSTRAINTS INCLUDING IDENTITY)
+        PARTITION BY RANGE ("timestamp");
+    -- An identity column gets its own sequence, but a serial default (tables created by Hibernate) still uses the one
+    -- owned by the legacy table, which has to be handed over before the legacy table is dropped with its owned sequences
+    IF pg_get_serial_sequence('interactions_femme', 'id') IS NULL THEN
+        EXECUTE format('ALTER SEQUENCE %s OWNED BY interactions_femme.id', pg_get_serial_sequence('interactions_femme_legacy', 'id'));
+    END IF;
+    ALTER TABLE interactions_femme ADD CONSTRAINT interactions_femme_pkey PRIMARY KEY (id, "timestamp");
+    ALTER TABLE interactions_femme ADD CONSTRAINT fk_interactions_femme_user FOREIGN KEY (user_id) REFERENCES users_femme (id);
+    ALTER TABLE interactions_femme ADD CONSTRAINT fk_interactions_femme_produit FOREIGN KEY (produit_id) REFERENCES produits_femme (id);
+    CREATE TABLE interactions_femme_default PARTITION OF interactions_femme DEFAULT;
+
+    -- At most 400 months back, older rows stay in the default partition
+    SELECT date_trunc('month', MIN("timestamp")) INTO partition_start FROM interactions_femme_legacy;
+    partition_start := LEAST(GREATEST(COALESCE(partition_start, current_month), current_month - interval '400 months'), current_month);
+    WHILE partition_start <= current_month LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF interactions_femme FOR VALUES FROM (%L) TO (%L)',
+                'interactions_femme_p' || to_char(partition_start, 'YYYY_MM'), partition_start, partition_start + interval '1 month');
+        partition_start := partition_start + interval '1 month';
+    END LOOP;
+
+    INSERT INTO interactions_femme (id, user_id, produit_id, type_interaction, "timestamp")
+    SELECT id, user_id, produit_id, type_interaction, "timestamp" FROM interactions_femme_legacy;
+    PERFORM setval(pg_get_serial_sequence('interactions_femme', 'id'), COALESCE(MAX(id), 0) + 1, false) FROM interactions_femme;
+    DROP TABLE interactions_femme_legacy;
+END $$;
+
+-- The indexes of V2, on every partition present and future
+CREATE INDEX IF NOT EXISTS interactions_femme_user_idx
+    ON interactions_femme (user_id, "timestamp" DESC, id DESC) INCLUDE (produit_id, type_interaction);
+CREATE INDEX IF NOT EXISTS interactions_femme_user_type_idx
+    ON interactions_femme (user_id, type_interaction, "timestamp") INCLUDE (produit_id);
+CREATE INDEX IF NOT EXISTS interactions_femme_produit_type_idx
+    ON interactions_femme (produit_id, type_interaction) INCLUDE (user_id, "timestamp");
+CREATE INDEX IF NOT EXISTS interactions_femme_timestamp_brin
+    ON interactions_femme USING brin ("timestamp");
+CREATE INDEX IF NOT EXISTS interactions_femme_timestamp_id_idx
+    ON interactions_femme ("timestamp", id);
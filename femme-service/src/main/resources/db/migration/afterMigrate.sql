@@ -0,0 +1,32 @@
+-- Clear existing products to prevent duplicates
+TRUNCATE TABLE produits_femme CASCADE;
+-- The cascade empties interactions_femme; the checkpointed counts have no foreign key and would outlive them
+TRUNCATE TABLE interaction_counts_femme;
+
+-- Ids are explicit, the id sequence is moved past them at the end
+
+-- Insert 20 Women's Products
+INSERT INTO produits_femme (id, nom, categorie, prix, description, image_url, created_at, updated_at) VALUES
+(1, 'Elegant Silk Dress', 'Robes', 249.99, 'Stunning silk midi dress in emerald green. Perfect for special occasions.', 'https://images.unsplash.com/photo-1595777457583-95e059d581b8?w=400', NOW(), NOW()),
+(2, 'Classic Trench Coat', 'Manteaux', 199.99, 'Timeless beige trench coat with belt. British elegance for any weather.', 'https://images.unsplash.com/photo-1591047139829-d91aecb6caea?w=400', NOW(), NOW()),
+(3, 'High Waist Skinny Jeans', 'Jeans', 79.99, 'Flattering high-waist skinny jeans in dark indigo. Perfect fit guaranteed.', 'https://images.unsplash.com/photo-1541099649105-f69ad21f3246?w=400', NOW(), NOW()),
+(4, 'Cashmere Cardigan', 'Pulls', 169.99, 'Luxurious cashmere cardigan in soft pink. Cozy elegance.', 'https://images.unsplash.com/photo-1434389677669-e08b4cac3105?w=400', NOW(), NOW()),
+(5, 'Stiletto Heels Black', 'Chaussures', 139.99, 'Classic black stiletto heels. Timeless sophistication for any outfit.', 'https://images.unsplash.com/photo-1543163521-1bf539c55dd2?w=400', NOW(), NOW()),
+(6, 'Floral Blouse', 'Chemisiers', 64.99, 'Beautiful floral print blouse in spring colors. Feminine and fresh.', 'https://images.unsplash.com/photo-1564257631407-4deb1f99d992?w=400', NOW(), NOW()),
+(7, 'Leather Handbag Tan', 'Sacs', 189.99, 'Premium leather handbag in tan. Spacious and stylish for everyday.', 'https://images.unsplash.com/photo-1584917865442-de89df76afd3?w=400', NOW(), NOW()),
+(8, 'Pleated Midi Skirt', 'Jupes', 69.99, 'Elegant pleated midi skirt in blush pink. Graceful movement.', 'https://images.unsplash.com/photo-1583496661160-fb5886a0uj73?w=400', NOW(), NOW()),
+(9, 'Pearl Necklace', 'Bijoux', 129.99, 'Classic freshwater pearl necklace. Timeless elegance.', 'https://images.unsplash.com/photo-1515562141207-7a88fb7ce338?w=400', NOW(), NOW()),
+(10, 'Wrap Dress Red', 'Robes', 119.99, 'Flattering wrap dress in vibrant red. Curves in all the right places.', 'https://images.unsplash.com/photo-1572804013309-59a88b7e92f1?w=400', NOW(), NOW()),
+(11, 'Ankle Boots Suede', 'Chaussures', 149.99, 'Chic suede ankle boots in camel. Perfect for autumn style.', 'https://images.unsplash.com/photo-1543163521-1bf539c55dd2?w=400', NOW(), NOW()),
+(12, 'Silk Scarf Floral', 'Accessoires', 59.99, 'Luxurious silk scarf with floral pattern. Versatile accessory.', 'https://images.unsplash.com/photo-1601370690183-1c7796ecec61?w=400', NOW(), NOW()),
+(13, 'Wide Leg Pants Cream', 'Pantalons', 84.99, 'Elegant wide leg pants in cream. Effortless sophistication.', 'https://images.unsplash.com/photo-1594633312681-425c7b97ccd1?w=400', NOW(), NOW()),
+(14, 'Lace Evening Gown', 'Robes', 349.99, 'Stunning black lace evening gown. Red carpet ready.', 'https://images.unsplash.com/photo-1566174053879-31528523f8ae?w=400', NOW(), NOW()),
+(15, 'Ballet Flats Nude', 'Chaussures', 69.99, 'Comfortable nude ballet flats. Everyday elegance.', 'https://images.unsplash.com/photo-1543163521-1bf539c55dd2?w=400', NOW(), NOW()),
+(16, 'Denim Jacket Light', 'Vestes', 89.99, 'Classic light wash denim jacket. Casual cool essential.', 'https://images.unsplash.com/photo-1578932750294-f5075e85f44a?w=400', NOW(), NOW()),
+(17, 'Crossbody Bag Black', 'Sacs', 79.99, 'Compact crossbody bag in black leather. Practical and chic.', 'https://images.unsplash.com/photo-1548036328-c9fa89d128fa?w=400', NOW(), NOW()),
+(18, 'Cashmere Turtleneck', 'Pulls', 159.99, 'Soft cashmere turtleneck in ivory. Winter luxury.', 'https://images.unsplash.com/photo-1576566588028-4147f3842f27?w=400', NOW(), NOW()),
+(19, 'Cocktail Dress Navy', 'Robes', 179.99, 'Elegant navy cocktail dress with lace details. Party perfect.', 'https://images.unsplash.com/photo-1572804013427-4d7ca7268217?w=400', NOW(), NOW()),
+(20, 'Gold Hoop Earrings', 'Bijoux', 49.99, 'Classic gold hoop earrings. Everyday glamour.', 'https://images.unsplash.com/photo-1630019852942-f89202989a59?w=400', NOW(), NOW());
+
+-- Restart the id sequence after the seeded rows
+SELECT setval('produits_femme_seq', (SELECT COALESCE(MAX(id), 1) FROM produits_femme));
@@ -0,0 +1,85 @@
+package com.projetproduits.femme;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Assumptions;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+/**
+ * PostgreSQL for the tests that need the real database: a postgres:15 container, the version of docker-compose.yml,
+ * started once by Testcontainers, or, without Docker, the server given by -Dtest.postgres.url
+ * (e.g. jdbc:postgresql://localhost:5432/, with -Dtest.postgres.username and -Dtest.postgres.password).
+ * Without either, the calling test is skipped.
+ * Each test class gets its own database, dropped and created again on every run.
+ */
+public final class PostgresTestDatabase {
+
+    private static PostgreSQLContainer<?> container;
+
+    private PostgresTestDatabase() {
+    }
+
+    /**
+     * Skips the calling test class when no server is available, before a Spring context tries to connect to it.
+     */
+    public static synchronized void assumeAvailable() {
+        serverUrl();
+    }
+
+    /**
+     * Creates an empty database and returns its JDBC URL.
+     */
+    public static synchronized String create(String database) {
+        String server = serverUrl();
+        JdbcTemplate admin = new JdbcTemplate(new DriverManagerDataSource(server + "postgres", username(), password()));
+        admin.execute("DROP DATABASE IF EXISTS " + database + " WITH (FORCE)");
+        admin.execute("CREATE DATABASE " + database);
+        return server + database;
+    }
+
+    /**
+     * Creates a database migrated by the scripts of db/migration and returns a pool on it.
+     */
+    public static HikariDataSource migrated(String database) {
+        HikariDataSource dataSource = dataSource(create(database));
+        Flyway.configure().dataSource(dataSource).load().migrate();
+        return dataSource;
+    }
+
+    public static HikariDataSource dataSource(String url) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername(username());
+        dataSource.setPassword(password());
+        dataSource.setMaximumPoolSize(20);
+        // Idle connections are released, test classes that never close their pool would exhaust the server otherwise
+        dataSource.setMinimumIdle(1);
+        dataSource.setIdleTimeout(10_000);
+        return dataSource;
+    }
+
+    public static String username() {
+        return container != null ? container.getUsername() : System.getProperty("test.postgres.username", "postgres");
+    }
+
+    public static String password() {
+        return container != null ? container.getPassword() : System.getProperty("test.postgres.password", "");
+    }
+
+    private static String serverUrl() {
+        String url = System.getProperty("test.postgres.url");
+        if (url != null && !url.isBlank()) {
+            return url.endsWith("/") ? url : url + "/";
+        }
+        if (container == null) {
+            Assumptions.assumeTrue(DockerClientFactory.instance().isDockerAvailable(),
+                    "Neither Docker nor -Dtest.postgres.url is available");
+            container = new PostgreSQLContainer<>("postgres:15-alpine");
+            container.start();
+        }
+        return "jdbc:postgresql://" + container.getHost() + ":" + container.getMappedPort(PostgreSQLContainer.POSTGRESQL_PORT) + "/";
+    }
+}
@@ -0,0 +1,175 @@
+package com.projetproduits.femme.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.projetproduits.femme.PostgresTestDatabase;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.nullValue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Posts batches to /interactions/batch on the migrated database: every item gets its own result, in request
+ * order, the valid ones are written in the same request, and a batch over the size cap is refused whole.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class InteractionFemmeControllerBatchTest {
+
+    private static final int MAX_BATCH_SIZE = 10_000;
+    private static final long USER_ID = 1;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeAll
+    static void requireDatabase() {
+        PostgresTestDatabase.assumeAvailable();
+    }
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> PostgresTestDatabase.create("interaction_batch_femme"));
+        registry.add("spring.datasource.username", PostgresTestDatabase::username);
+        registry.add("spring.datasource.password", PostgresTestDatabase::password);
+    }
+
+    @BeforeEach
+    void user() {
+        jdbcTemplate.update("INSERT INTO users_femme (id, nom, email, age) VALUES (?, 'Alice', 'alice@batch.test', 30) "
+                + "ON CONFLICT DO NOTHING", USER_ID);
+    }
+
+    @Test
+    void answersEveryItemInRequestOrder() throws Exception {
+        long before = interactions();
+
+        batch("["
+                + interaction(USER_ID, 3, "VIEW", null) + ","
+                + "{\"userId\": 1, \"produitId\": 3},"
+                + interaction(999_999, 3, "VIEW", null) + ","
+                + interaction(USER_ID, 999_999, "ADD_TO_CART", null) + ","
+                + "null,"
+                + interaction(USER_ID, 4, "PURCHASE", "2024-03-01T10:15:30")
+                + "]")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.message").value("2 interaction(s) recorded, 4 rejected"))
+                .andExpect(jsonPath("$.data.succeeded").value(2))
+                .andExpect(jsonPath("$.data.failed").value(4))
+                .andExpect(jsonPath("$.data.items.length()").value(6))
+                .andExpect(jsonPath("$.data.items[*].index").value(contains(0, 1, 2, 3, 4, 5)))
+                .andExpect(jsonPath("$.data.items[0].status").value("CREATED"))
+                .andExpect(jsonPath("$.data.items[0].data.id").isNumber())
+                .andExpect(jsonPath("$.data.items[0].data.timestamp").isString())
+                .andExpect(jsonPath("$.data.items[0].error").value(nullValue()))
+                .andExpect(jsonPath("$.data.items[1].status").value("INVALID"))
+                .andExpect(jsonPath("$.data.items[1].error").value("typeInteraction: Type interaction is required"))
+                .andExpect(jsonPath("$.data.items[1].data").value(nullValue()))
+                .andExpect(jsonPath("$.data.items[2].status").value("NOT_FOUND"))
+                .andExpect(jsonPath("$.data.items[2].error").value("UserFemme not found with id: 999999"))
+                .andExpect(jsonPath("$.data.items[3].status").value("NOT_FOUND"))
+                .andExpect(jsonPath("$.data.items[3].error").value("ProduitFemme not found with id: 999999"))
+                .andExpect(jsonPath("$.data.items[4].status").value("INVALID"))
+                .andExpect(jsonPath("$.data.items[4].error").value("Interaction is required"))
+                .andExpect(jsonPath("$.data.items[5].status").value("CREATED"))
+                .andExpect(jsonPath("$.data.items[5].data.timestamp").value("2024-03-01T10:15:30"));
+
+        assertThat(interactions()).isEqualTo(before + 2);
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM interactions_femme WHERE user_id = 1 AND produit_id = 4 "
+                + "AND type_interaction = 'PURCHASE' AND \"timestamp\" = timestamp '2024-03-01 10:15:30'", Long.class)).isEqualTo(1);
+    }
+
+    @Test
+    void recordsTheCreatedItemsInTheCounters() throws Exception {
+        long before = purchases(5);
+
+        batch("[" + interaction(USER_ID, 5, "PURCHASE", null) + "," + interaction(USER_ID, 5, "PURCHASE", null) + ","
+                + interaction(999_999, 5, "PURCHASE", null) + "]")
+                .andExpect(status().isOk());
+
+        assertThat(purchases(5)).isEqualTo(before + 2);
+    }
+
+    @Test
+    void acceptsABatchOfTheMaximumSize() throws Exception {
+        long before = interactions();
+
+        batch(interactions(MAX_BATCH_SIZE))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.succeeded").value(MAX_BATCH_SIZE))
+                .andExpect(jsonPath("$.data.failed").value(0));
+
+        assertThat(interactions()).isEqualTo(before + MAX_BATCH_SIZE);
+    }
+
+    @Test
+    void refusesABatchOverTheMaximumSizeWhole() throws Exception {
+        long before = interactions();
+
+        batch(interactions(MAX_BATCH_SIZE + 1))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.success").value(false))
+                .andExpect(jsonPath("$.message").value("A batch accepts at most 10000 interactions"));
+
+        assertThat(interactions()).isEqualTo(before);
+    }
+
+    @Test
+    void answersAnEmptyBatchWithNoItems() throws Exception {
+        batch("[]")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.succeeded").value(0))
+                .andExpect(jsonPath("$.data.failed").value(0))
+                .andExpect(jsonPath("$.data.items").isEmpty());
+    }
+
+    private ResultActions batch(String body) throws Exception {
+        return mockMvc.perform(post("/interactions/batch").contentType(MediaType.APPLICATION_JSON).content(body));
+    }
+
+    private long interactions() {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM interactions_femme", Long.class);
+    }
+
+    private long purchases(long produitId) throws Exception {
+        String body = mockMvc.perform(get("/interactions/produit/" + produitId + "/count/PURCHASE"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body).path("data").asLong();
+    }
+
+    private static String interactions(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> interaction(USER_ID, 1 + i % 20, "VIEW", null))
+                .collect(Collectors.joining(",", "[", "]"));
+    }
+
+    private static String interaction(long userId, long produitId, String type, String timestamp) {
+        return "{\"userId\": " + userId + ", \"produitId\": " + produitId + ", \"typeInteraction\": \"" + type + "\""
+                + (timestamp != null ? ", \"timestamp\": \"" + timestamp + "\"" : "") + "}";
+    }
+}
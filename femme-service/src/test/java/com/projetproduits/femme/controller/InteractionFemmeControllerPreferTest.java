@@ -0,0 +1,83 @@
+package com.projetproduits.femme.controller;
+
+import com.projetproduits.femme.dto.InteractionFemmeDto;
+import com.projetproduits.femme.service.InteractionFemmeService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// POST /interactions is queued when Prefer holds respond-async among other preferences, written at once otherwise
+@WebMvcTest(InteractionFemmeController.class)
+class InteractionFemmeControllerPreferTest {
+
+    private static final String BODY = "{\"userId\": 1, \"produitId\": 2, \"typeInteraction\": \"VIEW\"}";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private InteractionFemmeService interactionService;
+
+    @MockBean
+    private NdjsonStreamer ndjsonStreamer;
+
+    @MockBean
+    private CsvStreamer csvStreamer;
+
+    @ParameterizedTest
+    @ValueSource(strings = {"respond-async", "respond-async, wait=5", "wait=5, Respond-Async", "handling=lenient; foo=bar, respond-async"})
+    void respondAsyncIsQueued(String prefer) throws Exception {
+        when(interactionService.accept(any())).thenReturn(InteractionFemmeDto.builder().build());
+
+        mockMvc.perform(create().header("Prefer", prefer))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Preference-Applied", "respond-async"));
+
+        verify(interactionService, never()).create(any());
+    }
+
+    @Test
+    void respondAsyncInASecondPreferHeaderIsQueued() throws Exception {
+        when(interactionService.accept(any())).thenReturn(InteractionFemmeDto.builder().build());
+
+        mockMvc.perform(create().header("Prefer", "wait=5").header("Prefer", "respond-async"))
+                .andExpect(status().isAccepted());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"wait=5", "return=minimal", "respond-asynchronously"})
+    void otherPreferencesAreWrittenAtOnce(String prefer) throws Exception {
+        when(interactionService.create(any())).thenReturn(InteractionFemmeDto.builder().build());
+
+        mockMvc.perform(create().header("Prefer", prefer)).andExpect(status().isCreated());
+
+        verify(interactionService, never()).accept(any());
+    }
+
+    @Test
+    void noPreferIsWrittenAtOnce() throws Exception {
+        when(interactionService.create(any())).thenReturn(InteractionFemmeDto.builder().build());
+
+        mockMvc.perform(create()).andExpect(status().isCreated());
+
+        verify(interactionService, never()).accept(any());
+    }
+
+    private static MockHttpServletRequestBuilder create() {
+        return post("/interactions").contentType(MediaType.APPLICATION_JSON).content(BODY);
+    }
+}
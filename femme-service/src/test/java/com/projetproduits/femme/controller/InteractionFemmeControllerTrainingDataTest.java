@@ -0,0 +1,171 @@
+package com.projetproduits.femme.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.projetproduits.femme.PostgresTestDatabase;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Exports the training data of the migrated database as NDJSON and CSV, in full and after a sinceId or since
+ * watermark, and compares the rows read with the ones the database selects for the same watermark.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class InteractionFemmeControllerTrainingDataTest {
+
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType(CsvStreamer.TEXT_CSV_VALUE);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeAll
+    static void requireDatabase() {
+        PostgresTestDatabase.assumeAvailable();
+    }
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> PostgresTestDatabase.create("training_data_femme"));
+        registry.add("spring.datasource.username", PostgresTestDatabase::username);
+        registry.add("spring.datasource.password", PostgresTestDatabase::password);
+    }
+
+    @BeforeEach
+    void interactions() {
+        if (jdbcTemplate.queryForObject("SELECT count(*) FROM interactions_femme", Long.class) > 0) {
+            return;
+        }
+        jdbcTemplate.update("INSERT INTO users_femme (id, nom, email, age) VALUES (1, 'Alice', 'alice@training.test', 30)");
+        // Ids and timestamps in opposite orders, so that the two watermarks select different rows
+        jdbcTemplate.update("INSERT INTO interactions_femme (user_id, produit_id, type_interaction, \"timestamp\") "
+                + "SELECT 1, 1 + g % 20, (ARRAY['VIEW','ADD_TO_CART','PURCHASE'])[1 + g % 3], "
+                + "timestamp '2024-03-01 12:00:00' - g * interval '1 minute' FROM generate_series(1, 1200) g");
+    }
+
+    @Test
+    void exportsEveryInteractionAsNdjsonInTimestampOrder() throws Exception {
+        List<Long> expected = ids("SELECT id FROM interactions_femme ORDER BY \"timestamp\"");
+
+        assertThat(ndjsonIds(get("/interactions/training-data"))).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void exportsTheInteractionsAfterAnIdInIdOrder() throws Exception {
+        long sinceId = jdbcTemplate.queryForObject("SELECT min(id) + 700 FROM interactions_femme", Long.class);
+        List<Long> expected = ids("SELECT id FROM interactions_femme WHERE id > " + sinceId + " ORDER BY id");
+
+        assertThat(expected).hasSize(499);
+        assertThat(ndjsonIds(get("/interactions/training-data").param("sinceId", String.valueOf(sinceId))))
+                .containsExactlyElementsOf(expected);
+        assertThat(csvIds(get("/interactions/training-data").param("sinceId", String.valueOf(sinceId))))
+                .containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void exportsTheInteractionsAfterATimestampInTimestampOrder() throws Exception {
+        List<Long> expected = ids("SELECT id FROM interactions_femme WHERE \"timestamp\" > timestamp '2024-03-01 10:00:00' "
+                + "ORDER BY \"timestamp\", id");
+
+        assertThat(expected).hasSize(119);
+        assertThat(ndjsonIds(get("/interactions/training-data").param("since", "2024-03-01T10:00:00")))
+                .containsExactlyElementsOf(expected);
+        assertThat(csvIds(get("/interactions/training-data").param("since", "2024-03-01T10:00:00")))
+                .containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void exportsNothingAfterTheLastId() throws Exception {
+        long lastId = jdbcTemplate.queryForObject("SELECT max(id) FROM interactions_femme", Long.class);
+
+        assertThat(body(get("/interactions/training-data").param("sinceId", String.valueOf(lastId))
+                .accept(MediaType.APPLICATION_NDJSON))).isEmpty();
+        assertThat(body(get("/interactions/training-data").param("sinceId", String.valueOf(lastId))
+                .accept(TEXT_CSV))).isEqualTo("id,userId,produitId,typeInteraction,timestamp\r\n");
+    }
+
+    @Test
+    void writesTheCsvColumnsInHeaderOrder() throws Exception {
+        long id = jdbcTemplate.queryForObject("SELECT min(id) FROM interactions_femme", Long.class);
+        List<String> lines = body(get("/interactions/training-data").param("sinceId", String.valueOf(id - 1))
+                .accept(TEXT_CSV)).lines().toList();
+
+        assertThat(lines.get(0)).isEqualTo("id,userId,produitId,typeInteraction,timestamp");
+        assertThat(lines.get(1)).isEqualTo(id + ",1,2,ADD_TO_CART,2024-03-01T11:59");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"application/x-ndjson", "text/csv"})
+    void bothWatermarksAreABadRequest(String accept) throws Exception {
+        mockMvc.perform(get("/interactions/training-data").param("sinceId", "1").param("since", "2024-03-01T10:00:00")
+                        .accept(accept))
+                .andExpect(status().isBadRequest())
+                .andExpect(request().asyncNotStarted())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.message").value("Use either sinceId or since, not both"));
+    }
+
+    @Test
+    void jsonStillGetsTheEnvelope() throws Exception {
+        mockMvc.perform(get("/interactions/training-data").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.data.length()").value(1200));
+    }
+
+    private List<Long> ndjsonIds(MockHttpServletRequestBuilder request) throws Exception {
+        List<Long> ids = new ArrayList<>();
+        for (String line : body(request.accept(MediaType.APPLICATION_NDJSON)).split("\n")) {
+            ids.add(objectMapper.readTree(line).path("id").asLong());
+        }
+        return ids;
+    }
+
+    private List<Long> csvIds(MockHttpServletRequestBuilder request) throws Exception {
+        String[] lines = body(request.accept(TEXT_CSV)).split("\r\n");
+        return Arrays.stream(lines).skip(1).map(line -> Long.valueOf(line.substring(0, line.indexOf(',')))).toList();
+    }
+
+    private String body(MockHttpServletRequestBuilder export) throws Exception {
+        MvcResult started = mockMvc.perform(export).andExpect(request().asyncStarted()).andReturn();
+        MvcResult result = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn();
+        MediaType accepted = MediaType.parseMediaType(started.getRequest().getHeader("Accept"));
+        assertThat(MediaType.parseMediaType(result.getResponse().getContentType()).isCompatibleWith(accepted)).isTrue();
+        return result.getResponse().getContentAsString();
+    }
+
+    private List<Long> ids(String sql) {
+        return jdbcTemplate.queryForList(sql, Long.class);
+    }
+}
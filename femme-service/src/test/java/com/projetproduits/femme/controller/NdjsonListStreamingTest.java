@@ -0,0 +1,103 @@
+package com.projetproduits.femme.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.projetproduits.femme.PostgresTestDatabase;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Streams the full lists with Accept: application/x-ndjson from the migrated database and checks that every row
+ * arrives once, as one JSON document per line, while a JSON Accept still gets the ApiResponse envelope.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class NdjsonListStreamingTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeAll
+    static void requireDatabase() {
+        PostgresTestDatabase.assumeAvailable();
+    }
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> PostgresTestDatabase.create("ndjson_lists_femme"));
+        registry.add("spring.datasource.username", PostgresTestDatabase::username);
+        registry.add("spring.datasource.password", PostgresTestDatabase::password);
+    }
+
+    @BeforeEach
+    void rows() {
+        if (jdbcTemplate.queryForObject("SELECT count(*) FROM users_femme", Long.class) > 0) {
+            return;
+        }
+        jdbcTemplate.update("INSERT INTO users_femme (id, nom, email, age) VALUES (1, 'Alice', 'alice@ndjson.test', 30), "
+                + "(2, 'Bob \"the builder\"\nSmith', 'bob@ndjson.test', 41)");
+        jdbcTemplate.update("INSERT INTO interactions_femme (user_id, produit_id, type_interaction, \"timestamp\") "
+                + "SELECT 1 + g % 2, 1 + g % 20, 'VIEW', now() - g * interval '1 minute' FROM generate_series(1, 1500) g");
+        jdbcTemplate.update("UPDATE produits_femme SET nom = 'Coat, \"long\"' || chr(10) || 'second line' WHERE id = 1");
+    }
+
+    @ParameterizedTest
+    @CsvSource({"/produits, produits_femme", "/users, users_femme", "/interactions, interactions_femme"})
+    void streamsEveryRowOnItsOwnLine(String path, String table) throws Exception {
+        List<Long> expected = jdbcTemplate.queryForList("SELECT id FROM " + table + " ORDER BY id", Long.class);
+
+        MvcResult started = mockMvc.perform(get(path).accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(body).endsWith("\n");
+        List<Long> ids = new ArrayList<>();
+        for (String line : body.split("\n")) {
+            JsonNode row = objectMapper.readTree(line);
+            assertThat(row.isObject()).isTrue();
+            ids.add(row.path("id").asLong());
+        }
+        assertThat(ids).containsExactlyInAnyOrderElementsOf(expected);
+    }
+
+    @ParameterizedTest
+    @CsvSource({"/produits", "/users", "/interactions"})
+    void jsonStillGetsTheEnvelope(String path) throws Exception {
+        mockMvc.perform(get(path).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.data").isArray());
+    }
+}
@@ -0,0 +1,128 @@
+package com.projetproduits.femme.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.projetproduits.femme.dto.InteractionFemmeDto;
+import com.projetproduits.femme.dto.ProduitFemmeDto;
+import com.projetproduits.femme.entity.TypeInteraction;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class NdjsonStreamerTest {
+
+    // Configured like the mapper Spring Boot builds for the application
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+    private final NdjsonStreamer streamer = new NdjsonStreamer(objectMapper);
+
+    @Test
+    void writesOneDocumentPerLine() throws Exception {
+        ResponseEntity<StreamingResponseBody> response = streamer.<ProduitFemmeDto>stream(sink -> {
+            sink.accept(produit(1L, "Wool Coat"));
+            sink.accept(produit(2L, "Coat, \"long\"\nsecond line\r\n"));
+        });
+
+        assertThat(response.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_NDJSON);
+        String body = write(response);
+        assertThat(body).endsWith("}\n");
+        // The line break inside nom is escaped, so it does not split the document
+        List<String> lines = body.lines().toList();
+        assertThat(lines).hasSize(2);
+        assertThat(objectMapper.readValue(lines.get(0), ProduitFemmeDto.class)).isEqualTo(produit(1L, "Wool Coat"));
+        assertThat(objectMapper.readValue(lines.get(1), ProduitFemmeDto.class).getNom()).isEqualTo("Coat, \"long\"\nsecond line\r\n");
+    }
+
+    @Test
+    void writesDatesAsIsoStrings() throws Exception {
+        InteractionFemmeDto interaction = InteractionFemmeDto.builder()
+                .id(7L).userId(1L).produitId(2L)
+                .typeInteraction(TypeInteraction.PURCHASE)
+                .timestamp(LocalDateTime.parse("2024-03-01T10:15:30"))
+                .build();
+
+        String body = write(streamer.<InteractionFemmeDto>stream(sink -> sink.accept(interaction)));
+
+        assertThat(body).isEqualTo("{\"id\":7,\"userId\":1,\"produitId\":2,\"typeInteraction\":\"PURCHASE\","
+                + "\"timestamp\":\"2024-03-01T10:15:30\"}\n");
+    }
+
+    @Test
+    void writesNothingForAnEmptySource() throws Exception {
+        assertThat(write(streamer.stream(sink -> { }))).isEmpty();
+    }
+
+    @Test
+    void flushesWhileTheSourceIsStillProducing() throws Exception {
+        int[] flushes = {0};
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        OutputStream out = new FilterOutputStream(bytes) {
+            @Override
+            public void flush() {
+                flushes[0]++;
+            }
+        };
+        int[] flushesAtTheEnd = {0};
+        Consumer<Consumer<ProduitFemmeDto>> source = sink -> {
+            for (long id = 1; id <= 1200; id++) {
+                sink.accept(produit(id, "Product " + id));
+            }
+            flushesAtTheEnd[0] = flushes[0];
+        };
+
+        streamer.stream(source).getBody().writeTo(out);
+
+        assertThat(flushesAtTheEnd[0]).isEqualTo(2);
+        assertThat(bytes.toString(StandardCharsets.UTF_8).lines()).hasSize(1200);
+    }
+
+    @Test
+    void passesOnTheFailureOfAClosedConnection() {
+        OutputStream closed = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+        Consumer<Consumer<ProduitFemmeDto>> source = sink -> {
+            for (long id = 1; id <= 1000; id++) {
+                sink.accept(produit(id, "Product " + id));
+            }
+        };
+
+        assertThatThrownBy(() -> streamer.stream(source).getBody().writeTo(closed))
+                .isInstanceOf(IOException.class)
+                .hasMessage("Broken pipe");
+    }
+
+    private static ProduitFemmeDto produit(Long id, String nom) {
+        return ProduitFemmeDto.builder().id(id).nom(nom).categorie("Vestes").prix(new BigDecimal("99.90")).build();
+    }
+
+    private static String write(ResponseEntity<StreamingResponseBody> response) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,190 @@
+package com.projetproduits.femme.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.projetproduits.femme.PostgresTestDatabase;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Revalidates the versioned reads of ProduitFemmeController against the migrated database, through
+ * ProduitFemmeCache: a matching If-None-Match or If-Modified-Since gets 304 until a write through the API
+ * changes the CatalogVersion of what was read.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class ProduitFemmeControllerConditionalGetTest {
+
+    private static final AtomicInteger CATEGORIES = new AtomicInteger();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeAll
+    static void requireDatabase() {
+        PostgresTestDatabase.assumeAvailable();
+    }
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> PostgresTestDatabase.create("conditional_get_femme"));
+        registry.add("spring.datasource.username", PostgresTestDatabase::username);
+        registry.add("spring.datasource.password", PostgresTestDatabase::password);
+    }
+
+    @Test
+    void catalogIsNotModifiedUntilAProductIsUpdated() throws Exception {
+        MvcResult first = mockMvc.perform(get("/produits"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=0, must-revalidate, s-maxage=30"))
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andReturn();
+        String etag = first.getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).isNotNull();
+
+        mockMvc.perform(get("/produits").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+
+        mockMvc.perform(put("/produits/1").contentType(MediaType.APPLICATION_JSON).content(produit("Renamed Dress", "Robes")))
+                .andExpect(status().isOk());
+
+        String updated = mockMvc.perform(get("/produits").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(updated).isNotEqualTo(etag);
+        mockMvc.perform(get("/produits").header(HttpHeaders.IF_NONE_MATCH, updated))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void sameBytesForTheSameETag() throws Exception {
+        MvcResult first = mockMvc.perform(get("/produits")).andExpect(status().isOk()).andReturn();
+        MvcResult second = mockMvc.perform(get("/produits")).andExpect(status().isOk()).andReturn();
+
+        assertThat(second.getResponse().getHeader(HttpHeaders.ETAG)).isEqualTo(first.getResponse().getHeader(HttpHeaders.ETAG));
+        assertThat(second.getResponse().getContentAsString()).isEqualTo(first.getResponse().getContentAsString());
+    }
+
+    @Test
+    void productAndCategoryChangeWithTheirProductOnly() throws Exception {
+        String categorie = categorie();
+        long id = create("Linen Shirt", categorie);
+        String other = mockMvc.perform(get("/produits/categorie/Robes"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        String byId = etag("/produits/" + id);
+        String byCategorie = etag("/produits/categorie/" + categorie);
+
+        mockMvc.perform(put("/produits/" + id).contentType(MediaType.APPLICATION_JSON).content(produit("Linen Shirt Blue", categorie)))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/produits/" + id).header(HttpHeaders.IF_NONE_MATCH, byId))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(byId)));
+        mockMvc.perform(get("/produits/categorie/" + categorie).header(HttpHeaders.IF_NONE_MATCH, byCategorie))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/produits/categorie/Robes").header(HttpHeaders.IF_NONE_MATCH, other))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void deletingAProductChangesTheCatalogVersion() throws Exception {
+        long id = create("Short Lived", categorie());
+        String etag = etag("/produits");
+
+        mockMvc.perform(delete("/produits/" + id)).andExpect(status().isOk());
+
+        mockMvc.perform(get("/produits").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/produits/" + id)).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void notModifiedSinceTheLastModificationUntilAnUpdate() throws Exception {
+        String categorie = categorie();
+        long id = create("Wool Scarf", categorie);
+        // An hour old, so that the update moves Last-Modified by more than its one-second resolution
+        jdbcTemplate.update("UPDATE produits_femme SET updated_at = updated_at - interval '1 hour' WHERE id = ?", id);
+        String path = "/produits/categorie/" + categorie;
+
+        String lastModified = mockMvc.perform(get(path))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.LAST_MODIFIED);
+        assertThat(lastModified).isNotNull();
+
+        mockMvc.perform(get(path).header(HttpHeaders.IF_MODIFIED_SINCE, lastModified))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.LAST_MODIFIED, lastModified));
+
+        mockMvc.perform(put("/produits/" + id).contentType(MediaType.APPLICATION_JSON).content(produit("Wool Scarf Grey", categorie)))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get(path).header(HttpHeaders.IF_MODIFIED_SINCE, lastModified))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.LAST_MODIFIED, not(lastModified)));
+    }
+
+    @Test
+    void ifNoneMatchWinsOverIfModifiedSince() throws Exception {
+        MvcResult first = mockMvc.perform(get("/produits")).andExpect(status().isOk()).andReturn();
+
+        mockMvc.perform(get("/produits")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"stale\"")
+                        .header(HttpHeaders.IF_MODIFIED_SINCE, first.getResponse().getHeader(HttpHeaders.LAST_MODIFIED)))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void unknownProductIsNotFound() throws Exception {
+        mockMvc.perform(get("/produits/999999").header(HttpHeaders.IF_NONE_MATCH, "\"0-0\""))
+                .andExpect(status().isNotFound());
+    }
+
+    private String etag(String path) throws Exception {
+        return mockMvc.perform(get(path)).andExpect(status().isOk()).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
+    private long create(String nom, String categorie) throws Exception {
+        String body = mockMvc.perform(post("/produits").contentType(MediaType.APPLICATION_JSON).content(produit(nom, categorie)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        JsonNode created = objectMapper.readTree(body);
+        return created.path("data").path("id").asLong();
+    }
+
+    private static String categorie() {
+        return "Conditional" + CATEGORIES.incrementAndGet();
+    }
+
+    private static String produit(String nom, String categorie) {
+        return "{\"nom\": \"" + nom + "\", \"categorie\": \"" + categorie + "\", \"prix\": 49.99}";
+    }
+}
@@ -0,0 +1,76 @@
+package com.projetproduits.femme.controller;
+
+import com.projetproduits.femme.dto.CursorPage;
+import com.projetproduits.femme.dto.ProduitFemmeDto;
+import com.projetproduits.femme.service.ProduitFemmeService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Each parameter combination of /produits/search maps to exactly one handler
+@WebMvcTest(ProduitFemmeController.class)
+class ProduitFemmeControllerSearchTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ProduitFemmeService produitService;
+
+    @MockBean
+    private NdjsonStreamer ndjsonStreamer;
+
+    @Test
+    void nomIsASubstringSearch() throws Exception {
+        when(produitService.searchByNom("chem")).thenReturn(List.of());
+
+        mockMvc.perform(get("/produits/search").param("nom", "chem")).andExpect(status().isOk());
+
+        verify(produitService).searchByNom("chem");
+        verifyNoMoreInteractions(produitService);
+    }
+
+    @Test
+    void nomWithSizeIsPaged() throws Exception {
+        when(produitService.searchPageByNom(eq("chem"), isNull(), eq(10)))
+                .thenReturn(CursorPage.<ProduitFemmeDto>builder().build());
+
+        mockMvc.perform(get("/produits/search").param("nom", "chem").param("size", "10")).andExpect(status().isOk());
+
+        verify(produitService).searchPageByNom("chem", null, 10);
+        verifyNoMoreInteractions(produitService);
+    }
+
+    @Test
+    void qIsRanked() throws Exception {
+        when(produitService.search(any(), any())).thenReturn(List.of());
+
+        mockMvc.perform(get("/produits/search").param("q", "chemise lin")).andExpect(status().isOk());
+
+        verify(produitService).search("chemise lin", null);
+        verifyNoMoreInteractions(produitService);
+    }
+
+    @Test
+    void qWithSizeIsStillRanked() throws Exception {
+        when(produitService.search(any(), any())).thenReturn(List.of());
+
+        mockMvc.perform(get("/produits/search").param("q", "chemise").param("size", "10")).andExpect(status().isOk());
+
+        verify(produitService).search("chemise", null);
+        verifyNoMoreInteractions(produitService);
+    }
+}
@@ -0,0 +1,61 @@
+package com.projetproduits.femme.repository;
+
+import com.projetproduits.femme.PostgresTestDatabase;
+import com.projetproduits.femme.entity.TypeInteraction;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Reads the columns of the binary export from a migrated database and compares the epoch milliseconds the
+ * database computes with the ones Java computes for the same stored date-time.
+ */
+class InteractionFemmeColumnsRepositoryTest {
+
+    private static JdbcTemplate jdbcTemplate;
+    private static InteractionFemmeColumnsRepositoryImpl repository;
+
+    @BeforeAll
+    static void database() {
+        PostgresTestDatabase.assumeAvailable();
+        jdbcTemplate = new JdbcTemplate(PostgresTestDatabase.migrated("interaction_columns_femme"));
+        repository = new InteractionFemmeColumnsRepositoryImpl(jdbcTemplate);
+        jdbcTemplate.update("INSERT INTO users_femme (id, nom, email, age) VALUES (1, 'Alice', 'alice@columns.test', 30)");
+    }
+
+    @Test
+    void truncatesTimestampsToTheMillisecondLikeJava() {
+        List<LocalDateTime> timestamps = List.of(
+                LocalDateTime.parse("2024-03-01T10:00:00.000999"),
+                LocalDateTime.parse("2024-03-01T10:00:00.001"),
+                LocalDateTime.parse("2024-03-01T10:00:00.0015"),
+                // Before the epoch, truncation goes towards the earlier millisecond
+                LocalDateTime.parse("1969-12-31T23:59:59.9995"));
+        for (LocalDateTime timestamp : timestamps) {
+            jdbcTemplate.update("INSERT INTO interactions_femme (user_id, produit_id, type_interaction, \"timestamp\") "
+                    + "VALUES (1, 1, ?, ?)", TypeInteraction.PURCHASE.name(), Timestamp.valueOf(timestamp));
+        }
+
+        List<Long> millis = new ArrayList<>();
+        List<Integer> types = new ArrayList<>();
+        repository.forEachColumns(null, null, (id, userId, produitId, typeCode, epochMillis) -> {
+            millis.add(epochMillis);
+            types.add(typeCode);
+        });
+
+        assertThat(millis).containsExactlyElementsOf(timestamps.stream()
+                .map(timestamp -> timestamp.toInstant(ZoneOffset.UTC).toEpochMilli())
+                .toList());
+        // Rounding would put the first one in the millisecond of the second
+        assertThat(millis.get(0)).isLessThan(millis.get(1));
+        assertThat(types).containsOnly(TypeInteraction.PURCHASE.ordinal());
+    }
+}
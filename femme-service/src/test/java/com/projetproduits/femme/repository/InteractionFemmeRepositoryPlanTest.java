@@ -0,0 +1,269 @@
+package com.projetproduits.femme.repository;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.projetproduits.femme.PostgresTestDatabase;
+import com.projetproduits.femme.entity.TypeInteraction;
+import com.projetproduits.femme.service.InteractionFemmePartitionManager;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Plans every selective query of InteractionFemmeRepository, as Hibernate sends it, on the partitioned table of the
+ * migrations, and fails when interactions_femme is read without an index condition. Sequential scans are disabled
+ * while planning, so the empty test table still shows the index the planner would use at scale: a sequential scan
+ * left in the plan, or a full index scan filtering its rows, means no index serves the query. The full exports in
+ * timestamp order have to read the timestamp index instead of sorting the table. The unordered full reads (findAllDtos,
+ * streamAll) and findByTypeInteraction, which matches a large share of the table, scan by design and are not checked.
+ * Plans are generic, the ones a prepared statement reused across values gets, and made with PREPARE rather than
+ * EXPLAIN (GENERIC_PLAN), which only exists from PostgreSQL 16 on.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.projetproduits.femme.repository.InteractionFemmeRepositoryPlanTest$Recorder")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(InteractionFemmePartitionManager.class)
+class InteractionFemmeRepositoryPlanTest {
+
+    private static final String TABLE = "interactions_femme";
+
+    @Autowired
+    private InteractionFemmeRepository repository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeAll
+    static void requireDatabase() {
+        PostgresTestDatabase.assumeAvailable();
+    }
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> PostgresTestDatabase.create("repository_plans_femme"));
+        registry.add("spring.datasource.username", PostgresTestDatabase::username);
+        registry.add("spring.datasource.password", PostgresTestDatabase::password);
+    }
+
+    /**
+     * Keeps the SQL of every statement Hibernate prepares.
+     */
+    public static class Recorder implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+
+    @BeforeEach
+    void clear() {
+        Recorder.STATEMENTS.clear();
+    }
+
+    @Test
+    void findDtoById() {
+        repository.findDtoById(1L);
+        assertIndexed();
+    }
+
+    @Test
+    void findByUserId() {
+        repository.findByUserId(1L);
+        assertIndexed();
+    }
+
+    @Test
+    void findByProduitId() {
+        repository.findByProduitId(1L);
+        assertIndexed();
+    }
+
+    @Test
+    void findByUserIdAndTypeInteraction() {
+        repository.findByUserIdAndTypeInteraction(1L, TypeInteraction.VIEW);
+        assertIndexed();
+    }
+
+    @Test
+    void findByTimestampBetween() {
+        repository.findByTimestampBetween(LocalDateTime.now().minusDays(1), LocalDateTime.now());
+        assertIndexed();
+    }
+
+    // With its bounds known, the planner keeps only the partitions they overlap, here the current month's
+    @Test
+    void findByTimestampBetweenReadsOnlyTheMatchingPartitions() {
+        LocalDateTime month = LocalDate.now().withDayOfMonth(1).atStartOfDay();
+        repository.findByTimestampBetween(month.plusDays(1), month.plusDays(2));
+
+        String sql = query();
+        String plan = jdbcTemplate.queryForObject("EXPLAIN (FORMAT JSON) " + sql, String.class,
+                month.plusDays(1), month.plusDays(2));
+        Set<String> relations = new TreeSet<>();
+        relations(read(plan).path(0).path("Plan"), relations);
+        assertThat(relations).as("partitions in the plan of%n%s%n%s", sql, plan)
+                .containsExactly(TABLE + "_p" + month.format(DateTimeFormatter.ofPattern("yyyy_MM")));
+    }
+
+    @Test
+    void findRecentInteractionsByUser() {
+        repository.findRecentInteractionsByUser(1L, PageRequest.of(0, 50));
+        assertIndexed();
+    }
+
+    @Test
+    void countAllByProduitAndType() {
+        repository.countAllByProduitAndType();
+        assertIndexed();
+    }
+
+    @Test
+    void findAllForTraining() {
+        repository.findAllForTraining();
+        assertReadInIndexOrder();
+    }
+
+    @Test
+    void streamAllForTraining() {
+        try (Stream<?> rows = repository.streamAllForTraining()) {
+            rows.count();
+        }
+        assertReadInIndexOrder();
+    }
+
+    @Test
+    void streamForTrainingAfterId() {
+        try (Stream<?> rows = repository.streamForTrainingAfterId(1L)) {
+            rows.count();
+        }
+        assertIndexed();
+    }
+
+    @Test
+    void streamForTrainingAfter() {
+        try (Stream<?> rows = repository.streamForTrainingAfter(LocalDateTime.now().minusDays(1))) {
+            rows.count();
+        }
+        assertIndexed();
+    }
+
+    private void assertIndexed() {
+        String sql = query();
+        jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+        String plan = genericPlan(sql);
+        List<String> scans = new ArrayList<>();
+        unindexedScans(read(plan).path(0).path("Plan"), scans);
+        assertThat(scans).as("scans of %s without index condition in the plan of%n%s%n%s", TABLE, sql, plan).isEmpty();
+    }
+
+    // With bitmap scans, which return rows out of order, disabled too, only an index that matches the order leaves the sort
+    // out: an ordered index scan of each partition, merged in order (Merge Append) or read in bound order (Append)
+    private void assertReadInIndexOrder() {
+        String sql = query();
+        jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+        jdbcTemplate.execute("SET LOCAL enable_bitmapscan = off");
+        String plan = genericPlan(sql);
+        List<String> nodes = new ArrayList<>();
+        nodeTypes(read(plan).path(0).path("Plan"), nodes);
+        assertThat(nodes).as("nodes of the plan of%n%s%n%s", sql, plan)
+                .doesNotContain("Seq Scan", "Sort", "Incremental Sort")
+                .containsAnyOf("Index Scan", "Index Only Scan");
+    }
+
+    private String genericPlan(String sql) {
+        jdbcTemplate.execute("SET LOCAL plan_cache_mode = force_generic_plan");
+        int parameters = (int) sql.chars().filter(c -> c == '?').count();
+        jdbcTemplate.execute("PREPARE plan_check AS " + numberParameters(sql));
+        try {
+            // The generic plan does not depend on the values
+            String values = parameters == 0 ? "" : "(" + String.join(", ", Collections.nCopies(parameters, "NULL")) + ")";
+            return jdbcTemplate.queryForObject("EXPLAIN (FORMAT JSON) EXECUTE plan_check" + values, String.class);
+        } finally {
+            jdbcTemplate.execute("DEALLOCATE plan_check");
+        }
+    }
+
+    private String query() {
+        List<String> queries = Recorder.STATEMENTS.stream().filter(sql -> sql.contains(TABLE)).toList();
+        assertThat(queries).hasSize(1);
+        return queries.get(0);
+    }
+
+    // PREPARE takes the numbered parameters of PostgreSQL rather than JDBC's
+    private static String numberParameters(String sql) {
+        StringBuilder numbered = new StringBuilder();
+        int parameter = 0;
+        for (char c : sql.toCharArray()) {
+            if (c == '?') {
+                numbered.append('$').append(++parameter);
+            } else {
+                numbered.append(c);
+            }
+        }
+        return numbered.toString();
+    }
+
+    // Partitions are named after the table, so a scan of any of them counts
+    private static void unindexedScans(JsonNode node, List<String> scans) {
+        String relation = node.path("Relation Name").asText();
+        boolean filtered = node.has("Filter") && !node.has("Index Cond") && !node.has("Recheck Cond");
+        if (relation.startsWith(TABLE) && ("Seq Scan".equals(node.path("Node Type").asText()) || filtered)) {
+            scans.add(node.path("Node Type").asText() + " on " + relation);
+        }
+        for (JsonNode child : node.path("Plans")) {
+            unindexedScans(child, scans);
+        }
+    }
+
+    private static void nodeTypes(JsonNode node, List<String> nodes) {
+        nodes.add(node.path("Node Type").asText());
+        for (JsonNode child : node.path("Plans")) {
+            nodeTypes(child, nodes);
+        }
+    }
+
+    private static void relations(JsonNode node, Set<String> relations) {
+        if (node.has("Relation Name")) {
+            relations.add(node.path("Relation Name").asText());
+        }
+        for (JsonNode child : node.path("Plans")) {
+            relations(child, relations);
+        }
+    }
+
+    private JsonNode read(String plan) {
+        try {
+            return objectMapper.readTree(plan);
+        } catch (Exception e) {
+            throw new IllegalStateException("Unreadable query plan: " + plan, e);
+        }
+    }
+}
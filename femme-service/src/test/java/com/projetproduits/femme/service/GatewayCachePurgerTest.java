@@ -0,0 +1,70 @@
+package com.projetproduits.femme.service;
+
+import com.projetproduits.femme.event.ProduitFemmeChangedEvent;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Sends purges to a stub of the gateway endpoint that records the path and token of every request.
+ */
+class GatewayCachePurgerTest {
+
+    private HttpServer gateway;
+    private final BlockingQueue<String> purges = new LinkedBlockingQueue<>();
+    private GatewayCachePurger purger;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        gateway = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        gateway.createContext("/internal/cache/purge/", exchange -> {
+            purges.add(exchange.getRequestMethod() + " " + exchange.getRequestURI().getPath() + " "
+                    + exchange.getRequestHeaders().getFirst(GatewayCachePurger.TOKEN_HEADER));
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        gateway.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (purger != null) {
+            purger.stop();
+        }
+        gateway.stop(0);
+    }
+
+    @Test
+    void purgesTheRouteWithTheToken() throws InterruptedException {
+        purger = purger("http://localhost:" + gateway.getAddress().getPort() + "/internal/cache/purge/femme-service");
+
+        purger.onProduitChanged(new ProduitFemmeChangedEvent(List.of()));
+
+        assertThat(purges.poll(5, TimeUnit.SECONDS)).isEqualTo("POST /internal/cache/purge/femme-service secret");
+    }
+
+    @Test
+    void sendsNothingWithoutAUrl() throws InterruptedException {
+        purger = purger("");
+
+        purger.onProduitChanged(new ProduitFemmeChangedEvent(List.of()));
+
+        assertThat(purges.poll(200, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+    private GatewayCachePurger purger(String url) {
+        return new GatewayCachePurger(RestClient.builder(), url, "secret", Duration.ofSeconds(1));
+    }
+}
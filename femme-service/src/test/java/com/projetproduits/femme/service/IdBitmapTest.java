@@ -0,0 +1,77 @@
+package com.projetproduits.femme.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IdBitmapTest {
+
+    private final IdBitmap bitmap = new IdBitmap();
+
+    @Test
+    void addsAndRemovesIds() {
+        bitmap.add(1);
+        bitmap.add(64);
+        bitmap.add(65);
+
+        bitmap.remove(64);
+
+        assertThat(bitmap.contains(1)).isTrue();
+        assertThat(bitmap.contains(64)).isFalse();
+        assertThat(bitmap.contains(65)).isTrue();
+        assertThat(bitmap.contains(2)).isFalse();
+    }
+
+    @Test
+    void growsForLargeIds() {
+        long id = 10_000_000;
+        bitmap.add(1);
+        bitmap.add(id);
+
+        assertThat(bitmap.contains(1)).isTrue();
+        assertThat(bitmap.contains(id)).isTrue();
+        assertThat(bitmap.contains(id - 1)).isFalse();
+    }
+
+    @Test
+    void neverStoresIdsOutOfRange() {
+        bitmap.add(-1);
+        bitmap.add(IdBitmap.MAX_ID);
+        bitmap.remove(IdBitmap.MAX_ID);
+
+        assertThat(bitmap.contains(-1)).isFalse();
+        assertThat(bitmap.contains(IdBitmap.MAX_ID)).isFalse();
+    }
+
+    @Test
+    void skipsAnAddThatOverlapsARemoval() {
+        long seen = bitmap.removals();
+        bitmap.remove(7);
+
+        bitmap.addIfNoRemovalSince(8, seen);
+        assertThat(bitmap.contains(8)).isFalse();
+
+        bitmap.addIfNoRemovalSince(8, bitmap.removals());
+        assertThat(bitmap.contains(8)).isTrue();
+    }
+
+    @Test
+    void appliesRemovalsMadeDuringALoad() {
+        Stream<Long> ids = LongStream.range(0, 1000).boxed()
+                .peek(id -> {
+                    // Deleted after the stream was opened, but the stream still returns it later
+                    if (id == 10) {
+                        bitmap.remove(500);
+                    }
+                });
+
+        bitmap.load(ids);
+
+        assertThat(bitmap.contains(499)).isTrue();
+        assertThat(bitmap.contains(500)).isFalse();
+        assertThat(bitmap.contains(501)).isTrue();
+    }
+}
@@ -0,0 +1,194 @@
+package com.projetproduits.femme.service;
+
+import com.projetproduits.femme.entity.TypeInteraction;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Encodes rows and reads them back with a decoder written from the format description of the encoder,
+ * as ml-service/interactions_columns.py does.
+ */
+class InteractionColumnarEncoderTest {
+
+    private static final long START = 1_700_000_000_000L;
+
+    @Test
+    void storesEachTimestampAsTheDeltaFromThePreviousRow() throws Exception {
+        List<Row> rows = List.of(
+                new Row(1, 10, 100, 0, START),
+                new Row(2, 11, 101, 1, START + 5),
+                new Row(3, 12, 102, 2, START + 12),
+                new Row(4, 13, 103, 0, START + 10));
+
+        Decoded decoded = decode(encode(rows, false));
+
+        assertThat(decoded.groups).hasSize(1);
+        Group group = decoded.groups.get(0);
+        assertThat(group.firstTimestamp).isEqualTo(START);
+        assertThat(group.deltas).containsExactly(0, 5, 7, -2);
+        assertThat(decoded.rows).isEqualTo(rows);
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void roundTripsSeveralRowGroups(boolean deflate) throws Exception {
+        Random random = new Random(42);
+        List<Row> rows = new ArrayList<>();
+        long timestamp = START;
+        for (int i = 0; i < InteractionColumnarEncoder.ROW_GROUP_SIZE * 2 + 123; i++) {
+            timestamp += random.nextInt(60_000);
+            rows.add(new Row(i + 1, random.nextInt(1000), random.nextInt(5000),
+                    random.nextInt(TypeInteraction.values().length), timestamp));
+        }
+
+        Decoded decoded = decode(encode(rows, deflate));
+
+        assertThat(decoded.deflated).isEqualTo(deflate);
+        assertThat(decoded.groups).extracting(group -> group.rows)
+                .containsExactly(InteractionColumnarEncoder.ROW_GROUP_SIZE, InteractionColumnarEncoder.ROW_GROUP_SIZE, 123);
+        assertThat(decoded.rows).isEqualTo(rows);
+    }
+
+    @Test
+    void closesTheGroupWhenADeltaDoesNotFitInAnInt() throws Exception {
+        List<Row> rows = List.of(
+                new Row(1, 1, 1, 0, START),
+                new Row(2, 1, 1, 0, START + Integer.MAX_VALUE + 1L),
+                new Row(3, 1, 1, 0, START + Integer.MAX_VALUE + 2L),
+                new Row(4, 1, 1, 0, START - 1));
+
+        Decoded decoded = decode(encode(rows, false));
+
+        assertThat(decoded.groups).extracting(group -> group.rows).containsExactly(1, 2, 1);
+        assertThat(decoded.rows).isEqualTo(rows);
+    }
+
+    @Test
+    void writesTheTypeDictionaryAndAnEmptyExport() throws Exception {
+        Decoded decoded = decode(encode(List.of(), false));
+
+        assertThat(decoded.types).containsExactly(
+                Arrays.stream(TypeInteraction.values()).map(Enum::name).toArray(String[]::new));
+        assertThat(decoded.groups).isEmpty();
+    }
+
+    private static byte[] encode(List<Row> rows, boolean deflate) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        InteractionColumnarEncoder encoder = new InteractionColumnarEncoder(out, deflate);
+        for (Row row : rows) {
+            encoder.add(row.id, row.userId, row.produitId, row.type, row.timestamp);
+        }
+        encoder.finish();
+        return out.toByteArray();
+    }
+
+    private static Decoded decode(byte[] file) throws DataFormatException {
+        ByteBuffer buffer = ByteBuffer.wrap(file).order(ByteOrder.LITTLE_ENDIAN);
+        byte[] magic = new byte[4];
+        buffer.get(magic);
+        assertThat(new String(magic, StandardCharsets.US_ASCII)).isEqualTo("PPIC");
+        assertThat(buffer.getShort()).isEqualTo((short) 1);
+        Decoded decoded = new Decoded();
+        decoded.deflated = (buffer.getShort() & 1) != 0;
+        assertThat(buffer.getInt()).isEqualTo(InteractionColumnarEncoder.ROW_GROUP_SIZE);
+        int typeCount = buffer.getShort();
+        for (int i = 0; i < typeCount; i++) {
+            byte[] name = new byte[buffer.get()];
+            buffer.get(name);
+            decoded.types.add(new String(name, StandardCharsets.UTF_8));
+        }
+        align(buffer);
+
+        while (true) {
+            int rows = buffer.getInt();
+            int length = buffer.getInt();
+            if (rows == 0) {
+                assertThat(length).isZero();
+                assertThat(buffer.hasRemaining()).isFalse();
+                return decoded;
+            }
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            align(buffer);
+            ByteBuffer payload = ByteBuffer.wrap(decoded.deflated ? inflate(bytes, rows) : bytes).order(ByteOrder.LITTLE_ENDIAN);
+            decoded.groups.add(readGroup(payload, rows, decoded.rows));
+        }
+    }
+
+    private static Group readGroup(ByteBuffer payload, int rows, List<Row> into) {
+        Group group = new Group();
+        group.rows = rows;
+        group.firstTimestamp = payload.getLong();
+        long[] ids = readLongs(payload, rows);
+        long[] userIds = readLongs(payload, rows);
+        long[] produitIds = readLongs(payload, rows);
+        // Every column starts on an 8-byte boundary of the payload
+        assertThat(payload.position() % 8).isZero();
+        group.deltas = new int[rows];
+        payload.asIntBuffer().get(group.deltas);
+        payload.position(payload.position() + rows * 4);
+        byte[] types = new byte[rows];
+        payload.get(types);
+        assertThat(payload.hasRemaining()).isFalse();
+
+        long timestamp = group.firstTimestamp;
+        for (int i = 0; i < rows; i++) {
+            timestamp += group.deltas[i];
+            into.add(new Row(ids[i], userIds[i], produitIds[i], types[i], timestamp));
+        }
+        return group;
+    }
+
+    private static long[] readLongs(ByteBuffer payload, int rows) {
+        assertThat(payload.position() % 8).isZero();
+        long[] values = new long[rows];
+        payload.asLongBuffer().get(values);
+        payload.position(payload.position() + rows * 8);
+        return values;
+    }
+
+    private static byte[] inflate(byte[] compressed, int rows) throws DataFormatException {
+        Inflater inflater = new Inflater();
+        inflater.setInput(compressed);
+        byte[] payload = new byte[8 + rows * (3 * 8 + 4 + 1)];
+        assertThat(inflater.inflate(payload)).isEqualTo(payload.length);
+        assertThat(inflater.finished()).isTrue();
+        inflater.end();
+        return payload;
+    }
+
+    private static void align(ByteBuffer buffer) {
+        buffer.position((buffer.position() + 7) & ~7);
+    }
+
+    private record Row(long id, long userId, long produitId, int type, long timestamp) {
+    }
+
+    private static final class Group {
+        int rows;
+        long firstTimestamp;
+        int[] deltas;
+    }
+
+    private static final class Decoded {
+        boolean deflated;
+        final List<String> types = new ArrayList<>();
+        final List<Group> groups = new ArrayList<>();
+        final List<Row> rows = new ArrayList<>();
+    }
+}
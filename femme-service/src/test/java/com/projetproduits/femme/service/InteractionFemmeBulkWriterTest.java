@@ -0,0 +1,102 @@
+package com.projetproduits.femme.service;
+
+import com.projetproduits.femme.PostgresTestDatabase;
+import com.projetproduits.femme.dto.IngestStatsDto;
+import com.projetproduits.femme.dto.InteractionFemmeDto;
+import com.projetproduits.femme.entity.TypeInteraction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class InteractionFemmeBulkWriterTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private long userId;
+
+    private final InteractionFemmeCounters counters = mock(InteractionFemmeCounters.class);
+    private final ProduitFemmeTrendingIndex trendingIndex = mock(ProduitFemmeTrendingIndex.class);
+    private final InteractionFemmeRecentCache recentCache = mock(InteractionFemmeRecentCache.class);
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(PostgresTestDatabase.migrated("interaction_writer_femme"));
+        userId = jdbcTemplate.queryForObject(
+                "INSERT INTO users_femme (nom, email, age) VALUES ('Test', 'test@example.com', 30) RETURNING id", Long.class);
+    }
+
+    @Test
+    void writesTheBatchAndSkipsUnknownProducts() {
+        IngestStatsDto stats = write(1, 2, 3, 9_999, 4);
+
+        assertThat(stats.getWritten()).isEqualTo(4);
+        assertThat(stats.getSkipped()).isEqualTo(1);
+        assertThat(stats.getDropped()).isZero();
+        assertThat(rows()).isEqualTo(4);
+        verify(counters, times(4)).add(anyLong(), eq(TypeInteraction.VIEW), eq(1L));
+    }
+
+    @Test
+    void keepsTheOtherEventsOfABatchTheDatabaseRejects() {
+        jdbcTemplate.execute("ALTER TABLE interactions_femme ADD CONSTRAINT interactions_femme_test CHECK (produit_id <> 13)");
+
+        IngestStatsDto stats = write(1, 2, 13, 3, 4);
+
+        assertThat(stats.getWritten()).isEqualTo(4);
+        assertThat(stats.getDropped()).isEqualTo(1);
+        assertThat(stats.getBuffered()).isZero();
+        assertThat(rows()).isEqualTo(4);
+        verify(counters, times(4)).add(anyLong(), eq(TypeInteraction.VIEW), eq(1L));
+        verify(counters, never()).add(eq(13L), any(), anyLong());
+    }
+
+    @Test
+    void doesNotKeepTheJvmAlive() {
+        InteractionFemmeBulkWriter writer = new InteractionFemmeBulkWriter(
+                jdbcTemplate, counters, trendingIndex, recentCache, 1024, 1000, Duration.ofMillis(10));
+        // Writers of Spring contexts cached by other test classes run under the same name
+        Set<Thread> running = Thread.getAllStackTraces().keySet();
+        writer.start();
+        try {
+            assertThat(Thread.getAllStackTraces().keySet())
+                    .filteredOn(thread -> thread.getName().equals("interaction-femme-writer") && !running.contains(thread))
+                    .singleElement()
+                    .matches(Thread::isDaemon);
+        } finally {
+            writer.stop();
+        }
+    }
+
+    // Queues one view per product and stops the writer, which drains the buffer first
+    private IngestStatsDto write(long... produitIds) {
+        InteractionFemmeBulkWriter writer = new InteractionFemmeBulkWriter(
+                jdbcTemplate, counters, trendingIndex, recentCache, 1024, 1000, Duration.ofMillis(10));
+        writer.start();
+        for (long produitId : produitIds) {
+            assertThat(writer.offer(InteractionFemmeDto.builder()
+                    .userId(userId)
+                    .produitId(produitId)
+                    .typeInteraction(TypeInteraction.VIEW)
+                    .timestamp(LocalDateTime.now())
+                    .build())).isTrue();
+        }
+        writer.stop();
+        return writer.getStats();
+    }
+
+    private long rows() {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM interactions_femme", Long.class);
+    }
+}
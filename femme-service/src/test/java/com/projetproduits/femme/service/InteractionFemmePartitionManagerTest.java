@@ -0,0 +1,84 @@
+package com.projetproduits.femme.service;
+
+import com.projetproduits.femme.PostgresTestDatabase;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InteractionFemmePartitionManagerTest {
+
+    private static final int ROWS = 20_000;
+    private static final int DAYS = 120;
+
+    private HikariDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void requireDatabase() {
+        PostgresTestDatabase.assumeAvailable();
+    }
+
+    @BeforeEach
+    void setUp() {
+        dataSource = PostgresTestDatabase.migrated("partition_manager_femme");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("INSERT INTO users_femme (nom, email, age) VALUES ('Test', 'test@example.com', 30)");
+    }
+
+    @AfterEach
+    void close() {
+        dataSource.close();
+    }
+
+    @Test
+    void prunesPartitionsOfBoundedQueries() {
+        jdbcTemplate.update("INSERT INTO interactions_femme (user_id, produit_id, type_interaction, \"timestamp\") "
+                + "SELECT 1, 1 + g % 20, 'VIEW', now() - g * interval '1 day' * " + DAYS + " / " + ROWS
+                + " FROM generate_series(1, " + ROWS + ") g");
+        manager(3).initialize();
+        jdbcTemplate.execute("ANALYZE interactions_femme");
+
+        String current = "interactions_femme_p" + LocalDate.now().format(DateTimeFormatter.ofPattern("yyyy_MM"));
+        String plan = String.join("\n", jdbcTemplate.queryForList(
+                "EXPLAIN SELECT COUNT(*) FROM interactions_femme WHERE \"timestamp\" >= date_trunc('month', now())", String.class));
+
+        assertThat(plan).contains(current);
+        assertThat(partitions()).filteredOn(partition -> !partition.equals(current) && plan.contains(partition + " "))
+                .as("partitions scanned besides %s", current)
+                .allMatch(partition -> partition.compareTo(current) > 0);
+    }
+
+    @Test
+    void createsUpcomingPartitionsOnce() {
+        InteractionFemmePartitionManager manager = manager(2);
+        manager.initialize();
+        List<String> partitions = partitions();
+
+        manager.maintain();
+        manager(2).initialize();
+
+        // The current month and the next two
+        assertThat(partitions()).isEqualTo(partitions).hasSize(3);
+    }
+
+    private InteractionFemmePartitionManager manager(int premake) {
+        return new InteractionFemmePartitionManager(jdbcTemplate, new DataSourceTransactionManager(dataSource),
+                InteractionFemmePartitionManager.Interval.MONTHLY, premake, 0, InteractionFemmePartitionManager.Expiry.DETACH);
+    }
+
+    private List<String> partitions() {
+        return jdbcTemplate.queryForList("SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid "
+                + "WHERE i.inhparent = to_regclass('interactions_femme') AND c.relname <> 'interactions_femme_default' "
+                + "ORDER BY c.relname", String.class);
+    }
+}
@@ -0,0 +1,114 @@
+package com.projetproduits.femme.service;
+
+import com.projetproduits.femme.dto.InteractionFemmeDto;
+import com.projetproduits.femme.entity.TypeInteraction;
+import com.projetproduits.femme.repository.InteractionFemmeRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class InteractionFemmeRecentCacheTest {
+
+    private static final long USER = 1L;
+    private static final LocalDateTime T0 = LocalDateTime.of(2026, 1, 1, 12, 0);
+
+    private final InteractionFemmeRepository repository = mock(InteractionFemmeRepository.class);
+    private final InteractionFemmeRecentCache cache = new InteractionFemmeRecentCache(repository, 4, 100, Duration.ofMinutes(30));
+
+    @Test
+    void loadsAUserOnTheFirstReadOnly() {
+        loaded(interaction(2, 2), interaction(1, 1));
+
+        assertThat(ids(cache.get(USER, 10))).containsExactly(2L, 1L);
+        assertThat(ids(cache.get(USER, 1))).containsExactly(2L);
+        verify(repository, times(1)).findRecentInteractionsByUser(eq(USER), any(Pageable.class));
+    }
+
+    @Test
+    void keepsTheNewestInteractionsOfALoadedUser() {
+        loaded(interaction(2, 2), interaction(1, 1));
+        cache.get(USER, 10);
+
+        for (long id = 3; id <= 6; id++) {
+            cache.add(interaction(id, id));
+        }
+
+        assertThat(ids(cache.get(USER, 10))).containsExactly(6L, 5L, 4L, 3L);
+    }
+
+    @Test
+    void shiftsAnOutOfOrderInteractionIntoPlace() {
+        loaded(interaction(5, 50), interaction(3, 30), interaction(1, 10));
+        cache.get(USER, 10);
+
+        cache.add(interaction(4, 40));
+        cache.add(interaction(2, 5));
+
+        assertThat(ids(cache.get(USER, 10))).containsExactly(5L, 4L, 3L, 1L);
+    }
+
+    @Test
+    void ignoresAnInteractionTheLoadAlreadyRead() {
+        InteractionFemmeDto latest = interaction(2, 2);
+        loaded(latest, interaction(1, 1));
+        cache.get(USER, 10);
+
+        cache.add(latest);
+
+        assertThat(ids(cache.get(USER, 10))).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void leavesOutUsersNotInTheCache() {
+        cache.add(interaction(1, 1));
+
+        verify(repository, times(0)).findRecentInteractionsByUser(any(), any());
+        loaded();
+        assertThat(cache.get(USER, 10)).isEmpty();
+    }
+
+    @Test
+    void reloadsAUserWhenAnInteractionHasNoId() {
+        loaded(interaction(1, 1));
+        cache.get(USER, 10);
+
+        cache.add(interaction(null, 2));
+        loaded(interaction(2, 2), interaction(1, 1));
+
+        assertThat(ids(cache.get(USER, 10))).containsExactly(2L, 1L);
+        verify(repository, times(2)).findRecentInteractionsByUser(eq(USER), any(Pageable.class));
+    }
+
+    private void loaded(InteractionFemmeDto... newestFirst) {
+        when(repository.findRecentInteractionsByUser(eq(USER), any(Pageable.class))).thenReturn(List.of(newestFirst));
+    }
+
+    private static InteractionFemmeDto interaction(Long id, long minutes) {
+        return InteractionFemmeDto.builder()
+                .id(id)
+                .userId(USER)
+                .produitId(1L)
+                .typeInteraction(TypeInteraction.VIEW)
+                .timestamp(T0.plusMinutes(minutes))
+                .build();
+    }
+
+    private static InteractionFemmeDto interaction(long id, long minutes) {
+        return interaction(Long.valueOf(id), minutes);
+    }
+
+    private static List<Long> ids(List<InteractionFemmeDto> interactions) {
+        return interactions.stream().map(InteractionFemmeDto::getId).toList();
+    }
+}
@@ -0,0 +1,106 @@
+package com.projetproduits.femme.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MpscRingBufferTest {
+
+    @Test
+    void roundsTheCapacityUpToAPowerOfTwo() {
+        assertThat(new MpscRingBuffer<>(1000).capacity()).isEqualTo(1024);
+        assertThat(new MpscRingBuffer<>(1024).capacity()).isEqualTo(1024);
+        assertThat(new MpscRingBuffer<>(0).capacity()).isEqualTo(2);
+    }
+
+    @Test
+    void rejectsOffersWhenFull() {
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertThat(buffer.offer(i)).isTrue();
+        }
+
+        assertThat(buffer.offer(4)).isFalse();
+        assertThat(buffer.size()).isEqualTo(4);
+    }
+
+    @Test
+    void drainsOldestFirstUpToMax() {
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(4);
+        List<Integer> drained = new ArrayList<>();
+        buffer.offer(1);
+        buffer.offer(2);
+        buffer.offer(3);
+
+        assertThat(buffer.drain(drained::add, 2)).isEqualTo(2);
+        assertThat(drained).containsExactly(1, 2);
+        assertThat(buffer.size()).isEqualTo(1);
+    }
+
+    @Test
+    void reusesTheSlotsOnceDrained() {
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(2);
+        List<Integer> drained = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            assertThat(buffer.offer(i)).isTrue();
+            buffer.drain(drained::add, 1);
+        }
+
+        assertThat(drained).containsExactly(0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+        assertThat(buffer.drain(drained::add, 1)).isZero();
+    }
+
+    @Test
+    void keepsEveryItemAndTheOrderOfEachProducer() throws Exception {
+        int producers = 4;
+        int perProducer = 50_000;
+        MpscRingBuffer<long[]> buffer = new MpscRingBuffer<>(1024);
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        try {
+            List<Future<?>> sent = new ArrayList<>();
+            for (int p = 0; p < producers; p++) {
+                long producer = p;
+                sent.add(executor.submit(() -> {
+                    for (long i = 0; i < perProducer; i++) {
+                        while (!buffer.offer(new long[]{producer, i})) {
+                            Thread.yield();
+                        }
+                    }
+                }));
+            }
+
+            long[] next = new long[producers];
+            long[] outOfOrder = {0};
+            long received = 0;
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            while (received < (long) producers * perProducer && System.nanoTime() < deadline) {
+                int drained = buffer.drain(item -> {
+                    if (item[1] != next[(int) item[0]]++) {
+                        outOfOrder[0]++;
+                    }
+                }, 256);
+                if (drained == 0) {
+                    Thread.yield();
+                }
+                received += drained;
+            }
+            for (Future<?> producer : sent) {
+                producer.get(30, TimeUnit.SECONDS);
+            }
+
+            assertThat(received).isEqualTo((long) producers * perProducer);
+            assertThat(outOfOrder[0]).isZero();
+            assertThat(next).containsOnly(perProducer);
+            assertThat(buffer.size()).isZero();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.projetproduits.femme.service;
+
+import com.projetproduits.femme.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProduitCursorTest {
+
+    @Test
+    void roundTripsAPricePosition() {
+        ProduitCursor cursor = new ProduitCursor(ProduitCursor.Sort.PRIX, "Chaussures & Bottes é", new BigDecimal("149.90"), 42L);
+
+        ProduitCursor decoded = ProduitCursor.decode(cursor.encode(), ProduitCursor.Sort.PRIX);
+
+        assertThat(decoded.getSort()).isEqualTo(ProduitCursor.Sort.PRIX);
+        assertThat(decoded.getCategorie()).isEqualTo("Chaussures & Bottes é");
+        assertThat(decoded.getPrix()).isEqualTo(new BigDecimal("149.90"));
+        assertThat(decoded.getId()).isEqualTo(42L);
+    }
+
+    @Test
+    void roundTripsAnIdPosition() {
+        ProduitCursor decoded = ProduitCursor.decode(
+                new ProduitCursor(ProduitCursor.Sort.ID, null, null, 7L).encode(), ProduitCursor.Sort.ID);
+
+        assertThat(decoded.getCategorie()).isNull();
+        assertThat(decoded.getPrix()).isNull();
+        assertThat(decoded.getId()).isEqualTo(7L);
+        assertThat(decoded.isStart()).isFalse();
+    }
+
+    @Test
+    void encodesAsAUrlSafeToken() {
+        String token = new ProduitCursor(ProduitCursor.Sort.PRIX, "Vestes/Manteaux?", new BigDecimal("99.99"), 1L).encode();
+
+        assertThat(token).matches("[A-Za-z0-9_-]+");
+    }
+
+    @Test
+    void noCursorStartsAtTheBeginning() {
+        assertThat(ProduitCursor.decode(null, ProduitCursor.Sort.ID).isStart()).isTrue();
+        assertThat(ProduitCursor.decode(" ", ProduitCursor.Sort.PRIX).isStart()).isTrue();
+    }
+
+    @Test
+    void rejectsATokenThatIsNotBase64() {
+        assertThatThrownBy(() -> ProduitCursor.decode("not a cursor!", ProduitCursor.Sort.ID))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("Invalid cursor");
+    }
+
+    // Too few or too many fields, an unknown sort, a non-numeric id or price
+    @ParameterizedTest
+    @ValueSource(strings = {"ID\u001F1", "foo", "ID\u001F\u001F\u001F1\u001F2", "NOM\u001F\u001F\u001F1",
+            "ID\u001F\u001F\u001Fx", "ID\u001F\u001F1.5\u001F"})
+    void rejectsAMalformedCursor(String raw) {
+        assertThatThrownBy(() -> ProduitCursor.decode(token(raw), ProduitCursor.Sort.ID))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("Invalid cursor");
+    }
+
+    @Test
+    void rejectsAMalformedPrice() {
+        assertThatThrownBy(() -> ProduitCursor.decode(token("PRIX\u001FVestes\u001Fcheap\u001F1"), ProduitCursor.Sort.PRIX))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("Invalid cursor");
+    }
+
+    @Test
+    void rejectsACursorOfAnotherSort() {
+        String token = new ProduitCursor(ProduitCursor.Sort.PRIX, "Vestes", BigDecimal.TEN, 3L).encode();
+
+        assertThatThrownBy(() -> ProduitCursor.decode(token, ProduitCursor.Sort.ID))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("Cursor was issued for sort prix");
+    }
+
+    private static String token(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,183 @@
+package com.projetproduits.femme.service;
+
+import com.projetproduits.femme.PostgresTestDatabase;
+import com.projetproduits.femme.dto.CatalogVersion;
+import com.projetproduits.femme.dto.ProduitFemmeDto;
+import com.projetproduits.femme.exception.ResourceNotFoundException;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Writes products through ProduitFemmeService on the migrated database and checks what ProduitFemmeCache
+ * still serves afterwards: a write drops the lists and versions it touches only once its transaction
+ * commits, so a rolled back write, or a reader running before the commit, keeps being served the cached
+ * entries, identical instances included.
+ */
+@SpringBootTest
+class ProduitFemmeCacheInvalidationTest {
+
+    private static final AtomicInteger CATEGORIES = new AtomicInteger();
+
+    @Autowired
+    private ProduitFemmeService produitService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeAll
+    static void requireDatabase() {
+        PostgresTestDatabase.assumeAvailable();
+    }
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> PostgresTestDatabase.create("produit_cache_femme"));
+        registry.add("spring.datasource.username", PostgresTestDatabase::username);
+        registry.add("spring.datasource.password", PostgresTestDatabase::password);
+    }
+
+    @Test
+    void rolledBackUpdateEvictsNothing() {
+        String categorie = categorie();
+        ProduitFemmeDto produit = produitService.create(produit("Wool Cape", categorie));
+        Snapshot before = snapshot(produit.getId(), categorie);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            produitService.update(produit.getId(), produit("Wool Cape Grey", categorie()));
+            // Not committed yet: readers still get the cached entries
+            assertThat(snapshot(produit.getId(), categorie)).isEqualTo(before);
+            status.setRollbackOnly();
+        });
+
+        assertThat(snapshot(produit.getId(), categorie)).isEqualTo(before);
+        assertThat(produitService.findById(produit.getId()).getNom()).isEqualTo("Wool Cape");
+    }
+
+    @Test
+    void deleteRolledBackByAnExceptionEvictsNothing() {
+        String categorie = categorie();
+        ProduitFemmeDto produit = produitService.create(produit("Linen Blouse", categorie));
+        Snapshot before = snapshot(produit.getId(), categorie);
+
+        assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(status -> {
+            produitService.delete(produit.getId());
+            throw new IllegalStateException("Rolled back");
+        })).hasMessage("Rolled back");
+
+        assertThat(snapshot(produit.getId(), categorie)).isEqualTo(before);
+    }
+
+    @Test
+    void committedUpdateInvalidatesTheListsAndVersionsOfTheProductOnly() {
+        String from = categorie();
+        String to = categorie();
+        String untouched = categorie();
+        ProduitFemmeDto produit = produitService.create(produit("Denim Dress", from));
+        produitService.create(produit("Pleated Skirt", untouched));
+        Snapshot fromBefore = snapshot(produit.getId(), from);
+        CatalogVersion toVersionBefore = produitService.getCatalogVersionByCategorie(to);
+        List<ProduitFemmeDto> toBefore = produitService.findByCategorie(to);
+        CatalogVersion untouchedVersionBefore = produitService.getCatalogVersionByCategorie(untouched);
+        List<ProduitFemmeDto> untouchedBefore = produitService.findByCategorie(untouched);
+
+        produitService.update(produit.getId(), produit("Denim Dress Black", to));
+
+        assertThat(produitService.findAll()).isNotSameAs(fromBefore.all())
+                .filteredOn(p -> p.getId().equals(produit.getId()))
+                .extracting(ProduitFemmeDto::getNom).containsExactly("Denim Dress Black");
+        assertThat(produitService.findByCategorie(from)).isEmpty();
+        assertThat(produitService.findByCategorie(to)).isNotSameAs(toBefore)
+                .extracting(ProduitFemmeDto::getId).containsExactly(produit.getId());
+        assertThat(produitService.findById(produit.getId()).getNom()).isEqualTo("Denim Dress Black");
+        assertThat(produitService.getCatalogVersion().getETag()).isNotEqualTo(fromBefore.version().getETag());
+        assertThat(produitService.getCatalogVersionByCategorie(from).isEmpty()).isTrue();
+        assertThat(produitService.getCatalogVersionByCategorie(to).getETag()).isNotEqualTo(toVersionBefore.getETag());
+        assertThat(produitService.getVersion(produit.getId()).getETag()).isNotEqualTo(fromBefore.idVersion().getETag());
+
+        assertThat(produitService.getCatalogVersionByCategorie(untouched)).isSameAs(untouchedVersionBefore);
+        assertThat(produitService.findByCategorie(untouched)).isSameAs(untouchedBefore);
+    }
+
+    @Test
+    void committedDeleteInvalidatesTheListsAndVersionsOfTheProduct() {
+        String categorie = categorie();
+        ProduitFemmeDto produit = produitService.create(produit("Silk Scarf", categorie));
+        produitService.create(produit("Wool Scarf", categorie));
+        Snapshot before = snapshot(produit.getId(), categorie);
+
+        produitService.delete(produit.getId());
+
+        assertThat(produitService.findAll()).hasSize(before.all().size() - 1)
+                .extracting(ProduitFemmeDto::getId).doesNotContain(produit.getId());
+        assertThat(produitService.findByCategorie(categorie)).extracting(ProduitFemmeDto::getNom).containsExactly("Wool Scarf");
+        assertThat(produitService.getCatalogVersion().getCount()).isEqualTo(before.version().getCount() - 1);
+        assertThat(produitService.getCatalogVersionByCategorie(categorie).getCount()).isEqualTo(1);
+        assertThatThrownBy(() -> produitService.findById(produit.getId())).isInstanceOf(ResourceNotFoundException.class);
+        assertThatThrownBy(() -> produitService.getVersion(produit.getId())).isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    void committedBatchInvalidatesTheListsOfItsProducts() {
+        String categorie = categorie();
+        produitService.create(produit("Leather Bag", categorie));
+        Snapshot before = snapshot(null, categorie);
+
+        produitService.createAll(List.of(produit("Canvas Bag", categorie), produit("Suede Bag", categorie)));
+
+        assertThat(produitService.findAll()).hasSize(before.all().size() + 2);
+        assertThat(produitService.findByCategorie(categorie)).hasSize(3);
+        assertThat(produitService.getCatalogVersionByCategorie(categorie).getCount()).isEqualTo(3);
+    }
+
+    // Reads every cached entry a write of the product can touch; the cache hands back the same instances until then.
+    // Versions first, like the controller: loading a version drops the data it describes
+    private Snapshot snapshot(Long id, String categorie) {
+        CatalogVersion version = produitService.getCatalogVersion();
+        CatalogVersion categorieVersion = produitService.getCatalogVersionByCategorie(categorie);
+        CatalogVersion idVersion = id != null ? produitService.getVersion(id) : null;
+        return new Snapshot(
+                produitService.findAll(),
+                produitService.findByCategorie(categorie),
+                id != null ? produitService.findById(id) : null,
+                version,
+                categorieVersion,
+                idVersion);
+    }
+
+    private static String categorie() {
+        return "Cache" + CATEGORIES.incrementAndGet();
+    }
+
+    private static ProduitFemmeDto produit(String nom, String categorie) {
+        return ProduitFemmeDto.builder().nom(nom).categorie(categorie).prix(new BigDecimal("59.90")).build();
+    }
+
+    private record Snapshot(List<ProduitFemmeDto> all, List<ProduitFemmeDto> categorie, ProduitFemmeDto produit,
+                            CatalogVersion version, CatalogVersion categorieVersion, CatalogVersion idVersion) {
+
+        // Identity, not equality: an evicted entry reloaded from the database would be equal but not the same
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Snapshot other && all == other.all && categorie == other.categorie
+                    && produit == other.produit && version == other.version
+                    && categorieVersion == other.categorieVersion && idVersion == other.idVersion;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(all);
+        }
+    }
+}
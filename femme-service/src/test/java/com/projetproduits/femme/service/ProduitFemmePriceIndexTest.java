@@ -0,0 +1,163 @@
+package com.projetproduits.femme.service;
+
+import com.projetproduits.femme.dto.CategorieFacetDto;
+import com.projetproduits.femme.dto.ProduitFemmeDto;
+import com.projetproduits.femme.event.ProduitFemmeChangedEvent;
+import com.projetproduits.femme.repository.ProduitFemmeRepository;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProduitFemmePriceIndexTest {
+
+    private static final List<String> CATEGORIES = List.of("Chemises", "Pantalons", "Vestes", "Chaussures");
+
+    private final ProduitFemmeRepository repository = mock(ProduitFemmeRepository.class);
+    private final ProduitFemmePriceIndex index = new ProduitFemmePriceIndex(repository);
+
+    @Test
+    void filtersOneCategoryByPrice() {
+        load(List.of(
+                produit(1L, "Chemises", "30.00"),
+                produit(2L, "Chemises", "10.00"),
+                produit(3L, "Chemises", "20.00"),
+                produit(4L, "Vestes", "15.00")));
+
+        ProduitFemmePriceIndex.Slice slice = index.filter(List.of("Chemises"), new BigDecimal("10.00"), new BigDecimal("25"),
+                false, 0, 10);
+
+        assertThat(slice.getIds()).containsExactly(2L, 3L);
+        assertThat(slice.getTotal()).isEqualTo(2);
+    }
+
+    @Test
+    void mergesCategoriesInPriceThenIdOrder() {
+        load(List.of(
+                produit(1L, "Chemises", "10.00"),
+                produit(2L, "Vestes", "10.00"),
+                produit(3L, "Chemises", "30.00"),
+                produit(4L, "Vestes", "20.00"),
+                produit(5L, "Pantalons", "5.00")));
+
+        assertThat(index.filter(List.of("Vestes", "Chemises"), null, null, false, 0, 10).getIds())
+                .containsExactly(1L, 2L, 4L, 3L);
+        assertThat(index.filter(List.of("Vestes", "Chemises"), null, null, true, 1, 2).getIds())
+                .containsExactly(4L, 2L);
+        assertThat(index.filter(List.of("Vestes", "Chemises"), null, null, true, 1, 2).getTotal()).isEqualTo(4);
+    }
+
+    @Test
+    void roundsBoundsInwardToCents() {
+        load(List.of(produit(1L, "Chemises", "10.00"), produit(2L, "Chemises", "10.01")));
+
+        assertThat(index.filter(List.of(), new BigDecimal("10.001"), null, false, 0, 10).getIds()).containsExactly(2L);
+        assertThat(index.filter(List.of(), null, new BigDecimal("10.009"), false, 0, 10).getIds()).containsExactly(1L);
+    }
+
+    @Test
+    void publishesFacets() {
+        load(List.of(produit(1L, "Vestes", "80.00"), produit(2L, "Chemises", "20.00"), produit(3L, "Vestes", "60.00")));
+
+        assertThat(index.facets()).extracting(CategorieFacetDto::getCategorie, CategorieFacetDto::getCount,
+                        CategorieFacetDto::getMinPrix, CategorieFacetDto::getMaxPrix)
+                .containsExactly(
+                        tuple("Chemises", 1L, new BigDecimal("20.00"), new BigDecimal("20.00")),
+                        tuple("Vestes", 2L, new BigDecimal("60.00"), new BigDecimal("80.00")));
+    }
+
+    // Incremental updates must leave the same partitions as a rebuild from the final catalog
+    @Test
+    void incrementalUpdatesMatchAFullRebuild() {
+        Random random = new Random(42);
+        Map<Long, ProduitFemmeDto> catalog = new HashMap<>();
+        LongStream.rangeClosed(1, 500).forEach(id -> catalog.put(id, randomProduit(random, id)));
+        load(new ArrayList<>(catalog.values()));
+
+        for (int round = 0; round < 300; round++) {
+            List<ProduitFemmeChangedEvent.Change> changes = new ArrayList<>();
+            for (int i = 0; i < 1 + random.nextInt(5); i++) {
+                long id = 1 + random.nextInt(600);
+                ProduitFemmeDto before = catalog.get(id);
+                ProduitFemmeDto after = random.nextInt(4) == 0 ? null : randomProduit(random, id);
+                if (before == null && after == null) {
+                    continue;
+                }
+                changes.add(new ProduitFemmeChangedEvent.Change(before, after));
+                if (after == null) {
+                    catalog.remove(id);
+                } else {
+                    catalog.put(id, after);
+                }
+            }
+            index.onProduitChanged(new ProduitFemmeChangedEvent(changes));
+        }
+
+        assertMatches(catalog);
+    }
+
+    // The rebuild read the table before these writes committed
+    @Test
+    void keepsWritesAppliedWhileRebuilding() {
+        ProduitFemmeDto stale = produit(1L, "Chemises", "10.00");
+        when(repository.findAllDtos()).thenAnswer(invocation -> {
+            index.onProduitChanged(ProduitFemmeChangedEvent.updated(stale, produit(1L, "Vestes", "50.00")));
+            index.onProduitChanged(ProduitFemmeChangedEvent.created(produit(2L, "Chemises", "15.00")));
+            return List.of(stale);
+        });
+
+        index.rebuild();
+
+        assertThat(index.filter(List.of(), null, null, false, 0, 10).getIds()).containsExactly(2L, 1L);
+        assertThat(index.filter(List.of("Vestes"), null, null, false, 0, 10).getIds()).containsExactly(1L);
+        assertThat(index.filter(List.of("Chemises"), null, null, false, 0, 10).getIds()).containsExactly(2L);
+    }
+
+    private void assertMatches(Map<Long, ProduitFemmeDto> catalog) {
+        Comparator<ProduitFemmeDto> byPrice = Comparator.comparing(ProduitFemmeDto::getPrix).thenComparing(ProduitFemmeDto::getId);
+        List<Long> expected = catalog.values().stream().sorted(byPrice).map(ProduitFemmeDto::getId).toList();
+        assertThat(index.filter(List.of(), null, null, false, 0, Integer.MAX_VALUE).getIds()).containsExactly(toArray(expected));
+
+        for (String categorie : CATEGORIES) {
+            List<Long> inCategorie = catalog.values().stream()
+                    .filter(p -> p.getCategorie().equals(categorie))
+                    .sorted(byPrice).map(ProduitFemmeDto::getId).toList();
+            assertThat(index.filter(List.of(categorie), null, null, false, 0, Integer.MAX_VALUE).getIds())
+                    .as(categorie).containsExactly(toArray(inCategorie));
+        }
+        Set<String> present = new TreeSet<>();
+        catalog.values().forEach(p -> present.add(p.getCategorie()));
+        assertThat(index.facets()).extracting(CategorieFacetDto::getCategorie).containsExactlyElementsOf(present);
+    }
+
+    private static long[] toArray(List<Long> ids) {
+        return ids.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private void load(List<ProduitFemmeDto> produits) {
+        when(repository.findAllDtos()).thenReturn(produits);
+        index.rebuild();
+    }
+
+    private static ProduitFemmeDto randomProduit(Random random, long id) {
+        // Few distinct prices, so ties are ordered by id
+        return produit(id, CATEGORIES.get(random.nextInt(CATEGORIES.size())), random.nextInt(50) + ".99");
+    }
+
+    private static ProduitFemmeDto produit(Long id, String categorie, String prix) {
+        return ProduitFemmeDto.builder().id(id).nom("Produit " + id).categorie(categorie).prix(new BigDecimal(prix)).build();
+    }
+}
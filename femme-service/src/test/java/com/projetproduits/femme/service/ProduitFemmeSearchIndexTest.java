@@ -0,0 +1,84 @@
+package com.projetproduits.femme.service;
+
+import com.projetproduits.femme.dto.ProduitFemmeDto;
+import com.projetproduits.femme.event.ProduitFemmeChangedEvent;
+import com.projetproduits.femme.repository.ProduitFemmeRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProduitFemmeSearchIndexTest {
+
+    private final ProduitFemmeRepository repository = mock(ProduitFemmeRepository.class);
+    private final ProduitFemmeSearchIndex index = new ProduitFemmeSearchIndex(repository);
+
+    @Test
+    void ranksNomAboveDescriptionAndMatchesTheLastTermAsAPrefix() {
+        when(repository.findAllDtos()).thenReturn(List.of(
+                produit(1L, "Chemise en lin", "Chemises", "Coupe droite"),
+                produit(2L, "Pantalon", "Pantalons", "Se porte avec une chemise"),
+                produit(3L, "Veste", "Vestes", "Laine")));
+        index.rebuild();
+
+        assertThat(ids(index.search("chemise", 10))).containsExactly(1L, 2L);
+        assertThat(ids(index.search("chemi", 10))).containsExactly(1L, 2L);
+        assertThat(ids(index.search("chemise lin", 10))).containsExactly(1L);
+        assertThat(index.search("manteau", 10)).isEmpty();
+    }
+
+    @Test
+    void foldsAccentsCaseAndPlurals() {
+        assertThat(ProduitFemmeSearchIndex.tokenize("Écharpes en LAINE")).containsExactly("echarpe", "laine");
+    }
+
+    @Test
+    void keepsLettersOfEveryScript() {
+        assertThat(ProduitFemmeSearchIndex.tokenize("Veste 東京 Ñandú-été")).containsExactly("veste", "東京", "nandu", "ete");
+        assertThat(ProduitFemmeSearchIndex.tokenize("Ζακέτα")).containsExactly("ζακετα");
+    }
+
+    @Test
+    void appliesChangeEvents() {
+        when(repository.findAllDtos()).thenReturn(List.of(produit(1L, "Chemise", "Chemises", null)));
+        index.rebuild();
+
+        ProduitFemmeDto before = produit(1L, "Chemise", "Chemises", null);
+        index.onProduitChanged(ProduitFemmeChangedEvent.updated(before, produit(1L, "Polo", "Polos", null)));
+        index.onProduitChanged(ProduitFemmeChangedEvent.created(produit(2L, "Chemise", "Chemises", null)));
+
+        assertThat(ids(index.search("chemise", 10))).containsExactly(2L);
+        assertThat(ids(index.search("polo", 10))).containsExactly(1L);
+
+        index.onProduitChanged(ProduitFemmeChangedEvent.deleted(produit(2L, "Chemise", "Chemises", null)));
+        assertThat(index.search("chemise", 10)).isEmpty();
+    }
+
+    // The rebuild read the table before the write committed, so the write is missing from what it read
+    @Test
+    void keepsWritesAppliedWhileRebuilding() {
+        ProduitFemmeDto stale = produit(1L, "Chemise", "Chemises", null);
+        when(repository.findAllDtos()).thenAnswer(invocation -> {
+            index.onProduitChanged(ProduitFemmeChangedEvent.updated(stale, produit(1L, "Polo", "Polos", null)));
+            index.onProduitChanged(ProduitFemmeChangedEvent.created(produit(2L, "Veste", "Vestes", null)));
+            return List.of(stale);
+        });
+
+        index.rebuild();
+
+        assertThat(ids(index.search("polo", 10))).containsExactly(1L);
+        assertThat(ids(index.search("veste", 10))).containsExactly(2L);
+        assertThat(index.search("chemise", 10)).isEmpty();
+    }
+
+    private static List<Long> ids(List<ProduitFemmeSearchIndex.Hit> hits) {
+        return hits.stream().map(ProduitFemmeSearchIndex.Hit::getId).toList();
+    }
+
+    private static ProduitFemmeDto produit(Long id, String nom, String categorie, String description) {
+        return ProduitFemmeDto.builder().id(id).nom(nom).categorie(categorie).description(description).build();
+    }
+}
@@ -0,0 +1,123 @@
+package com.projetproduits.femme.service;
+
+import com.projetproduits.femme.PostgresTestDatabase;
+import com.projetproduits.femme.dto.InteractionFemmeDto;
+import com.projetproduits.femme.repository.InteractionFemmeRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Lists 100,000 interactions both ways and compares the time and the bytes allocated by the reading thread:
+ * managed entities in a read-write transaction copied into DTOs, as the list reads used to, against the DTO
+ * projection of InteractionFemmeService.findAll. Each way runs a few times after a warm-up and keeps its median.
+ * The bounds are wall-clock times, so it only runs on demand: mvn test -Pload.
+ */
+@Slf4j
+@Tag("load")
+@SpringBootTest
+class ReadProjectionLoadTest {
+
+    private static final int ROWS = 100_000;
+    private static final int WARMUP = 3;
+    private static final int RUNS = 7;
+
+    @Autowired
+    private InteractionFemmeService interactionService;
+
+    @Autowired
+    private InteractionFemmeRepository interactionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeAll
+    static void requireDatabase() {
+        PostgresTestDatabase.assumeAvailable();
+    }
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> PostgresTestDatabase.create("read_projection_load_femme"));
+        registry.add("spring.datasource.username", PostgresTestDatabase::username);
+        registry.add("spring.datasource.password", PostgresTestDatabase::password);
+        registry.add("logging.level.org.hibernate.SQL", () -> "INFO");
+    }
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM interactions_femme");
+        jdbcTemplate.update("DELETE FROM users_femme");
+        jdbcTemplate.update("INSERT INTO users_femme (nom, email, age) "
+                + "SELECT 'Load ' || g, 'load' || g || '@example.com', 20 + g % 50 FROM generate_series(1, 100) g");
+        jdbcTemplate.update("INSERT INTO interactions_femme (user_id, produit_id, type_interaction, \"timestamp\") "
+                + "SELECT u.id, 1 + g % 20, 'VIEW', now() - g * interval '1 second' "
+                + "FROM generate_series(1, ?) g JOIN users_femme u ON u.email = 'load' || (1 + g % 100) || '@example.com'", ROWS);
+    }
+
+    @Test
+    void projectionReadsAHundredThousandRowsFasterAndWithLessAllocation() {
+        TransactionTemplate readWrite = new TransactionTemplate(transactionManager);
+        Supplier<List<InteractionFemmeDto>> entities = () -> readWrite.execute(status -> interactionRepository.findAll()
+                .stream()
+                .map(interaction -> InteractionFemmeDto.builder()
+                        .id(interaction.getId())
+                        .userId(interaction.getUserId())
+                        .produitId(interaction.getProduitId())
+                        .typeInteraction(interaction.getTypeInteraction())
+                        .timestamp(interaction.getTimestamp())
+                        .build())
+                .toList());
+        Supplier<List<InteractionFemmeDto>> projection = interactionService::findAll;
+
+        Measure entityRead = measure(entities);
+        Measure projectionRead = measure(projection);
+
+        log.info("{} interactions - entities: {} ms, {} MB allocated - projection: {} ms, {} MB allocated",
+                ROWS, entityRead.millis(), entityRead.bytes() >> 20, projectionRead.millis(), projectionRead.bytes() >> 20);
+        assertThat(projectionRead.bytes()).isLessThan(entityRead.bytes() * 3 / 4);
+        assertThat(projectionRead.millis()).isLessThan(entityRead.millis());
+    }
+
+    private record Measure(long millis, long bytes) {
+    }
+
+    private static Measure measure(Supplier<List<InteractionFemmeDto>> read) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < WARMUP; i++) {
+            assertThat(read.get()).hasSize(ROWS);
+        }
+        long[] millis = new long[RUNS];
+        long[] bytes = new long[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            System.gc();
+            long allocated = threads.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+            assertThat(read.get()).hasSize(ROWS);
+            millis[i] = (System.nanoTime() - start) / 1_000_000;
+            bytes[i] = threads.getCurrentThreadAllocatedBytes() - allocated;
+        }
+        Arrays.sort(millis);
+        Arrays.sort(bytes);
+        return new Measure(millis[RUNS / 2], bytes[RUNS / 2]);
+    }
+}
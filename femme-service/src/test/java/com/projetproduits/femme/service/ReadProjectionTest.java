@@ -0,0 +1,101 @@
+package com.projetproduits.femme.service;
+
+import com.projetproduits.femme.PostgresTestDatabase;
+import com.projetproduits.femme.entity.TypeInteraction;
+import com.projetproduits.femme.repository.InteractionFemmeRepository;
+import com.projetproduits.femme.repository.ProduitFemmeRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks with Hibernate's statistics that the list reads select straight into DTOs: they run queries but load,
+ * and so manage and dirty-check, no entity. The entity read of the same rows is the control.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class ReadProjectionTest {
+
+    private static final int INTERACTIONS = 200;
+
+    @Autowired
+    private InteractionFemmeService interactionService;
+
+    @Autowired
+    private UserFemmeService userService;
+
+    @Autowired
+    private InteractionFemmeRepository interactionRepository;
+
+    @Autowired
+    private ProduitFemmeRepository produitRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private long userId;
+
+    @BeforeAll
+    static void requireDatabase() {
+        PostgresTestDatabase.assumeAvailable();
+    }
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> PostgresTestDatabase.create("read_projection_femme"));
+        registry.add("spring.datasource.username", PostgresTestDatabase::username);
+        registry.add("spring.datasource.password", PostgresTestDatabase::password);
+    }
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM interactions_femme");
+        jdbcTemplate.update("DELETE FROM users_femme");
+        userId = jdbcTemplate.queryForObject("INSERT INTO users_femme (nom, email, age) "
+                + "VALUES ('Projection', 'projection@example.com', 30) RETURNING id", Long.class);
+        jdbcTemplate.update("INSERT INTO interactions_femme (user_id, produit_id, type_interaction, \"timestamp\") "
+                + "SELECT ?, 1 + g % 20, CASE WHEN g % 2 = 0 THEN 'VIEW' ELSE 'PURCHASE' END, now() - g * interval '1 minute' "
+                + "FROM generate_series(1, ?) g", userId, INTERACTIONS);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void readsInteractionsWithoutLoadingEntities() {
+        assertThat(interactionService.findAll()).hasSize(INTERACTIONS);
+        assertThat(interactionService.findByUserId(userId)).hasSize(INTERACTIONS);
+        assertThat(interactionService.findByUserIdAndType(userId, TypeInteraction.PURCHASE)).hasSize(INTERACTIONS / 2);
+
+        assertThat(statistics.getQueryExecutionCount()).isEqualTo(3);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void readsUsersAndProductsWithoutLoadingEntities() {
+        assertThat(userService.findAll()).hasSize(1);
+        assertThat(produitRepository.findAllDtos()).hasSize(20);
+
+        assertThat(statistics.getQueryExecutionCount()).isEqualTo(2);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void loadsEveryRowAsAnEntityThroughTheEntityRead() {
+        assertThat(interactionRepository.findAll()).hasSize(INTERACTIONS);
+
+        assertThat(statistics.getEntityLoadCount()).isEqualTo(INTERACTIONS);
+    }
+}
@@ -11,12 +11,15 @@ const ProduitsHomme = () => {
   const [selectedProduct, setSelectedProduct] = useState(null);
   const [searchTerm, setSearchTerm] = useState('');
   const [categoryFilter, setCategoryFilter] = useState('');
+  const [facets, setFacets] = useState([]);
 
   useEffect(() => {
     loadProducts();
   }, []);
 
   const loadProducts = async () => {
+    // The facets only fill the category filter, a failure there must not empty the list
+    loadFacets();
     try {
       const response = await HommeService.getAllProduits();
       setProducts(response.data || []);
@@ -27,6 +30,15 @@ const ProduitsHomme = () => {
     }
   };
 
+  const loadFacets = async () => {
+    try {
+      const facetsResponse = await HommeService.getFacets();
+      setFacets(facetsResponse.data || []);
+    } catch (error) {
+      setFacets(null);
+    }
+  };
+
   const handleCreate = () => {
     setSelectedProduct(null);
     setShowModal(true);
@@ -83,7 +95,13 @@ const ProduitsHomme = () => {
     }
   };
 
-  const categories = [...new Set(products.map(p => p.categorie))];
+  // Category list and counts come precomputed from the service, or from the loaded products without facets
+  const categories = facets
+    ? facets.map(f => f.categorie)
+    : [...new Set(products.map(p => p.categorie))];
+  const countByCategory = facets
+    ? Object.fromEntries(facets.map(f => [f.categorie, f.count]))
+    : products.reduce((counts, p) => ({ ...counts, [p.categorie]: (counts[p.categorie] || 0) + 1 }), {});
 
   const filteredProducts = products.filter(product => {
     const matchesSearch = product.nom.toLowerCase().includes(searchTerm.toLowerCase()) ||
@@ -132,7 +150,7 @@ const ProduitsHomme = () => {
           >
             <option value="">Toutes les catégories</option>
             {categories.map(cat => (
-              <option key={cat} value={cat}>{cat}</option>
+              <option key={cat} value={cat}>{cat} ({countByCategory[cat]})</option>
             ))}
           </select>
         </div>
@@ -68,6 +68,28 @@ const FemmeService = {
     return response.data;
   },
 
+  // Server-side category + price filter: params = { categorie, minPrix, maxPrix, sort, offset, limit }
+  filterProduits: async (params) => {
+    const response = await api.get('/api/femme/produits/filter', {
+      params,
+      // Repeat categorie=A&categorie=B instead of axios' default categorie[]=A
+      paramsSerializer: { indexes: null },
+    });
+    return response.data;
+  },
+
+  // Categories with product count and min/max price, for the filter sidebar
+  getFacets: async () => {
+    const response = await api.get('/api/femme/produits/facets');
+    return response.data;
+  },
+
+  // Most interacted products over a recent window, e.g. '1h' or '30m'
+  getTrendingProduits: async (window = '1h', k = 20) => {
+    const response = await api.get('/api/femme/produits/trending', { params: { window, k } });
+    return response.data;
+  },
+
   // Interactions
   getAllInteractions: async () => {
     const response = await api.get('/api/femme/interactions');
@@ -79,11 +101,30 @@ const FemmeService = {
     return response.data;
   },
 
+  createInteractionsBatch: async (interactions) => {
+    const response = await api.post('/api/femme/interactions/batch', interactions);
+    return response.data;
+  },
+
+  // Counts of every interaction type for many products, in one call
+  getInteractionCounts: async (produitIds) => {
+    const response = await api.get('/api/femme/interactions/counts', {
+      params: { produitIds: produitIds.join(',') },
+    });
+    return response.data;
+  },
+
   getInteractionsByUser: async (userId) => {
     const response = await api.get(`/api/femme/interactions/user/${userId}`);
     return response.data;
   },
 
+  // Latest interactions of the user, newest first ("recently viewed")
+  getRecentInteractionsByUser: async (userId, limit = 20) => {
+    const response = await api.get(`/api/femme/interactions/user/${userId}/recent`, { params: { limit } });
+    return response.data;
+  },
+
   getInteractionsByProduit: async (produitId) => {
     const response = await api.get(`/api/femme/interactions/produit/${produitId}`);
     return response.data;
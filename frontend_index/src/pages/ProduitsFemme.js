@@ -11,12 +11,15 @@ const ProduitsFemme = () => {
   const [selectedProduct, setSelectedProduct] = useState(null);
   const [searchTerm, setSearchTerm] = useState('');
   const [categoryFilter, setCategoryFilter] = useState('');
+  const [facets, setFacets] = useState([]);
 
   useEffect(() => {
     loadProducts();
   }, []);
 
   const loadProducts = async () => {
+    // The facets only fill the category filter, a failure there must not empty the list
+    loadFacets();
     try {
       const response = await FemmeService.getAllProduits();
       setProducts(response.data || []);
@@ -27,6 +30,15 @@ const ProduitsFemme = () => {
     }
   };
 
+  const loadFacets = async () => {
+    try {
+      const facetsResponse = await FemmeService.getFacets();
+      setFacets(facetsResponse.data || []);
+    } catch (error) {
+      setFacets(null);
+    }
+  };
+
   const handleCreate = () => {
     setSelectedProduct(null);
     setShowModal(true);
@@ -81,7 +93,13 @@ const ProduitsFemme = () => {
     }
   };
 
-  const categories = [...new Set(products.map(p => p.categorie))];
+  // Category list and counts come precomputed from the service, or from the loaded products without facets
+  const categories = facets
+    ? facets.map(f => f.categorie)
+    : [...new Set(products.map(p => p.categorie))];
+  const countByCategory = facets
+    ? Object.fromEntries(facets.map(f => [f.categorie, f.count]))
+    : products.reduce((counts, p) => ({ ...counts, [p.categorie]: (counts[p.categorie] || 0) + 1 }), {});
 
   const filteredProducts = products.filter(product => {
     const matchesSearch = product.nom.toLowerCase().includes(searchTerm.toLowerCase()) ||
@@ -130,7 +148,7 @@ const ProduitsFemme = () => {
           >
             <option value="">Toutes les catégories</option>
             {categories.map(cat => (
-              <option key={cat} value={cat}>{cat}</option>
+              <option key={cat} value={cat}>{cat} ({countByCategory[cat]})</option>
             ))}
           </select>
         </div>
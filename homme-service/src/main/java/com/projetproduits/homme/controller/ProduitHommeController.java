@@ -1,16 +1,28 @@
 package com.projetproduits.homme.controller;
 
 import com.projetproduits.homme.dto.ApiResponse;
+import com.projetproduits.homme.dto.BatchResult;
+import com.projetproduits.homme.dto.CacheStatsDto;
+import com.projetproduits.homme.dto.CatalogVersion;
+import com.projetproduits.homme.dto.CategorieFacetDto;
+import com.projetproduits.homme.dto.CursorPage;
+import com.projetproduits.homme.dto.OffsetPage;
 import com.projetproduits.homme.dto.ProduitHommeDto;
+import com.projetproduits.homme.dto.RankedProduitHommeDto;
 import com.projetproduits.homme.service.ProduitHommeService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.List;
 
 @Slf4j
@@ -19,27 +31,74 @@ import java.util.List;
 @RequiredArgsConstructor
 public class ProduitHommeController {
 
+    // Browsers revalidate on every use; the gateway, a shared cache, may keep the response for s-maxage
+    private static final CacheControl VERSIONED_CACHE_CONTROL =
+            CacheControl.maxAge(Duration.ZERO).mustRevalidate().sMaxAge(Duration.ofSeconds(30));
+
     private final ProduitHommeService produitService;
+    private final NdjsonStreamer ndjsonStreamer;
 
     @GetMapping
-    public ResponseEntity<ApiResponse<List<ProduitHommeDto>>> getAllProduits() {
+    public ResponseEntity<ApiResponse<List<ProduitHommeDto>>> getAllProduits(WebRequest request) {
         log.info("GET /produits - Fetching all products");
+        CatalogVersion version = produitService.getCatalogVersion();
+        if (request.checkNotModified(version.getETag(), version.getLastModifiedMillis())) {
+            return null;
+        }
         List<ProduitHommeDto> produits = produitService.findAll();
-        return ResponseEntity.ok(ApiResponse.success(produits));
+        return versioned(version, produits);
+    }
+
+    // Streaming mode, selected with Accept: application/x-ndjson
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllProduits() {
+        log.info("GET /produits - Streaming all products as NDJSON");
+        return ndjsonStreamer.stream(produitService::streamAll);
+    }
+
+    // Keyset pagination mode, selected when the client asks for a page size
+    @GetMapping(params = "size")
+    public ResponseEntity<ApiResponse<CursorPage<ProduitHommeDto>>> getProduitsPage(
+            @RequestParam Integer size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String sort) {
+        log.info("GET /produits?size={}&sort={} - Fetching products page", size, sort);
+        CursorPage<ProduitHommeDto> page = produitService.findPage(cursor, size, sort);
+        return ResponseEntity.ok(ApiResponse.success(page));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<ApiResponse<ProduitHommeDto>> getProduitById(@PathVariable Long id) {
+    public ResponseEntity<ApiResponse<ProduitHommeDto>> getProduitById(@PathVariable Long id, WebRequest request) {
         log.info("GET /produits/{} - Fetching product by id", id);
+        CatalogVersion version = produitService.getVersion(id);
+        if (request.checkNotModified(version.getETag(), version.getLastModifiedMillis())) {
+            return null;
+        }
         ProduitHommeDto produit = produitService.findById(id);
-        return ResponseEntity.ok(ApiResponse.success(produit));
+        return versioned(version, produit);
     }
 
     @GetMapping("/categorie/{categorie}")
-    public ResponseEntity<ApiResponse<List<ProduitHommeDto>>> getProduitsByCategorie(@PathVariable String categorie) {
+    public ResponseEntity<ApiResponse<List<ProduitHommeDto>>> getProduitsByCategorie(@PathVariable String categorie,
+                                                                                    WebRequest request) {
         log.info("GET /produits/categorie/{} - Fetching products by category", categorie);
+        CatalogVersion version = produitService.getCatalogVersionByCategorie(categorie);
+        if (request.checkNotModified(version.getETag(), version.getLastModifiedMillis())) {
+            return null;
+        }
         List<ProduitHommeDto> produits = produitService.findByCategorie(categorie);
-        return ResponseEntity.ok(ApiResponse.success(produits));
+        return versioned(version, produits);
+    }
+
+    @GetMapping(value = "/categorie/{categorie}", params = "size")
+    public ResponseEntity<ApiResponse<CursorPage<ProduitHommeDto>>> getProduitsPageByCategorie(
+            @PathVariable String categorie,
+            @RequestParam Integer size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String sort) {
+        log.info("GET /produits/categorie/{}?size={}&sort={} - Fetching products page by category", categorie, size, sort);
+        CursorPage<ProduitHommeDto> page = produitService.findPageByCategorie(categorie, cursor, size, sort);
+        return ResponseEntity.ok(ApiResponse.success(page));
     }
 
     @GetMapping("/search")
@@ -49,6 +108,36 @@ public class ProduitHommeController {
         return ResponseEntity.ok(ApiResponse.success(produits));
     }
 
+    @GetMapping(value = "/search", params = {"nom", "size"})
+    public ResponseEntity<ApiResponse<CursorPage<ProduitHommeDto>>> searchProduitsPage(
+            @RequestParam String nom,
+            @RequestParam Integer size,
+            @RequestParam(required = false) String cursor) {
+        log.info("GET /produits/search?nom={}&size={} - Searching products page", nom, size);
+        CursorPage<ProduitHommeDto> page = produitService.searchPageByNom(nom, cursor, size);
+        return ResponseEntity.ok(ApiResponse.success(page));
+    }
+
+    // Full-text mode backed by the in-memory index, results ranked by relevance; ?nom= keeps the substring search
+    @GetMapping(value = "/search", params = {"q", "!nom"})
+    public ResponseEntity<ApiResponse<List<RankedProduitHommeDto>>> searchProduitsRanked(
+            @RequestParam String q,
+            @RequestParam(required = false) Integer limit) {
+        log.info("GET /produits/search?q={} - Full-text product search", q);
+        List<RankedProduitHommeDto> produits = produitService.search(q, limit);
+        return ResponseEntity.ok(ApiResponse.success(produits));
+    }
+
+    // Most interacted products over a recent window, from the in-memory trending index
+    @GetMapping("/trending")
+    public ResponseEntity<ApiResponse<List<RankedProduitHommeDto>>> getTrendingProduits(
+            @RequestParam(defaultValue = "1h") String window,
+            @RequestParam(required = false) Integer k) {
+        log.info("GET /produits/trending?window={}&k={} - Fetching trending products", window, k);
+        List<RankedProduitHommeDto> produits = produitService.trending(window, k);
+        return ResponseEntity.ok(ApiResponse.success(produits));
+    }
+
     @GetMapping("/price-range")
     public ResponseEntity<ApiResponse<List<ProduitHommeDto>>> getProduitsByPriceRange(
             @RequestParam BigDecimal minPrix,
@@ -58,6 +147,48 @@ public class ProduitHommeController {
         return ResponseEntity.ok(ApiResponse.success(produits));
     }
 
+    @GetMapping(value = "/price-range", params = "size")
+    public ResponseEntity<ApiResponse<CursorPage<ProduitHommeDto>>> getProduitsPageByPriceRange(
+            @RequestParam BigDecimal minPrix,
+            @RequestParam BigDecimal maxPrix,
+            @RequestParam Integer size,
+            @RequestParam(required = false) String cursor) {
+        log.info("GET /produits/price-range?minPrix={}&maxPrix={}&size={} - Fetching products page by price range",
+                minPrix, maxPrix, size);
+        CursorPage<ProduitHommeDto> page = produitService.findPageByPriceRange(minPrix, maxPrix, cursor, size);
+        return ResponseEntity.ok(ApiResponse.success(page));
+    }
+
+    // Combined category + price filter served from the in-memory price index
+    @GetMapping("/filter")
+    public ResponseEntity<ApiResponse<OffsetPage<ProduitHommeDto>>> filterProduits(
+            @RequestParam(required = false) List<String> categorie,
+            @RequestParam(required = false) BigDecimal minPrix,
+            @RequestParam(required = false) BigDecimal maxPrix,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) Integer offset,
+            @RequestParam(required = false) Integer limit) {
+        log.info("GET /produits/filter?categorie={}&minPrix={}&maxPrix={}&sort={} - Filtering products",
+                categorie, minPrix, maxPrix, sort);
+        OffsetPage<ProduitHommeDto> page = produitService.filter(categorie, minPrix, maxPrix, sort, offset, limit);
+        return ResponseEntity.ok(ApiResponse.success(page));
+    }
+
+    // Category sidebar: product count and price bounds per category, kept up to date in memory
+    @GetMapping("/facets")
+    public ResponseEntity<ApiResponse<List<CategorieFacetDto>>> getFacets() {
+        log.info("GET /produits/facets - Fetching category facets");
+        List<CategorieFacetDto> facets = produitService.getFacets();
+        return ResponseEntity.ok(ApiResponse.success(facets));
+    }
+
+    @GetMapping("/cache/stats")
+    public ResponseEntity<ApiResponse<CacheStatsDto>> getCacheStats() {
+        log.info("GET /produits/cache/stats - Fetching product cache statistics");
+        CacheStatsDto stats = produitService.getCacheStats();
+        return ResponseEntity.ok(ApiResponse.success(stats));
+    }
+
     @PostMapping
     public ResponseEntity<ApiResponse<ProduitHommeDto>> createProduit(@Valid @RequestBody ProduitHommeDto dto) {
         log.info("POST /produits - Creating new product: {}", dto.getNom());
@@ -66,6 +197,23 @@ public class ProduitHommeController {
                 .body(ApiResponse.success("Product created successfully", created));
     }
 
+    // Bulk import: items are validated one by one and reported individually
+    @PostMapping("/batch")
+    public ResponseEntity<ApiResponse<BatchResult<ProduitHommeDto>>> createProduits(@RequestBody List<ProduitHommeDto> dtos) {
+        log.info("POST /produits/batch - Creating {} products", dtos.size());
+        BatchResult<ProduitHommeDto> result = produitService.createAll(dtos);
+        return ResponseEntity.ok(ApiResponse.success(
+                result.getSucceeded() + " product(s) created, " + result.getFailed() + " rejected", result));
+    }
+
+    @PutMapping("/batch")
+    public ResponseEntity<ApiResponse<BatchResult<ProduitHommeDto>>> updateProduits(@RequestBody List<ProduitHommeDto> dtos) {
+        log.info("PUT /produits/batch - Updating {} products", dtos.size());
+        BatchResult<ProduitHommeDto> result = produitService.updateAll(dtos);
+        return ResponseEntity.ok(ApiResponse.success(
+                result.getSucceeded() + " product(s) updated, " + result.getFailed() + " rejected", result));
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<ApiResponse<ProduitHommeDto>> updateProduit(
             @PathVariable Long id,
@@ -81,4 +229,16 @@ public class ProduitHommeController {
         produitService.delete(id);
         return ResponseEntity.ok(ApiResponse.success("Product deleted successfully", null));
     }
+
+    // Conditional GET responses: ETag and Last-Modified are already set by checkNotModified. The envelope
+    // timestamp is pinned to the last modification so that equal ETags always mean identical bytes.
+    private static <T> ResponseEntity<ApiResponse<T>> versioned(CatalogVersion version, T data) {
+        ApiResponse<T> body = ApiResponse.success(data);
+        if (version.getLastModified() != null) {
+            body.setTimestamp(version.getLastModified());
+        }
+        return ResponseEntity.ok()
+                .cacheControl(VERSIONED_CACHE_CONTROL)
+                .body(body);
+    }
 }
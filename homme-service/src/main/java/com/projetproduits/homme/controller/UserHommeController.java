@@ -1,14 +1,17 @@
 package com.projetproduits.homme.controller;
 
 import com.projetproduits.homme.dto.ApiResponse;
+import com.projetproduits.homme.dto.BatchResult;
 import com.projetproduits.homme.dto.UserHommeDto;
 import com.projetproduits.homme.service.UserHommeService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -19,6 +22,7 @@ import java.util.List;
 public class UserHommeController {
 
     private final UserHommeService userService;
+    private final NdjsonStreamer ndjsonStreamer;
 
     @GetMapping
     public ResponseEntity<ApiResponse<List<UserHommeDto>>> getAllUsers() {
@@ -27,6 +31,13 @@ public class UserHommeController {
         return ResponseEntity.ok(ApiResponse.success(users));
     }
 
+    // Streaming mode, selected with Accept: application/x-ndjson
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllUsers() {
+        log.info("GET /users - Streaming all users as NDJSON");
+        return ndjsonStreamer.stream(userService::streamAll);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<ApiResponse<UserHommeDto>> getUserById(@PathVariable Long id) {
         log.info("GET /users/{} - Fetching user by id", id);
@@ -65,6 +76,15 @@ public class UserHommeController {
                 .body(ApiResponse.success("User created successfully", created));
     }
 
+    // Idempotent upsert by email, used by the gateway to sync registered users in bulk
+    @PutMapping("/batch")
+    public ResponseEntity<ApiResponse<BatchResult<UserHommeDto>>> upsertUsers(@RequestBody List<UserHommeDto> dtos) {
+        log.info("PUT /users/batch - Upserting {} users", dtos.size());
+        BatchResult<UserHommeDto> result = userService.upsertAll(dtos);
+        return ResponseEntity.ok(ApiResponse.success(
+                result.getSucceeded() + " user(s) upserted, " + result.getFailed() + " rejected", result));
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<ApiResponse<UserHommeDto>> updateUser(
             @PathVariable Long id,
@@ -0,0 +1,40 @@
+package com.projetproduits.homme.dto;
+
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Fingerprint of a set of products computed by an aggregate query: row count and latest updatedAt.
+ * A creation or an update moves the latest updatedAt, a deletion lowers the count.
+ */
+@Getter
+public class CatalogVersion {
+
+    private final long count;
+    private final LocalDateTime lastModified;
+
+    public CatalogVersion(Long count, LocalDateTime lastModified) {
+        this.count = count != null ? count : 0;
+        this.lastModified = lastModified;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    public String getETag() {
+        long micros = lastModified != null
+                ? ChronoUnit.MICROS.between(LocalDateTime.of(1970, 1, 1, 0, 0), lastModified)
+                : 0;
+        return "\"" + Long.toString(count, 36) + "-" + Long.toString(micros, 36) + "\"";
+    }
+
+    public long getLastModifiedMillis() {
+        return lastModified != null
+                ? lastModified.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                : -1;
+    }
+}
@@ -0,0 +1,20 @@
+package com.projetproduits.homme.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategorieFacetDto {
+
+    private String categorie;
+    private long count;
+    private BigDecimal minPrix;
+    private BigDecimal maxPrix;
+}
@@ -0,0 +1,21 @@
+package com.projetproduits.homme.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+
+    private List<T> items;
+    private int size;
+    private boolean hasMore;
+    // Opaque token to pass back as ?cursor= to fetch the next page, null on the last page
+    private String nextCursor;
+}
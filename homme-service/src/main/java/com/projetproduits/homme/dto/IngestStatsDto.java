@@ -0,0 +1,25 @@
+package com.projetproduits.homme.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * State of the asynchronous interaction ingestion (POST /interactions with Prefer: respond-async).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class IngestStatsDto {
+
+    private int capacity;
+    // Accepted, not written yet
+    private int buffered;
+    private long written;
+    // Not inserted because their user or product no longer exists
+    private long skipped;
+    // Rejected by the database even when inserted alone, or lost while it was unavailable
+    private long dropped;
+}
@@ -13,6 +13,7 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+// Range-partitioned on timestamp by InteractionHommePartitionManager, whose primary key is (id, timestamp)
 @Table(name = "interactions_homme")
 public class InteractionHomme {
 
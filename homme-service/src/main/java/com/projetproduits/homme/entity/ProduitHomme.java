@@ -17,8 +17,10 @@ import java.time.LocalDateTime;
 @Table(name = "produits_homme")
 public class ProduitHomme {
 
+    // Pooled sequence rather than IDENTITY so Hibernate can batch inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "produits_homme_seq")
+    @SequenceGenerator(name = "produits_homme_seq", sequenceName = "produits_homme_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -0,0 +1,46 @@
+package com.projetproduits.homme.event;
+
+import com.projetproduits.homme.dto.ProduitHommeDto;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Published by ProduitHommeService after products are created, updated or deleted.
+ * In-memory views of the catalog listen to it (after commit) to stay coherent with the database.
+ */
+@Getter
+@RequiredArgsConstructor
+public class ProduitHommeChangedEvent {
+
+    private final List<Change> changes;
+
+    public static ProduitHommeChangedEvent created(ProduitHommeDto produit) {
+        return new ProduitHommeChangedEvent(List.of(new Change(null, produit)));
+    }
+
+    public static ProduitHommeChangedEvent updated(ProduitHommeDto before, ProduitHommeDto after) {
+        return new ProduitHommeChangedEvent(List.of(new Change(before, after)));
+    }
+
+    public static ProduitHommeChangedEvent deleted(ProduitHommeDto before) {
+        return new ProduitHommeChangedEvent(List.of(new Change(before, null)));
+    }
+
+    /**
+     * State of one product before and after the write: before is null for a creation,
+     * after is null for a deletion.
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static class Change {
+
+        private final ProduitHommeDto before;
+        private final ProduitHommeDto after;
+
+        public Long getId() {
+            return after != null ? after.getId() : before.getId();
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.projetproduits.homme.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * JDBC fragment of InteractionHommeRepository for exports that read columns as primitives,
+ * without materializing an entity or a DTO per row.
+ */
+public interface InteractionHommeColumnsRepository {
+
+    @FunctionalInterface
+    interface RowHandler {
+        /**
+         * typeCode is the ordinal of the TypeInteraction; epochMillis is the stored local date-time read as UTC.
+         */
+        void row(long id, long userId, long produitId, int typeCode, long epochMillis);
+    }
+
+    /**
+     * Reads the interactions after sinceId in id order, else after since in timestamp order, else all of them
+     * in id order, through a server-side cursor. Must be called inside a transaction.
+     */
+    void forEachColumns(Long sinceId, LocalDateTime since, RowHandler handler);
+}
@@ -1,35 +1,83 @@
 package com.projetproduits.homme.repository;
 
+import com.projetproduits.homme.dto.InteractionHommeDto;
 import com.projetproduits.homme.entity.InteractionHomme;
 import com.projetproduits.homme.entity.TypeInteraction;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface InteractionHommeRepository extends JpaRepository<InteractionHomme, Long> {
+@Transactional(readOnly = true)
+public interface InteractionHommeRepository extends JpaRepository<InteractionHomme, Long>,
+        InteractionHommeColumnsRepository {
 
-    List<InteractionHomme> findByUserId(Long userId);
+    // Read paths select straight into DTOs from the foreign key columns: the lazy user/produit
+    // associations are never touched and no entity is managed
+    String SELECT_DTO = "SELECT new com.projetproduits.homme.dto.InteractionHommeDto(" +
+            "i.id, i.userId, i.produitId, i.typeInteraction, i.timestamp) FROM InteractionHomme i ";
 
-    List<InteractionHomme> findByProduitId(Long produitId);
+    @Query(SELECT_DTO)
+    List<InteractionHommeDto> findAllDtos();
 
-    List<InteractionHomme> findByTypeInteraction(TypeInteraction typeInteraction);
+    @Query(SELECT_DTO + "WHERE i.id = :id")
+    Optional<InteractionHommeDto> findDtoById(@Param("id") Long id);
 
-    List<InteractionHomme> findByUserIdAndTypeInteraction(Long userId, TypeInteraction typeInteraction);
+    @Query(SELECT_DTO + "WHERE i.userId = :userId")
+    List<InteractionHommeDto> findByUserId(@Param("userId") Long userId);
 
-    List<InteractionHomme> findByTimestampBetween(LocalDateTime start, LocalDateTime end);
+    @Query(SELECT_DTO + "WHERE i.produitId = :produitId")
+    List<InteractionHommeDto> findByProduitId(@Param("produitId") Long produitId);
 
-    @Query("SELECT i FROM InteractionHomme i WHERE i.userId = :userId ORDER BY i.timestamp DESC")
-    List<InteractionHomme> findRecentInteractionsByUser(@Param("userId") Long userId);
+    @Query(SELECT_DTO + "WHERE i.typeInteraction = :type")
+    List<InteractionHommeDto> findByTypeInteraction(@Param("type") TypeInteraction typeInteraction);
 
-    @Query("SELECT COUNT(i) FROM InteractionHomme i WHERE i.produitId = :produitId AND i.typeInteraction = :type")
-    Long countInteractionsByProduitAndType(@Param("produitId") Long produitId, @Param("type") TypeInteraction type);
+    @Query(SELECT_DTO + "WHERE i.userId = :userId AND i.typeInteraction = :type")
+    List<InteractionHommeDto> findByUserIdAndTypeInteraction(@Param("userId") Long userId,
+                                                             @Param("type") TypeInteraction typeInteraction);
+
+    @Query(SELECT_DTO + "WHERE i.timestamp BETWEEN :start AND :end")
+    List<InteractionHommeDto> findByTimestampBetween(@Param("start") LocalDateTime start,
+                                                     @Param("end") LocalDateTime end);
+
+    // Newest first; the pageable's size bounds the rows read
+    @Query(SELECT_DTO + "WHERE i.userId = :userId ORDER BY i.timestamp DESC, i.id DESC")
+    List<InteractionHommeDto> findRecentInteractionsByUser(@Param("userId") Long userId, Pageable pageable);
+
+    // Rows of (produitId, typeInteraction, count), read once at startup by InteractionHommeCounters
+    @Query("SELECT i.produitId, i.typeInteraction, COUNT(i) FROM InteractionHomme i GROUP BY i.produitId, i.typeInteraction")
+    List<Object[]> countAllByProduitAndType();
 
     // For AI/ML - Get all interactions for training data
-    @Query("SELECT i FROM InteractionHomme i ORDER BY i.timestamp")
-    List<InteractionHomme> findAllForTraining();
+    @Query(SELECT_DTO + "ORDER BY i.timestamp")
+    List<InteractionHommeDto> findAllForTraining();
+
+    // Streaming variants, read through a server-side cursor: must be consumed inside a transaction
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(SELECT_DTO)
+    Stream<InteractionHommeDto> streamAll();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(SELECT_DTO + "ORDER BY i.timestamp")
+    Stream<InteractionHommeDto> streamAllForTraining();
+
+    // Incremental exports: rows after an id or a timestamp watermark, in watermark order
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(SELECT_DTO + "WHERE i.id > :sinceId ORDER BY i.id")
+    Stream<InteractionHommeDto> streamForTrainingAfterId(@Param("sinceId") Long sinceId);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(SELECT_DTO + "WHERE i.timestamp > :since ORDER BY i.timestamp, i.id")
+    Stream<InteractionHommeDto> streamForTrainingAfter(@Param("since") LocalDateTime since);
 }
@@ -1,20 +1,113 @@
 package com.projetproduits.homme.repository;
 
+import com.projetproduits.homme.dto.CatalogVersion;
+import com.projetproduits.homme.dto.ProduitHommeDto;
 import com.projetproduits.homme.entity.ProduitHomme;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
+@Transactional(readOnly = true)
 public interface ProduitHommeRepository extends JpaRepository<ProduitHomme, Long> {
 
-    List<ProduitHomme> findByCategorie(String categorie);
+    // Read paths select straight into DTOs: no managed entities, no dirty-checking snapshots
+    String SELECT_DTO = "SELECT new com.projetproduits.homme.dto.ProduitHommeDto(" +
+            "p.id, p.nom, p.categorie, p.prix, p.description, p.imageUrl) FROM ProduitHomme p ";
+
+    @Query(SELECT_DTO)
+    List<ProduitHommeDto> findAllDtos();
+
+    @Query(SELECT_DTO + "WHERE p.id = :id")
+    Optional<ProduitHommeDto> findDtoById(@Param("id") Long id);
+
+    @Query(SELECT_DTO + "WHERE p.id IN :ids")
+    List<ProduitHommeDto> findDtosByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT p.id FROM ProduitHomme p WHERE p.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "10000"))
+    @Query("SELECT p.id FROM ProduitHomme p")
+    Stream<Long> streamAllIds();
+
+    @Query(SELECT_DTO + "WHERE p.categorie = :categorie")
+    List<ProduitHommeDto> findByCategorie(@Param("categorie") String categorie);
 
     List<ProduitHomme> findByNomContainingIgnoreCase(String nom);
 
     List<ProduitHomme> findByPrixBetween(BigDecimal minPrix, BigDecimal maxPrix);
 
     List<ProduitHomme> findByCategorieAndPrixLessThanEqual(String categorie, BigDecimal maxPrix);
+
+    // Keyset pagination - each query seeks past the last row of the previous page
+    @Query(SELECT_DTO + "WHERE p.id > :id ORDER BY p.id")
+    List<ProduitHommeDto> findPageAfterId(@Param("id") Long id, Pageable pageable);
+
+    @Query(SELECT_DTO + "WHERE p.categorie = :categorie AND p.id > :id ORDER BY p.id")
+    List<ProduitHommeDto> findPageByCategorieAfterId(@Param("categorie") String categorie,
+                                                     @Param("id") Long id,
+                                                     Pageable pageable);
+
+    @Query(SELECT_DTO + "WHERE LOWER(p.nom) LIKE LOWER(CONCAT('%', :#{escape(#nom)}, '%')) ESCAPE :#{escapeCharacter()} " +
+            "AND p.id > :id ORDER BY p.id")
+    List<ProduitHommeDto> findPageByNomAfterId(@Param("nom") String nom, @Param("id") Long id, Pageable pageable);
+
+    @Query(SELECT_DTO + "WHERE p.prix BETWEEN :minPrix AND :maxPrix AND p.id > :id ORDER BY p.id")
+    List<ProduitHommeDto> findPageByPrixBetweenAfterId(@Param("minPrix") BigDecimal minPrix,
+                                                       @Param("maxPrix") BigDecimal maxPrix,
+                                                       @Param("id") Long id,
+                                                       Pageable pageable);
+
+    @Query(SELECT_DTO + "ORDER BY p.categorie, p.prix, p.id")
+    List<ProduitHommeDto> findFirstPageOrderByCategorieAndPrix(Pageable pageable);
+
+    @Query(SELECT_DTO + "WHERE p.categorie > :categorie " +
+            "OR (p.categorie = :categorie AND p.prix > :prix) " +
+            "OR (p.categorie = :categorie AND p.prix = :prix AND p.id > :id) " +
+            "ORDER BY p.categorie, p.prix, p.id")
+    List<ProduitHommeDto> findPageOrderByCategorieAndPrixAfter(@Param("categorie") String categorie,
+                                                               @Param("prix") BigDecimal prix,
+                                                               @Param("id") Long id,
+                                                               Pageable pageable);
+
+    @Query(SELECT_DTO + "WHERE p.categorie = :categorie ORDER BY p.prix, p.id")
+    List<ProduitHommeDto> findFirstPageByCategorieOrderByPrix(@Param("categorie") String categorie, Pageable pageable);
+
+    @Query(SELECT_DTO + "WHERE p.categorie = :categorie " +
+            "AND (p.prix > :prix OR (p.prix = :prix AND p.id > :id)) " +
+            "ORDER BY p.prix, p.id")
+    List<ProduitHommeDto> findPageByCategorieOrderByPrixAfter(@Param("categorie") String categorie,
+                                                              @Param("prix") BigDecimal prix,
+                                                              @Param("id") Long id,
+                                                              Pageable pageable);
+
+    // Catalog fingerprints for conditional GETs, computed by the database without loading rows
+    @Query("SELECT new com.projetproduits.homme.dto.CatalogVersion(COUNT(p), MAX(p.updatedAt)) FROM ProduitHomme p")
+    CatalogVersion findCatalogVersion();
+
+    @Query("SELECT new com.projetproduits.homme.dto.CatalogVersion(COUNT(p), MAX(p.updatedAt)) " +
+            "FROM ProduitHomme p WHERE p.categorie = :categorie")
+    CatalogVersion findCatalogVersionByCategorie(@Param("categorie") String categorie);
+
+    @Query("SELECT new com.projetproduits.homme.dto.CatalogVersion(COUNT(p), MAX(p.updatedAt)) " +
+            "FROM ProduitHomme p WHERE p.id = :id")
+    CatalogVersion findVersionById(@Param("id") Long id);
+
+    // Read through a server-side cursor: must be consumed inside a transaction
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(SELECT_DTO)
+    Stream<ProduitHommeDto> streamAll();
 }
@@ -1,20 +1,55 @@
 package com.projetproduits.homme.repository;
 
+import com.projetproduits.homme.dto.UserHommeDto;
 import com.projetproduits.homme.entity.UserHomme;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
+@Transactional(readOnly = true)
 public interface UserHommeRepository extends JpaRepository<UserHomme, Long> {
 
-    Optional<UserHomme> findByEmail(String email);
+    // Read paths select straight into DTOs: no managed entities, no dirty-checking snapshots
+    String SELECT_DTO = "SELECT new com.projetproduits.homme.dto.UserHommeDto(u.id, u.nom, u.email, u.age) " +
+            "FROM UserHomme u ";
+
+    @Query(SELECT_DTO)
+    List<UserHommeDto> findAllDtos();
+
+    @Query(SELECT_DTO + "WHERE u.id = :id")
+    Optional<UserHommeDto> findDtoById(@Param("id") Long id);
+
+    @Query(SELECT_DTO + "WHERE u.email = :email")
+    Optional<UserHommeDto> findByEmail(@Param("email") String email);
 
     boolean existsByEmail(String email);
 
-    List<UserHomme> findByNomContainingIgnoreCase(String nom);
+    @Query("SELECT u.id FROM UserHomme u WHERE u.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "10000"))
+    @Query("SELECT u.id FROM UserHomme u")
+    Stream<Long> streamAllIds();
+
+    @Query(SELECT_DTO + "WHERE LOWER(u.nom) LIKE LOWER(CONCAT('%', :#{escape(#nom)}, '%')) ESCAPE :#{escapeCharacter()}")
+    List<UserHommeDto> findByNomContainingIgnoreCase(@Param("nom") String nom);
+
+    @Query(SELECT_DTO + "WHERE u.age BETWEEN :minAge AND :maxAge")
+    List<UserHommeDto> findByAgeBetween(@Param("minAge") Integer minAge, @Param("maxAge") Integer maxAge);
 
-    List<UserHomme> findByAgeBetween(Integer minAge, Integer maxAge);
+    // Read through a server-side cursor: must be consumed inside a transaction
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(SELECT_DTO)
+    Stream<UserHommeDto> streamAll();
 }
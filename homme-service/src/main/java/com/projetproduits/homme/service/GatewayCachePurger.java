@@ -0,0 +1,80 @@
+package com.projetproduits.homme.service;
+
+import com.projetproduits.homme.event.ProduitHommeChangedEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Purges the gateway's cached catalog responses of this service once a product write has committed, so that
+ * writes sent here directly, not through the gateway, do not stay hidden behind its cache until the entries expire.
+ * Purges are sent from one background thread; writes committed while a purge is still waiting share it.
+ * Disabled when no purge URL is configured.
+ */
+@Slf4j
+@Component
+public class GatewayCachePurger {
+
+    static final String TOKEN_HEADER = "X-Purge-Token";
+
+    private final String url;
+    private final String token;
+    private final RestClient restClient;
+    private final ExecutorService executor;
+    private final AtomicBoolean pending = new AtomicBoolean();
+
+    public GatewayCachePurger(
+            RestClient.Builder restClientBuilder,
+            @Value("${gateway-cache.purge-url:}") String url,
+            @Value("${gateway-cache.purge-token:}") String token,
+            @Value("${gateway-cache.purge-timeout:2s}") Duration timeout) {
+        this.url = url;
+        this.token = token;
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(timeout);
+        requestFactory.setReadTimeout(timeout);
+        this.restClient = restClientBuilder.requestFactory(requestFactory).build();
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "gateway-cache-purger");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProduitChanged(ProduitHommeChangedEvent event) {
+        if (!url.isBlank() && pending.compareAndSet(false, true)) {
+            executor.execute(this::purge);
+        }
+    }
+
+    private void purge() {
+        // Cleared before sending, so a write committed from now on sends a purge of its own
+        pending.set(false);
+        try {
+            restClient.post()
+                    .uri(url)
+                    .header(TOKEN_HEADER, token)
+                    .retrieve()
+                    .toBodilessEntity();
+        } catch (RestClientException e) {
+            // The entries still expire after the gateway's TTL
+            log.warn("Could not purge the gateway cache at {}: {}", url, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,142 @@
+package com.projetproduits.homme.service;
+
+import com.projetproduits.homme.entity.TypeInteraction;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Columnar binary encoding of interactions, little-endian throughout, every array 8-byte aligned
+ * so an uncompressed file can be memory-mapped and read as typed arrays.
+ *
+ * <pre>
+ * header     magic "PPIC", u16 version, u16 flags (1 = row groups deflated), u32 max rows per group,
+ *            u16 type count, then per type: u8 length + UTF-8 name (index = type code), zero padding to 8
+ * row group  u32 rows, u32 payload bytes, payload, zero padding to 8
+ * payload    i64 first timestamp (epoch ms), i64 id[rows], i64 userId[rows], i64 produitId[rows],
+ *            i32 timestampDelta[rows] (from the previous row, 0 for the first), u8 typeCode[rows]
+ * end        u32 0, u32 0
+ * </pre>
+ * A group is closed early when the next timestamp delta does not fit in an i32.
+ */
+final class InteractionColumnarEncoder {
+
+    static final int ROW_GROUP_SIZE = 65_536;
+    private static final int VERSION = 1;
+    private static final int FLAG_DEFLATE = 1;
+    private static final byte[] MAGIC = "PPIC".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] PADDING = new byte[8];
+
+    private final OutputStream out;
+    private final Deflater deflater;
+    private final ByteArrayOutputStream compressed;
+
+    private final long[] ids = new long[ROW_GROUP_SIZE];
+    private final long[] userIds = new long[ROW_GROUP_SIZE];
+    private final long[] produitIds = new long[ROW_GROUP_SIZE];
+    private final int[] deltas = new int[ROW_GROUP_SIZE];
+    private final byte[] types = new byte[ROW_GROUP_SIZE];
+    private final ByteBuffer payload = ByteBuffer.allocate(8 + ROW_GROUP_SIZE * (3 * 8 + 4 + 1))
+            .order(ByteOrder.LITTLE_ENDIAN);
+    private int rows;
+    private long firstTimestamp;
+    private long lastTimestamp;
+
+    InteractionColumnarEncoder(OutputStream out, boolean deflate) throws IOException {
+        this.out = out;
+        this.deflater = deflate ? new Deflater(Deflater.BEST_SPEED) : null;
+        this.compressed = deflate ? new ByteArrayOutputStream(payload.capacity() / 2) : null;
+        writeHeader();
+    }
+
+    void add(long id, long userId, long produitId, int typeCode, long epochMillis) throws IOException {
+        long delta = epochMillis - lastTimestamp;
+        if (rows > 0 && (rows == ROW_GROUP_SIZE || delta != (int) delta)) {
+            flushGroup();
+        }
+        if (rows == 0) {
+            firstTimestamp = epochMillis;
+            delta = 0;
+        }
+        ids[rows] = id;
+        userIds[rows] = userId;
+        produitIds[rows] = produitId;
+        deltas[rows] = (int) delta;
+        types[rows] = (byte) typeCode;
+        lastTimestamp = epochMillis;
+        rows++;
+    }
+
+    /**
+     * Writes the pending group and the end marker; the output stream is left open.
+     */
+    void finish() throws IOException {
+        if (rows > 0) {
+            flushGroup();
+        }
+        ByteBuffer end = ByteBuffer.allocate(8);
+        out.write(end.array());
+        out.flush();
+        if (deflater != null) {
+            deflater.end();
+        }
+    }
+
+    private void writeHeader() throws IOException {
+        TypeInteraction[] values = TypeInteraction.values();
+        ByteBuffer header = ByteBuffer.allocate(256).order(ByteOrder.LITTLE_ENDIAN);
+        header.put(MAGIC)
+                .putShort((short) VERSION)
+                .putShort((short) (deflater != null ? FLAG_DEFLATE : 0))
+                .putInt(ROW_GROUP_SIZE)
+                .putShort((short) values.length);
+        for (TypeInteraction type : values) {
+            byte[] name = type.name().getBytes(StandardCharsets.UTF_8);
+            header.put((byte) name.length).put(name);
+        }
+        out.write(header.array(), 0, header.position());
+        writePadding(header.position());
+    }
+
+    private void flushGroup() throws IOException {
+        payload.clear();
+        payload.putLong(firstTimestamp);
+        payload.asLongBuffer().put(ids, 0, rows);
+        payload.position(payload.position() + rows * 8);
+        payload.asLongBuffer().put(userIds, 0, rows);
+        payload.position(payload.position() + rows * 8);
+        payload.asLongBuffer().put(produitIds, 0, rows);
+        payload.position(payload.position() + rows * 8);
+        payload.asIntBuffer().put(deltas, 0, rows);
+        payload.position(payload.position() + rows * 4);
+        payload.put(types, 0, rows);
+
+        byte[] bytes = payload.array();
+        int length = payload.position();
+        if (deflater != null) {
+            compressed.reset();
+            deflater.reset();
+            try (DeflaterOutputStream deflating = new DeflaterOutputStream(compressed, deflater, 64 * 1024)) {
+                deflating.write(bytes, 0, length);
+            }
+            bytes = compressed.toByteArray();
+            length = bytes.length;
+        }
+
+        ByteBuffer groupHeader = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN).putInt(rows).putInt(length);
+        out.write(groupHeader.array());
+        out.write(bytes, 0, length);
+        writePadding(length);
+        rows = 0;
+    }
+
+    private void writePadding(int written) throws IOException {
+        out.write(PADDING, 0, (8 - written % 8) % 8);
+    }
+}
@@ -0,0 +1,233 @@
+package com.projetproduits.homme.service;
+
+import com.projetproduits.homme.dto.IngestStatsDto;
+import com.projetproduits.homme.dto.InteractionHommeDto;
+import com.projetproduits.homme.entity.TypeInteraction;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Asynchronous write path for interactions: requests put events on a bounded ring buffer and a single
+ * background thread group-commits them, one multi-row INSERT per batch.
+ * The INSERT itself skips events whose user or product was deleted since the request was accepted.
+ * A batch the database rejects is tried once more, then inserted one event at a time so a single bad event
+ * does not take the others with it; the events that still fail are dropped and counted in getStats().
+ * The buffer is drained before the application shuts down.
+ */
+@Slf4j
+@Component
+public class InteractionHommeBulkWriter implements SmartLifecycle {
+
+    // One round trip per batch: rows are passed as arrays and unnested server side
+    private static final String INSERT_SQL = """
+            INSERT INTO interactions_homme (user_id, produit_id, type_interaction, timestamp)
+            SELECT v.user_id, v.produit_id, v.type_interaction, v.ts
+            FROM unnest(?::bigint[], ?::bigint[], ?::varchar[], ?::timestamp[]) AS v(user_id, produit_id, type_interaction, ts)
+            WHERE EXISTS (SELECT 1 FROM users_homme u WHERE u.id = v.user_id)
+              AND EXISTS (SELECT 1 FROM produits_homme p WHERE p.id = v.produit_id)
+            RETURNING id, user_id, produit_id, type_interaction, timestamp
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final InteractionHommeCounters counters;
+    private final ProduitHommeTrendingIndex trendingIndex;
+    private final InteractionHommeRecentCache recentCache;
+    private final MpscRingBuffer<InteractionHommeDto> buffer;
+    private final int batchSize;
+    private final long maxDelayNanos;
+
+    private final LongAdder written = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public InteractionHommeBulkWriter(
+            JdbcTemplate jdbcTemplate,
+            InteractionHommeCounters counters,
+            ProduitHommeTrendingIndex trendingIndex,
+            InteractionHommeRecentCache recentCache,
+            @Value("${interaction-ingest.buffer-size:65536}") int bufferSize,
+            @Value("${interaction-ingest.batch-size:1000}") int batchSize,
+            @Value("${interaction-ingest.max-delay:50ms}") Duration maxDelay) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.counters = counters;
+        this.trendingIndex = trendingIndex;
+        this.recentCache = recentCache;
+        this.buffer = new MpscRingBuffer<>(bufferSize);
+        this.batchSize = batchSize;
+        this.maxDelayNanos = maxDelay.toNanos();
+    }
+
+    /**
+     * Queues an interaction for the next batch; returns false when the buffer is full or the writer is stopped.
+     */
+    public boolean offer(InteractionHommeDto interaction) {
+        if (!running || !buffer.offer(interaction)) {
+            return false;
+        }
+        // Don't wait for the delay once a full batch is pending
+        if (buffer.size() >= batchSize) {
+            LockSupport.unpark(writer);
+        }
+        return true;
+    }
+
+    public IngestStatsDto getStats() {
+        return IngestStatsDto.builder()
+                .capacity(buffer.capacity())
+                .buffered(buffer.size())
+                .written(written.sum())
+                .skipped(skipped.sum())
+                .dropped(dropped.sum())
+                .build();
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        writer = new Thread(this::run, "interaction-homme-writer");
+        // stop() drains the buffer on a normal shutdown; the thread must not keep the JVM up if it never runs
+        writer.setDaemon(true);
+        writer.start();
+        log.info("Interaction bulk writer started: buffer={}, batch={}", buffer.capacity(), batchSize);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.info("Interaction bulk writer stopped, {} event(s) left unwritten", buffer.size());
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Stop after the web server so requests accepted during shutdown are still written
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private void run() {
+        List<InteractionHommeDto> batch = new ArrayList<>(batchSize);
+        while (true) {
+            // Read before draining so events offered just before stop() are still written
+            boolean stopping = !running;
+            buffer.drain(batch::add, batchSize);
+            if (!batch.isEmpty()) {
+                write(batch);
+                batch.clear();
+            } else if (stopping && buffer.size() == 0) {
+                return;
+            } else {
+                LockSupport.parkNanos(this, maxDelayNanos);
+            }
+        }
+    }
+
+    // Never throws, so the writer thread survives any failure. A batch whose connection broke after the commit
+    // is written twice by the retry: delivery is at least once
+    private void write(List<InteractionHommeDto> batch) {
+        try {
+            insert(batch);
+            return;
+        } catch (RuntimeException e) {
+            log.warn("Failed to write batch of {} interaction(s), retrying: {}", batch.size(), e.getMessage());
+        }
+        try {
+            insert(batch);
+            return;
+        } catch (RuntimeException e) {
+            log.warn("Failed to write batch of {} interaction(s) again, writing them one by one: {}",
+                    batch.size(), e.getMessage());
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            try {
+                insert(List.of(batch.get(i)));
+            } catch (RuntimeException e) {
+                if (e instanceof DataAccessResourceFailureException || e instanceof TransientDataAccessException) {
+                    // The database itself is failing, not the event: don't wait on it for every remaining one
+                    int lost = batch.size() - i;
+                    dropped.add(lost);
+                    log.error("Dropped {} interaction(s), the database is unavailable", lost, e);
+                    return;
+                }
+                dropped.increment();
+                log.error("Dropped interaction {} rejected by the database", batch.get(i), e);
+            }
+        }
+    }
+
+    private void insert(List<InteractionHommeDto> batch) {
+        int size = batch.size();
+        Long[] userIds = new Long[size];
+        Long[] produitIds = new Long[size];
+        String[] types = new String[size];
+        Timestamp[] timestamps = new Timestamp[size];
+        for (int i = 0; i < size; i++) {
+            InteractionHommeDto interaction = batch.get(i);
+            userIds[i] = interaction.getUserId();
+            produitIds[i] = interaction.getProduitId();
+            types[i] = interaction.getTypeInteraction().name();
+            timestamps[i] = Timestamp.valueOf(interaction.getTimestamp());
+        }
+        // The statement commits on its own; the in-memory views only take the rows once all of them are read
+        List<InteractionHommeDto> inserted = new ArrayList<>(size);
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(INSERT_SQL);
+            statement.setArray(1, array(connection, "bigint", userIds));
+            statement.setArray(2, array(connection, "bigint", produitIds));
+            statement.setArray(3, array(connection, "varchar", types));
+            statement.setArray(4, array(connection, "timestamp", timestamps));
+            return statement;
+        }, (RowCallbackHandler) rs -> inserted.add(InteractionHommeDto.builder()
+                .id(rs.getLong(1))
+                .userId(rs.getLong(2))
+                .produitId(rs.getLong(3))
+                .typeInteraction(TypeInteraction.valueOf(rs.getString(4)))
+                .timestamp(rs.getTimestamp(5).toLocalDateTime())
+                .build()));
+        for (InteractionHommeDto interaction : inserted) {
+            counters.add(interaction.getProduitId(), interaction.getTypeInteraction(), 1);
+            trendingIndex.add(interaction.getProduitId(), interaction.getTypeInteraction(), interaction.getTimestamp());
+            recentCache.add(interaction);
+        }
+        written.add(inserted.size());
+        if (inserted.size() < size) {
+            skipped.add(size - inserted.size());
+            log.warn("Skipped {} interaction(s) referencing an unknown user or product", size - inserted.size());
+        }
+        log.debug("Wrote batch of {} interaction(s)", inserted.size());
+    }
+
+    private static Array array(Connection connection, String type, Object[] values) throws SQLException {
+        return connection.createArrayOf(type, values);
+    }
+}
@@ -0,0 +1,168 @@
+package com.projetproduits.homme.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Maintains the partitions of interactions_homme, range-partitioned on its timestamp by the V3 migration:
+ * upcoming partitions, one per month or per day, are created ahead of time and partitions older than the retention
+ * are detached or dropped.
+ * Rows outside every partition land in a default partition and are moved out when their partition is created.
+ */
+@Slf4j
+@Component
+public class InteractionHommePartitionManager {
+
+    public enum Interval {
+        MONTHLY, DAILY
+    }
+
+    public enum Expiry {
+        DETACH, DROP
+    }
+
+    private static final String TABLE = "interactions_homme";
+    private static final String DEFAULT_PARTITION = TABLE + "_default";
+    private static final Pattern PARTITION_NAME = Pattern.compile(TABLE + "_p(\\d{4})_(\\d{2})(?:_(\\d{2}))?");
+    private static final DateTimeFormatter BOUND = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Interval interval;
+    private final int premake;
+    private final int retention;
+    private final Expiry expiry;
+
+    // The JdbcTemplate is only created once Flyway has migrated the schema
+    public InteractionHommePartitionManager(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${interaction-partitions.interval:monthly}") Interval interval,
+            @Value("${interaction-partitions.premake:3}") int premake,
+            @Value("${interaction-partitions.retention:0}") int retention,
+            @Value("${interaction-partitions.expiry:detach}") Expiry expiry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.interval = interval;
+        this.premake = premake;
+        this.retention = retention;
+        this.expiry = expiry;
+    }
+
+    // Creates the partition of the current interval at startup, rather than at the first scheduled run
+    @PostConstruct
+    public void initialize() {
+        try {
+            maintain();
+        } catch (RuntimeException e) {
+            throw new IllegalStateException("Could not create the partitions of " + TABLE, e);
+        }
+    }
+
+    /**
+     * Creates the partitions of the current interval and the next premake ones, then expires old ones.
+     */
+    @Scheduled(cron = "${interaction-partitions.cron:0 0 * * * *}")
+    public synchronized void maintain() {
+        List<Range> existing = existingPartitions();
+        LocalDateTime current = intervalStart(LocalDateTime.now());
+        for (int i = 0; i <= premake; i++) {
+            LocalDateTime start = plus(current, i);
+            Range range = new Range(partitionName(start), start, plus(start, 1));
+            if (existing.stream().noneMatch(range::overlaps)) {
+                transactionTemplate.executeWithoutResult(status -> createPartition(range));
+                existing.add(range);
+            }
+        }
+        if (retention > 0) {
+            LocalDateTime cutoff = plus(current, -retention);
+            for (Range range : existing) {
+                if (!range.to.isAfter(cutoff)) {
+                    expire(range);
+                }
+            }
+        }
+    }
+
+    // Moves the matching rows out of the default partition first, otherwise attaching the range would fail
+    private void createPartition(Range range) {
+        String name = range.name;
+        String bounds = " \"timestamp\" >= '" + BOUND.format(range.from) + "' AND \"timestamp\" < '" + BOUND.format(range.to) + "'";
+        jdbcTemplate.execute("CREATE TABLE " + name + " (LIKE " + TABLE + " INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+        jdbcTemplate.execute("INSERT INTO " + name + " SELECT * FROM " + DEFAULT_PARTITION + " WHERE" + bounds);
+        jdbcTemplate.execute("DELETE FROM " + DEFAULT_PARTITION + " WHERE" + bounds);
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " ATTACH PARTITION " + name + " FOR VALUES FROM ('"
+                + BOUND.format(range.from) + "') TO ('" + BOUND.format(range.to) + "')");
+        log.info("Created partition {}", name);
+    }
+
+    private void expire(Range range) {
+        String name = range.name;
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " DETACH PARTITION " + name);
+        if (expiry == Expiry.DROP) {
+            jdbcTemplate.execute("DROP TABLE " + name);
+        }
+        log.info("Expired partition {} ({})", name, expiry);
+    }
+
+    // Partitions are recognized by name, whichever interval they were created with
+    private List<Range> existingPartitions() {
+        List<String> names = jdbcTemplate.queryForList(
+                "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid WHERE i.inhparent = to_regclass(?)",
+                String.class, TABLE);
+        List<Range> ranges = new ArrayList<>();
+        for (String name : names) {
+            Matcher matcher = PARTITION_NAME.matcher(name);
+            if (!matcher.matches()) {
+                continue;
+            }
+            int year = Integer.parseInt(matcher.group(1));
+            int month = Integer.parseInt(matcher.group(2));
+            LocalDateTime from;
+            LocalDateTime to;
+            if (matcher.group(3) == null) {
+                from = LocalDate.of(year, month, 1).atStartOfDay();
+                to = from.plusMonths(1);
+            } else {
+                from = LocalDate.of(year, month, Integer.parseInt(matcher.group(3))).atStartOfDay();
+                to = from.plusDays(1);
+            }
+            ranges.add(new Range(name, from, to));
+        }
+        return ranges;
+    }
+
+    private String partitionName(LocalDateTime from) {
+        return TABLE + "_p" + from.format(DateTimeFormatter.ofPattern(interval == Interval.MONTHLY ? "yyyy_MM" : "yyyy_MM_dd"));
+    }
+
+    private LocalDateTime intervalStart(LocalDateTime time) {
+        LocalDate day = time.toLocalDate();
+        return (interval == Interval.MONTHLY ? day.withDayOfMonth(1) : day).atStartOfDay();
+    }
+
+    private LocalDateTime plus(LocalDateTime start, int intervals) {
+        return interval == Interval.MONTHLY ? start.plusMonths(intervals) : start.plusDays(intervals);
+    }
+
+    private record Range(String name, LocalDateTime from, LocalDateTime to) {
+
+        boolean overlaps(Range other) {
+            return from.isBefore(other.to) && other.from.isBefore(to);
+        }
+    }
+}
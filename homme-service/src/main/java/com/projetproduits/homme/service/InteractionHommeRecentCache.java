@@ -0,0 +1,144 @@
+package com.projetproduits.homme.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.projetproduits.homme.dto.InteractionHommeDto;
+import com.projetproduits.homme.repository.InteractionHommeRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Last interactions of the active users, newest first, for "recently viewed" lists.
+ * A user's buffer is loaded from the database on the first read, then kept current by every write path,
+ * so it always holds the user's latest interactions. Users idle for the expiry, or the least valuable ones
+ * beyond the maximum, are evicted and reloaded on their next read.
+ */
+@Component
+public class InteractionHommeRecentCache {
+
+    // Same order as findRecentInteractionsByUser
+    private static final Comparator<InteractionHommeDto> NEWEST_FIRST = Comparator
+            .comparing(InteractionHommeDto::getTimestamp)
+            .thenComparing(InteractionHommeDto::getId)
+            .reversed();
+
+    private final InteractionHommeRepository interactionRepository;
+    private final int size;
+    private final Cache<Long, Recent> byUser;
+
+    public InteractionHommeRecentCache(
+            InteractionHommeRepository interactionRepository,
+            @Value("${recent-activity.size:50}") int size,
+            @Value("${recent-activity.maximum-users:100000}") long maximumUsers,
+            @Value("${recent-activity.expire-after-access:30m}") Duration expireAfterAccess) {
+        this.interactionRepository = interactionRepository;
+        this.size = size;
+        this.byUser = Caffeine.newBuilder()
+                .maximumSize(maximumUsers)
+                .expireAfterAccess(expireAfterAccess)
+                .build();
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Returns at most limit interactions of the user, newest first, loading the user on a miss.
+     */
+    public List<InteractionHommeDto> get(Long userId, int limit) {
+        return byUser.get(userId, this::load).newest(limit);
+    }
+
+    /**
+     * Adds an interaction, which must carry its id, to its user's buffer once the current transaction commits.
+     * Users not in the cache are left out: they are loaded with it on their next read.
+     */
+    public void recorded(InteractionHommeDto interaction) {
+        AfterCommit.run(() -> add(interaction));
+    }
+
+    // Runs under the entry's lock, so an add cannot slip between a load's query and its insertion
+    public void add(InteractionHommeDto interaction) {
+        if (interaction.getId() == null) {
+            // Cannot be ordered or de-duplicated: reload the user instead
+            byUser.invalidate(interaction.getUserId());
+            return;
+        }
+        byUser.asMap().computeIfPresent(interaction.getUserId(), (userId, recent) -> {
+            recent.add(interaction);
+            return recent;
+        });
+    }
+
+    public void removed(Long userId) {
+        AfterCommit.run(() -> byUser.invalidate(userId));
+    }
+
+    private Recent load(Long userId) {
+        Recent recent = new Recent(size);
+        interactionRepository.findRecentInteractionsByUser(userId, PageRequest.of(0, size)).forEach(recent::add);
+        return recent;
+    }
+
+    /**
+     * Ring of the newest interactions: slot newest holds the most recent one, the following slots older ones.
+     * Adding the most recent interaction overwrites the oldest; an out-of-order one is shifted into place.
+     */
+    private static final class Recent {
+
+        private final InteractionHommeDto[] ring;
+        private int newest;
+        private int count;
+
+        private Recent(int size) {
+            this.ring = new InteractionHommeDto[size];
+        }
+
+        private synchronized void add(InteractionHommeDto interaction) {
+            int position = 0;
+            while (position < count && NEWEST_FIRST.compare(get(position), interaction) < 0) {
+                position++;
+            }
+            // Already loaded by the query that filled the buffer
+            if (position < count && get(position).getId().equals(interaction.getId())) {
+                return;
+            }
+            if (position == ring.length) {
+                return;
+            }
+            if (position == 0) {
+                newest = Math.floorMod(newest - 1, ring.length);
+            } else {
+                for (int i = Math.min(count, ring.length - 1); i > position; i--) {
+                    set(i, get(i - 1));
+                }
+            }
+            set(position, interaction);
+            count = Math.min(count + 1, ring.length);
+        }
+
+        private synchronized List<InteractionHommeDto> newest(int limit) {
+            int n = Math.min(limit, count);
+            List<InteractionHommeDto> interactions = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                interactions.add(get(i));
+            }
+            return interactions;
+        }
+
+        private InteractionHommeDto get(int position) {
+            return ring[(newest + position) % ring.length];
+        }
+
+        private void set(int position, InteractionHommeDto interaction) {
+            ring[(newest + position) % ring.length] = interaction;
+        }
+    }
+}
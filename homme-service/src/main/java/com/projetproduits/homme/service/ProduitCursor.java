@@ -0,0 +1,80 @@
+package com.projetproduits.homme.service;
+
+import com.projetproduits.homme.exception.BadRequestException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position of the last row returned by a keyset (seek) page.
+ * Serialized as an opaque URL-safe token so clients never depend on its layout.
+ */
+@Getter
+@AllArgsConstructor
+public class ProduitCursor {
+
+    public enum Sort {
+        ID,
+        PRIX;
+
+        public static Sort from(String value) {
+            if (value == null || value.isBlank() || "id".equalsIgnoreCase(value)) {
+                return ID;
+            }
+            if ("prix".equalsIgnoreCase(value)) {
+                return PRIX;
+            }
+            throw new BadRequestException("Unsupported sort: " + value + " (expected id or prix)");
+        }
+    }
+
+    private static final String SEPARATOR = "\u001F";
+
+    private final Sort sort;
+    private final String categorie;
+    private final BigDecimal prix;
+    private final Long id;
+
+    public static ProduitCursor start(Sort sort) {
+        return new ProduitCursor(sort, null, null, 0L);
+    }
+
+    public boolean isStart() {
+        return id == 0L;
+    }
+
+    public String encode() {
+        String raw = sort.name() + SEPARATOR
+                + (categorie != null ? categorie : "") + SEPARATOR
+                + (prix != null ? prix.toPlainString() : "") + SEPARATOR
+                + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ProduitCursor decode(String token, Sort expectedSort) {
+        if (token == null || token.isBlank()) {
+            return start(expectedSort);
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(SEPARATOR, -1);
+            if (parts.length != 4) {
+                throw new BadRequestException("Invalid cursor");
+            }
+            Sort sort = Sort.valueOf(parts[0]);
+            if (sort != expectedSort) {
+                throw new BadRequestException("Cursor was issued for sort " + sort.name().toLowerCase());
+            }
+            return new ProduitCursor(
+                    sort,
+                    parts[1].isEmpty() ? null : parts[1],
+                    parts[2].isEmpty() ? null : new BigDecimal(parts[2]),
+                    Long.parseLong(parts[3]));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+}
@@ -1,35 +1,94 @@
 package com.projetproduits.homme.service;
 
+import com.projetproduits.homme.dto.BatchItemResult;
+import com.projetproduits.homme.dto.BatchResult;
+import com.projetproduits.homme.dto.CacheStatsDto;
+import com.projetproduits.homme.dto.CatalogVersion;
+import com.projetproduits.homme.dto.CategorieFacetDto;
+import com.projetproduits.homme.dto.CursorPage;
+import com.projetproduits.homme.dto.OffsetPage;
 import com.projetproduits.homme.dto.ProduitHommeDto;
+import com.projetproduits.homme.dto.RankedProduitHommeDto;
 import com.projetproduits.homme.entity.ProduitHomme;
+import com.projetproduits.homme.event.ProduitHommeChangedEvent;
+import com.projetproduits.homme.exception.BadRequestException;
 import com.projetproduits.homme.exception.ResourceNotFoundException;
 import com.projetproduits.homme.repository.ProduitHommeRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Objects;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class ProduitHommeService {
 
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int DEFAULT_SEARCH_LIMIT = 20;
+    private static final int MAX_BATCH_SIZE = 10_000;
+
     private final ProduitHommeRepository produitRepository;
+    private final ProduitHommeCache produitCache;
+    private final ProduitHommeSearchIndex searchIndex;
+    private final ProduitHommePriceIndex priceIndex;
+    private final ProduitHommeTrendingIndex trendingIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityManager entityManager;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+
+    // Batch endpoints flush and clear the persistence context every JDBC batch
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int jdbcBatchSize;
 
     public List<ProduitHommeDto> findAll() {
-        return produitRepository.findAll().stream()
-                .map(this::toDto)
-                .collect(Collectors.toList());
+        return produitCache.getAll(produitRepository::findAllDtos);
+    }
+
+    /**
+     * Pushes every product to the sink straight from a database cursor, bypassing the cache.
+     */
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<ProduitHommeDto> sink) {
+        try (Stream<ProduitHommeDto> produits = produitRepository.streamAll()) {
+            produits.forEach(sink);
+        }
     }
 
     public ProduitHommeDto findById(Long id) {
-        return produitRepository.findById(id)
-                .map(this::toDto)
-                .orElseThrow(() -> new ResourceNotFoundException("ProduitHomme", id));
+        ProduitHommeDto produit = produitCache.get(id, key -> produitRepository.findDtoById(key).orElse(null));
+        if (produit == null) {
+            throw new ResourceNotFoundException("ProduitHomme", id);
+        }
+        return produit;
     }
 
     @Transactional
@@ -44,13 +103,16 @@ public class ProduitHommeService {
 
         ProduitHomme saved = produitRepository.save(produit);
         log.info("Created ProduitHomme with id: {}", saved.getId());
-        return toDto(saved);
+        ProduitHommeDto created = toDto(saved);
+        eventPublisher.publishEvent(ProduitHommeChangedEvent.created(created));
+        return created;
     }
 
     @Transactional
     public ProduitHommeDto update(Long id, ProduitHommeDto dto) {
         ProduitHomme produit = produitRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("ProduitHomme", id));
+        ProduitHommeDto before = toDto(produit);
 
         produit.setNom(dto.getNom());
         produit.setCategorie(dto.getCategorie());
@@ -60,22 +122,238 @@ public class ProduitHommeService {
 
         ProduitHomme updated = produitRepository.save(produit);
         log.info("Updated ProduitHomme with id: {}", updated.getId());
-        return toDto(updated);
+        ProduitHommeDto after = toDto(updated);
+        eventPublisher.publishEvent(ProduitHommeChangedEvent.updated(before, after));
+        return after;
     }
 
     @Transactional
     public void delete(Long id) {
-        if (!produitRepository.existsById(id)) {
-            throw new ResourceNotFoundException("ProduitHomme", id);
-        }
-        produitRepository.deleteById(id);
+        ProduitHomme produit = produitRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("ProduitHomme", id));
+        produitRepository.delete(produit);
         log.info("Deleted ProduitHomme with id: {}", id);
+        eventPublisher.publishEvent(ProduitHommeChangedEvent.deleted(toDto(produit)));
+    }
+
+    /**
+     * Creates every valid product of the list, inserted in JDBC batches, one transaction per batch.
+     * Invalid items are reported in the result and do not stop the others. A batch the database rejects
+     * is written again one product at a time, so only the products at fault are reported as FAILED.
+     */
+    public BatchResult<ProduitHommeDto> createAll(List<ProduitHommeDto> dtos) {
+        checkBatchSize(dtos);
+        BatchWriter writer = new BatchWriter(dtos, this::insertChunk);
+
+        for (int i = 0; i < dtos.size(); i++) {
+            String error = validate(dtos.get(i));
+            if (error != null) {
+                writer.reject(i, BatchItemResult.Status.INVALID, error);
+            } else {
+                writer.add(i);
+            }
+        }
+        writer.flush();
+
+        log.info("Created {} ProduitHomme in batch, {} rejected", writer.succeeded(), dtos.size() - writer.succeeded());
+        return writer.result();
+    }
+
+    /**
+     * Updates every valid product of the list (each item carries its id), one transaction per JDBC batch.
+     * Products are loaded one JDBC batch at a time and their updates flushed together; a batch the database
+     * rejects is written again one product at a time, as in createAll.
+     */
+    public BatchResult<ProduitHommeDto> updateAll(List<ProduitHommeDto> dtos) {
+        checkBatchSize(dtos);
+        BatchWriter writer = new BatchWriter(dtos, this::updateChunk);
+
+        for (int i = 0; i < dtos.size(); i++) {
+            ProduitHommeDto dto = dtos.get(i);
+            String error = dto != null && dto.getId() == null ? "id: Id is required" : validate(dto);
+            if (error != null) {
+                writer.reject(i, BatchItemResult.Status.INVALID, error);
+            } else {
+                writer.add(i);
+            }
+        }
+        writer.flush();
+
+        log.info("Updated {} ProduitHomme in batch, {} rejected", writer.succeeded(), dtos.size() - writer.succeeded());
+        return writer.result();
+    }
+
+    private void insertChunk(List<ProduitHommeDto> dtos, List<Integer> chunk,
+                             List<BatchItemResult<ProduitHommeDto>> results,
+                             List<ProduitHommeChangedEvent.Change> changes) {
+        for (int i : chunk) {
+            ProduitHommeDto dto = dtos.get(i);
+            ProduitHomme produit = ProduitHomme.builder()
+                    .nom(dto.getNom())
+                    .categorie(dto.getCategorie())
+                    .prix(dto.getPrix())
+                    .description(dto.getDescription())
+                    .imageUrl(dto.getImageUrl())
+                    .build();
+            entityManager.persist(produit);
+            ProduitHommeDto created = toDto(produit);
+            results.add(BatchItemResult.<ProduitHommeDto>builder()
+                    .index(i)
+                    .status(BatchItemResult.Status.CREATED)
+                    .data(created)
+                    .build());
+            changes.add(new ProduitHommeChangedEvent.Change(null, created));
+        }
+        flushAndClear();
+    }
+
+    private void updateChunk(List<ProduitHommeDto> dtos, List<Integer> chunk,
+                             List<BatchItemResult<ProduitHommeDto>> results,
+                             List<ProduitHommeChangedEvent.Change> changes) {
+        Map<Long, ProduitHomme> produits = produitRepository.findAllById(
+                        chunk.stream().map(i -> dtos.get(i).getId()).collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(ProduitHomme::getId, produit -> produit));
+
+        for (int i : chunk) {
+            ProduitHommeDto dto = dtos.get(i);
+            ProduitHomme produit = produits.get(dto.getId());
+            if (produit == null) {
+                results.add(rejected(i, BatchItemResult.Status.NOT_FOUND, "ProduitHomme not found with id: " + dto.getId()));
+                continue;
+            }
+            ProduitHommeDto before = toDto(produit);
+            produit.setNom(dto.getNom());
+            produit.setCategorie(dto.getCategorie());
+            produit.setPrix(dto.getPrix());
+            produit.setDescription(dto.getDescription());
+            produit.setImageUrl(dto.getImageUrl());
+            ProduitHommeDto after = toDto(produit);
+            results.add(BatchItemResult.<ProduitHommeDto>builder()
+                    .index(i)
+                    .status(BatchItemResult.Status.UPDATED)
+                    .data(after)
+                    .build());
+            changes.add(new ProduitHommeChangedEvent.Change(before, after));
+        }
+        flushAndClear();
+    }
+
+    /**
+     * Writes the items of a list of products one JDBC batch at a time.
+     */
+    @FunctionalInterface
+    private interface ChunkWriter {
+
+        // Runs in the transaction of the chunk, adding the result of every item and the change of the written ones
+        void write(List<ProduitHommeDto> dtos, List<Integer> chunk,
+                   List<BatchItemResult<ProduitHommeDto>> results,
+                   List<ProduitHommeChangedEvent.Change> changes);
+    }
+
+    /**
+     * Collects the valid items of a batch request into chunks of hibernate.jdbc.batch_size, writes each chunk in
+     * its own transaction and gathers the results. The results and changes of a chunk are kept only once it commits;
+     * a chunk that fails is split into single items, and an item that fails alone is reported as FAILED.
+     */
+    private class BatchWriter {
+
+        private final List<ProduitHommeDto> dtos;
+        private final ChunkWriter chunkWriter;
+        private final List<BatchItemResult<ProduitHommeDto>> results;
+        private final List<Integer> chunk = new ArrayList<>(jdbcBatchSize);
+        private int succeeded;
+
+        BatchWriter(List<ProduitHommeDto> dtos, ChunkWriter chunkWriter) {
+            this.dtos = dtos;
+            this.chunkWriter = chunkWriter;
+            this.results = new ArrayList<>(dtos.size());
+        }
+
+        void reject(int index, BatchItemResult.Status status, String error) {
+            results.add(rejected(index, status, error));
+        }
+
+        void add(int index) {
+            chunk.add(index);
+            if (chunk.size() == jdbcBatchSize) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (!chunk.isEmpty()) {
+                write(List.copyOf(chunk));
+                chunk.clear();
+            }
+        }
+
+        int succeeded() {
+            return succeeded;
+        }
+
+        BatchResult<ProduitHommeDto> result() {
+            results.sort(Comparator.comparingInt(BatchItemResult::getIndex));
+            return BatchResult.<ProduitHommeDto>builder()
+                    .succeeded(succeeded)
+                    .failed(results.size() - succeeded)
+                    .items(results)
+                    .build();
+        }
+
+        private void write(List<Integer> items) {
+            List<BatchItemResult<ProduitHommeDto>> written = new ArrayList<>(items.size());
+            List<ProduitHommeChangedEvent.Change> changes = new ArrayList<>(items.size());
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    chunkWriter.write(dtos, items, written, changes);
+                    // Delivered to the listeners once the chunk commits
+                    if (!changes.isEmpty()) {
+                        eventPublisher.publishEvent(new ProduitHommeChangedEvent(changes));
+                    }
+                });
+            } catch (PersistenceException | DataAccessException | TransactionException e) {
+                if (items.size() == 1) {
+                    String error = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+                    log.warn("ProduitHomme at index {} of the batch was rejected by the database: {}", items.get(0), error);
+                    reject(items.get(0), BatchItemResult.Status.FAILED, "Rejected by the database: " + error);
+                } else {
+                    log.warn("Batch of {} ProduitHomme failed, writing them one by one: {}", items.size(), e.getMessage());
+                    items.forEach(item -> write(List.of(item)));
+                }
+                return;
+            }
+            results.addAll(written);
+            succeeded += changes.size();
+        }
     }
 
     public List<ProduitHommeDto> findByCategorie(String categorie) {
-        return produitRepository.findByCategorie(categorie).stream()
-                .map(this::toDto)
-                .collect(Collectors.toList());
+        return produitCache.getByCategorie(categorie, produitRepository::findByCategorie);
+    }
+
+    // Fingerprints backing ETag / Last-Modified, answered from the cache or by an aggregate query
+    public CatalogVersion getCatalogVersion() {
+        return produitCache.getVersion(produitRepository::findCatalogVersion);
+    }
+
+    public CatalogVersion getCatalogVersionByCategorie(String categorie) {
+        return produitCache.getVersionByCategorie(categorie, produitRepository::findCatalogVersionByCategorie);
+    }
+
+    public CatalogVersion getVersion(Long id) {
+        CatalogVersion version = produitCache.getVersion(id, produitRepository::findVersionById);
+        if (version.isEmpty()) {
+            throw new ResourceNotFoundException("ProduitHomme", id);
+        }
+        return version;
+    }
+
+    public List<CategorieFacetDto> getFacets() {
+        return priceIndex.facets();
+    }
+
+    public CacheStatsDto getCacheStats() {
+        return produitCache.stats();
     }
 
     public List<ProduitHommeDto> searchByNom(String nom) {
@@ -84,12 +362,212 @@ public class ProduitHommeService {
                 .collect(Collectors.toList());
     }
 
+    public List<RankedProduitHommeDto> search(String query, Integer limit) {
+        return rank(query, limit != null ? Math.min(Math.max(limit, 1), MAX_PAGE_SIZE) : DEFAULT_SEARCH_LIMIT);
+    }
+
+    /**
+     * Products with the most weighted interactions over the window (e.g. "1h", "30m"), best first.
+     */
+    public List<RankedProduitHommeDto> trending(String window, Integer k) {
+        Duration duration;
+        try {
+            duration = DurationStyle.detectAndParse(window);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid window: " + window + " (expected e.g. 1h or 30m)");
+        }
+        if (duration.isNegative() || duration.isZero() || duration.compareTo(trendingIndex.getMaxWindow()) > 0) {
+            throw new BadRequestException("Window must be positive and at most " + trendingIndex.getMaxWindow());
+        }
+        List<ProduitHommeTrendingIndex.Hit> hits =
+                trendingIndex.top(duration, k != null ? Math.min(Math.max(k, 1), MAX_PAGE_SIZE) : DEFAULT_SEARCH_LIMIT);
+        Map<Long, ProduitHommeDto> produits = findAllByIds(hits.stream().map(ProduitHommeTrendingIndex.Hit::getId).toList());
+        return hits.stream()
+                .filter(hit -> produits.containsKey(hit.getId()))
+                .map(hit -> RankedProduitHommeDto.builder()
+                        .produit(produits.get(hit.getId()))
+                        .score(hit.getScore())
+                        .build())
+                .collect(Collectors.toList());
+    }
+
     public List<ProduitHommeDto> findByPriceRange(BigDecimal minPrix, BigDecimal maxPrix) {
-        return produitRepository.findByPrixBetween(minPrix, maxPrix).stream()
-                .map(this::toDto)
+        ProduitHommePriceIndex.Slice slice = priceIndex.filter(List.of(), minPrix, maxPrix, false, 0, Integer.MAX_VALUE);
+        return resolveInOrder(slice.getIds());
+    }
+
+    public OffsetPage<ProduitHommeDto> filter(List<String> categories, BigDecimal minPrix, BigDecimal maxPrix,
+                                              String sort, Integer offset, Integer limit) {
+        if (minPrix != null && maxPrix != null && minPrix.compareTo(maxPrix) > 0) {
+            throw new BadRequestException("minPrix must not be greater than maxPrix");
+        }
+        boolean descending;
+        if (sort == null || sort.isBlank() || "prix_asc".equalsIgnoreCase(sort)) {
+            descending = false;
+        } else if ("prix_desc".equalsIgnoreCase(sort)) {
+            descending = true;
+        } else {
+            throw new BadRequestException("Unsupported sort: " + sort + " (expected prix_asc or prix_desc)");
+        }
+        int start = offset != null ? offset : 0;
+        if (start < 0) {
+            throw new BadRequestException("Offset must not be negative");
+        }
+        int max = pageSize(limit);
+
+        ProduitHommePriceIndex.Slice slice = priceIndex.filter(categories, minPrix, maxPrix, descending, start, max);
+        return OffsetPage.<ProduitHommeDto>builder()
+                .items(resolveInOrder(slice.getIds()))
+                .offset(start)
+                .limit(max)
+                .total(slice.getTotal())
+                .build();
+    }
+
+    public CursorPage<ProduitHommeDto> findPage(String cursor, Integer size, String sort) {
+        ProduitCursor.Sort order = ProduitCursor.Sort.from(sort);
+        ProduitCursor position = ProduitCursor.decode(cursor, order);
+        int limit = pageSize(size);
+        Pageable pageable = PageRequest.of(0, limit + 1);
+
+        List<ProduitHommeDto> rows;
+        if (order == ProduitCursor.Sort.PRIX) {
+            rows = position.isStart()
+                    ? produitRepository.findFirstPageOrderByCategorieAndPrix(pageable)
+                    : produitRepository.findPageOrderByCategorieAndPrixAfter(
+                            position.getCategorie(), position.getPrix(), position.getId(), pageable);
+        } else {
+            rows = produitRepository.findPageAfterId(position.getId(), pageable);
+        }
+        return toPage(rows, limit, order);
+    }
+
+    public CursorPage<ProduitHommeDto> findPageByCategorie(String categorie, String cursor, Integer size, String sort) {
+        ProduitCursor.Sort order = ProduitCursor.Sort.from(sort);
+        ProduitCursor position = ProduitCursor.decode(cursor, order);
+        int limit = pageSize(size);
+        Pageable pageable = PageRequest.of(0, limit + 1);
+
+        List<ProduitHommeDto> rows;
+        if (order == ProduitCursor.Sort.PRIX) {
+            rows = position.isStart()
+                    ? produitRepository.findFirstPageByCategorieOrderByPrix(categorie, pageable)
+                    : produitRepository.findPageByCategorieOrderByPrixAfter(
+                            categorie, position.getPrix(), position.getId(), pageable);
+        } else {
+            rows = produitRepository.findPageByCategorieAfterId(categorie, position.getId(), pageable);
+        }
+        return toPage(rows, limit, order);
+    }
+
+    public CursorPage<ProduitHommeDto> searchPageByNom(String nom, String cursor, Integer size) {
+        ProduitCursor position = ProduitCursor.decode(cursor, ProduitCursor.Sort.ID);
+        int limit = pageSize(size);
+        List<ProduitHommeDto> rows = produitRepository.findPageByNomAfterId(
+                nom, position.getId(), PageRequest.of(0, limit + 1));
+        return toPage(rows, limit, ProduitCursor.Sort.ID);
+    }
+
+    public CursorPage<ProduitHommeDto> findPageByPriceRange(BigDecimal minPrix, BigDecimal maxPrix, String cursor, Integer size) {
+        ProduitCursor position = ProduitCursor.decode(cursor, ProduitCursor.Sort.ID);
+        int limit = pageSize(size);
+        List<ProduitHommeDto> rows = produitRepository.findPageByPrixBetweenAfterId(
+                minPrix, maxPrix, position.getId(), PageRequest.of(0, limit + 1));
+        return toPage(rows, limit, ProduitCursor.Sort.ID);
+    }
+
+    private List<RankedProduitHommeDto> rank(String query, int limit) {
+        List<ProduitHommeSearchIndex.Hit> hits = searchIndex.search(query, limit);
+        Map<Long, ProduitHommeDto> produits = findAllByIds(hits.stream().map(ProduitHommeSearchIndex.Hit::getId).toList());
+        return hits.stream()
+                .filter(hit -> produits.containsKey(hit.getId()))
+                .map(hit -> RankedProduitHommeDto.builder()
+                        .produit(produits.get(hit.getId()))
+                        .score(hit.getScore())
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    private List<ProduitHommeDto> resolveInOrder(long[] ids) {
+        List<Long> keys = Arrays.stream(ids).boxed().toList();
+        Map<Long, ProduitHommeDto> produits = findAllByIds(keys);
+        return keys.stream()
+                .map(produits::get)
+                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
     }
 
+    // Resolves ids through the product cache, loading the misses with a single IN query
+    private Map<Long, ProduitHommeDto> findAllByIds(List<Long> ids) {
+        return produitCache.getAll(ids, missing -> produitRepository.findDtosByIdIn(missing).stream()
+                .collect(Collectors.toMap(ProduitHommeDto::getId, produit -> produit)));
+    }
+
+    private void checkBatchSize(List<ProduitHommeDto> dtos) {
+        if (dtos.size() > MAX_BATCH_SIZE) {
+            throw new BadRequestException("A batch accepts at most " + MAX_BATCH_SIZE + " products");
+        }
+    }
+
+    private String validate(ProduitHommeDto dto) {
+        if (dto == null) {
+            return "Product is required";
+        }
+        Set<ConstraintViolation<ProduitHommeDto>> violations = validator.validate(dto);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    private static BatchItemResult<ProduitHommeDto> rejected(int index, BatchItemResult.Status status, String error) {
+        return BatchItemResult.<ProduitHommeDto>builder()
+                .index(index)
+                .status(status)
+                .error(error)
+                .build();
+    }
+
+    // Sends the pending JDBC batch and detaches the written entities so the persistence context stays small
+    private void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private int pageSize(Integer size) {
+        if (size == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        if (size < 1) {
+            throw new BadRequestException("Page size must be at least 1");
+        }
+        return Math.min(size, MAX_PAGE_SIZE);
+    }
+
+    // Rows are fetched with one extra element so we know whether another page exists
+    private CursorPage<ProduitHommeDto> toPage(List<ProduitHommeDto> rows, int limit, ProduitCursor.Sort sort) {
+        boolean hasMore = rows.size() > limit;
+        List<ProduitHommeDto> page = hasMore ? rows.subList(0, limit) : rows;
+
+        String nextCursor = null;
+        if (hasMore) {
+            ProduitHommeDto last = page.get(page.size() - 1);
+            nextCursor = sort == ProduitCursor.Sort.PRIX
+                    ? new ProduitCursor(sort, last.getCategorie(), last.getPrix(), last.getId()).encode()
+                    : new ProduitCursor(sort, null, null, last.getId()).encode();
+        }
+
+        return CursorPage.<ProduitHommeDto>builder()
+                .items(List.copyOf(page))
+                .size(page.size())
+                .hasMore(hasMore)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
     private ProduitHommeDto toDto(ProduitHomme produit) {
         return ProduitHommeDto.builder()
                 .id(produit.getId())
@@ -0,0 +1,289 @@
+package com.projetproduits.homme.service;
+
+import com.projetproduits.homme.entity.TypeInteraction;
+import com.projetproduits.homme.repository.InteractionHommeRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Products trending over a recent window, by interactions weighted by type.
+ * Time is cut into fixed buckets on a ring covering the longest window. Each bucket holds a Count-Min sketch
+ * of the weighted interactions per product and its heaviest products, so memory stays bounded whatever the
+ * traffic. A query sums the heavy products of the buckets in the window, then re-scores the best of them
+ * with the sketches. Scores can overestimate, never underestimate, a product's weight in a bucket.
+ * Answers are reused for the refresh interval, so a hot query is served without recomputing.
+ * Timestamps are the stored local date-times, compared as if they were UTC.
+ */
+@Slf4j
+@Component
+public class ProduitHommeTrendingIndex {
+
+    private static final int DEPTH = 4;
+    // Long multipliers of the sketch hash, one per row
+    private static final long[] SEEDS = {
+            0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L};
+    // Candidates kept from the first pass per requested product, before re-scoring
+    private static final int RESCORE_FACTOR = 2;
+    private static final int MAX_CACHED_RESULTS = 1024;
+
+    private final InteractionHommeRepository interactionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final long bucketMillis;
+    private final Duration maxWindow;
+    private final int width;
+    private final int candidates;
+    private final long refreshNanos;
+    private final Bucket[] buckets;
+    private final Map<Query, Result> results = new ConcurrentHashMap<>();
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class Hit {
+        private final Long id;
+        private final double score;
+    }
+
+    public ProduitHommeTrendingIndex(
+            InteractionHommeRepository interactionRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${trending.bucket:5m}") Duration bucket,
+            @Value("${trending.max-window:24h}") Duration maxWindow,
+            @Value("${trending.sketch-width:1024}") int width,
+            @Value("${trending.candidates:128}") int candidates,
+            @Value("${trending.refresh:1s}") Duration refresh) {
+        this.interactionRepository = interactionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.bucketMillis = bucket.toMillis();
+        this.maxWindow = maxWindow;
+        this.width = Integer.highestOneBit(Math.max(width - 1, 1)) << 1;
+        this.candidates = candidates;
+        this.refreshNanos = refresh.toNanos();
+        this.buckets = new Bucket[(int) ((maxWindow.toMillis() + bucketMillis - 1) / bucketMillis)];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new Bucket(DEPTH * this.width);
+        }
+    }
+
+    // VIEW < LIKE < PURCHASE
+    private static int weight(TypeInteraction type) {
+        return switch (type) {
+            case VIEW -> 1;
+            case LIKE -> 5;
+            case PURCHASE -> 20;
+        };
+    }
+
+    public Duration getMaxWindow() {
+        return maxWindow;
+    }
+
+    // Replays the interactions of the longest window, before the web server starts taking new ones
+    @PostConstruct
+    void load() {
+        LocalDateTime since = LocalDateTime.now().minus(maxWindow);
+        TypeInteraction[] types = TypeInteraction.values();
+        long[] events = {0};
+        transactionTemplate.executeWithoutResult(status -> interactionRepository.forEachColumns(null, since,
+                (id, userId, produitId, typeCode, epochMillis) -> {
+                    add(produitId, weight(types[typeCode]), epochMillis);
+                    events[0]++;
+                }));
+        log.info("Trending index loaded with {} interaction(s) of the last {}", events[0], maxWindow);
+    }
+
+    /**
+     * Adds an interaction once the current transaction commits.
+     */
+    public void recorded(Long produitId, TypeInteraction type, LocalDateTime timestamp) {
+        AfterCommit.run(() -> add(produitId, type, timestamp));
+    }
+
+    public void add(Long produitId, TypeInteraction type, LocalDateTime timestamp) {
+        add(produitId, weight(type), timestamp.toInstant(ZoneOffset.UTC).toEpochMilli());
+    }
+
+    /**
+     * Returns at most k products by decreasing weight over the window, which is rounded up to whole buckets.
+     */
+    public List<Hit> top(Duration window, int k) {
+        int count = (int) Math.max(Math.min((window.toMillis() + bucketMillis - 1) / bucketMillis, buckets.length), 1);
+        Query query = new Query(count, k);
+        long now = System.nanoTime();
+        Result cached = results.get(query);
+        if (cached != null && now - cached.computedAt() < refreshNanos) {
+            return cached.hits();
+        }
+        List<Hit> hits = compute(count, k);
+        if (results.size() >= MAX_CACHED_RESULTS) {
+            results.clear();
+        }
+        results.put(query, new Result(hits, now));
+        return hits;
+    }
+
+    private List<Hit> compute(int count, int k) {
+        long current = currentSlice();
+        long oldest = current - count + 1;
+
+        // First pass: each bucket's heavy products, summed over the window
+        Map<Long, Long> totals = new HashMap<>();
+        for (long slice = oldest; slice <= current; slice++) {
+            Bucket bucket = bucket(slice);
+            synchronized (bucket) {
+                if (bucket.slice == slice) {
+                    bucket.heavy.forEach((id, estimate) -> totals.merge(id, (long) estimate, Long::sum));
+                }
+            }
+        }
+        List<Long> shortlist = best(totals, k * RESCORE_FACTOR).stream().map(Map.Entry::getKey).toList();
+
+        // Second pass: the shortlist scored on every bucket, including those where a product was not heavy
+        Map<Long, Long> scores = new HashMap<>();
+        for (long slice = oldest; slice <= current; slice++) {
+            Bucket bucket = bucket(slice);
+            synchronized (bucket) {
+                if (bucket.slice == slice) {
+                    for (Long id : shortlist) {
+                        scores.merge(id, (long) estimate(bucket, id), Long::sum);
+                    }
+                }
+            }
+        }
+        List<Hit> hits = new ArrayList<>();
+        for (Map.Entry<Long, Long> entry : best(scores, k)) {
+            hits.add(new Hit(entry.getKey(), entry.getValue()));
+        }
+        return List.copyOf(hits);
+    }
+
+    private void add(long produitId, int weight, long epochMillis) {
+        long current = currentSlice();
+        // Future timestamps count now; those older than the ring are dropped
+        long slice = Math.min(Math.floorDiv(epochMillis, bucketMillis), current);
+        if (slice <= current - buckets.length) {
+            return;
+        }
+        Bucket bucket = bucket(slice);
+        synchronized (bucket) {
+            if (bucket.slice > slice) {
+                // The slot already moved on to a later bucket
+                return;
+            }
+            if (bucket.slice < slice) {
+                bucket.reset(slice);
+            }
+            int estimate = Integer.MAX_VALUE;
+            for (int row = 0; row < DEPTH; row++) {
+                int cell = row * width + index(produitId, row);
+                bucket.cells[cell] += weight;
+                estimate = Math.min(estimate, bucket.cells[cell]);
+            }
+            bucket.offer(produitId, estimate, candidates);
+        }
+    }
+
+    private int estimate(Bucket bucket, long produitId) {
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            estimate = Math.min(estimate, bucket.cells[row * width + index(produitId, row)]);
+        }
+        return estimate;
+    }
+
+    private int index(long produitId, int row) {
+        long h = (produitId + 1) * SEEDS[row];
+        return (int) (h ^ (h >>> 32)) & (width - 1);
+    }
+
+    private long currentSlice() {
+        return Math.floorDiv(LocalDateTime.now().toInstant(ZoneOffset.UTC).toEpochMilli(), bucketMillis);
+    }
+
+    private Bucket bucket(long slice) {
+        return buckets[(int) Math.floorMod(slice, (long) buckets.length)];
+    }
+
+    // Top n entries by value, ties broken by the lower id, through a min-heap of size n
+    private static List<Map.Entry<Long, Long>> best(Map<Long, Long> values, int n) {
+        Comparator<Map.Entry<Long, Long>> order = Map.Entry.<Long, Long>comparingByValue()
+                .thenComparing(Map.Entry.<Long, Long>comparingByKey().reversed());
+        PriorityQueue<Map.Entry<Long, Long>> heap = new PriorityQueue<>(n + 1, order);
+        for (Map.Entry<Long, Long> entry : values.entrySet()) {
+            heap.offer(entry);
+            if (heap.size() > n) {
+                heap.poll();
+            }
+        }
+        List<Map.Entry<Long, Long>> top = new ArrayList<>(heap);
+        top.sort(order.reversed());
+        return top;
+    }
+
+    private record Query(int buckets, int k) {
+    }
+
+    private record Result(List<Hit> hits, long computedAt) {
+    }
+
+    // Guarded by its own monitor
+    private static final class Bucket {
+        private long slice = Long.MIN_VALUE;
+        private final int[] cells;
+        // Heaviest products of the bucket with their estimate when last seen, bounded by the candidates setting
+        private final Map<Long, Integer> heavy = new HashMap<>();
+        // Never above the lightest estimate of heavy, since estimates only grow: a product at or under it
+        // cannot enter without scanning
+        private int floor;
+
+        private Bucket(int size) {
+            this.cells = new int[size];
+        }
+
+        private void reset(long slice) {
+            this.slice = slice;
+            Arrays.fill(cells, 0);
+            heavy.clear();
+            floor = 0;
+        }
+
+        private void offer(long produitId, int estimate, int capacity) {
+            if (heavy.containsKey(produitId) || heavy.size() < capacity) {
+                heavy.put(produitId, estimate);
+                return;
+            }
+            if (estimate <= floor) {
+                return;
+            }
+            Map.Entry<Long, Integer> lightest = null;
+            for (Map.Entry<Long, Integer> entry : heavy.entrySet()) {
+                if (lightest == null || entry.getValue() < lightest.getValue()) {
+                    lightest = entry;
+                }
+            }
+            floor = lightest.getValue();
+            if (estimate > floor) {
+                heavy.remove(lightest.getKey());
+                heavy.put(produitId, estimate);
+            }
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.projetproduits.homme.service;
+
+import com.projetproduits.homme.event.ProduitHommeChangedEvent;
+import com.projetproduits.homme.repository.ProduitHommeRepository;
+import com.projetproduits.homme.repository.UserHommeRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Ids of the live users and products, kept in memory so interactions can be validated without
+ * a database round trip. A hit is trusted; a miss is checked against the database and remembered,
+ * so an id the filter does not know yet never rejects a valid interaction.
+ * That check is the only way an id is added. Deleted ids are removed once the deleting transaction
+ * commits, and a check that overlaps a removal is not remembered, so a concurrent check cannot
+ * bring back an id whose delete committed.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReferenceIdFilter {
+
+    private final UserHommeRepository userRepository;
+    private final ProduitHommeRepository produitRepository;
+
+    private final IdBitmap users = new IdBitmap();
+    private final IdBitmap produits = new IdBitmap();
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void load() {
+        try (Stream<Long> ids = userRepository.streamAllIds()) {
+            users.load(ids);
+        }
+        try (Stream<Long> ids = produitRepository.streamAllIds()) {
+            produits.load(ids);
+        }
+        log.info("Reference id filter loaded");
+    }
+
+    public boolean userExists(Long id) {
+        return exists(users, id, userRepository::existsById);
+    }
+
+    public boolean produitExists(Long id) {
+        return exists(produits, id, produitRepository::existsById);
+    }
+
+    /**
+     * Returns the ids of the collection that exist, with at most one IN query for the ones not in the filter.
+     */
+    public Set<Long> existingUserIds(Collection<Long> ids) {
+        return existing(users, ids, userRepository::findExistingIds);
+    }
+
+    public Set<Long> existingProduitIds(Collection<Long> ids) {
+        return existing(produits, ids, produitRepository::findExistingIds);
+    }
+
+    public void userDeleted(Long id) {
+        AfterCommit.run(() -> users.remove(id));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProduitRemoved(ProduitHommeChangedEvent event) {
+        for (ProduitHommeChangedEvent.Change change : event.getChanges()) {
+            if (change.getAfter() == null) {
+                produits.remove(change.getId());
+            }
+        }
+    }
+
+    private static boolean exists(IdBitmap bitmap, Long id, Predicate<Long> database) {
+        if (bitmap.contains(id)) {
+            return true;
+        }
+        long removals = bitmap.removals();
+        if (!database.test(id)) {
+            return false;
+        }
+        bitmap.addIfNoRemovalSince(id, removals);
+        return true;
+    }
+
+    private static Set<Long> existing(IdBitmap bitmap, Collection<Long> ids,
+                                      Function<Collection<Long>, List<Long>> database) {
+        Set<Long> found = new HashSet<>();
+        Set<Long> unknown = new HashSet<>();
+        for (Long id : ids) {
+            (bitmap.contains(id) ? found : unknown).add(id);
+        }
+        if (!unknown.isEmpty()) {
+            long removals = bitmap.removals();
+            for (Long id : database.apply(unknown)) {
+                bitmap.addIfNoRemovalSince(id, removals);
+                found.add(id);
+            }
+        }
+        return found;
+    }
+}
@@ -1,40 +1,78 @@
 package com.projetproduits.homme.service;
 
+import com.projetproduits.homme.dto.BatchItemResult;
+import com.projetproduits.homme.dto.BatchResult;
 import com.projetproduits.homme.dto.UserHommeDto;
 import com.projetproduits.homme.entity.UserHomme;
+import com.projetproduits.homme.exception.BadRequestException;
 import com.projetproduits.homme.exception.DuplicateResourceException;
 import com.projetproduits.homme.exception.ResourceNotFoundException;
 import com.projetproduits.homme.repository.UserHommeRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class UserHommeService {
 
+    private static final int MAX_BATCH_SIZE = 10_000;
+    private static final int UPSERT_CHUNK_SIZE = 1000;
+
+    // One round trip per chunk: rows are passed as arrays and unnested server side. Existing users, matched
+    // by email, get the new nom; they keep their age, which only the user changes through PUT /users/{id}.
+    // xmax is 0 only for the rows this statement inserted.
+    private static final String UPSERT_SQL = """
+            INSERT INTO users_homme (nom, email, age, created_at, updated_at)
+            SELECT v.nom, v.email, v.age, ?, ?
+            FROM unnest(?::varchar[], ?::varchar[], ?::integer[]) AS v(nom, email, age)
+            ON CONFLICT (email) DO UPDATE SET nom = EXCLUDED.nom, updated_at = EXCLUDED.updated_at
+            RETURNING id, email, age, xmax = 0
+            """;
+
     private final UserHommeRepository userRepository;
+    private final ReferenceIdFilter referenceIdFilter;
+    private final JdbcTemplate jdbcTemplate;
+    private final Validator validator;
 
     public List<UserHommeDto> findAll() {
-        return userRepository.findAll().stream()
-                .map(this::toDto)
-                .collect(Collectors.toList());
+        return userRepository.findAllDtos();
+    }
+
+    // Streams straight from a database cursor
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<UserHommeDto> sink) {
+        try (Stream<UserHommeDto> users = userRepository.streamAll()) {
+            users.forEach(sink);
+        }
     }
 
     public UserHommeDto findById(Long id) {
-        return userRepository.findById(id)
-                .map(this::toDto)
+        return userRepository.findDtoById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("UserHomme", id));
     }
 
     public UserHommeDto findByEmail(String email) {
         return userRepository.findByEmail(email)
-                .map(this::toDto)
                 .orElseThrow(() -> new ResourceNotFoundException("UserHomme not found with email: " + email));
     }
 
@@ -55,6 +93,99 @@ public class UserHommeService {
         return toDto(saved);
     }
 
+    /**
+     * Creates or updates users by email, atomically per user, so a batch can be sent again safely.
+     * Invalid items are reported and skipped; an email given twice is written once, with its last occurrence.
+     */
+    @Transactional
+    public BatchResult<UserHommeDto> upsertAll(List<UserHommeDto> dtos) {
+        if (dtos.size() > MAX_BATCH_SIZE) {
+            throw new BadRequestException("A batch accepts at most " + MAX_BATCH_SIZE + " users");
+        }
+        String[] errors = new String[dtos.size()];
+        // Latest item of each email, in request order: one statement cannot update the same row twice
+        Map<String, UserHommeDto> latest = new LinkedHashMap<>();
+        for (int i = 0; i < dtos.size(); i++) {
+            UserHommeDto dto = dtos.get(i);
+            errors[i] = validate(dto);
+            if (errors[i] == null) {
+                latest.put(dto.getEmail(), dto);
+            }
+        }
+
+        Map<String, BatchItemResult<UserHommeDto>> written = new HashMap<>();
+        List<UserHommeDto> chunk = new ArrayList<>(UPSERT_CHUNK_SIZE);
+        for (UserHommeDto dto : latest.values()) {
+            chunk.add(dto);
+            if (chunk.size() == UPSERT_CHUNK_SIZE) {
+                upsertChunk(chunk, written);
+                chunk.clear();
+            }
+        }
+        upsertChunk(chunk, written);
+
+        // Every occurrence of an email reports the row written for it
+        List<BatchItemResult<UserHommeDto>> results = new ArrayList<>(dtos.size());
+        int succeeded = 0;
+        for (int i = 0; i < dtos.size(); i++) {
+            if (errors[i] != null) {
+                results.add(BatchItemResult.<UserHommeDto>builder()
+                        .index(i)
+                        .status(BatchItemResult.Status.INVALID)
+                        .error(errors[i])
+                        .build());
+                continue;
+            }
+            BatchItemResult<UserHommeDto> result = written.get(dtos.get(i).getEmail());
+            results.add(BatchItemResult.<UserHommeDto>builder()
+                    .index(i)
+                    .status(result.getStatus())
+                    .data(result.getData())
+                    .build());
+            succeeded++;
+        }
+        log.info("Upserted {} UserHomme in batch, {} rejected", succeeded, dtos.size() - succeeded);
+        return BatchResult.<UserHommeDto>builder()
+                .succeeded(succeeded)
+                .failed(dtos.size() - succeeded)
+                .items(results)
+                .build();
+    }
+
+    private void upsertChunk(List<UserHommeDto> chunk, Map<String, BatchItemResult<UserHommeDto>> written) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        String[] noms = chunk.stream().map(UserHommeDto::getNom).toArray(String[]::new);
+        String[] emails = chunk.stream().map(UserHommeDto::getEmail).toArray(String[]::new);
+        Integer[] ages = chunk.stream().map(UserHommeDto::getAge).toArray(Integer[]::new);
+        Map<String, String> nomsByEmail = chunk.stream()
+                .collect(Collectors.toMap(UserHommeDto::getEmail, UserHommeDto::getNom));
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(UPSERT_SQL);
+            statement.setTimestamp(1, now);
+            statement.setTimestamp(2, now);
+            statement.setArray(3, connection.createArrayOf("varchar", noms));
+            statement.setArray(4, connection.createArrayOf("varchar", emails));
+            statement.setArray(5, connection.createArrayOf("integer", ages));
+            return statement;
+        }, (RowCallbackHandler) rs -> {
+            long id = rs.getLong(1);
+            String email = rs.getString(2);
+            boolean inserted = rs.getBoolean(4);
+            written.put(email, BatchItemResult.<UserHommeDto>builder()
+                    .status(inserted ? BatchItemResult.Status.CREATED : BatchItemResult.Status.UPDATED)
+                    .data(UserHommeDto.builder()
+                            .id(id)
+                            .nom(nomsByEmail.get(email))
+                            .email(email)
+                            .age(rs.getInt(3))
+                            .build())
+                    .build());
+        });
+    }
+
     @Transactional
     public UserHommeDto update(Long id, UserHommeDto dto) {
         UserHomme user = userRepository.findById(id)
@@ -80,19 +211,30 @@ public class UserHommeService {
             throw new ResourceNotFoundException("UserHomme", id);
         }
         userRepository.deleteById(id);
+        referenceIdFilter.userDeleted(id);
         log.info("Deleted UserHomme with id: {}", id);
     }
 
     public List<UserHommeDto> searchByNom(String nom) {
-        return userRepository.findByNomContainingIgnoreCase(nom).stream()
-                .map(this::toDto)
-                .collect(Collectors.toList());
+        return userRepository.findByNomContainingIgnoreCase(nom);
     }
 
     public List<UserHommeDto> findByAgeRange(Integer minAge, Integer maxAge) {
-        return userRepository.findByAgeBetween(minAge, maxAge).stream()
-                .map(this::toDto)
-                .collect(Collectors.toList());
+        return userRepository.findByAgeBetween(minAge, maxAge);
+    }
+
+    private String validate(UserHommeDto dto) {
+        if (dto == null) {
+            return "User is required";
+        }
+        Set<ConstraintViolation<UserHommeDto>> violations = validator.validate(dto);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
     }
 
     private UserHommeDto toDto(UserHomme user) {
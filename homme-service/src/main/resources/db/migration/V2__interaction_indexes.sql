@@ -0,0 +1,24 @@
+-- One index per access path of InteractionHommeRepository, checked by InteractionHommeRepositoryPlanTest.
+-- On the partitioned table each index is created on every partition, present and future.
+
+-- findByUserId, findRecentInteractionsByUser (newest first, read in index order), user foreign key
+CREATE INDEX IF NOT EXISTS interactions_homme_user_idx
+    ON interactions_homme (user_id, "timestamp" DESC, id DESC) INCLUDE (produit_id, type_interaction);
+
+-- findByUserIdAndTypeInteraction
+CREATE INDEX IF NOT EXISTS interactions_homme_user_type_idx
+    ON interactions_homme (user_id, type_interaction, "timestamp") INCLUDE (produit_id);
+
+-- findByProduitId, countAllByProduitAndType (index-only), product foreign key
+CREATE INDEX IF NOT EXISTS interactions_homme_produit_type_idx
+    ON interactions_homme (produit_id, type_interaction) INCLUDE (user_id, "timestamp");
+
+-- findByTimestampBetween: rows are appended in timestamp order, so a block range index stays small and selective
+CREATE INDEX IF NOT EXISTS interactions_homme_timestamp_brin
+    ON interactions_homme USING brin ("timestamp");
+
+-- Exports ordered by timestamp then id (streamForTrainingAfter) read the index instead of sorting.
+-- Replaces the timestamp-only index of the partition conversion.
+DROP INDEX IF EXISTS interactions_homme_timestamp_idx;
+CREATE INDEX IF NOT EXISTS interactions_homme_timestamp_id_idx
+    ON interactions_homme ("timestamp", id);
@@ -0,0 +1,58 @@
+-- Range-partitions interactions_homme on its timestamp, one partition per month of existing data up to the current one,
+-- plus a default partition for rows outside every partition. The partition key has to be part of the primary key.
+-- Upcoming partitions are created, and old ones expired, by InteractionHommePartitionManager.
+-- A table that is already partitioned (converted at startup by earlier versions) is left as it is.
+
+DO $$
+DECLARE
+    current_month timestamp := date_trunc('month', localtimestamp);
+    partition_start timestamp;
+BEGIN
+    IF (SELECT relkind FROM pg_class WHERE oid = to_regclass('interactions_homme')) IS DISTINCT FROM 'r' THEN
+        RETURN;
+    END IF;
+
+    ALTER TABLE interactions_homme RENAME TO interactions_homme_legacy;
+    -- Recreated on the partitioned table below under the same names
+    DROP INDEX IF EXISTS interactions_homme_user_idx, interactions_homme_user_type_idx, interactions_homme_produit_type_idx,
+        interactions_homme_timestamp_brin, interactions_homme_timestamp_id_idx;
+    ALTER TABLE interactions_homme_legacy DROP CONSTRAINT IF EXISTS interactions_homme_pkey;
+
+    CREATE TABLE interactions_homme (LIKE interactions_homme_legacy INCLUDING DEFAULTS INCLUDING CONSTRAINTS INCLUDING IDENTITY)
+        PARTITION BY RANGE ("timestamp");
+    -- An identity column gets its own sequence, but a serial default (tables created by Hibernate) still uses the one
+    -- owned by the legacy table, which has to be handed over before the legacy table is dropped with its owned sequences
+    IF pg_get_serial_sequence('interactions_homme', 'id') IS NULL THEN
+        EXECUTE format('ALTER SEQUENCE %s OWNED BY interactions_homme.id', pg_get_serial_sequence('interactions_homme_legacy', 'id'));
+    END IF;
+    ALTER TABLE interactions_homme ADD CONSTRAINT interactions_homme_pkey PRIMARY KEY (id, "timestamp");
+    ALTER TABLE interactions_homme ADD CONSTRAINT fk_interactions_homme_user FOREIGN KEY (user_id) REFERENCES users_homme (id);
+    ALTER TABLE interactions_homme ADD CONSTRAINT fk_interactions_homme_produit FOREIGN KEY (produit_id) REFERENCES produits_homme (id);
+    CREATE TABLE interactions_homme_default PARTITION OF interactions_homme DEFAULT;
+
+    -- At most 400 months back, older rows stay in the default partition
+    SELECT date_trunc('month', MIN("timestamp")) INTO partition_start FROM interactions_homme_legacy;
+    partition_start := LEAST(GREATEST(COALESCE(partition_start, current_month), current_month - interval '400 months'), current_month);
+    WHILE partition_start <= current_month LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF interactions_homme FOR VALUES FROM (%L) TO (%L)',
+                'interactions_homme_p' || to_char(partition_start, 'YYYY_MM'), partition_start, partition_start + interval '1 month');
+        partition_start := partition_start + interval '1 month';
+    END LOOP;
+
+    INSERT INTO interactions_homme (id, user_id, produit_id, type_interaction, "timestamp")
+    SELECT id, user_id, produit_id, type_interaction, "timestamp" FROM interactions_homme_legacy;
+    PERFORM setval(pg_get_serial_sequence('interactions_homme', 'id'), COALESCE(MAX(id), 0) + 1, false) FROM interactions_homme;
+    DROP TABLE interactions_homme_legacy;
+END $$;
+
+-- The indexes of V2, on every partition present and future
+CREATE INDEX IF NOT EXISTS interactions_homme_user_idx
+    ON interactions_homme (user_id, "timestamp" DESC, id DESC) INCLUDE (produit_id, type_interaction);
+CREATE INDEX IF NOT EXISTS interactions_homme_user_type_idx
+    ON interactions_homme (user_id, type_interaction, "timestamp") INCLUDE (produit_id);
+CREATE INDEX IF NOT EXISTS interactions_homme_produit_type_idx
+    ON interactions_homme (produit_id, type_interaction) INCLUDE (user_id, "timestamp");
+CREATE INDEX IF NOT EXISTS interactions_homme_timestamp_brin
+    ON interactions_homme USING brin ("timestamp");
+CREATE INDEX IF NOT EXISTS interactions_homme_timestamp_id_idx
+    ON interactions_homme ("timestamp", id);
@@ -0,0 +1,107 @@
+package com.projetproduits.homme.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CsvStreamerTest {
+
+    private static final List<String> HEADER = List.of("id", "nom", "prix");
+
+    private final CsvStreamer streamer = new CsvStreamer();
+
+    @Test
+    void writesTheHeaderThenOneLinePerRow() throws Exception {
+        ResponseEntity<StreamingResponseBody> response = stream(sink -> {
+            sink.accept(row(1, "Wool Coat", "99.90"));
+            sink.accept(row(2, "Linen Shirt", "49.00"));
+        });
+
+        assertThat(response.getHeaders().getContentType()).isEqualTo(MediaType.parseMediaType("text/csv;charset=UTF-8"));
+        assertThat(write(response)).isEqualTo("id,nom,prix\r\n1,Wool Coat,99.90\r\n2,Linen Shirt,49.00\r\n");
+    }
+
+    @Test
+    void quotesFieldsHoldingASeparatorAQuoteOrALineBreak() throws Exception {
+        String body = write(stream(sink -> {
+            sink.accept(row(1, "Coat, long", "1"));
+            sink.accept(row(2, "The \"Classic\" Coat", "2"));
+            sink.accept(row(3, "Coat\nsecond line", "3"));
+            sink.accept(row(4, "Coat\r\nsecond line", "4"));
+            sink.accept(row(5, "\"", "5"));
+        }));
+
+        assertThat(body).isEqualTo("id,nom,prix\r\n"
+                + "1,\"Coat, long\",1\r\n"
+                + "2,\"The \"\"Classic\"\" Coat\",2\r\n"
+                + "3,\"Coat\nsecond line\",3\r\n"
+                + "4,\"Coat\r\nsecond line\",4\r\n"
+                + "5,\"\"\"\",5\r\n");
+    }
+
+    @Test
+    void writesNullAsAnEmptyFieldAndKeepsUnicode() throws Exception {
+        String body = write(stream(sink -> {
+            sink.accept(row(1, null, "1"));
+            sink.accept(row(2, "Écharpe en laine", null));
+        }));
+
+        assertThat(body).isEqualTo("id,nom,prix\r\n1,,1\r\n2,Écharpe en laine,\r\n");
+    }
+
+    @Test
+    void writesOnlyTheHeaderForAnEmptySource() throws Exception {
+        assertThat(write(stream(sink -> { }))).isEqualTo("id,nom,prix\r\n");
+    }
+
+    @Test
+    void passesOnTheFailureOfAClosedConnection() {
+        OutputStream closed = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+        ResponseEntity<StreamingResponseBody> response = stream(sink -> {
+            for (int id = 1; id <= 1000; id++) {
+                sink.accept(row(id, "Product " + id, "1"));
+            }
+        });
+
+        assertThatThrownBy(() -> response.getBody().writeTo(closed))
+                .isInstanceOf(IOException.class)
+                .hasMessage("Broken pipe");
+    }
+
+    private ResponseEntity<StreamingResponseBody> stream(Consumer<Consumer<Object[]>> source) {
+        return streamer.stream(HEADER, Arrays::asList, source);
+    }
+
+    private static Object[] row(long id, String nom, String prix) {
+        return new Object[]{id, nom, prix == null ? null : new BigDecimal(prix)};
+    }
+
+    private static String write(ResponseEntity<StreamingResponseBody> response) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,174 @@
+package com.projetproduits.homme.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.projetproduits.homme.PostgresTestDatabase;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Walks the keyset pages of /produits on the migrated database (20 seeded products), following nextCursor,
+ * and compares what was read with the same order computed by the database.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class ProduitHommeControllerPageTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeAll
+    static void requireDatabase() {
+        PostgresTestDatabase.assumeAvailable();
+    }
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> PostgresTestDatabase.create("produit_pages_homme"));
+        registry.add("spring.datasource.username", PostgresTestDatabase::username);
+        registry.add("spring.datasource.password", PostgresTestDatabase::password);
+    }
+
+    @Test
+    void walksEveryProductOnceById() throws Exception {
+        List<Long> expected = jdbcTemplate.queryForList("SELECT id FROM produits_homme ORDER BY id", Long.class);
+
+        assertThat(walk("/produits", null, 7)).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void walksEveryProductOnceByCategoryAndPrice() throws Exception {
+        List<Long> expected = jdbcTemplate.queryForList(
+                "SELECT id FROM produits_homme ORDER BY categorie, prix, id", Long.class);
+
+        assertThat(walk("/produits", "prix", 3)).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void walksACategoryByPrice() throws Exception {
+        List<Long> expected = jdbcTemplate.queryForList(
+                "SELECT id FROM produits_homme WHERE categorie = 'Chaussures' ORDER BY prix, id", Long.class);
+
+        assertThat(walk("/produits/categorie/Chaussures", "prix", 2))
+                .hasSizeGreaterThan(2)
+                .containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void lastPageHasNoNextCursor() throws Exception {
+        long count = jdbcTemplate.queryForObject("SELECT count(*) FROM produits_homme", Long.class);
+
+        mockMvc.perform(get("/produits").param("size", String.valueOf(count)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.size").value(count))
+                .andExpect(jsonPath("$.data.hasMore").value(false))
+                .andExpect(jsonPath("$.data.nextCursor").doesNotExist());
+        mockMvc.perform(get("/produits").param("size", String.valueOf(count - 1)))
+                .andExpect(jsonPath("$.data.hasMore").value(true))
+                .andExpect(jsonPath("$.data.nextCursor").isString());
+    }
+
+    @Test
+    void insertsBetweenPagesNeitherRepeatNorSkipProducts() throws Exception {
+        List<Long> before = jdbcTemplate.queryForList("SELECT id FROM produits_homme ORDER BY categorie, prix, id", Long.class);
+        List<Long> read = new ArrayList<>();
+        JsonNode page = page(get("/produits").param("size", "5").param("sort", "prix"));
+        read.addAll(ids(page));
+
+        // One product sorting before the page just read, one after it
+        create("Cheap Belt", "Accessoires", "1.00");
+        long after = create("Last Product", "Zz Nouveautés", "1.00");
+
+        while (page.path("hasMore").asBoolean()) {
+            page = page(get("/produits").param("size", "5").param("sort", "prix")
+                    .param("cursor", page.path("nextCursor").asText()));
+            read.addAll(ids(page));
+        }
+
+        List<Long> expected = new ArrayList<>(before);
+        expected.add(after);
+        assertThat(read).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void malformedCursorIsABadRequest() throws Exception {
+        mockMvc.perform(get("/produits").param("size", "5").param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.success").value(false))
+                .andExpect(jsonPath("$.message").value("Invalid cursor"));
+    }
+
+    @Test
+    void invalidPageRequestsAreBadRequests() throws Exception {
+        String cursor = page(get("/produits").param("size", "5").param("sort", "prix")).path("nextCursor").asText();
+
+        mockMvc.perform(get("/produits").param("size", "5").param("cursor", cursor))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/produits").param("size", "5").param("sort", "nom"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/produits").param("size", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private List<Long> walk(String path, String sort, int size) throws Exception {
+        List<Long> read = new ArrayList<>();
+        String cursor = null;
+        JsonNode page;
+        do {
+            MockHttpServletRequestBuilder request = get(path).param("size", String.valueOf(size));
+            if (sort != null) {
+                request.param("sort", sort);
+            }
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            page = page(request);
+            read.addAll(ids(page));
+            cursor = page.path("nextCursor").textValue();
+        } while (page.path("hasMore").asBoolean());
+        assertThat(cursor).isNull();
+        return read;
+    }
+
+    private JsonNode page(MockHttpServletRequestBuilder request) throws Exception {
+        String body = mockMvc.perform(request).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body).path("data");
+    }
+
+    private static List<Long> ids(JsonNode page) {
+        List<Long> ids = new ArrayList<>();
+        page.path("items").forEach(item -> ids.add(item.path("id").asLong()));
+        return ids;
+    }
+
+    private long create(String nom, String categorie, String prix) throws Exception {
+        String body = mockMvc.perform(post("/produits").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"nom\": \"" + nom + "\", \"categorie\": \"" + categorie + "\", \"prix\": " + prix + "}"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body).path("data").path("id").asLong();
+    }
+}
@@ -0,0 +1,124 @@
+package com.projetproduits.homme.repository;
+
+import com.projetproduits.homme.PostgresTestDatabase;
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.FlywayException;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs V3 on a database migrated up to V2 whose plain interactions_homme already holds rows, as in a deployment
+ * upgraded from a version without partitions.
+ */
+class InteractionHommePartitionMigrationTest {
+
+    private static final int ROWS = 20_000;
+    private static final int DAYS = 120;
+
+    private HikariDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void requireDatabase() {
+        PostgresTestDatabase.assumeAvailable();
+    }
+
+    @BeforeEach
+    void setUp() {
+        dataSource = PostgresTestDatabase.dataSource(PostgresTestDatabase.create("partition_migration_homme"));
+        Flyway.configure().dataSource(dataSource).target("2").load().migrate();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("INSERT INTO users_homme (nom, email, age) VALUES ('Test', 'test@example.com', 30)");
+    }
+
+    @AfterEach
+    void close() {
+        dataSource.close();
+    }
+
+    // A database created by V1 has an identity column, one created by Hibernate a serial column
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void convertsAPopulatedTable(boolean serial) {
+        if (serial) {
+            jdbcTemplate.execute("ALTER TABLE interactions_homme ALTER COLUMN id DROP IDENTITY");
+            jdbcTemplate.execute("CREATE SEQUENCE interactions_homme_id_seq OWNED BY interactions_homme.id");
+            jdbcTemplate.execute("ALTER TABLE interactions_homme ALTER COLUMN id SET DEFAULT nextval('interactions_homme_id_seq')");
+        }
+        jdbcTemplate.update("INSERT INTO interactions_homme (user_id, produit_id, type_interaction, \"timestamp\") "
+                + "SELECT 1, 1 + g % 20, 'VIEW', now() - g * interval '1 day' * " + DAYS + " / " + ROWS
+                + " FROM generate_series(1, " + ROWS + ") g");
+        long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM interactions_homme", Long.class);
+
+        migrate();
+
+        assertThat(relkind()).isEqualTo("p");
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM interactions_homme", Long.class)).isEqualTo(ROWS);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM interactions_homme_default", Long.class)).isZero();
+        // Every month from the oldest row to the current one
+        assertThat(partitions()).hasSize(monthsSince(LocalDate.now().minusDays(DAYS)) + 1);
+        assertThat(jdbcTemplate.queryForObject("SELECT to_regclass('interactions_homme_legacy')", String.class)).isNull();
+        // The indexes of V2 are recreated on the partitioned table
+        assertThat(jdbcTemplate.queryForList("SELECT indexname FROM pg_indexes WHERE tablename = 'interactions_homme'", String.class))
+                .contains("interactions_homme_user_idx", "interactions_homme_user_type_idx", "interactions_homme_produit_type_idx",
+                        "interactions_homme_timestamp_brin", "interactions_homme_timestamp_id_idx");
+
+        long id = jdbcTemplate.queryForObject("INSERT INTO interactions_homme (user_id, produit_id, type_interaction, \"timestamp\") "
+                + "VALUES (1, 1, 'PURCHASE', now()) RETURNING id", Long.class);
+        assertThat(id).isEqualTo(maxId + 1);
+    }
+
+    @Test
+    void partitionsAnEmptyTableFromTheCurrentMonth() {
+        migrate();
+
+        assertThat(relkind()).isEqualTo("p");
+        assertThat(partitions()).containsExactly("interactions_homme_p" + LocalDate.now().format(DateTimeFormatter.ofPattern("yyyy_MM")));
+    }
+
+    @Test
+    void failedMigrationKeepsTheTable() {
+        jdbcTemplate.update("INSERT INTO interactions_homme (user_id, produit_id, type_interaction, \"timestamp\") "
+                + "VALUES (1, 1, 'VIEW', now())");
+        jdbcTemplate.execute("CREATE TABLE interactions_homme_legacy (id bigint)");
+
+        assertThatThrownBy(this::migrate).isInstanceOf(FlywayException.class);
+
+        assertThat(relkind()).isEqualTo("r");
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM interactions_homme", Long.class)).isEqualTo(1);
+    }
+
+    // Without afterMigrate, whose seed reset would empty the table
+    private void migrate() {
+        Flyway.configure().dataSource(dataSource).skipDefaultCallbacks(true).load().migrate();
+    }
+
+    private String relkind() {
+        return jdbcTemplate.queryForObject(
+                "SELECT CAST(relkind AS text) FROM pg_class WHERE oid = to_regclass('interactions_homme')", String.class);
+    }
+
+    private List<String> partitions() {
+        return jdbcTemplate.queryForList("SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid "
+                + "WHERE i.inhparent = to_regclass('interactions_homme') AND c.relname <> 'interactions_homme_default' "
+                + "ORDER BY c.relname", String.class);
+    }
+
+    private static int monthsSince(LocalDate date) {
+        LocalDate now = LocalDate.now();
+        return (now.getYear() - date.getYear()) * 12 + now.getMonthValue() - date.getMonthValue();
+    }
+}
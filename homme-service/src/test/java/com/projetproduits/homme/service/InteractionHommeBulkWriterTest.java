@@ -0,0 +1,102 @@
+package com.projetproduits.homme.service;
+
+import com.projetproduits.homme.PostgresTestDatabase;
+import com.projetproduits.homme.dto.IngestStatsDto;
+import com.projetproduits.homme.dto.InteractionHommeDto;
+import com.projetproduits.homme.entity.TypeInteraction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class InteractionHommeBulkWriterTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private long userId;
+
+    private final InteractionHommeCounters counters = mock(InteractionHommeCounters.class);
+    private final ProduitHommeTrendingIndex trendingIndex = mock(ProduitHommeTrendingIndex.class);
+    private final InteractionHommeRecentCache recentCache = mock(InteractionHommeRecentCache.class);
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(PostgresTestDatabase.migrated("interaction_writer_homme"));
+        userId = jdbcTemplate.queryForObject(
+                "INSERT INTO users_homme (nom, email, age) VALUES ('Test', 'test@example.com', 30) RETURNING id", Long.class);
+    }
+
+    @Test
+    void writesTheBatchAndSkipsUnknownProducts() {
+        IngestStatsDto stats = write(1, 2, 3, 9_999, 4);
+
+        assertThat(stats.getWritten()).isEqualTo(4);
+        assertThat(stats.getSkipped()).isEqualTo(1);
+        assertThat(stats.getDropped()).isZero();
+        assertThat(rows()).isEqualTo(4);
+        verify(counters, times(4)).add(anyLong(), eq(TypeInteraction.VIEW), eq(1L));
+    }
+
+    @Test
+    void keepsTheOtherEventsOfABatchTheDatabaseRejects() {
+        jdbcTemplate.execute("ALTER TABLE interactions_homme ADD CONSTRAINT interactions_homme_test CHECK (produit_id <> 13)");
+
+        IngestStatsDto stats = write(1, 2, 13, 3, 4);
+
+        assertThat(stats.getWritten()).isEqualTo(4);
+        assertThat(stats.getDropped()).isEqualTo(1);
+        assertThat(stats.getBuffered()).isZero();
+        assertThat(rows()).isEqualTo(4);
+        verify(counters, times(4)).add(anyLong(), eq(TypeInteraction.VIEW), eq(1L));
+        verify(counters, never()).add(eq(13L), any(), anyLong());
+    }
+
+    @Test
+    void doesNotKeepTheJvmAlive() {
+        InteractionHommeBulkWriter writer = new InteractionHommeBulkWriter(
+                jdbcTemplate, counters, trendingIndex, recentCache, 1024, 1000, Duration.ofMillis(10));
+        // Writers of Spring contexts cached by other test classes run under the same name
+        Set<Thread> running = Thread.getAllStackTraces().keySet();
+        writer.start();
+        try {
+            assertThat(Thread.getAllStackTraces().keySet())
+                    .filteredOn(thread -> thread.getName().equals("interaction-homme-writer") && !running.contains(thread))
+                    .singleElement()
+                    .matches(Thread::isDaemon);
+        } finally {
+            writer.stop();
+        }
+    }
+
+    // Queues one view per product and stops the writer, which drains the buffer first
+    private IngestStatsDto write(long... produitIds) {
+        InteractionHommeBulkWriter writer = new InteractionHommeBulkWriter(
+                jdbcTemplate, counters, trendingIndex, recentCache, 1024, 1000, Duration.ofMillis(10));
+        writer.start();
+        for (long produitId : produitIds) {
+            assertThat(writer.offer(InteractionHommeDto.builder()
+                    .userId(userId)
+                    .produitId(produitId)
+                    .typeInteraction(TypeInteraction.VIEW)
+                    .timestamp(LocalDateTime.now())
+                    .build())).isTrue();
+        }
+        writer.stop();
+        return writer.getStats();
+    }
+
+    private long rows() {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM interactions_homme", Long.class);
+    }
+}
@@ -0,0 +1,144 @@
+package com.projetproduits.homme.service;
+
+import com.projetproduits.homme.PostgresTestDatabase;
+import com.projetproduits.homme.entity.TypeInteraction;
+import com.projetproduits.homme.repository.InteractionHommeRepository;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Loads, counts and checkpoints against interaction_counts_homme of the migrated schema.
+ */
+class InteractionHommeCountersTest {
+
+    private final InteractionHommeRepository repository = mock(InteractionHommeRepository.class);
+
+    private DataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private InteractionHommeCounters counters;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = PostgresTestDatabase.migrated("interaction_counters_homme");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        counters = new InteractionHommeCounters(repository, jdbcTemplate);
+    }
+
+    @Test
+    void loadsTheCountsAndCheckpointsEveryType() {
+        when(repository.countAllByProduitAndType()).thenReturn(List.of(
+                new Object[] {1L, TypeInteraction.VIEW, 7L},
+                new Object[] {1L, TypeInteraction.PURCHASE, 2L},
+                new Object[] {2L, TypeInteraction.LIKE, 3L}));
+        counters.load();
+
+        counters.checkpoint();
+
+        assertThat(counters.get(1L, TypeInteraction.VIEW)).isEqualTo(7);
+        assertThat(counters.get(3L)).containsOnlyKeys(TypeInteraction.values()).containsValues(0L, 0L, 0L);
+        assertThat(saved()).containsExactlyInAnyOrderEntriesOf(Map.of(
+                "1 VIEW", 7L, "1 LIKE", 0L, "1 PURCHASE", 2L,
+                "2 VIEW", 0L, "2 LIKE", 3L, "2 PURCHASE", 0L));
+    }
+
+    @Test
+    void forgetsTheCheckpointWhenTheSeedIsReset() {
+        counters.add(1L, TypeInteraction.VIEW, 5);
+        counters.checkpoint();
+
+        // afterMigrate empties interactions_homme along with the products; the counts must go with them
+        Flyway.configure().dataSource(dataSource).load().migrate();
+
+        assertThat(saved()).isEmpty();
+    }
+
+    @Test
+    void checkpointsOnlyTheProductsChangedSinceTheLastOne() {
+        counters.add(1L, TypeInteraction.VIEW, 1);
+        counters.add(2L, TypeInteraction.VIEW, 1);
+        counters.checkpoint();
+        // Rows of unchanged products are left as they are
+        jdbcTemplate.update("UPDATE interaction_counts_homme SET count = 42 WHERE produit_id = 2");
+
+        counters.add(1L, TypeInteraction.VIEW, 1);
+        counters.checkpoint();
+
+        assertThat(saved()).containsEntry("1 VIEW", 2L).containsEntry("2 VIEW", 42L);
+    }
+
+    @Test
+    void retriesAFailedCheckpoint() {
+        counters.add(1L, TypeInteraction.VIEW, 5);
+        jdbcTemplate.execute("ALTER TABLE interaction_counts_homme RENAME TO interaction_counts_homme_away");
+        try {
+            counters.checkpoint();
+        } finally {
+            jdbcTemplate.execute("ALTER TABLE interaction_counts_homme_away RENAME TO interaction_counts_homme");
+        }
+        assertThat(saved()).isEmpty();
+
+        counters.checkpoint();
+
+        assertThat(saved()).containsEntry("1 VIEW", 5L);
+    }
+
+    @Test
+    void checkpointsEveryIncrementMadeDuringCheckpoints() throws Exception {
+        int threads = 4;
+        int perThread = 20_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        AtomicBoolean done = new AtomicBoolean();
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                writers.add(executor.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        counters.add((long) (i % 10), TypeInteraction.VIEW, 1);
+                    }
+                }));
+            }
+            Future<?> checkpoints = executor.submit(() -> {
+                while (!done.get()) {
+                    counters.checkpoint();
+                }
+            });
+            for (Future<?> writer : writers) {
+                writer.get(60, TimeUnit.SECONDS);
+            }
+            done.set(true);
+            checkpoints.get(60, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        counters.checkpoint();
+
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT sum(count) FROM interaction_counts_homme WHERE type_interaction = 'VIEW'", Long.class))
+                .isEqualTo((long) threads * perThread);
+    }
+
+    // "produitId TYPE" -> count
+    private Map<String, Long> saved() {
+        return jdbcTemplate.queryForList("SELECT produit_id, type_interaction, count FROM interaction_counts_homme").stream()
+                .collect(Collectors.toMap(row -> row.get("produit_id") + " " + row.get("type_interaction"),
+                        row -> ((Number) row.get("count")).longValue()));
+    }
+}
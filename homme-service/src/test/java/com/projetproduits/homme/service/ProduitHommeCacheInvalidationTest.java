@@ -0,0 +1,183 @@
+package com.projetproduits.homme.service;
+
+import com.projetproduits.homme.PostgresTestDatabase;
+import com.projetproduits.homme.dto.CatalogVersion;
+import com.projetproduits.homme.dto.ProduitHommeDto;
+import com.projetproduits.homme.exception.ResourceNotFoundException;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Writes products through ProduitHommeService on the migrated database and checks what ProduitHommeCache
+ * still serves afterwards: a write drops the lists and versions it touches only once its transaction
+ * commits, so a rolled back write, or a reader running before the commit, keeps being served the cached
+ * entries, identical instances included.
+ */
+@SpringBootTest
+class ProduitHommeCacheInvalidationTest {
+
+    private static final AtomicInteger CATEGORIES = new AtomicInteger();
+
+    @Autowired
+    private ProduitHommeService produitService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeAll
+    static void requireDatabase() {
+        PostgresTestDatabase.assumeAvailable();
+    }
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> PostgresTestDatabase.create("produit_cache_homme"));
+        registry.add("spring.datasource.username", PostgresTestDatabase::username);
+        registry.add("spring.datasource.password", PostgresTestDatabase::password);
+    }
+
+    @Test
+    void rolledBackUpdateEvictsNothing() {
+        String categorie = categorie();
+        ProduitHommeDto produit = produitService.create(produit("Wool Coat", categorie));
+        Snapshot before = snapshot(produit.getId(), categorie);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            produitService.update(produit.getId(), produit("Wool Coat Grey", categorie()));
+            // Not committed yet: readers still get the cached entries
+            assertThat(snapshot(produit.getId(), categorie)).isEqualTo(before);
+            status.setRollbackOnly();
+        });
+
+        assertThat(snapshot(produit.getId(), categorie)).isEqualTo(before);
+        assertThat(produitService.findById(produit.getId()).getNom()).isEqualTo("Wool Coat");
+    }
+
+    @Test
+    void deleteRolledBackByAnExceptionEvictsNothing() {
+        String categorie = categorie();
+        ProduitHommeDto produit = produitService.create(produit("Linen Shirt", categorie));
+        Snapshot before = snapshot(produit.getId(), categorie);
+
+        assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(status -> {
+            produitService.delete(produit.getId());
+            throw new IllegalStateException("Rolled back");
+        })).hasMessage("Rolled back");
+
+        assertThat(snapshot(produit.getId(), categorie)).isEqualTo(before);
+    }
+
+    @Test
+    void committedUpdateInvalidatesTheListsAndVersionsOfTheProductOnly() {
+        String from = categorie();
+        String to = categorie();
+        String untouched = categorie();
+        ProduitHommeDto produit = produitService.create(produit("Denim Jacket", from));
+        produitService.create(produit("Chino Trousers", untouched));
+        Snapshot fromBefore = snapshot(produit.getId(), from);
+        CatalogVersion toVersionBefore = produitService.getCatalogVersionByCategorie(to);
+        List<ProduitHommeDto> toBefore = produitService.findByCategorie(to);
+        CatalogVersion untouchedVersionBefore = produitService.getCatalogVersionByCategorie(untouched);
+        List<ProduitHommeDto> untouchedBefore = produitService.findByCategorie(untouched);
+
+        produitService.update(produit.getId(), produit("Denim Jacket Black", to));
+
+        assertThat(produitService.findAll()).isNotSameAs(fromBefore.all())
+                .filteredOn(p -> p.getId().equals(produit.getId()))
+                .extracting(ProduitHommeDto::getNom).containsExactly("Denim Jacket Black");
+        assertThat(produitService.findByCategorie(from)).isEmpty();
+        assertThat(produitService.findByCategorie(to)).isNotSameAs(toBefore)
+                .extracting(ProduitHommeDto::getId).containsExactly(produit.getId());
+        assertThat(produitService.findById(produit.getId()).getNom()).isEqualTo("Denim Jacket Black");
+        assertThat(produitService.getCatalogVersion().getETag()).isNotEqualTo(fromBefore.version().getETag());
+        assertThat(produitService.getCatalogVersionByCategorie(from).isEmpty()).isTrue();
+        assertThat(produitService.getCatalogVersionByCategorie(to).getETag()).isNotEqualTo(toVersionBefore.getETag());
+        assertThat(produitService.getVersion(produit.getId()).getETag()).isNotEqualTo(fromBefore.idVersion().getETag());
+
+        assertThat(produitService.getCatalogVersionByCategorie(untouched)).isSameAs(untouchedVersionBefore);
+        assertThat(produitService.findByCategorie(untouched)).isSameAs(untouchedBefore);
+    }
+
+    @Test
+    void committedDeleteInvalidatesTheListsAndVersionsOfTheProduct() {
+        String categorie = categorie();
+        ProduitHommeDto produit = produitService.create(produit("Silk Tie", categorie));
+        produitService.create(produit("Wool Tie", categorie));
+        Snapshot before = snapshot(produit.getId(), categorie);
+
+        produitService.delete(produit.getId());
+
+        assertThat(produitService.findAll()).hasSize(before.all().size() - 1)
+                .extracting(ProduitHommeDto::getId).doesNotContain(produit.getId());
+        assertThat(produitService.findByCategorie(categorie)).extracting(ProduitHommeDto::getNom).containsExactly("Wool Tie");
+        assertThat(produitService.getCatalogVersion().getCount()).isEqualTo(before.version().getCount() - 1);
+        assertThat(produitService.getCatalogVersionByCategorie(categorie).getCount()).isEqualTo(1);
+        assertThatThrownBy(() -> produitService.findById(produit.getId())).isInstanceOf(ResourceNotFoundException.class);
+        assertThatThrownBy(() -> produitService.getVersion(produit.getId())).isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    void committedBatchInvalidatesTheListsOfItsProducts() {
+        String categorie = categorie();
+        produitService.create(produit("Leather Belt", categorie));
+        Snapshot before = snapshot(null, categorie);
+
+        produitService.createAll(List.of(produit("Canvas Belt", categorie), produit("Suede Belt", categorie)));
+
+        assertThat(produitService.findAll()).hasSize(before.all().size() + 2);
+        assertThat(produitService.findByCategorie(categorie)).hasSize(3);
+        assertThat(produitService.getCatalogVersionByCategorie(categorie).getCount()).isEqualTo(3);
+    }
+
+    // Reads every cached entry a write of the product can touch; the cache hands back the same instances until then.
+    // Versions first, like the controller: loading a version drops the data it describes
+    private Snapshot snapshot(Long id, String categorie) {
+        CatalogVersion version = produitService.getCatalogVersion();
+        CatalogVersion categorieVersion = produitService.getCatalogVersionByCategorie(categorie);
+        CatalogVersion idVersion = id != null ? produitService.getVersion(id) : null;
+        return new Snapshot(
+                produitService.findAll(),
+                produitService.findByCategorie(categorie),
+                id != null ? produitService.findById(id) : null,
+                version,
+                categorieVersion,
+                idVersion);
+    }
+
+    private static String categorie() {
+        return "Cache" + CATEGORIES.incrementAndGet();
+    }
+
+    private static ProduitHommeDto produit(String nom, String categorie) {
+        return ProduitHommeDto.builder().nom(nom).categorie(categorie).prix(new BigDecimal("59.90")).build();
+    }
+
+    private record Snapshot(List<ProduitHommeDto> all, List<ProduitHommeDto> categorie, ProduitHommeDto produit,
+                            CatalogVersion version, CatalogVersion categorieVersion, CatalogVersion idVersion) {
+
+        // Identity, not equality: an evicted entry reloaded from the database would be equal but not the same
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Snapshot other && all == other.all && categorie == other.categorie
+                    && produit == other.produit && version == other.version
+                    && categorieVersion == other.categorieVersion && idVersion == other.idVersion;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(all);
+        }
+    }
+}
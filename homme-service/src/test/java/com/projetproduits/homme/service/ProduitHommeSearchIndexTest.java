@@ -0,0 +1,84 @@
+package com.projetproduits.homme.service;
+
+import com.projetproduits.homme.dto.ProduitHommeDto;
+import com.projetproduits.homme.event.ProduitHommeChangedEvent;
+import com.projetproduits.homme.repository.ProduitHommeRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProduitHommeSearchIndexTest {
+
+    private final ProduitHommeRepository repository = mock(ProduitHommeRepository.class);
+    private final ProduitHommeSearchIndex index = new ProduitHommeSearchIndex(repository);
+
+    @Test
+    void ranksNomAboveDescriptionAndMatchesTheLastTermAsAPrefix() {
+        when(repository.findAllDtos()).thenReturn(List.of(
+                produit(1L, "Chemise en lin", "Chemises", "Coupe droite"),
+                produit(2L, "Pantalon", "Pantalons", "Se porte avec une chemise"),
+                produit(3L, "Veste", "Vestes", "Laine")));
+        index.rebuild();
+
+        assertThat(ids(index.search("chemise", 10))).containsExactly(1L, 2L);
+        assertThat(ids(index.search("chemi", 10))).containsExactly(1L, 2L);
+        assertThat(ids(index.search("chemise lin", 10))).containsExactly(1L);
+        assertThat(index.search("manteau", 10)).isEmpty();
+    }
+
+    @Test
+    void foldsAccentsCaseAndPlurals() {
+        assertThat(ProduitHommeSearchIndex.tokenize("Écharpes en LAINE")).containsExactly("echarpe", "laine");
+    }
+
+    @Test
+    void keepsLettersOfEveryScript() {
+        assertThat(ProduitHommeSearchIndex.tokenize("Veste 東京 Ñandú-été")).containsExactly("veste", "東京", "nandu", "ete");
+        assertThat(ProduitHommeSearchIndex.tokenize("Ζακέτα")).containsExactly("ζακετα");
+    }
+
+    @Test
+    void appliesChangeEvents() {
+        when(repository.findAllDtos()).thenReturn(List.of(produit(1L, "Chemise", "Chemises", null)));
+        index.rebuild();
+
+        ProduitHommeDto before = produit(1L, "Chemise", "Chemises", null);
+        index.onProduitChanged(ProduitHommeChangedEvent.updated(before, produit(1L, "Polo", "Polos", null)));
+        index.onProduitChanged(ProduitHommeChangedEvent.created(produit(2L, "Chemise", "Chemises", null)));
+
+        assertThat(ids(index.search("chemise", 10))).containsExactly(2L);
+        assertThat(ids(index.search("polo", 10))).containsExactly(1L);
+
+        index.onProduitChanged(ProduitHommeChangedEvent.deleted(produit(2L, "Chemise", "Chemises", null)));
+        assertThat(index.search("chemise", 10)).isEmpty();
+    }
+
+    // The rebuild read the table before the write committed, so the write is missing from what it read
+    @Test
+    void keepsWritesAppliedWhileRebuilding() {
+        ProduitHommeDto stale = produit(1L, "Chemise", "Chemises", null);
+        when(repository.findAllDtos()).thenAnswer(invocation -> {
+            index.onProduitChanged(ProduitHommeChangedEvent.updated(stale, produit(1L, "Polo", "Polos", null)));
+            index.onProduitChanged(ProduitHommeChangedEvent.created(produit(2L, "Veste", "Vestes", null)));
+            return List.of(stale);
+        });
+
+        index.rebuild();
+
+        assertThat(ids(index.search("polo", 10))).containsExactly(1L);
+        assertThat(ids(index.search("veste", 10))).containsExactly(2L);
+        assertThat(index.search("chemise", 10)).isEmpty();
+    }
+
+    private static List<Long> ids(List<ProduitHommeSearchIndex.Hit> hits) {
+        return hits.stream().map(ProduitHommeSearchIndex.Hit::getId).toList();
+    }
+
+    private static ProduitHommeDto produit(Long id, String nom, String categorie, String description) {
+        return ProduitHommeDto.builder().id(id).nom(nom).categorie(categorie).description(description).build();
+    }
+}
@@ -0,0 +1,224 @@
+package com.projetproduits.homme.service;
+
+import com.projetproduits.homme.PostgresTestDatabase;
+import com.projetproduits.homme.dto.BatchItemResult;
+import com.projetproduits.homme.dto.BatchResult;
+import com.projetproduits.homme.dto.ProduitHommeDto;
+import org.hibernate.BaseSessionEventListener;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the batch endpoints' service methods on the migrated database and counts what Hibernate sends for them:
+ * the inserts and updates of a batch go out as one JDBC batch per hibernate.jdbc.batch_size (50) items, and the
+ * ids come from produits_homme_seq fifty at a time, after the products seeded by afterMigrate.sql. A chunk the
+ * database rejects is written again row by row, so the other products of the chunk are still saved.
+ * The 100k import is timed, so it only runs on demand: mvn test -Pload.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.session.events.auto="
+                + "com.projetproduits.homme.service.ProduitHommeServiceBatchTest$BatchCounter",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.projetproduits.homme.service.ProduitHommeServiceBatchTest$Recorder",
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=INFO"
+})
+class ProduitHommeServiceBatchTest {
+
+    private static final int SEEDED = 20;
+
+    @Autowired
+    private ProduitHommeService produitService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void requireDatabase() {
+        PostgresTestDatabase.assumeAvailable();
+    }
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        // As in application.yml: the driver sends each JDBC batch of inserts as multi-row inserts
+        registry.add("spring.datasource.url", () -> PostgresTestDatabase.create("produit_batches_homme") + "?reWriteBatchedInserts=true");
+        registry.add("spring.datasource.username", PostgresTestDatabase::username);
+        registry.add("spring.datasource.password", PostgresTestDatabase::password);
+    }
+
+    /**
+     * Counts the JDBC batches executed, in every session.
+     */
+    public static class BatchCounter extends BaseSessionEventListener {
+
+        static final AtomicInteger BATCHES = new AtomicInteger();
+
+        @Override
+        public void jdbcExecuteBatchStart() {
+            BATCHES.incrementAndGet();
+        }
+    }
+
+    /**
+     * Keeps the SQL of every statement Hibernate prepares.
+     */
+    public static class Recorder implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+
+    @BeforeEach
+    void reset() {
+        BatchCounter.BATCHES.set(0);
+        Recorder.STATEMENTS.clear();
+    }
+
+    @Test
+    void createsInOneJdbcBatchPerFiftyProducts() {
+        BatchResult<ProduitHommeDto> result = produitService.createAll(produits(120));
+
+        assertThat(result.getItems()).extracting(BatchItemResult::getStatus).containsOnly(BatchItemResult.Status.CREATED);
+        assertThat(BatchCounter.BATCHES).hasValue(3);
+        assertThat(statements("insert into produits_homme")).isEqualTo(3);
+        // One call per 50 ids, fewer when ids are left from an earlier batch
+        assertThat(statements("nextval('produits_homme_seq')")).isBetween(2L, 3L);
+    }
+
+    @Test
+    void allocatesIdsAfterTheSeededProducts() {
+        BatchResult<ProduitHommeDto> result = produitService.createAll(produits(120));
+
+        List<Long> ids = result.getItems().stream().map(item -> item.getData().getId()).toList();
+        assertThat(ids).doesNotHaveDuplicates().allSatisfy(id -> assertThat(id).isGreaterThan(SEEDED));
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM produits_homme WHERE id IN ("
+                + ids.stream().map(String::valueOf).collect(Collectors.joining(",")) + ")", Long.class)).isEqualTo(120);
+    }
+
+    @Test
+    void seededSequenceStartsThePoolAfterTheSeededProducts() {
+        // Hibernate's pooled optimizer hands out the fifty ids up to the value nextval returns
+        JdbcTemplate migrated = new JdbcTemplate(PostgresTestDatabase.migrated("produit_sequence_homme"));
+
+        Long maxId = migrated.queryForObject("SELECT MAX(id) FROM produits_homme", Long.class);
+        Long next = migrated.queryForObject("SELECT nextval('produits_homme_seq')", Long.class);
+
+        assertThat(maxId).isEqualTo(SEEDED);
+        assertThat(next - 50 + 1).isEqualTo(SEEDED + 1);
+    }
+
+    @Test
+    void updatesInOneJdbcBatchPerFiftyProducts() {
+        List<ProduitHommeDto> updates = LongStream.rangeClosed(1, SEEDED).mapToObj(id -> produit("Renamed " + id, id)).toList();
+
+        BatchResult<ProduitHommeDto> result = produitService.updateAll(updates);
+
+        assertThat(result.getItems()).extracting(BatchItemResult::getStatus).containsOnly(BatchItemResult.Status.UPDATED);
+        assertThat(BatchCounter.BATCHES).hasValue(1);
+        assertThat(statements("update produits_homme")).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM produits_homme WHERE nom LIKE 'Renamed %'", Long.class))
+                .isEqualTo(SEEDED);
+    }
+
+    @Test
+    void reportsOnlyTheProductsTheDatabaseRejects() {
+        jdbcTemplate.execute("ALTER TABLE produits_homme ADD CONSTRAINT produits_homme_test_nom CHECK (nom <> 'Rejected')");
+        try {
+            List<ProduitHommeDto> produits = new ArrayList<>(produits(60));
+            produits.set(7, produit("Rejected", null));
+            Long before = jdbcTemplate.queryForObject("SELECT count(*) FROM produits_homme", Long.class);
+
+            BatchResult<ProduitHommeDto> result = produitService.createAll(produits);
+
+            assertThat(result.getSucceeded()).isEqualTo(59);
+            assertThat(result.getItems().get(7).getStatus()).isEqualTo(BatchItemResult.Status.FAILED);
+            assertThat(result.getItems().get(7).getError()).contains("produits_homme_test_nom");
+            assertThat(result.getItems()).extracting(BatchItemResult::getIndex)
+                    .containsExactlyElementsOf(IntStream.range(0, 60).boxed().toList());
+            assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM produits_homme", Long.class)).isEqualTo(before + 59);
+        } finally {
+            jdbcTemplate.execute("ALTER TABLE produits_homme DROP CONSTRAINT produits_homme_test_nom");
+        }
+    }
+
+    @Test
+    void updatesTheOtherProductsOfAFailedChunk() {
+        jdbcTemplate.execute("ALTER TABLE produits_homme ADD CONSTRAINT produits_homme_test_nom CHECK (nom <> 'Rejected')");
+        try {
+            List<ProduitHommeDto> updates = new ArrayList<>(LongStream.rangeClosed(1, SEEDED)
+                    .mapToObj(id -> produit("Updated " + id, id)).toList());
+            updates.set(3, produit("Rejected", 4L));
+            updates.add(produit("Missing", 1_000_000L));
+
+            BatchResult<ProduitHommeDto> result = produitService.updateAll(updates);
+
+            assertThat(result.getSucceeded()).isEqualTo(SEEDED - 1);
+            assertThat(result.getItems().get(3).getStatus()).isEqualTo(BatchItemResult.Status.FAILED);
+            assertThat(result.getItems().get(SEEDED).getStatus()).isEqualTo(BatchItemResult.Status.NOT_FOUND);
+            assertThat(jdbcTemplate.queryForObject("SELECT nom FROM produits_homme WHERE id = 4", String.class))
+                    .doesNotStartWith("Updated");
+            assertThat(jdbcTemplate.queryForObject("SELECT nom FROM produits_homme WHERE id = 5", String.class))
+                    .isEqualTo("Updated 5");
+        } finally {
+            jdbcTemplate.execute("ALTER TABLE produits_homme DROP CONSTRAINT produits_homme_test_nom");
+        }
+    }
+
+    // The aim of the batch endpoints: a catalog of 100k products imported in seconds, not minutes, in calls of
+    // the largest batch accepted
+    @Test
+    @Tag("load")
+    void importsAHundredThousandProductsInSeconds() {
+        long start = System.nanoTime();
+        long created = 0;
+        for (int call = 0; call < 10; call++) {
+            created += produitService.createAll(produits(10_000)).getSucceeded();
+        }
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertThat(created).isEqualTo(100_000);
+        assertThat(millis).as("100,000 products imported in %d ms", millis).isLessThan(60_000);
+    }
+
+    private static long statements(String fragment) {
+        return Recorder.STATEMENTS.stream().filter(sql -> sql.toLowerCase().contains(fragment)).count();
+    }
+
+    private static List<ProduitHommeDto> produits(int count) {
+        return IntStream.range(0, count).mapToObj(i -> produit("Produit " + i, null)).toList();
+    }
+
+    private static ProduitHommeDto produit(String nom, Long id) {
+        return ProduitHommeDto.builder()
+                .id(id)
+                .nom(nom)
+                .categorie("Chemises")
+                .prix(new BigDecimal("19.99"))
+                .build();
+    }
+}
@@ -0,0 +1,100 @@
+package com.projetproduits.homme.service;
+
+import com.projetproduits.homme.entity.TypeInteraction;
+import com.projetproduits.homme.repository.InteractionHommeRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.mock;
+
+class ProduitHommeTrendingIndexTest {
+
+    private static final Duration HOUR = Duration.ofHours(1);
+    private static final Duration DAY = Duration.ofHours(24);
+
+    @Test
+    void ranksProductsByWeightedInteractions() {
+        ProduitHommeTrendingIndex index = index(1024, 128, Duration.ZERO);
+        LocalDateTime now = LocalDateTime.now();
+        add(index, 1L, TypeInteraction.VIEW, now, 10);
+        add(index, 2L, TypeInteraction.PURCHASE, now, 1);
+        add(index, 3L, TypeInteraction.LIKE, now, 3);
+
+        assertThat(index.top(HOUR, 10)).extracting(ProduitHommeTrendingIndex.Hit::getId, ProduitHommeTrendingIndex.Hit::getScore)
+                .containsExactly(tuple(2L, 20.0), tuple(3L, 15.0), tuple(1L, 10.0));
+        assertThat(index.top(HOUR, 2)).extracting(ProduitHommeTrendingIndex.Hit::getId).containsExactly(2L, 3L);
+    }
+
+    @Test
+    void onlyCountsTheBucketsOfTheWindow() {
+        ProduitHommeTrendingIndex index = index(1024, 128, Duration.ZERO);
+        LocalDateTime now = LocalDateTime.now();
+        add(index, 1L, TypeInteraction.VIEW, now, 1);
+        add(index, 2L, TypeInteraction.PURCHASE, now.minusHours(3), 1);
+        add(index, 3L, TypeInteraction.PURCHASE, now.minusHours(25), 1);
+
+        assertThat(index.top(HOUR, 10)).extracting(ProduitHommeTrendingIndex.Hit::getId).containsExactly(1L);
+        // Older than the ring of buckets: dropped
+        assertThat(index.top(DAY, 10)).extracting(ProduitHommeTrendingIndex.Hit::getId).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void findsTheHeavyProductsAmongManyLightOnes() {
+        // A small sketch and few candidates per bucket, for 5 heavy products hidden among 5 000 light ones
+        ProduitHommeTrendingIndex index = index(256, 16, Duration.ZERO);
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> heavy = List.of(101L, 202L, 303L, 404L, 505L);
+        for (int round = 0; round < 100; round++) {
+            for (long light = 1_000 + round * 50L; light < 1_000 + (round + 1) * 50L; light++) {
+                add(index, light, TypeInteraction.VIEW, now, 1);
+            }
+            heavy.forEach(id -> add(index, id, TypeInteraction.VIEW, now, 1));
+        }
+
+        List<ProduitHommeTrendingIndex.Hit> top = index.top(HOUR, 5);
+
+        assertThat(top).extracting(ProduitHommeTrendingIndex.Hit::getId).containsExactlyInAnyOrderElementsOf(heavy);
+        // Count-Min never underestimates
+        assertThat(top).allSatisfy(hit -> assertThat(hit.getScore()).isGreaterThanOrEqualTo(100));
+    }
+
+    @Test
+    void reusesAnAnswerForTheRefreshInterval() {
+        ProduitHommeTrendingIndex index = index(1024, 128, Duration.ofHours(1));
+        LocalDateTime now = LocalDateTime.now();
+        add(index, 1L, TypeInteraction.VIEW, now, 1);
+        List<ProduitHommeTrendingIndex.Hit> first = index.top(HOUR, 10);
+
+        add(index, 2L, TypeInteraction.PURCHASE, now, 1);
+
+        assertThat(index.top(HOUR, 10)).isSameAs(first);
+        assertThat(index.top(HOUR, 5)).extracting(ProduitHommeTrendingIndex.Hit::getId).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void keepsAtMostTheCandidatesOfEachBucket() {
+        ProduitHommeTrendingIndex index = index(1024, 8, Duration.ZERO);
+        LocalDateTime now = LocalDateTime.now();
+        LongStream.range(0, 100_000).forEach(id -> add(index, id, TypeInteraction.VIEW, now, 1));
+
+        assertThat(index.top(HOUR, 100)).hasSizeLessThanOrEqualTo(2 * 8);
+    }
+
+    private static ProduitHommeTrendingIndex index(int width, int candidates, Duration refresh) {
+        return new ProduitHommeTrendingIndex(mock(InteractionHommeRepository.class), mock(PlatformTransactionManager.class),
+                Duration.ofMinutes(5), DAY, width, candidates, refresh);
+    }
+
+    private static void add(ProduitHommeTrendingIndex index, Long produitId, TypeInteraction type, LocalDateTime at, int times) {
+        for (int i = 0; i < times; i++) {
+            index.add(produitId, type, at);
+        }
+    }
+}
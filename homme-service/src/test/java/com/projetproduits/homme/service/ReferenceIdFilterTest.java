@@ -0,0 +1,129 @@
+package com.projetproduits.homme.service;
+
+import com.projetproduits.homme.dto.ProduitHommeDto;
+import com.projetproduits.homme.event.ProduitHommeChangedEvent;
+import com.projetproduits.homme.repository.ProduitHommeRepository;
+import com.projetproduits.homme.repository.UserHommeRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ReferenceIdFilterTest {
+
+    private final UserHommeRepository userRepository = mock(UserHommeRepository.class);
+    private final ProduitHommeRepository produitRepository = mock(ProduitHommeRepository.class);
+    private final ReferenceIdFilter filter = new ReferenceIdFilter(userRepository, produitRepository);
+
+    @BeforeEach
+    void load() {
+        when(userRepository.streamAllIds()).thenReturn(Stream.of(1L, 2L));
+        when(produitRepository.streamAllIds()).thenReturn(Stream.of(10L));
+        filter.load();
+    }
+
+    @AfterEach
+    void endTransaction() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void trustsLoadedIdsWithoutQuerying() {
+        assertThat(filter.userExists(1L)).isTrue();
+        assertThat(filter.produitExists(10L)).isTrue();
+        verify(userRepository, never()).existsById(anyLong());
+        verify(produitRepository, never()).existsById(anyLong());
+    }
+
+    @Test
+    void remembersIdsFoundInTheDatabase() {
+        when(userRepository.existsById(3L)).thenReturn(true);
+
+        assertThat(filter.userExists(3L)).isTrue();
+        assertThat(filter.userExists(3L)).isTrue();
+
+        verify(userRepository).existsById(3L);
+    }
+
+    @Test
+    void keepsADeletedUserUntilTheDeleteCommits() {
+        TransactionSynchronizationManager.initSynchronization();
+        filter.userDeleted(1L);
+
+        assertThat(filter.userExists(1L)).isTrue();
+
+        commit();
+        when(userRepository.existsById(1L)).thenReturn(false);
+        assertThat(filter.userExists(1L)).isFalse();
+    }
+
+    @Test
+    void keepsADeletedUserWhenTheDeleteRollsBack() {
+        TransactionSynchronizationManager.initSynchronization();
+        filter.userDeleted(1L);
+        TransactionSynchronizationManager.clearSynchronization();
+
+        assertThat(filter.userExists(1L)).isTrue();
+    }
+
+    // The database still returns the row to a check that ran before the delete committed
+    @Test
+    void aCheckOverlappingTheCommitDoesNotBringTheUserBack() {
+        TransactionSynchronizationManager.initSynchronization();
+        filter.userDeleted(2L);
+        when(userRepository.existsById(5L)).thenAnswer(invocation -> {
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                commit();
+            }
+            return true;
+        });
+
+        assertThat(filter.userExists(5L)).isTrue();
+
+        assertThat(filter.userExists(2L)).isFalse();
+        // Not remembered either, since a removal happened during the check
+        filter.userExists(5L);
+        verify(userRepository, times(2)).existsById(5L);
+    }
+
+    @Test
+    void removesDeletedProduits() {
+        ProduitHommeDto produit = ProduitHommeDto.builder().id(10L).build();
+
+        filter.onProduitRemoved(ProduitHommeChangedEvent.deleted(produit));
+
+        assertThat(filter.produitExists(10L)).isFalse();
+    }
+
+    @Test
+    void checksUnknownIdsOfABatchInOneQuery() {
+        when(userRepository.findExistingIds(anyCollection())).thenReturn(List.of(4L));
+
+        assertThat(filter.existingUserIds(List.of(1L, 4L))).containsExactlyInAnyOrder(1L, 4L);
+        assertThat(filter.existingUserIds(List.of(1L, 4L))).containsExactlyInAnyOrder(1L, 4L);
+
+        verify(userRepository).findExistingIds(Set.of(4L));
+    }
+
+    private static void commit() {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+    }
+}
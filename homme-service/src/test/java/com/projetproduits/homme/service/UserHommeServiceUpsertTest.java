@@ -0,0 +1,179 @@
+package com.projetproduits.homme.service;
+
+import com.projetproduits.homme.PostgresTestDatabase;
+import com.projetproduits.homme.dto.BatchItemResult;
+import com.projetproduits.homme.dto.BatchResult;
+import com.projetproduits.homme.dto.UserHommeDto;
+import com.projetproduits.homme.exception.BadRequestException;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs the batch upsert of PUT /users/batch on the migrated database: ON CONFLICT (email) makes it an insert or an
+ * update per user, and xmax = 0 in RETURNING tells the two apart, which only PostgreSQL itself can show.
+ */
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+class UserHommeServiceUpsertTest {
+
+    @Autowired
+    private UserHommeService userService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void requireDatabase() {
+        PostgresTestDatabase.assumeAvailable();
+    }
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> PostgresTestDatabase.create("user_upserts_homme"));
+        registry.add("spring.datasource.username", PostgresTestDatabase::username);
+        registry.add("spring.datasource.password", PostgresTestDatabase::password);
+    }
+
+    @BeforeEach
+    void clean() {
+        jdbcTemplate.update("DELETE FROM users_homme WHERE email LIKE '%@upsert.test'");
+    }
+
+    @Test
+    void createsNewUsersAndUpdatesExistingOnes() {
+        UserHommeDto existing = userService.upsertAll(List.of(user("Alice", "alice@upsert.test", 30)))
+                .getItems().get(0).getData();
+
+        BatchResult<UserHommeDto> result = userService.upsertAll(List.of(
+                user("Alicia", "alice@upsert.test", 55),
+                user("Bob", "bob@upsert.test", 40)));
+
+        assertThat(result.getSucceeded()).isEqualTo(2);
+        BatchItemResult<UserHommeDto> updated = result.getItems().get(0);
+        assertThat(updated.getStatus()).isEqualTo(BatchItemResult.Status.UPDATED);
+        // Same row, new nom, age kept
+        assertThat(updated.getData().getId()).isEqualTo(existing.getId());
+        assertThat(updated.getData().getNom()).isEqualTo("Alicia");
+        assertThat(updated.getData().getAge()).isEqualTo(30);
+        assertThat(result.getItems().get(1).getStatus()).isEqualTo(BatchItemResult.Status.CREATED);
+        assertThat(jdbcTemplate.queryForMap("SELECT nom, age FROM users_homme WHERE email = 'alice@upsert.test'"))
+                .containsEntry("nom", "Alicia")
+                .containsEntry("age", 30);
+    }
+
+    @Test
+    void sendingTheSameBatchAgainOnlyUpdates() {
+        List<UserHommeDto> users = users(3);
+
+        List<Long> created = ids(userService.upsertAll(users));
+        BatchResult<UserHommeDto> again = userService.upsertAll(users);
+
+        assertThat(again.getItems()).extracting(BatchItemResult::getStatus).containsOnly(BatchItemResult.Status.UPDATED);
+        assertThat(ids(again)).isEqualTo(created);
+        assertThat(count()).isEqualTo(3);
+    }
+
+    @Test
+    void reportsTheLatestOccurrenceOfARepeatedEmailForEachOfThem() {
+        BatchResult<UserHommeDto> result = userService.upsertAll(List.of(
+                user("First", "twice@upsert.test", 20),
+                user("Other", "other@upsert.test", 20),
+                user("Second", "twice@upsert.test", 20)));
+
+        assertThat(result.getItems()).extracting(BatchItemResult::getStatus).containsOnly(BatchItemResult.Status.CREATED);
+        assertThat(result.getItems().get(0).getData()).isEqualTo(result.getItems().get(2).getData());
+        assertThat(result.getItems().get(0).getData().getNom()).isEqualTo("Second");
+        assertThat(count()).isEqualTo(2);
+    }
+
+    @Test
+    void rejectsOnlyTheInvalidUsers() {
+        BatchResult<UserHommeDto> result = userService.upsertAll(List.of(
+                user("Valid", "valid@upsert.test", 20),
+                user("Invalid", "not-an-email", 20),
+                user("X", "short@upsert.test", 0)));
+
+        assertThat(result.getSucceeded()).isEqualTo(1);
+        assertThat(result.getItems()).extracting(BatchItemResult::getStatus).containsExactly(
+                BatchItemResult.Status.CREATED, BatchItemResult.Status.INVALID, BatchItemResult.Status.INVALID);
+        assertThat(result.getItems().get(1).getError()).contains("email");
+        assertThat(result.getItems().get(2).getError()).contains("age").contains("nom");
+        assertThat(count()).isEqualTo(1);
+    }
+
+    @Test
+    void upsertsBatchesLargerThanAChunk() {
+        List<UserHommeDto> users = new ArrayList<>(users(2500));
+        userService.upsertAll(users.subList(0, 1200));
+
+        BatchResult<UserHommeDto> result = userService.upsertAll(users);
+
+        assertThat(result.getItems().subList(0, 1200)).extracting(BatchItemResult::getStatus)
+                .containsOnly(BatchItemResult.Status.UPDATED);
+        assertThat(result.getItems().subList(1200, 2500)).extracting(BatchItemResult::getStatus)
+                .containsOnly(BatchItemResult.Status.CREATED);
+        assertThat(ids(result)).doesNotHaveDuplicates();
+        assertThat(count()).isEqualTo(2500);
+    }
+
+    @Test
+    void keepsOneRowPerEmailUnderConcurrentUpserts() {
+        List<UserHommeDto> users = users(500);
+
+        List<BatchResult<UserHommeDto>> results = IntStream.range(0, 4)
+                .mapToObj(i -> CompletableFuture.supplyAsync(() -> userService.upsertAll(users)))
+                .toList()
+                .stream()
+                .map(CompletableFuture::join)
+                .toList();
+
+        assertThat(count()).isEqualTo(500);
+        // Each user is created by exactly one of the batches and updated by the others
+        for (int i = 0; i < users.size(); i++) {
+            int item = i;
+            assertThat(results).filteredOn(result -> result.getItems().get(item).getStatus() == BatchItemResult.Status.CREATED)
+                    .hasSize(1);
+        }
+        assertThat(results).allSatisfy(result -> assertThat(ids(result)).isEqualTo(ids(results.get(0))));
+    }
+
+    @Test
+    void refusesABatchAboveTheLimit() {
+        assertThatThrownBy(() -> userService.upsertAll(users(10_001)))
+                .isInstanceOf(BadRequestException.class);
+        assertThat(count()).isZero();
+    }
+
+    private long count() {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM users_homme WHERE email LIKE '%@upsert.test'", Long.class);
+    }
+
+    private static List<Long> ids(BatchResult<UserHommeDto> result) {
+        return result.getItems().stream().map(item -> item.getData().getId()).toList();
+    }
+
+    private static List<UserHommeDto> users(int count) {
+        return IntStream.range(0, count).mapToObj(i -> user("User " + i, "user" + i + "@upsert.test", 25)).toList();
+    }
+
+    private static UserHommeDto user(String nom, String email, int age) {
+        return UserHommeDto.builder()
+                .nom(nom)
+                .email(email)
+                .age(age)
+                .build();
+    }
+}
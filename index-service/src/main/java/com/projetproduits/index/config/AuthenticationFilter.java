@@ -1,6 +1,6 @@
 package com.projetproduits.index.config;
 
-import lombok.RequiredArgsConstructor;
+import io.jsonwebtoken.Claims;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cloud.gateway.filter.GatewayFilter;
 import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
@@ -49,17 +49,19 @@ public class AuthenticationFilter extends AbstractGatewayFilterFactory<Authentic
                 return onError(exchange, "Missing authorization header", HttpStatus.UNAUTHORIZED);
             }
 
-            if (!jwtTokenProvider.validateToken(token)) {
+            // Already verified by JwtAuthenticationFilter for this token, unless it rejected it
+            Claims claims = exchange.getAttribute(JwtTokenProvider.CLAIMS_ATTRIBUTE);
+            if (claims == null) {
+                claims = jwtTokenProvider.verify(token);
+            }
+            if (claims == null) {
                 return onError(exchange, "Invalid or expired token", HttpStatus.UNAUTHORIZED);
             }
 
             // Add user information to headers for downstream services
-            String username = jwtTokenProvider.extractUsername(token);
-            String role = jwtTokenProvider.extractRole(token);
-
             ServerHttpRequest modifiedRequest = request.mutate()
-                    .header("X-User-Username", username)
-                    .header("X-User-Role", role)
+                    .header("X-User-Username", claims.getSubject())
+                    .header("X-User-Role", JwtTokenProvider.role(claims))
                     .build();
 
             return chain.filter(exchange.mutate().request(modifiedRequest).build());
@@ -0,0 +1,117 @@
+package com.projetproduits.index.config;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bodies of public catalog responses proxied by the gateway, stored off-heap in direct buffers.
+ * Entries are keyed by route, path, query and Accept header, expire after the lifetime the response allows
+ * (at most the TTL) and are evicted least-recently-used first once the total body size goes over the cap.
+ */
+@Slf4j
+@Component
+public class GatewayResponseCache {
+
+    private final Duration ttl;
+    private final long maxBytes;
+    @Getter
+    private final int maxEntryBytes;
+
+    // Access-ordered: iteration starts at the least recently used entry
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long totalBytes;
+    // Bumped by every purge so a response read before the purge is not stored after it
+    private long generation;
+
+    public GatewayResponseCache(
+            @Value("${gateway-cache.ttl:30s}") Duration ttl,
+            @Value("${gateway-cache.max-size:64MB}") DataSize maxSize,
+            @Value("${gateway-cache.max-entry-size:2MB}") DataSize maxEntrySize) {
+        this.ttl = ttl;
+        this.maxBytes = maxSize.toBytes();
+        this.maxEntryBytes = (int) Math.min(maxEntrySize.toBytes(), Integer.MAX_VALUE);
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class Entry {
+        private final HttpStatusCode status;
+        private final HttpHeaders headers;
+        // Read-only direct buffer, callers must duplicate() it before reading
+        private final ByteBuffer body;
+        private final long storedAt;
+        private final long expiresAt;
+    }
+
+    public synchronized Entry get(String key) {
+        Entry entry = entries.get(key);
+        if (entry != null && entry.getExpiresAt() <= System.currentTimeMillis()) {
+            remove(key);
+            return null;
+        }
+        return entry;
+    }
+
+    public synchronized long generation() {
+        return generation;
+    }
+
+    /**
+     * Stores a response read while the cache was at the given generation for its lifetime, capped by the TTL
+     * (the TTL when null); ignored if a purge happened since.
+     */
+    public synchronized void put(String key, long readAt, HttpStatusCode status, HttpHeaders headers, ByteBuffer body,
+                                 Duration lifetime) {
+        if (readAt != generation || body.remaining() > maxEntryBytes) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long expiresAt = now + (lifetime == null ? ttl : lifetime.compareTo(ttl) < 0 ? lifetime : ttl).toMillis();
+        remove(key);
+        entries.put(key, new Entry(status, headers, body.asReadOnlyBuffer(), now, expiresAt));
+        totalBytes += body.remaining();
+
+        Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            totalBytes -= eldest.next().getValue().getBody().remaining();
+            eldest.remove();
+        }
+    }
+
+    /**
+     * Drops every entry whose key starts with the given prefix (a route id).
+     */
+    public synchronized void invalidate(String prefix) {
+        generation++;
+        int removed = 0;
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Entry> entry = it.next();
+            if (entry.getKey().startsWith(prefix)) {
+                totalBytes -= entry.getValue().getBody().remaining();
+                it.remove();
+                removed++;
+            }
+        }
+        log.debug("Gateway cache purged {} entries for {}", removed, prefix);
+    }
+
+    private void remove(String key) {
+        Entry previous = entries.remove(key);
+        if (previous != null) {
+            totalBytes -= previous.getBody().remaining();
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package com.projetproduits.index.config;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.server.ServerWebExchange;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Serves public GET responses of a route from GatewayResponseCache and fills it on misses, following the
+ * Cache-Control of the response as a shared cache: no-store, private, no-cache and a zero max-age or s-maxage are
+ * not stored, and a positive s-maxage (else max-age) bounds the lifetime. A response to a request carrying
+ * Authorization is only stored when it is explicitly public.
+ * A successful write through the route to a cached path purges the route's entries; writes sent to the services
+ * directly are purged by the services themselves, through GatewayCacheController.
+ */
+@Slf4j
+@Component
+public class ResponseCacheFilter extends AbstractGatewayFilterFactory<ResponseCacheFilter.Config> {
+
+    private static final String CACHE_HEADER = "X-Cache";
+
+    // Per-request headers that must not be replayed to other clients
+    private static final List<String> UNCACHED_HEADERS = List.of(
+            HttpHeaders.TRANSFER_ENCODING, HttpHeaders.CONNECTION, HttpHeaders.CONTENT_LENGTH,
+            HttpHeaders.VARY, HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN, HttpHeaders.ACCESS_CONTROL_ALLOW_CREDENTIALS,
+            HttpHeaders.ACCESS_CONTROL_EXPOSE_HEADERS, CACHE_HEADER);
+
+    private final GatewayResponseCache cache;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    public ResponseCacheFilter(GatewayResponseCache cache) {
+        super(Config.class);
+        this.cache = cache;
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        // Must run before NettyWriteResponseFilter so it writes through our response decorator
+        return new OrderedGatewayFilter((exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            String path = request.getURI().getRawPath();
+            boolean cachedPath = pathMatcher.match(config.getPattern(), path);
+            Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+            String scope = scope(route != null ? route.getId() : "gateway");
+
+            if (!cachedPath) {
+                return chain.filter(exchange);
+            }
+            ServerHttpResponse response = exchange.getResponse();
+            if (request.getMethod() != HttpMethod.GET) {
+                if (request.getMethod() != HttpMethod.HEAD) {
+                    response.beforeCommit(() -> {
+                        purgeIfWritten(response, scope);
+                        return Mono.empty();
+                    });
+                }
+                return chain.filter(exchange);
+            }
+
+            String key = scope + path + "?" + Objects.toString(request.getURI().getRawQuery(), "")
+                    + " " + Objects.toString(request.getHeaders().getFirst(HttpHeaders.ACCEPT), "");
+            GatewayResponseCache.Entry hit = cache.get(key);
+            if (hit != null) {
+                return serve(exchange, hit);
+            }
+
+            response.getHeaders().set(CACHE_HEADER, "MISS");
+            long generation = cache.generation();
+            boolean authorized = request.getHeaders().containsKey(HttpHeaders.AUTHORIZATION);
+            ServerHttpResponseDecorator capturing = new ServerHttpResponseDecorator(response) {
+                @Override
+                public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                    HttpStatusCode status = getStatusCode();
+                    Freshness freshness = freshness(status, getHeaders(), authorized);
+                    if (freshness == null) {
+                        return super.writeWith(body);
+                    }
+                    BodyCapture capture = new BodyCapture(getHeaders().getContentLength(), cache.getMaxEntryBytes());
+                    HttpHeaders stored = storedHeaders(getHeaders());
+                    return super.writeWith(Flux.from(body)
+                            .doOnNext(capture::append)
+                            .doOnComplete(() -> {
+                                ByteBuffer captured = capture.result();
+                                if (captured != null) {
+                                    cache.put(key, generation, status, stored, captured, freshness.lifetime());
+                                }
+                            })
+                            .doFinally(signal -> capture.release()));
+                }
+            };
+            // Ask for the full body even if the client revalidates, so the miss can fill the cache
+            ServerHttpRequest unconditional = request.mutate()
+                    .headers(headers -> {
+                        headers.remove(HttpHeaders.IF_NONE_MATCH);
+                        headers.remove(HttpHeaders.IF_MODIFIED_SINCE);
+                    })
+                    .build();
+            return chain.filter(exchange.mutate().request(unconditional).response(capturing).build());
+        }, NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1);
+    }
+
+    private Mono<Void> serve(ServerWebExchange exchange, GatewayResponseCache.Entry entry) {
+        ServerHttpRequest request = exchange.getRequest();
+        ServerHttpResponse response = exchange.getResponse();
+        response.getHeaders().addAll(entry.getHeaders());
+        response.getHeaders().set(CACHE_HEADER, "HIT");
+        response.getHeaders().set(HttpHeaders.AGE,
+                String.valueOf((System.currentTimeMillis() - entry.getStoredAt()) / 1000));
+
+        if (notModified(request.getHeaders(), entry.getHeaders())) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            return response.setComplete();
+        }
+        response.setStatusCode(entry.getStatus());
+        response.getHeaders().setContentLength(entry.getBody().remaining());
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(entry.getBody().duplicate())));
+    }
+
+    private static boolean notModified(HttpHeaders requestHeaders, HttpHeaders cachedHeaders) {
+        String etag = cachedHeaders.getETag();
+        List<String> ifNoneMatch = requestHeaders.getIfNoneMatch();
+        if (!ifNoneMatch.isEmpty()) {
+            return etag != null && ifNoneMatch.stream()
+                    .anyMatch(candidate -> candidate.equals("*") || stripWeak(candidate).equals(stripWeak(etag)));
+        }
+        long lastModified = cachedHeaders.getLastModified();
+        long ifModifiedSince = requestHeaders.getIfModifiedSince();
+        return lastModified >= 0 && ifModifiedSince >= 0 && lastModified / 1000 <= ifModifiedSince / 1000;
+    }
+
+    private static String stripWeak(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+
+    /**
+     * Prefix of the cache keys of a route, as given to GatewayResponseCache.invalidate.
+     */
+    public static String scope(String routeId) {
+        return routeId + " ";
+    }
+
+    private void purgeIfWritten(ServerHttpResponse response, String scope) {
+        HttpStatusCode status = response.getStatusCode();
+        if (status != null && status.is2xxSuccessful()) {
+            cache.invalidate(scope);
+        }
+    }
+
+    // How long the response may be kept (null lifetime: as long as the TTL), or null when it must not be stored
+    static Freshness freshness(HttpStatusCode status, HttpHeaders headers, boolean authorized) {
+        if (status == null || status.value() != HttpStatus.OK.value() || headers.containsKey(HttpHeaders.SET_COOKIE)) {
+            return null;
+        }
+        MediaType contentType = headers.getContentType();
+        if (contentType == null || !MediaType.APPLICATION_JSON.isCompatibleWith(contentType)) {
+            return null;
+        }
+        Map<String, String> directives = new HashMap<>();
+        for (String directive : Objects.toString(headers.getCacheControl(), "").split(",")) {
+            String[] parts = directive.trim().toLowerCase(Locale.ROOT).split("=", 2);
+            if (!parts[0].isEmpty()) {
+                directives.put(parts[0], parts.length > 1 ? parts[1].replace("\"", "").trim() : "");
+            }
+        }
+        if (directives.containsKey("no-store") || directives.containsKey("private") || directives.containsKey("no-cache")) {
+            return null;
+        }
+        // A shared cache may reuse the response to an authenticated request only when told it is public (RFC 9111, 3.5)
+        if (authorized && !directives.containsKey("public") && !directives.containsKey("s-maxage")) {
+            return null;
+        }
+        // s-maxage, meant for shared caches, overrides max-age
+        String maxAge = directives.containsKey("s-maxage") ? directives.get("s-maxage") : directives.get("max-age");
+        if (maxAge == null) {
+            return new Freshness(null);
+        }
+        try {
+            long seconds = Long.parseLong(maxAge);
+            return seconds > 0 ? new Freshness(Duration.ofSeconds(seconds)) : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    record Freshness(Duration lifetime) {
+    }
+
+    private static HttpHeaders storedHeaders(HttpHeaders headers) {
+        HttpHeaders stored = new HttpHeaders();
+        headers.forEach((name, values) -> {
+            if (UNCACHED_HEADERS.stream().noneMatch(name::equalsIgnoreCase)) {
+                stored.put(name, List.copyOf(values));
+            }
+        });
+        return HttpHeaders.readOnlyHttpHeaders(stored);
+    }
+
+    /**
+     * Copies the body chunks, as they go through, into a buffer of Netty's pooled allocator, up to a size limit.
+     * Only a complete body is copied out, once, into a direct buffer of its exact size; the pooled buffer goes back
+     * to the pool however the response ends.
+     */
+    private static final class BodyCapture {
+
+        private static final int INITIAL_CAPACITY = 8 * 1024;
+
+        private final int limit;
+        private final int initialCapacity;
+        private ByteBuf buffer;
+        private boolean overflow;
+
+        BodyCapture(long contentLength, int limit) {
+            this.limit = limit;
+            this.initialCapacity = contentLength >= 0 && contentLength <= limit
+                    ? (int) contentLength
+                    : Math.min(INITIAL_CAPACITY, limit);
+        }
+
+        void append(DataBuffer data) {
+            int length = data.readableByteCount();
+            if (overflow || (buffer != null ? buffer.readableBytes() : 0) + length > limit) {
+                overflow = true;
+                release();
+                return;
+            }
+            if (buffer == null) {
+                buffer = PooledByteBufAllocator.DEFAULT.directBuffer(initialCapacity, limit);
+            }
+            try (DataBuffer.ByteBufferIterator chunks = data.readableByteBuffers()) {
+                while (chunks.hasNext()) {
+                    buffer.writeBytes(chunks.next());
+                }
+            }
+        }
+
+        // Exact-size copy of the body, or null when it went over the limit
+        ByteBuffer result() {
+            if (overflow) {
+                return null;
+            }
+            ByteBuffer body = ByteBuffer.allocateDirect(buffer != null ? buffer.readableBytes() : 0);
+            if (buffer != null) {
+                buffer.getBytes(buffer.readerIndex(), body);
+            }
+            return body.flip();
+        }
+
+        void release() {
+            if (buffer != null) {
+                buffer.release();
+                buffer = null;
+            }
+        }
+    }
+
+    @Getter
+    @Setter
+    public static class Config {
+        // Request paths (before StripPrefix) whose GET responses are cached; hits are served before
+        // AuthenticationFilter runs, so this must only cover paths it already lets through publicly
+        private String pattern = "/api/*/produits/**";
+    }
+}
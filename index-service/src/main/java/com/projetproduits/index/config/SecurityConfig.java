@@ -31,8 +31,11 @@ public class SecurityConfig {
                 .csrf(ServerHttpSecurity.CsrfSpec::disable)
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
                 .authorizeExchange(exchanges -> exchanges
+                        .pathMatchers("/auth/password-hashing/**").hasRole("ADMIN")
                         .pathMatchers("/auth/**").permitAll()
                         .pathMatchers(HttpMethod.OPTIONS).permitAll()
+                        // Services purging the gateway cache present the purge token, checked by GatewayCacheController
+                        .pathMatchers(HttpMethod.POST, "/internal/cache/purge/*").permitAll()
                         // Allow public GET access to products for homepage
                         .pathMatchers(HttpMethod.GET, "/api/homme/produits", "/api/homme/produits/**").permitAll()
                         .pathMatchers(HttpMethod.GET, "/api/femme/produits", "/api/femme/produits/**").permitAll()
@@ -56,6 +59,8 @@ public class SecurityConfig {
         ));
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
         configuration.setAllowedHeaders(List.of("*"));
+        // Let browsers read the validators of catalog responses so they can revalidate with If-None-Match
+        configuration.setExposedHeaders(List.of("ETag", "Last-Modified"));
         configuration.setAllowCredentials(true);
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
@@ -53,6 +53,12 @@ public class AuthController {
         return Mono.just(ResponseEntity.ok(ApiResponse.success("Token is valid", "Valid")));
     }
 
+    @GetMapping("/password-hashing/stats")
+    public Mono<ResponseEntity<ApiResponse<PasswordHashingStatsDto>>> getPasswordHashingStats() {
+        log.info("GET /auth/password-hashing/stats - Fetching password hashing statistics");
+        return Mono.just(ResponseEntity.ok(ApiResponse.success(authService.getPasswordHashingStats())));
+    }
+
     @DeleteMapping("/users/username/{username}")
     public Mono<ResponseEntity<ApiResponse<Void>>> deleteUserByUsername(@PathVariable String username) {
         log.info("Delete user request for username: {}", username);
@@ -0,0 +1,54 @@
+package com.projetproduits.index.controller;
+
+import com.projetproduits.index.config.GatewayResponseCache;
+import com.projetproduits.index.config.ResponseCacheFilter;
+import com.projetproduits.index.dto.ApiResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Purge of the gateway response cache, called by homme-service and femme-service once a product write has
+ * committed, including writes they received directly. Callers present the shared gateway-cache.purge-token;
+ * without a token configured every purge is refused.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/internal/cache")
+public class GatewayCacheController {
+
+    public static final String TOKEN_HEADER = "X-Purge-Token";
+
+    private final GatewayResponseCache cache;
+    private final byte[] token;
+
+    public GatewayCacheController(GatewayResponseCache cache, @Value("${gateway-cache.purge-token:}") String token) {
+        this.cache = cache;
+        this.token = token.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @PostMapping("/purge/{routeId}")
+    public Mono<ResponseEntity<ApiResponse<Void>>> purge(
+            @PathVariable String routeId,
+            @RequestHeader(value = TOKEN_HEADER, required = false) String presented) {
+        // Constant-time comparison, the endpoint is reachable on the public port of the gateway
+        if (token.length == 0 || presented == null
+                || !MessageDigest.isEqual(token, presented.getBytes(StandardCharsets.UTF_8))) {
+            log.warn("Refused a gateway cache purge of {}", routeId);
+            return Mono.just(ResponseEntity.status(HttpStatus.FORBIDDEN).body(ApiResponse.error("Invalid purge token")));
+        }
+        cache.invalidate(ResponseCacheFilter.scope(routeId));
+        log.debug("POST /internal/cache/purge/{} - Gateway cache purged", routeId);
+        return Mono.just(ResponseEntity.ok(ApiResponse.<Void>success("Cache purged", null)));
+    }
+}
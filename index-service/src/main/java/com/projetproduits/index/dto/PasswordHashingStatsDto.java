@@ -0,0 +1,22 @@
+package com.projetproduits.index.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PasswordHashingStatsDto {
+
+    private int threads;
+    private int queueCapacity;
+    private int inFlight;
+    private int queued;
+    private long completed;
+    private long rejected;
+    private double averageMillis;
+    private double maxMillis;
+}
@@ -0,0 +1,52 @@
+package com.projetproduits.index.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+
+/**
+ * A user still to be created in the homme or femme database, written in the same transaction as the user.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("user_sync_outbox")
+public class UserSyncOutbox {
+
+    @Id
+    private Long id;
+
+    @Column("username")
+    private String username;
+
+    @Column("email")
+    private String email;
+
+    @Column("genre")
+    private Genre genre;
+
+    @Column("attempts")
+    private Integer attempts;
+
+    @Column("rejections")
+    private Integer rejections;
+
+    @Column("next_attempt_at")
+    private LocalDateTime nextAttemptAt;
+
+    @Column("dead_lettered_at")
+    private LocalDateTime deadLetteredAt;
+
+    @Column("last_error")
+    private String lastError;
+
+    @Column("created_at")
+    private LocalDateTime createdAt;
+}
@@ -2,6 +2,7 @@ package com.projetproduits.index.exception;
 
 import com.projetproduits.index.dto.ApiResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -41,6 +42,15 @@ public class GlobalExceptionHandler {
                 .body(ApiResponse.error(ex.getMessage())));
     }
 
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public Mono<ResponseEntity<ApiResponse<Void>>> handleServiceUnavailable(ServiceUnavailableException ex) {
+        log.warn("Service unavailable: {}", ex.getMessage());
+        return Mono.just(ResponseEntity
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(ApiResponse.error(ex.getMessage())));
+    }
+
     @ExceptionHandler(WebExchangeBindException.class)
     public Mono<ResponseEntity<ApiResponse<Map<String, String>>>> handleValidationErrors(WebExchangeBindException ex) {
         Map<String, String> errors = new HashMap<>();
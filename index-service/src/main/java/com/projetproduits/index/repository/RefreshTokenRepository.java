@@ -6,7 +6,7 @@ import org.springframework.stereotype.Repository;
 import reactor.core.publisher.Mono;
 
 @Repository
-public interface RefreshTokenRepository extends ReactiveCrudRepository<RefreshToken, Long> {
+public interface RefreshTokenRepository extends ReactiveCrudRepository<RefreshToken, Long>, RefreshTokenRepositoryCustom {
 
     Mono<RefreshToken> findByToken(String token);
 
@@ -0,0 +1,27 @@
+package com.projetproduits.index.repository;
+
+import com.projetproduits.index.entity.User;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+public interface RefreshTokenRepositoryCustom {
+
+    /**
+     * Outcome of a rotation: the token's user, and whether the presented token had already expired,
+     * in which case it was deleted and no new token was issued.
+     */
+    record Rotation(User user, boolean expired) {
+    }
+
+    /**
+     * Consumes the presented token and, if it has not expired, revokes the user's other tokens and stores
+     * the new one, in a single statement. Empty if the token does not exist or was consumed concurrently.
+     */
+    Mono<Rotation> rotate(String token, String newToken, LocalDateTime newExpiryDate, LocalDateTime now);
+
+    /**
+     * Deletes at most limit tokens expired before now, returning how many were deleted.
+     */
+    Mono<Long> deleteExpired(LocalDateTime now, int limit);
+}
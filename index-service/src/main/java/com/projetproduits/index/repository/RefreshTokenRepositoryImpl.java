@@ -0,0 +1,63 @@
+package com.projetproduits.index.repository;
+
+import com.projetproduits.index.entity.User;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+@RequiredArgsConstructor
+class RefreshTokenRepositoryImpl implements RefreshTokenRepositoryCustom {
+
+    // The DELETE of the presented token is what claims it: a concurrent rotation of the same token waits
+    // for the row lock, then finds it gone and returns no row. Other tokens of the user are only revoked,
+    // and a new one only issued, when the presented token is still valid. The sub-statements share one
+    // snapshot, so revoked leaves the presented row to the first DELETE.
+    private static final String ROTATE_SQL = """
+            WITH presented AS (
+                DELETE FROM refresh_tokens WHERE token = :token
+                RETURNING user_id, expiry_date
+            ), revoked AS (
+                DELETE FROM refresh_tokens
+                WHERE user_id IN (SELECT user_id FROM presented WHERE expiry_date >= :now)
+                AND token <> :token
+                RETURNING id
+            ), issued AS (
+                INSERT INTO refresh_tokens (user_id, token, expiry_date, created_at)
+                SELECT user_id, :newToken, :newExpiryDate, :now FROM presented WHERE expiry_date >= :now
+                RETURNING id
+            )
+            SELECT u.*, p.expiry_date < :now AS expired
+            FROM presented p JOIN users u ON u.id = p.user_id
+            """;
+
+    private static final String DELETE_EXPIRED_SQL = """
+            DELETE FROM refresh_tokens
+            WHERE id IN (SELECT id FROM refresh_tokens WHERE expiry_date < :now LIMIT :limit)
+            """;
+
+    private final R2dbcEntityTemplate template;
+
+    @Override
+    public Mono<Rotation> rotate(String token, String newToken, LocalDateTime newExpiryDate, LocalDateTime now) {
+        return template.getDatabaseClient().sql(ROTATE_SQL)
+                .bind("token", token)
+                .bind("newToken", newToken)
+                .bind("newExpiryDate", newExpiryDate)
+                .bind("now", now)
+                .map((row, metadata) -> new Rotation(
+                        template.getConverter().read(User.class, row, metadata),
+                        Boolean.TRUE.equals(row.get("expired", Boolean.class))))
+                .one();
+    }
+
+    @Override
+    public Mono<Long> deleteExpired(LocalDateTime now, int limit) {
+        return template.getDatabaseClient().sql(DELETE_EXPIRED_SQL)
+                .bind("now", now)
+                .bind("limit", limit)
+                .fetch()
+                .rowsUpdated();
+    }
+}
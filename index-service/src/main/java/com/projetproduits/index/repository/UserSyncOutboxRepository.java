@@ -0,0 +1,64 @@
+package com.projetproduits.index.repository;
+
+import com.projetproduits.index.entity.UserSyncOutbox;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+@Repository
+public interface UserSyncOutboxRepository extends ReactiveCrudRepository<UserSyncOutbox, Long> {
+
+    /**
+     * Claims at most limit due rows that are not dead-lettered by pushing their next attempt to leaseUntil, so another relay, or the next
+     * run if this one dies, skips them until the lease ends. Rows locked by a concurrent claim are skipped.
+     */
+    @Query("""
+            UPDATE user_sync_outbox SET next_attempt_at = :leaseUntil
+            WHERE id IN (
+                SELECT id FROM user_sync_outbox WHERE next_attempt_at <= :now AND dead_lettered_at IS NULL
+                ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED
+            )
+            RETURNING *
+            """)
+    Flux<UserSyncOutbox> claimDue(LocalDateTime now, LocalDateTime leaseUntil, int limit);
+
+    /**
+     * Schedules the next attempt of each row after an exponential backoff: initialBackoffSeconds doubled per
+     * failed attempt, at most maxBackoffSeconds.
+     */
+    @Modifying
+    @Query("""
+            UPDATE user_sync_outbox
+            SET attempts = attempts + 1,
+                next_attempt_at = :now + make_interval(secs => LEAST(
+                        :initialBackoffSeconds * power(2, LEAST(attempts, 20)), :maxBackoffSeconds)),
+                last_error = :lastError
+            WHERE id IN (:ids)
+            """)
+    Mono<Integer> markFailed(Collection<Long> ids, LocalDateTime now, double initialBackoffSeconds,
+                             double maxBackoffSeconds, String lastError);
+
+    /**
+     * Same as markFailed, for rows the service refused, and dead-letters those refused maxRejections times.
+     * Returns the updated rows.
+     */
+    @Query("""
+            UPDATE user_sync_outbox
+            SET attempts = attempts + 1,
+                rejections = rejections + 1,
+                next_attempt_at = :now + make_interval(secs => LEAST(
+                        :initialBackoffSeconds * power(2, LEAST(attempts, 20)), :maxBackoffSeconds)),
+                dead_lettered_at = CASE WHEN rejections + 1 >= :maxRejections THEN :now END,
+                last_error = :lastError
+            WHERE id IN (:ids)
+            RETURNING *
+            """)
+    Flux<UserSyncOutbox> markRejected(Collection<Long> ids, LocalDateTime now, double initialBackoffSeconds,
+                                      double maxBackoffSeconds, int maxRejections, String lastError);
+}
@@ -1,5 +1,6 @@
 package com.projetproduits.index.security;
 
+import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpHeaders;
@@ -27,12 +28,15 @@ public class JwtAuthenticationFilter implements WebFilter {
     public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
         String token = extractToken(exchange.getRequest());
 
-        if (StringUtils.hasText(token) && jwtTokenProvider.validateToken(token)) {
-            String username = jwtTokenProvider.extractUsername(token);
-            String role = jwtTokenProvider.extractRole(token);
+        Claims claims = StringUtils.hasText(token) ? jwtTokenProvider.verify(token) : null;
+
+        if (claims != null) {
+            // Read by AuthenticationFilter, so the token is verified once per request
+            exchange.getAttributes().put(JwtTokenProvider.CLAIMS_ATTRIBUTE, claims);
+            String role = JwtTokenProvider.role(claims);
 
             UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                    username,
+                    claims.getSubject(),
                     null,
                     Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + role))
             );
@@ -0,0 +1,129 @@
+package com.projetproduits.index.security;
+
+import com.projetproduits.index.dto.PasswordHashingStatsDto;
+import com.projetproduits.index.exception.ServiceUnavailableException;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs the BCrypt work of the PasswordEncoder on its own bounded scheduler, off the Netty event loop,
+ * so a burst of logins does not stall the requests proxied by the same loop.
+ * At most threads hashes run at once and queue-capacity more wait; beyond that a request fails at once
+ * with ServiceUnavailableException (503) rather than queueing behind work it would time out waiting for.
+ */
+@Component
+public class PasswordHasher {
+
+    private static final int QUEUED = 0;
+    private static final int RUNNING = 1;
+    private static final int RELEASED = 2;
+
+    private final PasswordEncoder passwordEncoder;
+    private final int threads;
+    private final int queueCapacity;
+    private final Scheduler scheduler;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    public PasswordHasher(
+            PasswordEncoder passwordEncoder,
+            @Value("${password-hashing.threads:0}") int threads,
+            @Value("${password-hashing.queue-capacity:64}") int queueCapacity) {
+        this.passwordEncoder = passwordEncoder;
+        // BCrypt is CPU bound: by default one thread per core
+        this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.queueCapacity = queueCapacity;
+        this.scheduler = Schedulers.newBoundedElastic(this.threads, queueCapacity, "password-hashing");
+    }
+
+    public Mono<String> encode(CharSequence rawPassword) {
+        return submit(() -> passwordEncoder.encode(rawPassword));
+    }
+
+    public Mono<Boolean> matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(() -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    public PasswordHashingStatsDto getStats() {
+        long count = completed.sum();
+        int running = inFlight.get();
+        return PasswordHashingStatsDto.builder()
+                .threads(threads)
+                .queueCapacity(queueCapacity)
+                .inFlight(running)
+                .queued(Math.max(running - threads, 0))
+                .completed(count)
+                .rejected(rejected.sum())
+                .averageMillis(count > 0 ? totalNanos.sum() / 1e6 / count : 0)
+                .maxMillis(maxNanos.get() / 1e6)
+                .build();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scheduler.dispose();
+    }
+
+    // Admission is counted here rather than left to the scheduler, so an overloaded hasher rejects
+    // before anything is scheduled and the queue depth can be reported.
+    // A hash holds its slot until BCrypt returns, even when the caller cancels meanwhile (a client
+    // disconnecting), since the thread stays busy; only a hash that never started gives its slot back at once
+    private <T> Mono<T> submit(Callable<T> hash) {
+        return Mono.defer(() -> {
+            if (inFlight.incrementAndGet() > threads + queueCapacity) {
+                inFlight.decrementAndGet();
+                rejected.increment();
+                return Mono.error(overloaded());
+            }
+            AtomicInteger state = new AtomicInteger(QUEUED);
+            return Mono.fromCallable(() -> {
+                        if (!state.compareAndSet(QUEUED, RUNNING)) {
+                            // Cancelled while queued: the slot is already released
+                            return null;
+                        }
+                        long start = System.nanoTime();
+                        try {
+                            T result = hash.call();
+                            long elapsed = System.nanoTime() - start;
+                            totalNanos.add(elapsed);
+                            maxNanos.accumulateAndGet(elapsed, Math::max);
+                            completed.increment();
+                            return result;
+                        } finally {
+                            state.set(RELEASED);
+                            inFlight.decrementAndGet();
+                        }
+                    })
+                    .subscribeOn(scheduler)
+                    .doFinally(signal -> {
+                        // Cancelled or rejected by the scheduler before the hash started
+                        if (state.compareAndSet(QUEUED, RELEASED)) {
+                            inFlight.decrementAndGet();
+                        }
+                    })
+                    .onErrorMap(RejectedExecutionException.class, e -> {
+                        rejected.increment();
+                        return overloaded();
+                    });
+        });
+    }
+
+    private static ServiceUnavailableException overloaded() {
+        return new ServiceUnavailableException("Too many authentication requests, please retry");
+    }
+}
@@ -5,16 +5,19 @@ import com.projetproduits.index.entity.Genre;
 import com.projetproduits.index.entity.RefreshToken;
 import com.projetproduits.index.entity.Role;
 import com.projetproduits.index.entity.User;
+import com.projetproduits.index.entity.UserSyncOutbox;
 import com.projetproduits.index.exception.InvalidCredentialsException;
 import com.projetproduits.index.exception.TokenRefreshException;
 import com.projetproduits.index.exception.UserAlreadyExistsException;
 import com.projetproduits.index.repository.RefreshTokenRepository;
 import com.projetproduits.index.repository.UserRepository;
+import com.projetproduits.index.repository.UserSyncOutboxRepository;
 import com.projetproduits.index.security.JwtTokenProvider;
+import com.projetproduits.index.security.PasswordHasher;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
 import reactor.core.publisher.Mono;
 
 import java.time.LocalDateTime;
@@ -27,79 +30,90 @@ public class AuthService {
 
     private final UserRepository userRepository;
     private final RefreshTokenRepository refreshTokenRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
     private final JwtTokenProvider jwtTokenProvider;
-    private final UserSyncService userSyncService;
+    private final UserSyncOutboxRepository userSyncOutboxRepository;
+    private final TransactionalOperator transactionalOperator;
 
     private static final long REFRESH_TOKEN_VALIDITY_DAYS = 7;
 
+    // The downstream homme/femme user is written to the outbox with the user and created by UserSyncRelay,
+    // so registration does not wait on, or fail with, the genre service
     public Mono<AuthResponse> register(RegisterRequest request) {
-        return userRepository.existsByUsername(request.getUsername())
-                .flatMap(existsByUsername -> {
-                    if (existsByUsername) {
+        return Mono.zip(
+                        userRepository.existsByUsername(request.getUsername()),
+                        userRepository.existsByEmail(request.getEmail()))
+                .flatMap(exists -> {
+                    if (exists.getT1()) {
                         return Mono.error(new UserAlreadyExistsException("Username already exists"));
                     }
-                    return userRepository.existsByEmail(request.getEmail());
-                })
-                .flatMap(existsByEmail -> {
-                    if (existsByEmail) {
+                    if (exists.getT2()) {
                         return Mono.error(new UserAlreadyExistsException("Email already exists"));
                     }
-                    
+                    return passwordHasher.encode(request.getPassword());
+                })
+                .flatMap(encodedPassword -> {
                     User user = User.builder()
                             .username(request.getUsername())
                             .email(request.getEmail())
-                            .password(passwordEncoder.encode(request.getPassword()))
+                            .password(encodedPassword)
                             .role(Role.USER)
                             .genre(Genre.valueOf(request.getGenre().toUpperCase()))
                             .enabled(true)
                             .createdAt(LocalDateTime.now())
                             .updatedAt(LocalDateTime.now())
                             .build();
-                    
-                    return userRepository.save(user);
+
+                    return userRepository.save(user)
+                            .flatMap(savedUser -> userSyncOutboxRepository.save(UserSyncOutbox.builder()
+                                            .username(savedUser.getUsername())
+                                            .email(savedUser.getEmail())
+                                            .genre(savedUser.getGenre())
+                                            .attempts(0)
+                                            .rejections(0)
+                                            .nextAttemptAt(LocalDateTime.now())
+                                            .createdAt(LocalDateTime.now())
+                                            .build())
+                                    .thenReturn(savedUser))
+                            .as(transactionalOperator::transactional);
                 })
-                .flatMap(savedUser -> {
-                    // Sync user to the appropriate genre-specific database (homme or femme)
-                    return userSyncService.syncUserToGenreDatabase(
-                            savedUser.getUsername(),
-                            savedUser.getEmail(),
-                            savedUser.getGenre().name()
-                    ).then(generateAuthResponse(savedUser));
-                });
+                .flatMap(this::generateAuthResponse);
     }
 
     public Mono<AuthResponse> login(LoginRequest request) {
         return userRepository.findByUsername(request.getUsername())
                 .switchIfEmpty(Mono.error(new InvalidCredentialsException("Invalid username or password")))
-                .flatMap(user -> {
-                    if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
-                        return Mono.error(new InvalidCredentialsException("Invalid username or password"));
-                    }
-                    if (!user.getEnabled()) {
-                        return Mono.error(new InvalidCredentialsException("Account is disabled"));
-                    }
-                    return generateAuthResponse(user);
-                });
+                .flatMap(user -> passwordHasher.matches(request.getPassword(), user.getPassword())
+                        .flatMap(matches -> {
+                            if (!matches) {
+                                return Mono.error(new InvalidCredentialsException("Invalid username or password"));
+                            }
+                            if (!user.getEnabled()) {
+                                return Mono.error(new InvalidCredentialsException("Account is disabled"));
+                            }
+                            return generateAuthResponse(user);
+                        }));
     }
 
+    // One round trip: the presented token is consumed and replaced, and its user read, by a single statement
     public Mono<AuthResponse> refreshToken(RefreshTokenRequest request) {
-        return refreshTokenRepository.findByToken(request.getRefreshToken())
+        String refreshToken = UUID.randomUUID().toString();
+        LocalDateTime now = LocalDateTime.now();
+        return refreshTokenRepository.rotate(request.getRefreshToken(), refreshToken,
+                        now.plusDays(REFRESH_TOKEN_VALIDITY_DAYS), now)
                 .switchIfEmpty(Mono.error(new TokenRefreshException("Invalid refresh token")))
-                .flatMap(token -> {
-                    if (token.getExpiryDate().isBefore(LocalDateTime.now())) {
-                        return refreshTokenRepository.delete(token)
-                                .then(Mono.error(new TokenRefreshException("Refresh token has expired")));
+                .flatMap(rotation -> {
+                    if (rotation.expired()) {
+                        return Mono.error(new TokenRefreshException("Refresh token has expired"));
                     }
-                    return userRepository.findById(token.getUserId());
-                })
-                .flatMap(user -> {
-                    // Delete old refresh token and generate new tokens
-                    return refreshTokenRepository.deleteByUserId(user.getId())
-                            .then(generateAuthResponse(user));
+                    return Mono.just(buildAuthResponse(rotation.user(), refreshToken));
                 });
     }
 
+    public PasswordHashingStatsDto getPasswordHashingStats() {
+        return passwordHasher.getStats();
+    }
+
     public Mono<Void> logout(String refreshToken) {
         return refreshTokenRepository.deleteByToken(refreshToken);
     }
@@ -125,7 +139,6 @@ public class AuthService {
     }
 
     private Mono<AuthResponse> generateAuthResponse(User user) {
-        String accessToken = jwtTokenProvider.generateToken(user.getUsername(), user.getRole().name());
         String refreshToken = UUID.randomUUID().toString();
 
         RefreshToken refreshTokenEntity = RefreshToken.builder()
@@ -136,18 +149,24 @@ public class AuthService {
                 .build();
 
         return refreshTokenRepository.save(refreshTokenEntity)
-                .map(savedToken -> AuthResponse.builder()
-                        .accessToken(accessToken)
-                        .refreshToken(refreshToken)
-                        .tokenType("Bearer")
-                        .expiresIn(jwtTokenProvider.getJwtExpiration())
-                        .user(UserDto.builder()
-                                .id(user.getId())
-                                .username(user.getUsername())
-                                .email(user.getEmail())
-                                .role(user.getRole())
-                                .genre(user.getGenre() != null ? user.getGenre().name() : "HOMME")
-                                .build())
-                        .build());
+                .map(savedToken -> buildAuthResponse(user, refreshToken));
+    }
+
+    private AuthResponse buildAuthResponse(User user, String refreshToken) {
+        String accessToken = jwtTokenProvider.generateToken(user.getUsername(), user.getRole().name());
+
+        return AuthResponse.builder()
+                .accessToken(accessToken)
+                .refreshToken(refreshToken)
+                .tokenType("Bearer")
+                .expiresIn(jwtTokenProvider.getJwtExpiration())
+                .user(UserDto.builder()
+                        .id(user.getId())
+                        .username(user.getUsername())
+                        .email(user.getEmail())
+                        .role(user.getRole())
+                        .genre(user.getGenre() != null ? user.getGenre().name() : "HOMME")
+                        .build())
+                .build();
     }
 }
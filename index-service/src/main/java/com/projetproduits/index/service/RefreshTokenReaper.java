@@ -0,0 +1,51 @@
+package com.projetproduits.index.service;
+
+import com.projetproduits.index.repository.RefreshTokenRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+/**
+ * Deletes expired refresh tokens in the background; otherwise only the tokens presented after their expiry
+ * would ever be removed. Each statement deletes one bounded batch, so a large backlog never holds locks
+ * on many rows at once; batches follow one another until a partial one shows nothing is left.
+ */
+@Slf4j
+@Component
+public class RefreshTokenReaper {
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final int batchSize;
+
+    public RefreshTokenReaper(
+            RefreshTokenRepository refreshTokenRepository,
+            @Value("${refresh-tokens.reaper.batch-size:1000}") int batchSize) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.batchSize = batchSize;
+    }
+
+    // Subscribed by the scheduler, which waits for completion before counting the delay
+    @Scheduled(fixedDelayString = "${refresh-tokens.reaper.interval:PT10M}",
+            initialDelayString = "${refresh-tokens.reaper.interval:PT10M}")
+    public Mono<Void> reap() {
+        LocalDateTime now = LocalDateTime.now();
+        return refreshTokenRepository.deleteExpired(now, batchSize)
+                .expand(deleted -> deleted < batchSize ? Mono.empty() : refreshTokenRepository.deleteExpired(now, batchSize))
+                .reduce(0L, Long::sum)
+                .doOnNext(total -> {
+                    if (total > 0) {
+                        log.info("Deleted {} expired refresh token(s)", total);
+                    }
+                })
+                .onErrorResume(e -> {
+                    // Retried at the next run
+                    log.error("Failed to delete expired refresh tokens", e);
+                    return Mono.empty();
+                })
+                .then();
+    }
+}
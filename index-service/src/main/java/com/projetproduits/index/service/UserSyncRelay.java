@@ -0,0 +1,165 @@
+package com.projetproduits.index.service;
+
+import com.projetproduits.index.entity.Genre;
+import com.projetproduits.index.entity.UserSyncOutbox;
+import com.projetproduits.index.repository.UserSyncOutboxRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Delivers the users written to user_sync_outbox at registration to the homme or femme service.
+ * Due rows are claimed in batches, and each batch is coalesced into one upsert request per genre.
+ * Delivered rows are deleted, failed ones are retried with an exponential backoff. A service that is down
+ * (timeout, transport error, 5xx) is retried without limit, so it only delays its users. A batch answered with a
+ * 4xx is split in halves, sent again, until only the rows refused on their own are left. A row the service
+ * refuses (rejected as invalid, or a 4xx response to it alone) is retried max-rejections times, then
+ * dead-lettered: it stays in the table with its last error and is no longer sent. Delivery is at least once, which the upsert by email
+ * makes harmless.
+ */
+@Slf4j
+@Component
+public class UserSyncRelay {
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final UserSyncOutboxRepository outboxRepository;
+    private final UserSyncService userSyncService;
+    private final int batchSize;
+    private final Duration timeout;
+    private final Duration lease;
+    private final double initialBackoffSeconds;
+    private final double maxBackoffSeconds;
+    private final int maxRejections;
+
+    public UserSyncRelay(
+            UserSyncOutboxRepository outboxRepository,
+            UserSyncService userSyncService,
+            @Value("${user-sync.relay.batch-size:5000}") int batchSize,
+            @Value("${user-sync.relay.timeout:30s}") Duration timeout,
+            @Value("${user-sync.relay.initial-backoff:5s}") Duration initialBackoff,
+            @Value("${user-sync.relay.max-backoff:1h}") Duration maxBackoff,
+            @Value("${user-sync.relay.max-rejections:5}") int maxRejections) {
+        this.outboxRepository = outboxRepository;
+        this.userSyncService = userSyncService;
+        this.batchSize = batchSize;
+        this.timeout = timeout;
+        // Outlives the requests of a batch, so a claimed row is not claimed again while it is being sent
+        this.lease = timeout.multipliedBy(3);
+        this.initialBackoffSeconds = initialBackoff.toMillis() / 1000.0;
+        this.maxBackoffSeconds = maxBackoff.toMillis() / 1000.0;
+        this.maxRejections = maxRejections;
+    }
+
+    @Scheduled(fixedDelayString = "${user-sync.relay.interval:PT1S}")
+    public Mono<Void> relay() {
+        return relayBatch()
+                .expand(claimed -> claimed < batchSize ? Mono.empty() : relayBatch())
+                .onErrorResume(e -> {
+                    // Rows already claimed are retried once their lease ends
+                    log.error("User sync relay failed", e);
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    // Emits the number of rows claimed
+    private Mono<Integer> relayBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        return outboxRepository.claimDue(now, now.plus(lease), batchSize)
+                .collectList()
+                .flatMap(rows -> {
+                    Map<Genre, List<UserSyncOutbox>> byGenre = rows.stream()
+                            .collect(Collectors.groupingBy(UserSyncOutbox::getGenre));
+                    return Flux.fromIterable(byGenre.entrySet())
+                            .flatMap(group -> deliver(group.getKey(), group.getValue()))
+                            .then(Mono.just(rows.size()));
+                });
+    }
+
+    private Mono<Void> deliver(Genre genre, List<UserSyncOutbox> rows) {
+        String service = "the " + genre.name().toLowerCase() + " service";
+        return userSyncService.syncUsersToGenreDatabase(genre, rows)
+                .timeout(timeout)
+                .flatMap(rejected -> {
+                    List<Long> delivered = new ArrayList<>(rows.size());
+                    List<Long> invalid = new ArrayList<>();
+                    for (int i = 0; i < rows.size(); i++) {
+                        (rejected.contains(i) ? invalid : delivered).add(rows.get(i).getId());
+                    }
+                    if (!invalid.isEmpty()) {
+                        log.warn("{} user(s) rejected by {}", invalid.size(), service);
+                    }
+                    return outboxRepository.deleteAllById(delivered)
+                            .then(rejected(invalid, "Rejected by " + service));
+                })
+                .onErrorResume(error -> {
+                    List<Long> ids = rows.stream().map(UserSyncOutbox::getId).toList();
+                    if (isRefusal(error) && rows.size() > 1) {
+                        // One bad row must not cost the whole batch a rejection: the halves are sent on their
+                        // own, down to the single rows that are still refused
+                        log.warn("Sync of {} user(s) refused by {}, splitting the batch: {}",
+                                rows.size(), service, error.getMessage());
+                        int half = rows.size() / 2;
+                        return deliver(genre, rows.subList(0, half))
+                                .then(deliver(genre, rows.subList(half, rows.size())));
+                    }
+                    if (isRefusal(error)) {
+                        log.warn("Sync of user {} refused by {}: {}", rows.get(0).getEmail(), service, error.getMessage());
+                        return rejected(ids, String.valueOf(error.getMessage()));
+                    }
+                    log.warn("Sync of {} user(s) to {} failed, retrying later: {}",
+                            rows.size(), service, error.getMessage());
+                    return failed(ids, String.valueOf(error.getMessage()));
+                });
+    }
+
+    // A 4xx answers the request itself, and sending it again gets the same answer; 408 and 429 only ask to
+    // come back later. Anything else, timeouts and transport errors included, is the service being unavailable
+    private static boolean isRefusal(Throwable error) {
+        if (!(error instanceof WebClientResponseException response)) {
+            return false;
+        }
+        int status = response.getStatusCode().value();
+        return response.getStatusCode().is4xxClientError()
+                && status != HttpStatus.REQUEST_TIMEOUT.value()
+                && status != HttpStatus.TOO_MANY_REQUESTS.value();
+    }
+
+    private Mono<Void> failed(List<Long> ids, String error) {
+        if (ids.isEmpty()) {
+            return Mono.empty();
+        }
+        return outboxRepository.markFailed(ids, LocalDateTime.now(), initialBackoffSeconds, maxBackoffSeconds,
+                        truncate(error))
+                .then();
+    }
+
+    private Mono<Void> rejected(List<Long> ids, String error) {
+        if (ids.isEmpty()) {
+            return Mono.empty();
+        }
+        return outboxRepository.markRejected(ids, LocalDateTime.now(), initialBackoffSeconds, maxBackoffSeconds,
+                        maxRejections, truncate(error))
+                .filter(row -> row.getDeadLetteredAt() != null)
+                .doOnNext(row -> log.error("Dead-lettered the sync of user {} to the {} database after {} rejection(s): {}",
+                        row.getEmail(), row.getGenre(), row.getRejections(), row.getLastError()))
+                .then();
+    }
+
+    private static String truncate(String error) {
+        return error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+    }
+}
@@ -1,17 +1,26 @@
 package com.projetproduits.index.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.projetproduits.index.entity.Genre;
+import com.projetproduits.index.entity.UserSyncOutbox;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
 
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @Slf4j
 @Service
 public class UserSyncService {
 
+    // Default age, can be updated later by the user; existing users keep theirs
+    private static final int DEFAULT_AGE = 25;
+
     private final WebClient hommeServiceWebClient;
     private final WebClient femmeServiceWebClient;
 
@@ -23,51 +32,47 @@ public class UserSyncService {
     }
 
     /**
-     * Creates a user in the appropriate genre-specific database (homme or femme)
-     * 
-     * @param username the username of the user
-     * @param email the email of the user
-     * @param genre the genre (HOMME or FEMME)
-     * @return a Mono that completes when the user is created
+     * Creates or updates users in the genre-specific database (homme or femme) with a single
+     * PUT /users/batch, an upsert by email, so sending the same users again is harmless.
+     * Called by UserSyncRelay, which retries on error.
+     *
+     * @param genre the genre of every user of the batch
+     * @param users the users to sync
+     * @return a Mono emitting the positions in users of the ones the service rejected as invalid,
+     * or erroring if the batch could not be sent
      */
-    public Mono<Void> syncUserToGenreDatabase(String username, String email, String genre) {
-        Map<String, Object> userPayload = Map.of(
-                "nom", username,
-                "email", email,
-                "age", 25  // Default age, can be updated later by the user
-        );
+    public Mono<Set<Integer>> syncUsersToGenreDatabase(Genre genre, List<UserSyncOutbox> users) {
+        WebClient webClient = genre == Genre.FEMME ? femmeServiceWebClient : hommeServiceWebClient;
+        String database = genre.name().toLowerCase();
+        List<Map<String, Object>> payload = users.stream()
+                .map(user -> Map.<String, Object>of(
+                        "nom", user.getUsername(),
+                        "email", user.getEmail(),
+                        "age", DEFAULT_AGE))
+                .toList();
+
+        log.info("Syncing {} user(s) to {} database", users.size(), database);
+        return webClient.put()
+                .uri("/users/batch")
+                .bodyValue(payload)
+                .retrieve()
+                .bodyToMono(JsonNode.class)
+                .map(UserSyncService::rejected)
+                .doOnSuccess(rejected -> log.info("Successfully synced {} user(s) to {} database",
+                        users.size() - rejected.size(), database))
+                .doOnError(error -> log.error("Failed to sync {} user(s) to {} database: {}",
+                        users.size(), database, error.getMessage()));
+    }
 
-        if ("HOMME".equalsIgnoreCase(genre)) {
-            log.info("Syncing user {} to homme database", email);
-            return hommeServiceWebClient.post()
-                    .uri("/users")
-                    .bodyValue(userPayload)
-                    .retrieve()
-                    .bodyToMono(String.class)
-                    .doOnSuccess(response -> log.info("Successfully synced user {} to homme database", email))
-                    .doOnError(error -> log.error("Failed to sync user {} to homme database: {}", email, error.getMessage()))
-                    .onErrorResume(error -> {
-                        log.warn("Could not sync user to homme database, continuing anyway: {}", error.getMessage());
-                        return Mono.empty();
-                    })
-                    .then();
-        } else if ("FEMME".equalsIgnoreCase(genre)) {
-            log.info("Syncing user {} to femme database", email);
-            return femmeServiceWebClient.post()
-                    .uri("/users")
-                    .bodyValue(userPayload)
-                    .retrieve()
-                    .bodyToMono(String.class)
-                    .doOnSuccess(response -> log.info("Successfully synced user {} to femme database", email))
-                    .doOnError(error -> log.error("Failed to sync user {} to femme database: {}", email, error.getMessage()))
-                    .onErrorResume(error -> {
-                        log.warn("Could not sync user to femme database, continuing anyway: {}", error.getMessage());
-                        return Mono.empty();
-                    })
-                    .then();
-        } else {
-            log.warn("Unknown genre {}, not syncing user {} to any database", genre, email);
-            return Mono.empty();
+    // Items of the BatchResult returned by the service that did not succeed
+    private static Set<Integer> rejected(JsonNode response) {
+        Set<Integer> rejected = new HashSet<>();
+        for (JsonNode item : response.path("data").path("items")) {
+            String status = item.path("status").asText();
+            if (!"CREATED".equals(status) && !"UPDATED".equals(status)) {
+                rejected.add(item.path("index").asInt());
+            }
         }
+        return rejected;
     }
 }
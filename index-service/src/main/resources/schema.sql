@@ -24,3 +24,25 @@ CREATE TABLE IF NOT EXISTS refresh_tokens (
 CREATE INDEX IF NOT EXISTS idx_users_username ON users(username);
 CREATE INDEX IF NOT EXISTS idx_users_email ON users(email);
 CREATE INDEX IF NOT EXISTS idx_refresh_tokens_token ON refresh_tokens(token);
+-- Rotation revokes a user's tokens; the reaper looks for expired ones
+CREATE INDEX IF NOT EXISTS idx_refresh_tokens_user_id ON refresh_tokens(user_id);
+CREATE INDEX IF NOT EXISTS idx_refresh_tokens_expiry_date ON refresh_tokens(expiry_date);
+
+-- Users still to be created in the homme or femme database, delivered by UserSyncRelay
+CREATE TABLE IF NOT EXISTS user_sync_outbox (
+    id BIGSERIAL PRIMARY KEY,
+    username VARCHAR(50) NOT NULL,
+    email VARCHAR(100) NOT NULL,
+    genre VARCHAR(10) NOT NULL,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    -- Failures the service will not get over by itself: users it rejected, 4xx responses
+    rejections INTEGER NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL,
+    -- Set once rejections reaches user-sync.relay.max-rejections; the relay no longer sends the row
+    dead_lettered_at TIMESTAMP,
+    last_error VARCHAR(500),
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_user_sync_outbox_next_attempt_at ON user_sync_outbox(next_attempt_at)
+    WHERE dead_lettered_at IS NULL;
@@ -0,0 +1,70 @@
+package com.projetproduits.index;
+
+import org.junit.jupiter.api.Assumptions;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * PostgreSQL for the tests that need the real database: a postgres:15 container, the version of docker-compose.yml,
+ * started once by Testcontainers, or, without Docker, the server given by -Dtest.postgres.url
+ * (e.g. jdbc:postgresql://localhost:5432/, with -Dtest.postgres.username and -Dtest.postgres.password).
+ * Without either, the calling test is skipped.
+ * Each test class gets its own database, dropped and created again on every run; the application creates
+ * its tables from schema.sql on startup.
+ */
+public final class PostgresTestDatabase {
+
+    private static PostgreSQLContainer<?> container;
+
+    private PostgresTestDatabase() {
+    }
+
+    /**
+     * Skips the calling test class when no server is available, before a Spring context tries to connect to it.
+     */
+    public static synchronized void assumeAvailable() {
+        serverUrl();
+    }
+
+    /**
+     * Creates an empty database and returns its R2DBC URL.
+     */
+    public static synchronized String create(String database) {
+        String server = serverUrl();
+        try (Connection admin = DriverManager.getConnection(server + "postgres", username(), password());
+             Statement statement = admin.createStatement()) {
+            statement.execute("DROP DATABASE IF EXISTS " + database + " WITH (FORCE)");
+            statement.execute("CREATE DATABASE " + database);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Cannot create the test database " + database, e);
+        }
+        return "r2dbc:" + server.substring("jdbc:".length()) + database;
+    }
+
+    public static String username() {
+        return container != null ? container.getUsername() : System.getProperty("test.postgres.username", "postgres");
+    }
+
+    public static String password() {
+        return container != null ? container.getPassword() : System.getProperty("test.postgres.password", "");
+    }
+
+    private static String serverUrl() {
+        String url = System.getProperty("test.postgres.url");
+        if (url != null && !url.isBlank()) {
+            return url.endsWith("/") ? url : url + "/";
+        }
+        if (container == null) {
+            Assumptions.assumeTrue(DockerClientFactory.instance().isDockerAvailable(),
+                    "Neither Docker nor -Dtest.postgres.url is available");
+            container = new PostgreSQLContainer<>("postgres:15-alpine");
+            container.start();
+        }
+        return "jdbc:postgresql://" + container.getHost() + ":" + container.getMappedPort(PostgreSQLContainer.POSTGRESQL_PORT) + "/";
+    }
+}
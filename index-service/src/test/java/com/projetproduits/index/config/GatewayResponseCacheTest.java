@@ -0,0 +1,80 @@
+package com.projetproduits.index.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GatewayResponseCacheTest {
+
+    private final GatewayResponseCache cache = new GatewayResponseCache(Duration.ofSeconds(30), DataSize.ofBytes(250), DataSize.ofBytes(100));
+
+    @Test
+    void evictsTheLeastRecentlyUsedEntriesOverTheSizeCap() {
+        put("a");
+        put("b");
+        cache.get("a");
+
+        put("c");
+
+        assertThat(cache.get("a")).isNotNull();
+        assertThat(cache.get("b")).isNull();
+        assertThat(cache.get("c")).isNotNull();
+    }
+
+    @Test
+    void countsAReplacedEntryOnce() {
+        put("a");
+        put("a");
+        put("b");
+
+        assertThat(cache.get("a")).isNotNull();
+        assertThat(cache.get("b")).isNotNull();
+    }
+
+    @Test
+    void ignoresABodyOverTheEntryLimit() {
+        cache.put("a", cache.generation(), HttpStatus.OK, new HttpHeaders(), ByteBuffer.allocateDirect(101), null);
+
+        assertThat(cache.get("a")).isNull();
+    }
+
+    @Test
+    void ignoresAResponseReadBeforeAPurge() {
+        long readAt = cache.generation();
+        cache.invalidate("homme-service ");
+
+        cache.put("homme-service /api/homme/produits", readAt, HttpStatus.OK, new HttpHeaders(), ByteBuffer.allocateDirect(10), null);
+
+        assertThat(cache.get("homme-service /api/homme/produits")).isNull();
+    }
+
+    @Test
+    void purgesOnlyTheEntriesOfARoute() {
+        put("homme-service /api/homme/produits");
+        put("femme-service /api/femme/produits");
+
+        cache.invalidate("homme-service ");
+
+        assertThat(cache.get("homme-service /api/homme/produits")).isNull();
+        assertThat(cache.get("femme-service /api/femme/produits")).isNotNull();
+    }
+
+    @Test
+    void expiresAnEntryAfterItsLifetime() throws InterruptedException {
+        cache.put("a", cache.generation(), HttpStatus.OK, new HttpHeaders(), ByteBuffer.allocateDirect(10), Duration.ofMillis(20));
+
+        Thread.sleep(50);
+
+        assertThat(cache.get("a")).isNull();
+    }
+
+    private void put(String key) {
+        cache.put(key, cache.generation(), HttpStatus.OK, new HttpHeaders(), ByteBuffer.allocateDirect(100), null);
+    }
+}
@@ -0,0 +1,240 @@
+package com.projetproduits.index.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the filter of the homme-service route on mock exchanges, in front of a stub of the service that answers
+ * every request with the status, Cache-Control and body a test sets and records the requests it receives.
+ */
+class ResponseCacheFilterTest {
+
+    private static final String PRODUITS = "/api/homme/produits";
+    private static final String ETAG = "\"2-1700000000000\"";
+
+    private final List<ServerWebExchange> upstream = new CopyOnWriteArrayList<>();
+    private HttpStatus status = HttpStatus.OK;
+    private String cacheControl = "max-age=0, must-revalidate, s-maxage=30";
+    private String body = "{\"success\":true,\"data\":[]}";
+
+    private GatewayResponseCache cache = new GatewayResponseCache(Duration.ofSeconds(30), DataSize.ofMegabytes(1), DataSize.ofKilobytes(64));
+
+    @Test
+    void servesTheSecondReadFromTheCache() {
+        MockServerWebExchange miss = get(PRODUITS);
+        MockServerWebExchange hit = get(PRODUITS);
+
+        assertThat(miss.getResponse().getHeaders().getFirst("X-Cache")).isEqualTo("MISS");
+        assertThat(hit.getResponse().getHeaders().getFirst("X-Cache")).isEqualTo("HIT");
+        assertThat(hit.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(hit.getResponse().getBodyAsString().block()).isEqualTo(body);
+        assertThat(hit.getResponse().getHeaders().getETag()).isEqualTo(ETAG);
+        assertThat(hit.getResponse().getHeaders().getFirst(HttpHeaders.AGE)).isEqualTo("0");
+        assertThat(upstream).hasSize(1);
+    }
+
+    @Test
+    void keysEntriesByQuery() {
+        get(PRODUITS + "?size=10");
+        get(PRODUITS + "?size=20");
+        get(PRODUITS + "?size=10");
+
+        assertThat(upstream).hasSize(2);
+    }
+
+    @Test
+    void readsAgainOnceTheEntryExpired() throws InterruptedException {
+        cache = new GatewayResponseCache(Duration.ofMillis(50), DataSize.ofMegabytes(1), DataSize.ofKilobytes(64));
+        get(PRODUITS);
+
+        Thread.sleep(100);
+
+        assertThat(get(PRODUITS).getResponse().getHeaders().getFirst("X-Cache")).isEqualTo("MISS");
+        assertThat(upstream).hasSize(2);
+    }
+
+    @Test
+    void keepsAnEntryNoLongerThanItsSharedMaxAge() throws InterruptedException {
+        cacheControl = "max-age=600, s-maxage=1";
+        get(PRODUITS);
+        assertThat(get(PRODUITS).getResponse().getHeaders().getFirst("X-Cache")).isEqualTo("HIT");
+
+        Thread.sleep(1100);
+
+        assertThat(get(PRODUITS).getResponse().getHeaders().getFirst("X-Cache")).isEqualTo("MISS");
+    }
+
+    @Test
+    void doesNotStoreWhatTheServiceSaysToRevalidate() {
+        for (String directives : List.of("no-cache", "max-age=0", "no-store", "private, max-age=60", "max-age=0, s-maxage=0")) {
+            cacheControl = directives;
+            get(PRODUITS);
+            get(PRODUITS);
+        }
+
+        assertThat(upstream).hasSize(10);
+    }
+
+    @Test
+    void doesNotStoreAnErrorOrABodyOverTheEntryLimit() {
+        status = HttpStatus.NOT_FOUND;
+        get(PRODUITS + "/1");
+        get(PRODUITS + "/1");
+        status = HttpStatus.OK;
+        body = "{\"data\":\"" + "x".repeat(70 * 1024) + "\"}";
+        get(PRODUITS);
+        MockServerWebExchange large = get(PRODUITS);
+
+        assertThat(upstream).hasSize(4);
+        assertThat(large.getResponse().getBodyAsString().block()).isEqualTo(body);
+    }
+
+    @Test
+    void purgesTheRouteOnASuccessfulWrite() {
+        get(PRODUITS);
+        get(PRODUITS + "/1");
+
+        status = HttpStatus.CREATED;
+        send(HttpMethod.POST, PRODUITS);
+        status = HttpStatus.OK;
+
+        assertThat(get(PRODUITS).getResponse().getHeaders().getFirst("X-Cache")).isEqualTo("MISS");
+        assertThat(get(PRODUITS + "/1").getResponse().getHeaders().getFirst("X-Cache")).isEqualTo("MISS");
+    }
+
+    @Test
+    void keepsTheEntriesWhenAWriteFails() {
+        get(PRODUITS);
+
+        status = HttpStatus.BAD_REQUEST;
+        send(HttpMethod.PUT, PRODUITS + "/1");
+        status = HttpStatus.OK;
+
+        assertThat(get(PRODUITS).getResponse().getHeaders().getFirst("X-Cache")).isEqualTo("HIT");
+    }
+
+    @Test
+    void answersAnUpToDateRevalidationFromTheCacheWith304() {
+        get(PRODUITS);
+
+        MockServerWebExchange revalidation = exchange(MockServerHttpRequest.get(PRODUITS).ifNoneMatch(ETAG));
+        filter(revalidation);
+
+        assertThat(revalidation.getResponse().getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(revalidation.getResponse().getBodyAsString().block()).isEmpty();
+        assertThat(upstream).hasSize(1);
+    }
+
+    @Test
+    void answersAStaleRevalidationWithTheCachedBody() {
+        get(PRODUITS);
+
+        MockServerWebExchange revalidation = exchange(MockServerHttpRequest.get(PRODUITS).ifNoneMatch("\"1-1600000000000\""));
+        filter(revalidation);
+
+        assertThat(revalidation.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(revalidation.getResponse().getBodyAsString().block()).isEqualTo(body);
+    }
+
+    @Test
+    void fillsTheCacheWithAFullResponseOnARevalidationMiss() {
+        MockServerWebExchange revalidation = exchange(MockServerHttpRequest.get(PRODUITS).ifNoneMatch(ETAG));
+        filter(revalidation);
+
+        assertThat(upstream.get(0).getRequest().getHeaders().getIfNoneMatch()).isEmpty();
+        assertThat(get(PRODUITS).getResponse().getHeaders().getFirst("X-Cache")).isEqualTo("HIT");
+    }
+
+    @Test
+    void neverServesPathsThatNeedAuthorizationFromTheCache() {
+        for (int i = 0; i < 2; i++) {
+            MockServerWebExchange exchange = exchange(MockServerHttpRequest.get("/api/homme/users/1")
+                    .header(HttpHeaders.AUTHORIZATION, "Bearer token"));
+            filter(exchange);
+            assertThat(exchange.getResponse().getHeaders().containsKey("X-Cache")).isFalse();
+        }
+
+        assertThat(upstream).hasSize(2);
+    }
+
+    @Test
+    void storesTheResponseToAnAuthorizedReadOnlyWhenExplicitlyShared() {
+        cacheControl = "max-age=60";
+        authorizedGet();
+        authorizedGet();
+        assertThat(upstream).hasSize(2);
+
+        cacheControl = "public, max-age=60";
+        authorizedGet();
+        authorizedGet();
+        assertThat(upstream).hasSize(3);
+    }
+
+    private void authorizedGet() {
+        filter(exchange(MockServerHttpRequest.get(PRODUITS + "/categorie/Vestes")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer token")));
+    }
+
+    private MockServerWebExchange get(String path) {
+        MockServerWebExchange exchange = exchange(MockServerHttpRequest.get(path));
+        filter(exchange);
+        return exchange;
+    }
+
+    private void send(HttpMethod method, String path) {
+        filter(exchange(MockServerHttpRequest.method(method, path).contentType(MediaType.APPLICATION_JSON)));
+    }
+
+    private MockServerWebExchange exchange(MockServerHttpRequest.BaseBuilder<?> request) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, Route.async()
+                .id("homme-service")
+                .uri("http://localhost:8081")
+                .predicate(any -> true)
+                .build());
+        return exchange;
+    }
+
+    private void filter(MockServerWebExchange exchange) {
+        GatewayFilter filter = new ResponseCacheFilter(cache).apply(new ResponseCacheFilter.Config());
+        filter.filter(exchange, service()).block();
+    }
+
+    private GatewayFilterChain service() {
+        return exchange -> {
+            upstream.add(exchange);
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(status);
+            response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            response.getHeaders().setCacheControl(cacheControl);
+            response.getHeaders().setETag(ETAG);
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            int half = bytes.length / 2;
+            // In two chunks, as a proxied body arrives
+            return response.writeWith(Flux.just(
+                    response.bufferFactory().wrap(Arrays.copyOfRange(bytes, 0, half)),
+                    response.bufferFactory().wrap(Arrays.copyOfRange(bytes, half, bytes.length))));
+        };
+    }
+}
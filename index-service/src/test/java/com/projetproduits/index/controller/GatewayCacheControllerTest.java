@@ -0,0 +1,64 @@
+package com.projetproduits.index.controller;
+
+import com.projetproduits.index.config.GatewayResponseCache;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GatewayCacheControllerTest {
+
+    private static final String KEY = "homme-service /api/homme/produits";
+
+    private final GatewayResponseCache cache = new GatewayResponseCache(Duration.ofSeconds(30), DataSize.ofMegabytes(1), DataSize.ofKilobytes(64));
+
+    @Test
+    void purgesTheRouteWithTheToken() {
+        store();
+
+        client("secret").post().uri("/internal/cache/purge/homme-service")
+                .header(GatewayCacheController.TOKEN_HEADER, "secret")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.success").isEqualTo(true);
+
+        assertThat(cache.get(KEY)).isNull();
+    }
+
+    @Test
+    void refusesAWrongOrMissingToken() {
+        store();
+
+        client("secret").post().uri("/internal/cache/purge/homme-service")
+                .header(GatewayCacheController.TOKEN_HEADER, "guess")
+                .exchange()
+                .expectStatus().isForbidden();
+        client("secret").post().uri("/internal/cache/purge/homme-service")
+                .exchange()
+                .expectStatus().isForbidden();
+
+        assertThat(cache.get(KEY)).isNotNull();
+    }
+
+    @Test
+    void refusesEveryPurgeWithoutAConfiguredToken() {
+        client("").post().uri("/internal/cache/purge/homme-service")
+                .header(GatewayCacheController.TOKEN_HEADER, "")
+                .exchange()
+                .expectStatus().isForbidden();
+    }
+
+    private WebTestClient client(String token) {
+        return WebTestClient.bindToController(new GatewayCacheController(cache, token)).build();
+    }
+
+    private void store() {
+        cache.put(KEY, cache.generation(), HttpStatus.OK, new HttpHeaders(), ByteBuffer.allocateDirect(10), null);
+    }
+}
@@ -0,0 +1,157 @@
+package com.projetproduits.index.repository;
+
+import com.projetproduits.index.PostgresTestDatabase;
+import com.projetproduits.index.service.RefreshTokenReaper;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.r2dbc.DataR2dbcTest;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Rotates and reaps refresh tokens on PostgreSQL: rotate() is a single CTE statement whose DELETE of the
+ * presented token is what makes a token usable once, which only the database itself can show.
+ */
+@DataR2dbcTest
+class RefreshTokenRepositoryTest {
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    private final LocalDateTime now = LocalDateTime.now().withNano(0);
+    private Long alice;
+    private Long bob;
+
+    @BeforeAll
+    static void requireDatabase() {
+        PostgresTestDatabase.assumeAvailable();
+    }
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        registry.add("spring.r2dbc.url", () -> PostgresTestDatabase.create("refresh_tokens_index"));
+        registry.add("spring.r2dbc.username", PostgresTestDatabase::username);
+        registry.add("spring.r2dbc.password", PostgresTestDatabase::password);
+    }
+
+    @BeforeEach
+    void users() {
+        databaseClient.sql("TRUNCATE users, refresh_tokens RESTART IDENTITY").then().block();
+        alice = user("alice");
+        bob = user("bob");
+    }
+
+    @Test
+    void rotatesAValidTokenAndRevokesTheUsersOthers() {
+        token(alice, "valid", now.plusDays(1));
+        token(alice, "other-device", now.plusDays(1));
+        token(bob, "bob", now.plusDays(1));
+
+        RefreshTokenRepositoryCustom.Rotation rotation =
+                refreshTokenRepository.rotate("valid", "rotated", now.plusDays(7), now).block();
+
+        assertThat(rotation.expired()).isFalse();
+        assertThat(rotation.user().getId()).isEqualTo(alice);
+        assertThat(rotation.user().getUsername()).isEqualTo("alice");
+        assertThat(tokens(alice)).containsExactly("rotated");
+        assertThat(tokens(bob)).containsExactly("bob");
+    }
+
+    @Test
+    void consumesAnExpiredTokenWithoutIssuingAnother() {
+        token(alice, "expired", now.minusMinutes(1));
+        token(alice, "other-device", now.plusDays(1));
+
+        RefreshTokenRepositoryCustom.Rotation rotation =
+                refreshTokenRepository.rotate("expired", "rotated", now.plusDays(7), now).block();
+
+        assertThat(rotation.expired()).isTrue();
+        assertThat(rotation.user().getId()).isEqualTo(alice);
+        assertThat(tokens(alice)).containsExactly("other-device");
+    }
+
+    @Test
+    void findsNothingForAnUnknownToken() {
+        token(alice, "valid", now.plusDays(1));
+
+        assertThat(refreshTokenRepository.rotate("unknown", "rotated", now.plusDays(7), now).blockOptional()).isEmpty();
+        assertThat(tokens(alice)).containsExactly("valid");
+    }
+
+    @Test
+    void rotatesATokenPresentedConcurrentlyOnlyOnce() {
+        token(alice, "valid", now.plusDays(1));
+
+        List<Optional<String>> issued = Flux.range(0, 8)
+                .flatMap(i -> refreshTokenRepository.rotate("valid", "rotated-" + i, now.plusDays(7), now)
+                        .map(rotation -> Optional.of("rotated-" + i))
+                        .defaultIfEmpty(Optional.empty()), 8)
+                .collectList()
+                .block();
+
+        List<String> winners = issued.stream().flatMap(Optional::stream).toList();
+        assertThat(winners).hasSize(1);
+        assertThat(tokens(alice)).containsExactlyElementsOf(winners);
+    }
+
+    @Test
+    void reapsExpiredTokensInBatches() {
+        databaseClient.sql("""
+                        INSERT INTO refresh_tokens (user_id, token, expiry_date)
+                        SELECT :userId, 'expired-' || n, :expiry FROM generate_series(1, 2500) n
+                        """)
+                .bind("userId", bob)
+                .bind("expiry", now.minusHours(1))
+                .then()
+                .block();
+        token(alice, "valid", now.plusDays(1));
+        token(bob, "bob", now.plusDays(1));
+
+        assertThat(refreshTokenRepository.deleteExpired(now, 1000).block()).isEqualTo(1000);
+        new RefreshTokenReaper(refreshTokenRepository, 1000).reap().block();
+
+        assertThat(tokens(alice)).containsExactly("valid");
+        assertThat(tokens(bob)).containsExactly("bob");
+    }
+
+    private Long user(String username) {
+        return databaseClient.sql("INSERT INTO users (username, email, password) VALUES (:username, :email, 'hash') RETURNING id")
+                .bind("username", username)
+                .bind("email", username + "@example.com")
+                .map(row -> row.get("id", Long.class))
+                .one()
+                .block();
+    }
+
+    private void token(Long userId, String token, LocalDateTime expiryDate) {
+        databaseClient.sql("INSERT INTO refresh_tokens (user_id, token, expiry_date) VALUES (:userId, :token, :expiryDate)")
+                .bind("userId", userId)
+                .bind("token", token)
+                .bind("expiryDate", expiryDate)
+                .then()
+                .block();
+    }
+
+    private List<String> tokens(Long userId) {
+        return databaseClient.sql("SELECT token FROM refresh_tokens WHERE user_id = :userId ORDER BY token")
+                .bind("userId", userId)
+                .map(row -> row.get("token", String.class))
+                .all()
+                .collectList()
+                .block();
+    }
+}
@@ -0,0 +1,96 @@
+package com.projetproduits.index.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtTokenProviderTest {
+
+    private static final String SECRET = "mySecretKeyForJWTTokenGenerationAndValidation2024ProjetProduitsMicroservices";
+    private static final String OTHER_SECRET = "anotherSecretKeyForJWTTokenGenerationAndValidation2024ProjetProduitsTests";
+
+    private final JwtTokenProvider provider = new JwtTokenProvider(SECRET, 3_600_000L, 1000);
+
+    @Test
+    void verifiesAValidToken() {
+        String token = provider.generateToken("alice", "USER");
+
+        Claims claims = provider.verify(token);
+
+        assertThat(claims.getSubject()).isEqualTo("alice");
+        assertThat(JwtTokenProvider.role(claims)).isEqualTo("USER");
+        assertThat(provider.extractUsername(token)).isEqualTo("alice");
+        assertThat(provider.extractRole(token)).isEqualTo("USER");
+    }
+
+    @Test
+    void servesTheSameTokenAgainFromTheCache() {
+        String token = provider.generateToken("alice", "USER");
+
+        Claims first = provider.verify(token);
+
+        // Parsing builds new claims every time: the same instance can only come from the cache
+        assertThat(provider.verify(token)).isSameAs(first);
+        assertThat(provider.verify(provider.generateToken("bob", "ADMIN"))).isNotSameAs(first);
+    }
+
+    @Test
+    void neverCachesATokenThatFailsVerification() {
+        String token = provider.generateToken("alice", "USER");
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+        String foreign = new JwtTokenProvider(OTHER_SECRET, 3_600_000L, 1000).generateToken("alice", "ADMIN");
+
+        assertThat(provider.verify(tampered)).isNull();
+        assertThat(provider.verify(tampered)).isNull();
+        assertThat(provider.verify(foreign)).isNull();
+        assertThat(provider.verify(foreign)).isNull();
+        assertThat(provider.verify("not-a-token")).isNull();
+        assertThat(provider.validateToken(tampered)).isFalse();
+        // The valid token still verifies, and its cache entry is its own
+        assertThat(provider.verify(token).getSubject()).isEqualTo("alice");
+    }
+
+    @Test
+    void rejectsAnExpiredToken() {
+        String expired = Jwts.builder()
+                .subject("alice")
+                .claim("role", "USER")
+                .expiration(new Date(System.currentTimeMillis() - 1000))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)))
+                .compact();
+
+        assertThat(provider.verify(expired)).isNull();
+    }
+
+    @Test
+    void dropsACachedTokenAtItsExpiration() throws InterruptedException {
+        JwtTokenProvider shortLived = new JwtTokenProvider(SECRET, 3000L, 1000);
+        String token = shortLived.generateToken("alice", "USER");
+        Claims claims = shortLived.verify(token);
+        assertThat(shortLived.verify(token)).isSameAs(claims);
+
+        // exp is in whole seconds, at most three seconds away
+        Thread.sleep(claims.getExpiration().getTime() - System.currentTimeMillis() + 100);
+
+        assertThat(shortLived.verify(token)).isNull();
+    }
+
+    @Test
+    void verifiesTokensWithoutExpirationEveryTime() {
+        String token = Jwts.builder()
+                .subject("alice")
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)))
+                .compact();
+
+        Claims first = provider.verify(token);
+
+        assertThat(first.getSubject()).isEqualTo("alice");
+        assertThat(provider.verify(token)).isNotSameAs(first);
+    }
+}
@@ -0,0 +1,120 @@
+package com.projetproduits.index.security;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.ByteBufFlux;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.resources.LoopResources;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Sends a burst of logins to a server with a single event-loop thread, as the gateway's loop serves both
+ * its logins and the requests it proxies, and times a light request sent meanwhile on the same loop.
+ * With the hashes on PasswordHasher its latency stays flat; with BCrypt run on the loop, it waits for the burst.
+ * The bounds are wall-clock times, so it only runs on demand: mvn test -Pload.
+ */
+@Tag("load")
+class PasswordHasherLoadTest {
+
+    private static final int LOGINS = 30;
+    private static final int PINGS = 20;
+
+    private final BCryptPasswordEncoder encoder = new BCryptPasswordEncoder();
+    private final String hash = encoder.encode("secret");
+    private final PasswordHasher hasher = new PasswordHasher(encoder, 1, LOGINS);
+    private final LoopResources serverLoop = LoopResources.create("load-server", 1, 1, true);
+    private final LoopResources clientLoop = LoopResources.create("load-client", 1, 2, true);
+    private final HttpClient client = HttpClient.create(ConnectionProvider.create("load", LOGINS + 1))
+            .runOn(clientLoop);
+
+    @AfterEach
+    void shutdown() {
+        hasher.shutdown();
+        serverLoop.disposeLater().block(Duration.ofSeconds(5));
+        clientLoop.disposeLater().block(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void keepsOtherRequestsFastDuringALoginBurst() {
+        long hashMillis = timeOneHash();
+
+        List<Long> offLoop = pingsDuringBurst(password -> hasher.matches(password, hash));
+        List<Long> onLoop = pingsDuringBurst(password -> Mono.fromCallable(() -> encoder.matches(password, hash)));
+
+        // A hash takes tens of milliseconds; a ping waits for none of them, only for its share of the CPU
+        assertThat(percentile(offLoop, 50)).isLessThan(hashMillis);
+        assertThat(percentile(offLoop, 100)).isLessThan(3 * hashMillis);
+        // On the loop, the first ping of the burst waits for most of its hashes
+        assertThat(percentile(onLoop, 100)).isGreaterThan(LOGINS / 2 * hashMillis);
+    }
+
+    private List<Long> pingsDuringBurst(Function<String, Mono<Boolean>> matches) {
+        DisposableServer server = HttpServer.create()
+                .host("localhost")
+                .port(0)
+                .runOn(serverLoop)
+                .route(routes -> routes
+                        .post("/login", (request, response) -> response.sendString(request.receive().aggregate()
+                                .asString()
+                                .flatMap(matches)
+                                .map(String::valueOf)))
+                        .get("/ping", (request, response) -> response.sendString(Mono.just("pong"))))
+                .bindNow();
+        try {
+            HttpClient target = client.port(server.port()).host("localhost");
+            ping(target);
+
+            Mono<List<String>> burst = Flux.range(0, LOGINS)
+                    .flatMap(i -> target.post().uri("/login")
+                            .send(ByteBufFlux.fromString(Mono.just("secret")))
+                            .responseContent().aggregate().asString(), LOGINS)
+                    .collectList()
+                    .cache();
+            burst.subscribe();
+
+            List<Long> latencies = new ArrayList<>(PINGS);
+            for (int i = 0; i < PINGS; i++) {
+                latencies.add(ping(target));
+            }
+            assertThat(burst.block(Duration.ofSeconds(60))).hasSize(LOGINS).containsOnly("true");
+            return latencies;
+        } finally {
+            server.disposeNow();
+        }
+    }
+
+    private static long ping(HttpClient target) {
+        long start = System.nanoTime();
+        String body = target.get().uri("/ping").responseContent().aggregate().asString().block(Duration.ofSeconds(60));
+        assertThat(body).isEqualTo("pong");
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    private long timeOneHash() {
+        encoder.matches("secret", hash);
+        long start = System.nanoTime();
+        encoder.matches("secret", hash);
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    private static long percentile(List<Long> latencies, int percent) {
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        return sorted.get(Math.min(sorted.size() * percent / 100, sorted.size() - 1));
+    }
+}
@@ -0,0 +1,132 @@
+package com.projetproduits.index.security;
+
+import com.projetproduits.index.exception.ServiceUnavailableException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import reactor.core.Disposable;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PasswordHasherTest {
+
+    private final BlockingEncoder encoder = new BlockingEncoder();
+    private final PasswordHasher hasher = new PasswordHasher(encoder, 1, 1);
+
+    @AfterEach
+    void shutdown() {
+        encoder.release.countDown();
+        hasher.shutdown();
+    }
+
+    @Test
+    void keepsTheSlotOfACancelledHashUntilItFinishes() throws InterruptedException {
+        Disposable login = hasher.matches("secret", "hash").subscribe();
+        assertThat(encoder.started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        login.dispose();
+
+        // BCrypt is still running on the only thread
+        assertThat(hasher.getStats().getInFlight()).isEqualTo(1);
+        encoder.release.countDown();
+        awaitInFlight(0);
+        assertThat(hasher.getStats().getCompleted()).isEqualTo(1);
+    }
+
+    @Test
+    void releasesTheSlotOfAQueuedHashAtOnce() throws InterruptedException {
+        Disposable running = hasher.matches("secret", "hash").subscribe();
+        assertThat(encoder.started.await(5, TimeUnit.SECONDS)).isTrue();
+        Disposable queued = hasher.matches("secret", "hash").subscribe();
+        assertThat(hasher.getStats().getQueued()).isEqualTo(1);
+
+        queued.dispose();
+
+        assertThat(hasher.getStats().getInFlight()).isEqualTo(1);
+        encoder.release.countDown();
+        awaitInFlight(0);
+        // The cancelled hash is skipped rather than run for nobody
+        assertThat(encoder.calls).hasValue(1);
+        running.dispose();
+    }
+
+    @Test
+    void rejectsBeyondTheQueueCapacity() throws InterruptedException {
+        hasher.matches("secret", "hash").subscribe();
+        assertThat(encoder.started.await(5, TimeUnit.SECONDS)).isTrue();
+        hasher.matches("secret", "hash").subscribe();
+
+        StepVerifier.create(hasher.matches("secret", "hash"))
+                .expectError(ServiceUnavailableException.class)
+                .verify(Duration.ofSeconds(5));
+
+        assertThat(hasher.getStats().getRejected()).isEqualTo(1);
+        assertThat(hasher.getStats().getInFlight()).isEqualTo(2);
+    }
+
+    @Test
+    void reportsASchedulerRejectionAsUnavailable() {
+        // A disposed scheduler rejects every task, as a saturated one would
+        hasher.shutdown();
+
+        StepVerifier.create(hasher.matches("secret", "hash"))
+                .expectError(ServiceUnavailableException.class)
+                .verify(Duration.ofSeconds(5));
+
+        assertThat(hasher.getStats().getRejected()).isEqualTo(1);
+        assertThat(hasher.getStats().getInFlight()).isZero();
+    }
+
+    private void awaitInFlight(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (hasher.getStats().getInFlight() != expected && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(hasher.getStats().getInFlight()).isEqualTo(expected);
+    }
+
+    /**
+     * Blocks every hash until released, standing for a BCrypt call: interrupting the thread does not stop it.
+     */
+    private static class BlockingEncoder implements PasswordEncoder {
+
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            return block() ? "hash" : null;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return block();
+        }
+
+        private boolean block() {
+            calls.incrementAndGet();
+            started.countDown();
+            boolean interrupted = false;
+            try {
+                while (true) {
+                    try {
+                        return release.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+            } finally {
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package com.projetproduits.index.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.projetproduits.index.PostgresTestDatabase;
+import com.projetproduits.index.entity.Genre;
+import com.projetproduits.index.entity.UserSyncOutbox;
+import com.projetproduits.index.repository.UserSyncOutboxRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.r2dbc.DataR2dbcTest;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the relay against user_sync_outbox on PostgreSQL and a stub of the homme and femme services, which
+ * answers PUT /users/batch like UserHommeController does, or with the status a test sets (400 for a batch
+ * holding a refused email).
+ */
+@DataR2dbcTest
+class UserSyncRelayTest {
+
+    private static final int MAX_REJECTIONS = 3;
+
+    @Autowired
+    private UserSyncOutboxRepository outboxRepository;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<String> requests = new CopyOnWriteArrayList<>();
+    private final Set<String> invalidEmails = ConcurrentHashMap.newKeySet();
+    private final Set<String> refusedEmails = ConcurrentHashMap.newKeySet();
+    private volatile int status = 200;
+    private DisposableServer server;
+    private UserSyncRelay relay;
+
+    @BeforeAll
+    static void requireDatabase() {
+        PostgresTestDatabase.assumeAvailable();
+    }
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        registry.add("spring.r2dbc.url", () -> PostgresTestDatabase.create("user_sync_relay_index"));
+        registry.add("spring.r2dbc.username", PostgresTestDatabase::username);
+        registry.add("spring.r2dbc.password", PostgresTestDatabase::password);
+    }
+
+    @BeforeEach
+    void relay() {
+        databaseClient.sql("TRUNCATE user_sync_outbox RESTART IDENTITY").then().block();
+        server = HttpServer.create()
+                .host("localhost")
+                .port(0)
+                .route(routes -> routes.put("/{genre}/users/batch", (request, response) -> request.receive()
+                        .aggregate()
+                        .asString()
+                        .flatMap(body -> {
+                            requests.add(request.param("genre"));
+                            int code = refusedEmails.stream().anyMatch(body::contains) ? 400 : status;
+                            return response.status(code)
+                                    .header("Content-Type", "application/json")
+                                    .sendString(Mono.just(code == 200 ? batchResult(body) : "{\"success\":false}"))
+                                    .then();
+                        })))
+                .bindNow();
+        String url = "http://localhost:" + server.port();
+        UserSyncService userSyncService = new UserSyncService(
+                WebClient.create(url + "/homme"), WebClient.create(url + "/femme"));
+        relay = new UserSyncRelay(outboxRepository, userSyncService, 100, Duration.ofSeconds(5),
+                Duration.ofMinutes(1), Duration.ofHours(1), MAX_REJECTIONS);
+    }
+
+    @AfterEach
+    void stop() {
+        server.disposeNow();
+    }
+
+    @Test
+    void deliversDueUsersInOneRequestPerGenreAndDeletesThem() {
+        outbox(Genre.HOMME, 3);
+        outbox(Genre.FEMME, 2);
+        Long later = outbox("later@example.com", Genre.HOMME, LocalDateTime.now().plusHours(1));
+
+        relay.relay().block();
+
+        assertThat(requests).containsExactlyInAnyOrder("homme", "femme");
+        assertThat(outboxRepository.findAll().map(UserSyncOutbox::getId).collectList().block()).containsExactly(later);
+    }
+
+    @Test
+    void sendsABacklogInBatchesUntilNoneIsLeft() {
+        outbox(Genre.HOMME, 250);
+
+        relay.relay().block();
+
+        assertThat(requests).containsExactly("homme", "homme", "homme");
+        assertThat(outboxRepository.count().block()).isZero();
+    }
+
+    @Test
+    void deadLettersAUserRejectedMaxRejectionsTimes() {
+        outbox(Genre.HOMME, 2);
+        Long invalid = outbox("invalid@example.com", Genre.HOMME, LocalDateTime.now());
+        invalidEmails.add("invalid@example.com");
+
+        for (int run = 1; run <= MAX_REJECTIONS; run++) {
+            relay.relay().block();
+
+            UserSyncOutbox row = outboxRepository.findById(invalid).block();
+            assertThat(row.getRejections()).isEqualTo(run);
+            assertThat(row.getLastError()).isEqualTo("Rejected by the homme service");
+            assertThat(row.getDeadLetteredAt() != null).isEqualTo(run == MAX_REJECTIONS);
+            makeDue();
+        }
+        requests.clear();
+
+        relay.relay().block();
+
+        assertThat(requests).isEmpty();
+        assertThat(outboxRepository.findAll().map(UserSyncOutbox::getId).collectList().block()).containsExactly(invalid);
+    }
+
+    @Test
+    void deadLettersOnlyTheUsersOfARefusedBatchThatAreRefusedAlone() {
+        List<Long> ids = outbox(Genre.FEMME, 8);
+        Long refused = ids.get(5);
+        refusedEmails.add("femme5@example.com");
+
+        for (int run = 0; run < MAX_REJECTIONS; run++) {
+            relay.relay().block();
+            makeDue();
+        }
+
+        // First run: the 8 refused, the 4 without it delivered and the 4 with it refused, then 2 + 2 and 1 + 1;
+        // later runs send the refused user alone
+        assertThat(requests).hasSize(7 + MAX_REJECTIONS - 1);
+        UserSyncOutbox row = outboxRepository.findById(refused).block();
+        assertThat(row.getRejections()).isEqualTo(MAX_REJECTIONS);
+        assertThat(row.getDeadLetteredAt()).isNotNull();
+        assertThat(row.getLastError()).contains("400");
+        assertThat(outboxRepository.findAll().map(UserSyncOutbox::getId).collectList().block()).containsExactly(refused);
+    }
+
+    @Test
+    void deadLettersEveryUserOfABatchTheServiceRefusesWhole() {
+        List<Long> ids = outbox(Genre.FEMME, 2);
+        status = 400;
+
+        for (int run = 0; run < MAX_REJECTIONS; run++) {
+            relay.relay().block();
+            makeDue();
+        }
+
+        assertThat(outboxRepository.findAllById(ids).collectList().block())
+                .allSatisfy(row -> {
+                    assertThat(row.getRejections()).isEqualTo(MAX_REJECTIONS);
+                    assertThat(row.getDeadLetteredAt()).isNotNull();
+                    assertThat(row.getLastError()).contains("400");
+                });
+    }
+
+    @Test
+    void retriesAnUnavailableServiceWithoutLimit() {
+        List<Long> ids = outbox(Genre.HOMME, 2);
+
+        for (int code : new int[]{503, 500, 429, 408, 502}) {
+            status = code;
+            relay.relay().block();
+            makeDue();
+        }
+        server.disposeNow();
+        relay.relay().block();
+
+        List<UserSyncOutbox> rows = outboxRepository.findAllById(ids).collectList().block();
+        assertThat(rows).allSatisfy(row -> {
+            assertThat(row.getAttempts()).isEqualTo(6);
+            assertThat(row.getRejections()).isZero();
+            assertThat(row.getDeadLetteredAt()).isNull();
+            // Backed off: 1 min doubled per attempt
+            assertThat(row.getNextAttemptAt()).isAfter(LocalDateTime.now().plusMinutes(30));
+        });
+    }
+
+    @Test
+    void claimsEachDueRowOnceAcrossConcurrentRelays() {
+        outbox(Genre.HOMME, 500);
+        LocalDateTime now = LocalDateTime.now();
+
+        List<Long> claimed = Flux.merge(
+                        outboxRepository.claimDue(now, now.plusMinutes(1), 300),
+                        outboxRepository.claimDue(now, now.plusMinutes(1), 300))
+                .map(UserSyncOutbox::getId)
+                .collectList()
+                .block();
+
+        assertThat(claimed).hasSize(500).doesNotHaveDuplicates();
+        assertThat(outboxRepository.claimDue(now, now.plusMinutes(1), 300).collectList().block()).isEmpty();
+    }
+
+    private String batchResult(String body) {
+        try {
+            JsonNode users = objectMapper.readTree(body);
+            ObjectNode result = objectMapper.createObjectNode();
+            ArrayNode items = result.putObject("data").putArray("items");
+            for (int i = 0; i < users.size(); i++) {
+                boolean invalid = invalidEmails.contains(users.get(i).path("email").asText());
+                items.addObject().put("index", i).put("status", invalid ? "INVALID" : "CREATED");
+            }
+            return objectMapper.writeValueAsString(result.put("success", true));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void makeDue() {
+        databaseClient.sql("UPDATE user_sync_outbox SET next_attempt_at = :now")
+                .bind("now", LocalDateTime.now().minusSeconds(1))
+                .then()
+                .block();
+    }
+
+    private List<Long> outbox(Genre genre, int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> outbox(genre.name().toLowerCase() + i + "@example.com", genre, LocalDateTime.now()))
+                .toList();
+    }
+
+    private Long outbox(String email, Genre genre, LocalDateTime nextAttemptAt) {
+        return outboxRepository.save(UserSyncOutbox.builder()
+                        .username(email.substring(0, email.indexOf('@')))
+                        .email(email)
+                        .genre(genre)
+                        .attempts(0)
+                        .rejections(0)
+                        .nextAttemptAt(nextAttemptAt)
+                        .createdAt(LocalDateTime.now())
+                        .build())
+                .map(UserSyncOutbox::getId)
+                .block();
+    }
+}
@@ -0,0 +1,74 @@
+"""Reader for the columnar interaction export of homme-service / femme-service.
+
+GET /api/{homme,femme}/interactions/training-data
+    Accept: application/vnd.projetproduits.interactions+columns
+    ?sinceId=<last id>  or  ?since=<ISO date-time>   (optional, incremental export)
+    ?deflate=true                                     (optional, compressed row groups)
+
+Uncompressed files can be memory-mapped: every column is read as a numpy view, without copying.
+"""
+import struct
+import zlib
+
+import numpy as np
+import pandas as pd
+
+MAGIC = b'PPIC'
+FLAG_DEFLATE = 1
+
+
+def _align(offset):
+    return (offset + 7) & ~7
+
+
+def read_interactions(source):
+    """Returns a DataFrame (id, user_id, produit_id, type_interaction, timestamp) from a path or bytes."""
+    buf = np.memmap(source, dtype=np.uint8, mode='r') if isinstance(source, str) else np.frombuffer(source, np.uint8)
+    data = memoryview(buf)
+    if bytes(data[:4]) != MAGIC:
+        raise ValueError('Not an interaction columns export')
+    version, flags, _, type_count = struct.unpack_from('<HHIH', data, 4)
+    if version != 1:
+        raise ValueError(f'Unsupported version {version}')
+    offset = 14
+    types = []
+    for _ in range(type_count):
+        length = data[offset]
+        types.append(bytes(data[offset + 1:offset + 1 + length]).decode('utf-8'))
+        offset += 1 + length
+    offset = _align(offset)
+
+    groups = []
+    while True:
+        rows, length = struct.unpack_from('<II', data, offset)
+        offset += 8
+        if rows == 0:
+            break
+        payload = data[offset:offset + length]
+        if flags & FLAG_DEFLATE:
+            payload = memoryview(zlib.decompress(payload))
+        offset = _align(offset + length)
+
+        first_ts = struct.unpack_from('<q', payload, 0)[0]
+        pos = 8
+        columns = []
+        for _ in range(3):
+            columns.append(np.frombuffer(payload, '<i8', rows, pos))
+            pos += rows * 8
+        deltas = np.frombuffer(payload, '<i4', rows, pos)
+        pos += rows * 4
+        codes = np.frombuffer(payload, np.uint8, rows, pos)
+        timestamps = first_ts + np.cumsum(deltas, dtype=np.int64)
+        groups.append((*columns, codes, timestamps))
+
+    if not groups:
+        return pd.DataFrame(columns=['id', 'user_id', 'produit_id', 'type_interaction', 'timestamp'])
+    ids, user_ids, produit_ids, codes, timestamps = (np.concatenate(parts) for parts in zip(*groups))
+    return pd.DataFrame({
+        'id': ids,
+        'user_id': user_ids,
+        'produit_id': produit_ids,
+        'type_interaction': pd.Categorical.from_codes(codes, categories=types),
+        # Stored local date-times, exported as if they were UTC
+        'timestamp': pd.to_datetime(timestamps, unit='ms'),
+    })